@@ -4,22 +4,29 @@ import type { MediaAsset } from '../services/lists'
 import ImageUploader from './ImageUploader'
 import LoadingSpinner from './LoadingSpinner'
 
+const PAGE_SIZE = 48
+
 export default function AdminMediaTab() {
   const [media, setMedia] = useState<MediaAsset[]>([])
+  const [nextCursor, setNextCursor] = useState<string | null>(null)
+  const [unusedOnly, setUnusedOnly] = useState(false)
   const [loading, setLoading] = useState(true)
+  const [loadingMore, setLoadingMore] = useState(false)
   const [error, setError] = useState('')
   const [showUploader, setShowUploader] = useState(false)
   const [deletingId, setDeletingId] = useState<number | null>(null)
+  const [batchUploading, setBatchUploading] = useState(false)
 
   useEffect(() => {
     fetchMedia()
-  }, [])
+  }, [unusedOnly])
 
   const fetchMedia = async () => {
     try {
       setLoading(true)
-      const data = await adminApi.getAllMedia()
-      setMedia(data)
+      const page = await adminApi.getMediaPage({ size: PAGE_SIZE, unused: unusedOnly })
+      setMedia(page.content)
+      setNextCursor(page.nextCursor)
     } catch (err) {
       console.error('Error fetching media:', err)
       setError('An error occurred while fetching media')
@@ -28,6 +35,21 @@ export default function AdminMediaTab() {
     }
   }
 
+  const loadMore = async () => {
+    if (!nextCursor) return
+    try {
+      setLoadingMore(true)
+      const page = await adminApi.getMediaPage({ size: PAGE_SIZE, cursor: nextCursor, unused: unusedOnly })
+      setMedia([...media, ...page.content])
+      setNextCursor(page.nextCursor)
+    } catch (err) {
+      console.error('Error fetching media:', err)
+      alert('Failed to load more media')
+    } finally {
+      setLoadingMore(false)
+    }
+  }
+
   const handleUpload = async (file: File, altText: string) => {
     try {
       const uploaded = await adminApi.uploadMedia(file, altText)
@@ -39,6 +61,27 @@ export default function AdminMediaTab() {
     }
   }
 
+  const handleBatchUpload = async (fileList: FileList | null) => {
+    if (!fileList || fileList.length === 0) return
+    setBatchUploading(true)
+    try {
+      const results = await adminApi.uploadMediaBatch(Array.from(fileList))
+      const uploaded = results.flatMap(r => (r.media ? [r.media] : []))
+      setMedia([...uploaded, ...media])
+      const failed = results.filter(r => r.error)
+      if (failed.length > 0) {
+        alert('Some files were not uploaded:\n' + failed.map(r => `${r.filename}: ${r.error}`).join('\n'))
+      } else {
+        setShowUploader(false)
+      }
+    } catch (err) {
+      console.error('Error uploading media:', err)
+      alert('Upload failed. Please try again.')
+    } finally {
+      setBatchUploading(false)
+    }
+  }
+
   const handleDelete = async (id: number) => {
     if (!confirm('Are you sure you want to delete this media asset? This action cannot be undone.')) {
       return
@@ -74,6 +117,14 @@ export default function AdminMediaTab() {
     <div>
       <div className="flex justify-between items-center mb-6">
         <h2 className="text-2xl font-bold text-gray-900">Media Assets</h2>
+        <label className="flex items-center gap-2 text-sm text-gray-700 ml-auto mr-4">
+          <input
+            type="checkbox"
+            checked={unusedOnly}
+            onChange={e => setUnusedOnly(e.target.checked)}
+          />
+          Unused only
+        </label>
         <button
           onClick={() => setShowUploader(!showUploader)}
           className="btn btn-primary"
@@ -87,6 +138,17 @@ export default function AdminMediaTab() {
         <div className="bg-white rounded-lg shadow p-6 mb-6">
           <h3 className="text-lg font-semibold text-gray-900 mb-4">Upload New Image</h3>
           <ImageUploader onUpload={handleUpload} />
+          <div className="mt-6 pt-4 border-t border-gray-200">
+            <label className="label">Or upload several images at once</label>
+            <input
+              type="file"
+              accept="image/*"
+              multiple
+              disabled={batchUploading}
+              onChange={e => handleBatchUpload(e.target.files)}
+            />
+            {batchUploading && <p className="text-sm text-gray-500 mt-2">Uploading...</p>}
+          </div>
         </div>
       )}
 
@@ -166,11 +228,19 @@ export default function AdminMediaTab() {
         </div>
       )}
 
-      {/* Summary Stats */}
+      {nextCursor && (
+        <div className="text-center mt-6">
+          <button onClick={loadMore} disabled={loadingMore} className="btn btn-secondary">
+            {loadingMore ? 'Loading...' : 'Load More'}
+          </button>
+        </div>
+      )}
+
+      {/* Summary Stats (for the assets loaded so far) */}
       <div className="mt-6 bg-white rounded-lg shadow p-4">
         <div className="grid grid-cols-2 md:grid-cols-4 gap-4">
           <div>
-            <div className="text-sm text-gray-600">Total Assets</div>
+            <div className="text-sm text-gray-600">{nextCursor ? 'Loaded Assets' : 'Total Assets'}</div>
             <div className="text-2xl font-bold text-gray-900">{media.length}</div>
           </div>
           <div>
@@ -1,6 +1,6 @@
 import { useState, useEffect } from 'react'
 import { useNavigate } from 'react-router-dom'
-import { adminApi } from '../services/admin'
+import { adminApi, entryTag, isStaleEdit } from '../services/admin'
 import type { RankedEntry, Tag, MediaAsset } from '../services/lists'
 import type { CreateListRequest, UpdateListRequest, CreateEntryRequest } from '../services/admin'
 import EntryEditor from './EntryEditor'
@@ -25,6 +25,8 @@ export default function ListEditor({ listId, onSave, onCancel }: ListEditorProps
   const [coverImageId, setCoverImageId] = useState<number | undefined>()
   const [selectedTagIds, setSelectedTagIds] = useState<number[]>([])
   const [entries, setEntries] = useState<RankedEntry[]>([])
+  // ETag of the list as loaded, sent with the save so it cannot overwrite someone else's
+  const [etag, setEtag] = useState<string | undefined>()
   
   // Available options
   const [availableTags, setAvailableTags] = useState<Tag[]>([])
@@ -73,7 +75,8 @@ export default function ListEditor({ listId, onSave, onCancel }: ListEditorProps
       
       // Load existing list if editing
       if (listId) {
-        const list = await adminApi.getListById(listId)
+        const { item: list, etag: loadedEtag } = await adminApi.getListById(listId)
+        setEtag(loadedEtag)
         setTitle(list.title)
         setSubtitle(list.subtitle || '')
         setIntro(list.intro)
@@ -123,7 +126,7 @@ export default function ListEditor({ listId, onSave, onCancel }: ListEditorProps
       
       if (listId) {
         // Update existing list
-        await adminApi.updateList(listId, listData as UpdateListRequest)
+        await adminApi.updateList(listId, listData as UpdateListRequest, etag)
       } else {
         // Create new list
         const createdList = await adminApi.createList(listData as CreateListRequest)
@@ -159,14 +162,16 @@ export default function ListEditor({ listId, onSave, onCancel }: ListEditorProps
             funFact: entry.funFact,
             externalLink: entry.externalLink,
             heroImageId: entry.heroImage?.id
-          })
+          }, entryTag(entry))
         }
       }
       
       onSave()
     } catch (err) {
       console.error('Error saving list:', err)
-      alert('Failed to save list')
+      alert(isStaleEdit(err)
+        ? 'This list was changed by someone else since you opened it. Reload it to see their changes before saving again.'
+        : 'Failed to save list')
     } finally {
       setSaving(false)
     }
@@ -0,0 +1,115 @@
+import { useMemo } from 'react'
+import type { MediaAsset } from '../services/lists'
+
+interface MediaImageProps {
+  media: MediaAsset
+  alt: string
+  className?: string
+}
+
+const CHARACTERS = '0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz#$%*+,-.:;=?@[]^_{|}~'
+
+// Placeholders are decoded at this size and stretched; they are blurred anyway
+const PLACEHOLDER_SIZE = 32
+
+const decoded = new Map<string, string>()
+
+const decode83 = (digits: string) => {
+  let value = 0
+  for (const c of digits) {
+    value = value * 83 + CHARACTERS.indexOf(c)
+  }
+  return value
+}
+
+const toLinear = (value: number) => {
+  const v = value / 255
+  return v <= 0.04045 ? v / 12.92 : Math.pow((v + 0.055) / 1.055, 2.4)
+}
+
+const toSrgb = (value: number) => {
+  const v = Math.max(0, Math.min(1, value))
+  return v <= 0.0031308 ? Math.trunc(v * 12.92 * 255 + 0.5) : Math.trunc((1.055 * Math.pow(v, 1 / 2.4) - 0.055) * 255 + 0.5)
+}
+
+const signedSquare = (value: number) => Math.sign(value) * value * value
+
+/**
+ * Decode a BlurHash into a data URL, or null if it cannot be drawn.
+ */
+const blurhashToDataUrl = (hash: string): string | null => {
+  const cached = decoded.get(hash)
+  if (cached !== undefined) return cached
+
+  const sizeFlag = decode83(hash[0])
+  const componentsX = (sizeFlag % 9) + 1
+  const componentsY = Math.floor(sizeFlag / 9) + 1
+  if (hash.length !== 4 + 2 * componentsX * componentsY) return null
+
+  const maximumValue = (decode83(hash[1]) + 1) / 166
+  const colors: number[][] = []
+  const dc = decode83(hash.substring(2, 6))
+  colors.push([toLinear(dc >> 16), toLinear((dc >> 8) & 255), toLinear(dc & 255)])
+  for (let k = 1; k < componentsX * componentsY; k++) {
+    const ac = decode83(hash.substring(4 + k * 2, 6 + k * 2))
+    colors.push([
+      signedSquare((Math.floor(ac / (19 * 19)) - 9) / 9) * maximumValue,
+      signedSquare(((Math.floor(ac / 19) % 19) - 9) / 9) * maximumValue,
+      signedSquare(((ac % 19) - 9) / 9) * maximumValue,
+    ])
+  }
+
+  const canvas = document.createElement('canvas')
+  canvas.width = PLACEHOLDER_SIZE
+  canvas.height = PLACEHOLDER_SIZE
+  const context = canvas.getContext('2d')
+  if (!context) return null
+  const image = context.createImageData(PLACEHOLDER_SIZE, PLACEHOLDER_SIZE)
+  for (let y = 0; y < PLACEHOLDER_SIZE; y++) {
+    for (let x = 0; x < PLACEHOLDER_SIZE; x++) {
+      let r = 0
+      let g = 0
+      let b = 0
+      for (let j = 0; j < componentsY; j++) {
+        for (let i = 0; i < componentsX; i++) {
+          const basis = Math.cos((Math.PI * x * i) / PLACEHOLDER_SIZE) * Math.cos((Math.PI * y * j) / PLACEHOLDER_SIZE)
+          const color = colors[i + j * componentsX]
+          r += color[0] * basis
+          g += color[1] * basis
+          b += color[2] * basis
+        }
+      }
+      const p = 4 * (x + y * PLACEHOLDER_SIZE)
+      image.data[p] = toSrgb(r)
+      image.data[p + 1] = toSrgb(g)
+      image.data[p + 2] = toSrgb(b)
+      image.data[p + 3] = 255
+    }
+  }
+  context.putImageData(image, 0, 0)
+
+  const url = canvas.toDataURL()
+  decoded.set(hash, url)
+  return url
+}
+
+/**
+ * Media image that paints its BlurHash placeholder until the real image has loaded.
+ */
+export default function MediaImage({ media, alt, className = '' }: MediaImageProps) {
+  const placeholder = useMemo(
+    () => (media.placeholder ? blurhashToDataUrl(media.placeholder) : null),
+    [media.placeholder]
+  )
+
+  return (
+    <img
+      src={media.url}
+      alt={alt}
+      width={media.width}
+      height={media.height}
+      className={className}
+      style={placeholder ? { backgroundImage: `url(${placeholder})`, backgroundSize: 'cover' } : undefined}
+    />
+  )
+}
@@ -1,8 +1,7 @@
 import { useState, useEffect } from 'react'
 import { useNavigate } from 'react-router-dom'
-import { adminApi } from '../services/admin'
+import { adminApi, isStaleEdit } from '../services/admin'
 import type { Tag, MediaAsset } from '../services/lists'
-import type { BlogPostDetail } from '../services/posts'
 import type { CreatePostRequest, UpdatePostRequest } from '../services/admin'
 import MarkdownRenderer from './MarkdownRenderer'
 import LoadingSpinner from './LoadingSpinner'
@@ -26,6 +25,8 @@ export default function PostEditor({ postId, onSave, onCancel }: PostEditorProps
   const [coverImageId, setCoverImageId] = useState<number | undefined>()
   const [selectedTagIds, setSelectedTagIds] = useState<number[]>([])
   const [status, setStatus] = useState<'DRAFT' | 'PUBLISHED'>('DRAFT')
+  // Sent as If-Match when saving, as in ListEditor
+  const [etag, setEtag] = useState<string | undefined>()
   
   // Available options
   const [availableTags, setAvailableTags] = useState<Tag[]>([])
@@ -66,21 +67,14 @@ export default function PostEditor({ postId, onSave, onCancel }: PostEditorProps
       
       // Load existing post if editing
       if (postId) {
-        // First try to get from admin API, fallback to public API
-        try {
-          const response = await fetch(`/api/posts/${postId}`)
-          if (response.ok) {
-            const post: BlogPostDetail = await response.json()
-            setTitle(post.title)
-            setExcerpt(post.excerpt)
-            setBody(post.body)
-            setCoverImageId(post.coverImage?.id)
-            setSelectedTagIds(post.tags.map((t: Tag) => t.id))
-            setStatus(post.status)
-          }
-        } catch (err) {
-          console.error('Error loading post:', err)
-        }
+        const { item: post, etag: loadedEtag } = await adminApi.getPostById(postId)
+        setEtag(loadedEtag)
+        setTitle(post.title)
+        setExcerpt(post.excerpt)
+        setBody(post.body)
+        setCoverImageId(post.coverImage?.id)
+        setSelectedTagIds(post.tags.map((t: Tag) => t.id))
+        setStatus(post.status)
       }
     } catch (err) {
       console.error('Error loading data:', err)
@@ -124,7 +118,7 @@ export default function PostEditor({ postId, onSave, onCancel }: PostEditorProps
       
       if (postId) {
         // Update existing post
-        await adminApi.updatePost(postId, postData as UpdatePostRequest)
+        await adminApi.updatePost(postId, postData as UpdatePostRequest, etag)
       } else {
         // Create new post
         await adminApi.createPost(postData as CreatePostRequest)
@@ -133,7 +127,9 @@ export default function PostEditor({ postId, onSave, onCancel }: PostEditorProps
       onSave()
     } catch (err) {
       console.error('Error saving post:', err)
-      alert('Failed to save post')
+      alert(isStaleEdit(err)
+        ? 'This post was changed by someone else since you opened it. Reload it to see their changes before saving again.'
+        : 'Failed to save post')
     } finally {
       setSaving(false)
     }
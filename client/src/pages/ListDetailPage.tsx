@@ -4,6 +4,7 @@ import { listsApi, type RankedListDetail } from '../services/lists'
 import TagBadge from '../components/TagBadge'
 import MarkdownRenderer from '../components/MarkdownRenderer'
 import LoadingSpinner from '../components/LoadingSpinner'
+import MediaImage from '../components/MediaImage'
 
 export default function ListDetailPage() {
   const { slug } = useParams<{ slug: string }>()
@@ -126,8 +127,8 @@ export default function ListDetailPage() {
         {/* Header */}
         <div className="bg-white rounded-lg shadow-sm p-8 mb-8">
           {list.coverImage && (
-            <img
-              src={list.coverImage.url}
+            <MediaImage
+              media={list.coverImage}
               alt={list.coverImage.altText || list.title}
               className="w-full h-64 object-cover rounded-lg mb-6"
             />
@@ -188,8 +189,8 @@ export default function ListDetailPage() {
                   </h2>
                   
                   {entry.heroImage && (
-                    <img
-                      src={entry.heroImage.url}
+                    <MediaImage
+                      media={entry.heroImage}
                       alt={entry.heroImage.altText || entry.title}
                       className="w-full h-64 object-cover rounded-lg mb-4"
                     />
@@ -1,3 +1,4 @@
+import axios, { type AxiosResponse } from 'axios'
 import api from './api'
 import type { RankedListDetail, RankedEntry, MediaAsset } from './lists'
 import type { BlogPostDetail } from './posts'
@@ -14,6 +15,18 @@ export interface Suggestion {
   createdAt: string
 }
 
+export interface MediaPage {
+  content: MediaAsset[]
+  size: number
+  nextCursor: string | null
+}
+
+export interface MediaUploadResult {
+  filename: string
+  media: MediaAsset | null
+  error: string | null
+}
+
 export interface CreateListRequest {
   title: string
   subtitle?: string
@@ -69,11 +82,33 @@ export interface UpdateSuggestionStatusRequest {
   status: 'NEW' | 'REVIEWING' | 'ACCEPTED' | 'DECLINED'
 }
 
+// An item loaded for editing, with the ETag to send back as If-Match when saving it
+export interface Editable<T> {
+  item: T
+  etag?: string
+}
+
+// If-Match for an edit: fails with 412 instead of overwriting someone else's save
+const ifMatch = (etag?: string) => (etag ? { headers: { 'If-Match': etag } } : undefined)
+
+const editable = <T>(response: AxiosResponse<T>): Editable<T> => ({
+  item: response.data,
+  etag: response.headers.etag as string | undefined,
+})
+
+// The ETag of an entry, which the list detail carries as its version
+export const entryTag = (entry: RankedEntry) =>
+  entry.version !== undefined ? `"${entry.version}"` : undefined
+
+// Whether a save failed because the item was changed since it was loaded
+export const isStaleEdit = (err: unknown) =>
+  axios.isAxiosError(err) && err.response?.status === 412
+
 export const adminApi = {
   // Lists
   getListById: async (id: number) => {
     const response = await api.get<RankedListDetail>(`/admin/lists/${id}`)
-    return response.data
+    return editable(response)
   },
 
   createList: async (data: CreateListRequest) => {
@@ -81,8 +116,8 @@ export const adminApi = {
     return response.data
   },
 
-  updateList: async (id: number, data: UpdateListRequest) => {
-    const response = await api.put<RankedListDetail>(`/admin/lists/${id}`, data)
+  updateList: async (id: number, data: UpdateListRequest, etag?: string) => {
+    const response = await api.put<RankedListDetail>(`/admin/lists/${id}`, data, ifMatch(etag))
     return response.data
   },
 
@@ -95,23 +130,28 @@ export const adminApi = {
     return response.data
   },
 
-  updateEntry: async (listId: number, entryId: number, data: CreateEntryRequest) => {
-    const response = await api.put<RankedEntry>(`/admin/lists/${listId}/entries/${entryId}`, data)
+  updateEntry: async (listId: number, entryId: number, data: CreateEntryRequest, etag?: string) => {
+    const response = await api.put<RankedEntry>(`/admin/lists/${listId}/entries/${entryId}`, data, ifMatch(etag))
     return response.data
   },
 
-  reorderEntries: async (listId: number, updates: EntryRankUpdate[]) => {
-    await api.put(`/admin/lists/${listId}/entries/reorder`, updates)
+  reorderEntries: async (listId: number, updates: EntryRankUpdate[], etag?: string) => {
+    await api.put(`/admin/lists/${listId}/entries/reorder`, updates, ifMatch(etag))
   },
 
   // Posts
+  getPostById: async (id: number) => {
+    const response = await api.get<BlogPostDetail>(`/admin/posts/${id}`)
+    return editable(response)
+  },
+
   createPost: async (data: CreatePostRequest) => {
     const response = await api.post<BlogPostDetail>('/admin/posts', data)
     return response.data
   },
 
-  updatePost: async (id: number, data: UpdatePostRequest) => {
-    const response = await api.put<BlogPostDetail>(`/admin/posts/${id}`, data)
+  updatePost: async (id: number, data: UpdatePostRequest, etag?: string) => {
+    const response = await api.put<BlogPostDetail>(`/admin/posts/${id}`, data, ifMatch(etag))
     return response.data
   },
 
@@ -125,6 +165,21 @@ export const adminApi = {
     return response.data
   },
 
+  // Get one page of media; pass the previous page's nextCursor to continue
+  getMediaPage: async (params: {
+    size: number
+    cursor?: string
+    sort?: 'createdAt' | 'fileSize' | 'filename'
+    direction?: 'asc' | 'desc'
+    contentType?: string
+    createdAfter?: string
+    createdBefore?: string
+    unused?: boolean
+  }) => {
+    const response = await api.get<MediaPage>('/admin/media', { params })
+    return response.data
+  },
+
   uploadMedia: async (file: File, altText?: string) => {
     const formData = new FormData()
     formData.append('file', file)
@@ -139,6 +194,17 @@ export const adminApi = {
     return response.data
   },
 
+  uploadMediaBatch: async (files: File[]) => {
+    const formData = new FormData()
+    files.forEach(file => formData.append('files', file))
+    const response = await api.post<MediaUploadResult[]>('/admin/media/batch', formData, {
+      headers: {
+        'Content-Type': 'multipart/form-data',
+      },
+    })
+    return response.data
+  },
+
   deleteMedia: async (id: number) => {
     await api.delete(`/admin/media/${id}`)
   },
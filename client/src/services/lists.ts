@@ -22,6 +22,7 @@ export interface RankedListDetail {
   tags: Tag[]
   entries: RankedEntry[]
   publishedAt: string
+  version: number
 }
 
 export interface RankedEntry {
@@ -33,6 +34,8 @@ export interface RankedEntry {
   funFact?: string
   externalLink?: string
   heroImage?: MediaAsset
+  // Unset on entries added in the editor and not saved yet
+  version?: number
 }
 
 export interface MediaAsset {
@@ -41,7 +44,10 @@ export interface MediaAsset {
   contentType: string
   fileSize: number
   altText?: string
+  width?: number
+  height?: number
   url: string
+  placeholder?: string | null
 }
 
 export interface Tag {
@@ -22,6 +22,7 @@ export interface BlogPostDetail {
   tags: Tag[]
   status: 'DRAFT' | 'PUBLISHED'
   publishedAt?: string
+  version: number
 }
 
 export const postsApi = {
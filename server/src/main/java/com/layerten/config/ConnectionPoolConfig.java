@@ -0,0 +1,51 @@
+package com.layerten.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Connection pool sizing from the CPU count, active when
+ * {@code layerten.datasource.connections-per-core} is set.
+ * Pools without an explicit maximum size get
+ * {@code connections-per-core x cores + 1} connections; a database does its
+ * best work with about that many active connections, and more only adds
+ * contention.
+ */
+@Configuration
+@ConditionalOnProperty(name = "layerten.datasource.connections-per-core")
+public class ConnectionPoolConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionPoolConfig.class);
+
+    /**
+     * Size every Hikari pool left at the default, once its properties are bound.
+     *
+     * @param connectionsPerCore connections per available processor
+     * @return the post-processor
+     */
+    @Bean
+    public static BeanPostProcessor connectionPoolSizer(
+        @Value("${layerten.datasource.connections-per-core}") int connectionsPerCore
+    ) {
+        return new BeanPostProcessor() {
+            // Before initialization, so pools are sized before anything wraps them
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                // Hikari reports an unset maximum as less than 1 until the pool starts
+                if (bean instanceof HikariDataSource dataSource && dataSource.getMaximumPoolSize() < 1) {
+                    int cores = Runtime.getRuntime().availableProcessors();
+                    int size = cores * connectionsPerCore + 1;
+                    dataSource.setMaximumPoolSize(size);
+                    logger.info("Sized connection pool {} to {} connections for {} cores", beanName, size, cores);
+                }
+                return bean;
+            }
+        };
+    }
+}
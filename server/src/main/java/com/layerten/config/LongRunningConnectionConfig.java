@@ -0,0 +1,76 @@
+package com.layerten.config;
+
+import com.layerten.datasource.LongRunningConnection;
+import com.layerten.datasource.LongRunningRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+
+/**
+ * Separate connections for long-running work, active when
+ * {@code layerten.datasource.long-running.maximum-pool-size} is set.
+ * Handler methods marked {@link LongRunningConnection} then take their
+ * connections from a pool of that size; see {@link LongRunningRoutingDataSource}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "layerten.datasource.long-running.maximum-pool-size")
+public class LongRunningConnectionConfig implements WebMvcConfigurer {
+
+    /**
+     * Route the application DataSource through a {@link LongRunningRoutingDataSource}.
+     *
+     * @param beanFactory the bean factory, for the primary pool behind a replica router
+     * @param maximumPoolSize the size of the long-running pool
+     * @return the post-processor
+     */
+    @Bean
+    public static BeanPostProcessor longRunningConnectionRouter(
+        BeanFactory beanFactory,
+        @Value("${layerten.datasource.long-running.maximum-pool-size}") int maximumPoolSize
+    ) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!"dataSource".equals(beanName) || !(bean instanceof DataSource dataSource)) {
+                    return bean;
+                }
+                // The application DataSource is the primary pool itself, or routes to it (see ReplicaDataSourceConfig)
+                HikariDataSource primaryPool = dataSource instanceof HikariDataSource hikari
+                    ? hikari
+                    : beanFactory.getBean("primaryDataSource", HikariDataSource.class);
+                return new LongRunningRoutingDataSource(dataSource, primaryPool, maximumPoolSize);
+            }
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                if (handler instanceof HandlerMethod method && method.hasMethodAnnotation(LongRunningConnection.class)) {
+                    LongRunningRoutingDataSource.beginLongRunning();
+                }
+                return true;
+            }
+
+            @Override
+            public void afterCompletion(
+                    HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+                LongRunningRoutingDataSource.endLongRunning();
+            }
+        });
+    }
+}
@@ -0,0 +1,111 @@
+package com.layerten.config;
+
+import com.layerten.media.HotMediaCache;
+import com.layerten.media.LocalMediaStorage;
+import com.layerten.media.MediaStorage;
+import com.layerten.media.S3MediaStorage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.S3Configuration;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Paths;
+
+/**
+ * Media storage backend configuration.
+ * Selects the backend with {@code layerten.media.storage}: {@code local} (default)
+ * stores files under {@code layerten.media.root}; {@code s3} stores them in an
+ * S3-compatible bucket so several application nodes can share media.
+ */
+@Configuration
+public class MediaStorageConfig {
+    
+    /**
+     * Filesystem storage rooted at the configured media directory.
+     * 
+     * @param mediaRoot the media root directory
+     * @return the local media storage
+     * @throws IOException if the media root cannot be created
+     */
+    @Bean
+    @ConditionalOnProperty(name = "layerten.media.storage", havingValue = "local", matchIfMissing = true)
+    public MediaStorage localMediaStorage(@Value("${layerten.media.root:./local-media}") String mediaRoot) throws IOException {
+        return new LocalMediaStorage(Paths.get(mediaRoot));
+    }
+    
+    /**
+     * S3 client for the media bucket.
+     * A custom endpoint and path-style access allow S3-compatible stores such as MinIO.
+     * 
+     * @return the S3 client
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "layerten.media.storage", havingValue = "s3")
+    public S3Client mediaS3Client(
+        @Value("${layerten.media.s3.region:us-east-1}") String region,
+        @Value("${layerten.media.s3.endpoint:}") String endpoint,
+        @Value("${layerten.media.s3.path-style-access:false}") boolean pathStyleAccess,
+        @Value("${layerten.media.s3.access-key:}") String accessKey,
+        @Value("${layerten.media.s3.secret-key:}") String secretKey
+    ) {
+        AwsCredentialsProvider credentials = accessKey.isBlank()
+            ? DefaultCredentialsProvider.create()
+            : StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey));
+        
+        S3ClientBuilder builder = S3Client.builder()
+            .region(Region.of(region))
+            .credentialsProvider(credentials)
+            .httpClientBuilder(UrlConnectionHttpClient.builder())
+            .serviceConfiguration(S3Configuration.builder()
+                .pathStyleAccessEnabled(pathStyleAccess)
+                .build());
+        if (!endpoint.isBlank()) {
+            builder.endpointOverride(URI.create(endpoint));
+        }
+        return builder.build();
+    }
+    
+    /**
+     * Object storage in the configured S3 bucket.
+     * 
+     * @param mediaS3Client the S3 client
+     * @return the S3 media storage
+     */
+    @Bean
+    @ConditionalOnProperty(name = "layerten.media.storage", havingValue = "s3")
+    public MediaStorage s3MediaStorage(
+        S3Client mediaS3Client,
+        @Value("${layerten.media.s3.bucket}") String bucket,
+        @Value("${layerten.media.s3.prefix:}") String prefix
+    ) {
+        return new S3MediaStorage(mediaS3Client, bucket, prefix);
+    }
+    
+    /**
+     * Off-heap cache for small, frequently served media, in front of either backend.
+     * Set the total size to 0 to disable it.
+     * 
+     * @param maxEntrySize largest object to cache
+     * @param maxTotalSize byte budget across all cached objects
+     * @return the hot media cache
+     */
+    @Bean
+    public HotMediaCache hotMediaCache(
+        @Value("${layerten.media.cache.max-entry-size:256KB}") DataSize maxEntrySize,
+        @Value("${layerten.media.cache.max-total-size:64MB}") DataSize maxTotalSize
+    ) {
+        return new HotMediaCache(maxEntrySize.toBytes(), maxTotalSize.toBytes());
+    }
+}
@@ -0,0 +1,99 @@
+package com.layerten.config;
+
+import com.layerten.datasource.ReplicaLagMonitor;
+import com.layerten.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Read replica configuration, active when {@code layerten.datasource.replica.url} is set.
+ * Read-only transactions then run against the replica and all others against
+ * the primary from {@code spring.datasource}. Without a replica URL the single
+ * auto-configured DataSource is used for everything.
+ */
+@Configuration
+@ConditionalOnProperty(name = "layerten.datasource.replica.url")
+public class ReplicaDataSourceConfig {
+
+    /**
+     * Connection pool for the primary, configured like the auto-configured one
+     * from {@code spring.datasource}.
+     *
+     * @param properties the spring.datasource properties
+     * @return the primary pool
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    /**
+     * Connection pool for the replica. Credentials default to the primary's;
+     * pool settings are read from {@code layerten.datasource.replica.hikari}.
+     *
+     * @return the replica pool
+     */
+    @Bean
+    @ConfigurationProperties("layerten.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(
+        DataSourceProperties properties,
+        @Value("${layerten.datasource.replica.url}") String url,
+        @Value("${layerten.datasource.replica.username:}") String username,
+        @Value("${layerten.datasource.replica.password:}") String password
+    ) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+            .type(HikariDataSource.class)
+            .driverClassName(properties.determineDriverClassName())
+            .url(url)
+            .username(username.isEmpty() ? properties.determineUsername() : username)
+            .password(username.isEmpty() ? properties.determinePassword() : password)
+            .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+        HikariDataSource primaryDataSource,
+        HikariDataSource replicaDataSource
+    ) {
+        return new ReplicaRoutingDataSource(primaryDataSource, replicaDataSource);
+    }
+
+    /**
+     * The DataSource used by JPA, Flyway and everything else. Connections are
+     * fetched on first use, once the transaction is known to be read-only or not.
+     *
+     * @param replicaRoutingDataSource the routing DataSource
+     * @return the application DataSource
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(
+        ReplicaRoutingDataSource replicaRoutingDataSource,
+        HikariDataSource replicaDataSource,
+        @Value("${layerten.datasource.replica.max-lag:10s}") Duration maxLag
+    ) {
+        return new ReplicaLagMonitor(replicaRoutingDataSource, replicaDataSource, maxLag);
+    }
+}
@@ -50,6 +50,9 @@ public class SecurityConfig {
             .authorizeHttpRequests(auth -> auth
                 // Protect all admin endpoints
                 .requestMatchers("/api/admin/**").authenticated()
+                // Health checks are public; other actuator endpoints are admin-only
+                .requestMatchers("/actuator/health").permitAll()
+                .requestMatchers("/actuator/**").authenticated()
                 // Allow public access to all other API endpoints
                 .requestMatchers("/api/**").permitAll()
                 // Allow public access to media files
@@ -78,6 +81,7 @@ public class SecurityConfig {
         configuration.setAllowedOriginPatterns(Arrays.asList("*")); // Allow all origins
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
+        configuration.setExposedHeaders(Arrays.asList("ETag")); // Read by the admin editors for If-Match
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L);
         
@@ -0,0 +1,101 @@
+package com.layerten.controller;
+
+import com.layerten.datasource.LongRunningConnection;
+import com.layerten.service.ContentExporter;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Admin API controller for exporting content as NDJSON.
+ * Requires authentication.
+ */
+@RestController
+@RequestMapping("/api/admin/export")
+public class AdminExportController {
+    
+    private final ContentExporter contentExporter;
+    
+    public AdminExportController(ContentExporter contentExporter) {
+        this.contentExporter = contentExporter;
+    }
+    
+    /**
+     * Export every row of one type as NDJSON, one row per line in ID order.
+     * The body is gzip-compressed when the client accepts it. It is written on
+     * the request thread, so a long export is not cut off by the async request
+     * timeout; a client that loses the connection resumes with {@code afterId}
+     * set to the ID of the last complete line.
+     * 
+     * @param type lists, entries, posts, tags or suggestions
+     * @param afterId only export rows with an ID greater than this
+     * @param acceptEncoding the Accept-Encoding header
+     * @param response the response to write to
+     */
+    @GetMapping("/{type}")
+    @LongRunningConnection
+    public void export(
+        @PathVariable String type,
+        @RequestParam(defaultValue = "0") long afterId,
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+        HttpServletResponse response
+    ) throws IOException {
+        ContentExporter.Type exportType = ContentExporter.Type.of(type);
+        boolean gzip = acceptsGzip(acceptEncoding);
+        
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        
+        OutputStream out = response.getOutputStream();
+        if (gzip) {
+            GZIPOutputStream compressed = new GZIPOutputStream(out, 64 * 1024);
+            contentExporter.export(exportType, afterId, compressed);
+            compressed.finish();
+        } else {
+            contentExporter.export(exportType, afterId, out);
+        }
+    }
+    
+    /**
+     * Whether an Accept-Encoding header allows gzip: named, or covered by
+     * {@code *} when not named, with a quality above zero.
+     */
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double any = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String[] param = parts[i].split("=", 2);
+                if (param.length == 2 && param[0].trim().equalsIgnoreCase("q")) {
+                    try {
+                        quality = Double.parseDouble(param[1].trim());
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (name.equals("gzip") || name.equals("x-gzip")) {
+                gzip = quality;
+            } else if (name.equals("*")) {
+                any = quality;
+            }
+        }
+        return gzip != null ? gzip > 0 : any != null && any > 0;
+    }
+}
@@ -1,25 +1,45 @@
 package com.layerten.controller;
 
+import com.layerten.datasource.LongRunningConnection;
 import com.layerten.dto.*;
+import com.layerten.service.ConcurrentEdits;
+import com.layerten.service.RankedListImporter;
 import com.layerten.service.RankedListService;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 /**
  * Admin API controller for managing ranked lists.
  * Requires authentication.
+ * 
+ * Lists and entries are returned with their version as the ETag. Edits with
+ * that tag in If-Match fail with 412 if the item has changed since; edits
+ * without If-Match apply to the current version.
  */
 @RestController
 @RequestMapping("/api/admin/lists")
 public class AdminListController {
     
     private final RankedListService rankedListService;
+    private final RankedListImporter rankedListImporter;
+    private final ConcurrentEdits concurrentEdits;
     
-    public AdminListController(RankedListService rankedListService) {
+    public AdminListController(
+        RankedListService rankedListService,
+        RankedListImporter rankedListImporter,
+        ConcurrentEdits concurrentEdits
+    ) {
         this.rankedListService = rankedListService;
+        this.rankedListImporter = rankedListImporter;
+        this.concurrentEdits = concurrentEdits;
     }
     
     /**
@@ -34,30 +54,62 @@ public class AdminListController {
         return rankedListService.createList(request);
     }
     
+    /**
+     * Import a complete ranked list with its entries, published on import.
+     * 
+     * @param request the list to import
+     * @return the import report
+     */
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    public ListImportReport importList(@Valid @RequestBody ImportListRequest request) {
+        return rankedListImporter.importLists(List.of(request));
+    }
+    
+    /**
+     * Import many ranked lists from NDJSON, one list per line.
+     * All lists are validated before any is created, and they are created
+     * together or not at all.
+     * 
+     * @param body the NDJSON body
+     * @return the import report
+     */
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    @LongRunningConnection
+    public ListImportReport importLists(InputStream body) throws IOException {
+        return rankedListImporter.importNdjson(body);
+    }
+    
     /**
      * Get a ranked list by ID.
      * 
      * @param id the list ID
-     * @return the list details
+     * @return the list details, with the list's version as the ETag
      */
     @GetMapping("/{id}")
-    public RankedListDetailDTO getListById(@PathVariable Long id) {
-        return rankedListService.getListById(id);
+    public ResponseEntity<RankedListDetailDTO> getListById(@PathVariable Long id) {
+        RankedListDetailDTO list = rankedListService.getListById(id);
+        return ResponseEntity.ok().eTag(VersionTags.etag(list.version())).body(list);
     }
     
     /**
      * Update an existing ranked list.
      * 
      * @param id the list ID
+     * @param ifMatch optional ETag of the list version the edit is based on
      * @param request the update list request
-     * @return the updated list
+     * @return the updated list, with its new version as the ETag
      */
     @PutMapping("/{id}")
-    public RankedListDetailDTO updateList(
+    public ResponseEntity<RankedListDetailDTO> updateList(
         @PathVariable Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @Valid @RequestBody UpdateListRequest request
     ) {
-        return rankedListService.updateList(id, request);
+        RankedListDetailDTO list = concurrentEdits.apply(VersionTags.fromIfMatch(ifMatch),
+            version -> rankedListService.updateList(id, request, version));
+        return ResponseEntity.ok().eTag(VersionTags.etag(list.version())).body(list);
     }
     
     /**
@@ -92,30 +144,37 @@ public class AdminListController {
      * 
      * @param listId the list ID
      * @param entryId the entry ID
+     * @param ifMatch optional ETag of the entry version the edit is based on
      * @param request the update entry request
-     * @return the updated entry
+     * @return the updated entry, with its new version as the ETag
      */
     @PutMapping("/{listId}/entries/{entryId}")
-    public RankedEntryDTO updateEntry(
+    public ResponseEntity<RankedEntryDTO> updateEntry(
         @PathVariable Long listId,
         @PathVariable Long entryId,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @Valid @RequestBody CreateEntryRequest request
     ) {
-        return rankedListService.updateEntry(listId, entryId, request);
+        RankedEntryDTO entry = concurrentEdits.apply(VersionTags.fromIfMatch(ifMatch),
+            version -> rankedListService.updateEntry(listId, entryId, request, version));
+        return ResponseEntity.ok().eTag(VersionTags.etag(entry.version())).body(entry);
     }
     
     /**
      * Reorder entries in a ranked list.
      * 
      * @param id the list ID
+     * @param ifMatch optional ETag of the list version the reorder is based on
      * @param updates the list of entry rank updates
      */
     @PutMapping("/{id}/entries/reorder")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void reorderEntries(
         @PathVariable Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @Valid @RequestBody List<EntryRankUpdate> updates
     ) {
-        rankedListService.reorderEntries(id, updates);
+        concurrentEdits.run(VersionTags.fromIfMatch(ifMatch),
+            version -> rankedListService.reorderEntries(id, updates, version));
     }
 }
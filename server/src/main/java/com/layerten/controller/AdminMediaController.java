@@ -1,16 +1,28 @@
 package com.layerten.controller;
 
 import com.layerten.dto.MediaAssetDTO;
+import com.layerten.dto.MediaGcReport;
+import com.layerten.dto.MediaPageDTO;
+import com.layerten.dto.MediaSearchCriteria;
+import com.layerten.dto.MediaUploadResultDTO;
+import com.layerten.service.MediaBatchUploader;
+import com.layerten.service.MediaGarbageCollector;
 import com.layerten.service.MediaService;
 import com.layerten.validation.ValidFileSize;
 import com.layerten.validation.ValidImageFile;
 import jakarta.validation.constraints.NotNull;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * Admin API controller for managing media assets.
@@ -22,9 +34,17 @@ import java.io.IOException;
 public class AdminMediaController {
     
     private final MediaService mediaService;
+    private final MediaBatchUploader mediaBatchUploader;
+    private final MediaGarbageCollector mediaGarbageCollector;
     
-    public AdminMediaController(MediaService mediaService) {
+    public AdminMediaController(
+        MediaService mediaService,
+        MediaBatchUploader mediaBatchUploader,
+        MediaGarbageCollector mediaGarbageCollector
+    ) {
         this.mediaService = mediaService;
+        this.mediaBatchUploader = mediaBatchUploader;
+        this.mediaGarbageCollector = mediaGarbageCollector;
     }
     
     /**
@@ -37,11 +57,43 @@ public class AdminMediaController {
         return mediaService.getAllMedia();
     }
     
+    /**
+     * Get one page of media assets, selected when a page size is requested.
+     * Pass the returned nextCursor back as {@code cursor} to fetch the following page.
+     * 
+     * @param size maximum number of items to return (capped at 200)
+     * @param cursor cursor from the previous page, omitted for the first page
+     * @param sort property to sort by: createdAt (default), fileSize or filename
+     * @param direction sort direction, desc by default
+     * @param contentType optional content type filter, e.g. image/png
+     * @param createdAfter optional inclusive lower bound on upload time
+     * @param createdBefore optional exclusive upper bound on upload time
+     * @param unused when true, only media not used by any list, entry or post
+     * @return the page of media assets
+     */
+    @GetMapping(params = "size")
+    public MediaPageDTO searchMedia(
+        @RequestParam int size,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "createdAt") String sort,
+        @RequestParam(defaultValue = "desc") String direction,
+        @RequestParam(required = false) String contentType,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdAfter,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdBefore,
+        @RequestParam(defaultValue = "false") boolean unused
+    ) {
+        MediaSearchCriteria criteria = new MediaSearchCriteria(contentType, createdAfter, createdBefore, unused);
+        return mediaService.searchMedia(criteria, sort, Sort.Direction.fromString(direction), cursor, size);
+    }
+    
     /**
      * Upload a new media file.
+     * The container spools the part to a temp file before it is copied to
+     * storage; {@code POST /stream} writes the upload only once.
      * 
      * @param file the file to upload
      * @param altText optional alt text for the image
+     * @param keepOriginal keep the untouched upload if it is recompressed
      * @return the created media asset
      */
     @PostMapping
@@ -52,9 +104,51 @@ public class AdminMediaController {
         @ValidImageFile
         @ValidFileSize(maxSizeInBytes = 10 * 1024 * 1024, message = "File size must not exceed 10MB")
         MultipartFile file,
-        @RequestParam(required = false) String altText
+        @RequestParam(required = false) String altText,
+        @RequestParam(defaultValue = "false") boolean keepOriginal
+    ) throws IOException {
+        return mediaService.uploadMedia(file, altText, keepOriginal);
+    }
+    
+    /**
+     * Upload several media files in one request.
+     * Files are processed in parallel and each succeeds or fails on its own, so
+     * one bad file does not reject the rest of the batch.
+     * 
+     * @param files the files to upload, as repeated {@code files} parts
+     * @param keepOriginal keep untouched uploads that are recompressed
+     * @return one result per file, in request order
+     */
+    @PostMapping("/batch")
+    public List<MediaUploadResultDTO> uploadMediaBatch(
+        @RequestParam("files") List<MultipartFile> files,
+        @RequestParam(defaultValue = "false") boolean keepOriginal
+    ) {
+        return mediaBatchUploader.upload(files, keepOriginal);
+    }
+    
+    /**
+     * Upload a new media file by streaming the raw request body.
+     * Unlike the multipart endpoint, the body is validated and written directly
+     * to its final location without being spooled to a multipart temp file first.
+     * The stored file is named after its detected format, so no client filename
+     * is needed.
+     * 
+     * @param body the raw image bytes
+     * @param contentLength the declared body length, if known
+     * @param altText optional alt text for the image
+     * @param keepOriginal keep the untouched upload if it is recompressed
+     * @return the created media asset
+     */
+    @PostMapping("/stream")
+    @ResponseStatus(HttpStatus.CREATED)
+    public MediaAssetDTO uploadMediaStream(
+        InputStream body,
+        @RequestHeader(value = HttpHeaders.CONTENT_LENGTH, required = false) Long contentLength,
+        @RequestParam(required = false) String altText,
+        @RequestParam(defaultValue = "false") boolean keepOriginal
     ) throws IOException {
-        return mediaService.uploadMedia(file, altText);
+        return mediaService.uploadMediaStream(body, contentLength, altText, keepOriginal);
     }
     
     /**
@@ -67,4 +161,16 @@ public class AdminMediaController {
     public void deleteMedia(@PathVariable Long id) throws IOException {
         mediaService.deleteMedia(id);
     }
+    
+    /**
+     * Run the media garbage collector now.
+     * Defaults to a dry run that only reports what would be deleted.
+     * 
+     * @param dryRun false to actually delete orphaned media
+     * @return the collection report
+     */
+    @PostMapping("/gc")
+    public MediaGcReport collectGarbage(@RequestParam(defaultValue = "true") boolean dryRun) throws IOException {
+        return mediaGarbageCollector.collect(dryRun);
+    }
 }
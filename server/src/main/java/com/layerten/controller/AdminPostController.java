@@ -4,8 +4,11 @@ import com.layerten.dto.BlogPostDetailDTO;
 import com.layerten.dto.CreatePostRequest;
 import com.layerten.dto.UpdatePostRequest;
 import com.layerten.service.BlogPostService;
+import com.layerten.service.ConcurrentEdits;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 /**
@@ -17,9 +20,11 @@ import org.springframework.web.bind.annotation.*;
 public class AdminPostController {
     
     private final BlogPostService blogPostService;
+    private final ConcurrentEdits concurrentEdits;
     
-    public AdminPostController(BlogPostService blogPostService) {
+    public AdminPostController(BlogPostService blogPostService, ConcurrentEdits concurrentEdits) {
         this.blogPostService = blogPostService;
+        this.concurrentEdits = concurrentEdits;
     }
     
     /**
@@ -34,19 +39,37 @@ public class AdminPostController {
         return blogPostService.createPost(request);
     }
     
+    /**
+     * Get a blog post by ID, whatever its status.
+     * 
+     * @param id the post ID
+     * @return the post details, with the post's version as the ETag
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<BlogPostDetailDTO> getPostById(@PathVariable Long id) {
+        BlogPostDetailDTO post = blogPostService.getPostById(id);
+        return ResponseEntity.ok().eTag(VersionTags.etag(post.version())).body(post);
+    }
+    
     /**
      * Update an existing blog post.
+     * With the post's version as If-Match, fails with 412 if the post has
+     * changed since; without it, applies to the current version.
      * 
      * @param id the post ID
+     * @param ifMatch optional ETag of the post version the edit is based on
      * @param request the update post request
-     * @return the updated post
+     * @return the updated post, with its new version as the ETag
      */
     @PutMapping("/{id}")
-    public BlogPostDetailDTO updatePost(
+    public ResponseEntity<BlogPostDetailDTO> updatePost(
         @PathVariable Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @Valid @RequestBody UpdatePostRequest request
     ) {
-        return blogPostService.updatePost(id, request);
+        BlogPostDetailDTO post = concurrentEdits.apply(VersionTags.fromIfMatch(ifMatch),
+            version -> blogPostService.updatePost(id, request, version));
+        return ResponseEntity.ok().eTag(VersionTags.etag(post.version())).body(post);
     }
     
     /**
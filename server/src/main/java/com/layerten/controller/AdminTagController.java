@@ -0,0 +1,74 @@
+package com.layerten.controller;
+
+import com.layerten.dto.CreateTagRequest;
+import com.layerten.dto.TagUsageDTO;
+import com.layerten.dto.UpdateTagRequest;
+import com.layerten.service.TagService;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Admin API controller for managing tags.
+ * Requires authentication.
+ */
+@RestController
+@RequestMapping("/api/admin/tags")
+public class AdminTagController {
+    
+    private final TagService tagService;
+    
+    public AdminTagController(TagService tagService) {
+        this.tagService = tagService;
+    }
+    
+    /**
+     * Get every tag, including unused ones, with its usage.
+     * 
+     * @return all tags sorted by name
+     */
+    @GetMapping
+    public List<TagUsageDTO> getAllTags() {
+        return tagService.getAllTags();
+    }
+    
+    /**
+     * Create a new tag.
+     * 
+     * @param request the create tag request
+     * @return the created tag
+     */
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public TagUsageDTO createTag(@Valid @RequestBody CreateTagRequest request) {
+        return tagService.createTag(request);
+    }
+    
+    /**
+     * Rename a tag.
+     * 
+     * @param id the tag ID
+     * @param request the update tag request
+     * @return the renamed tag
+     */
+    @PutMapping("/{id}")
+    public TagUsageDTO updateTag(
+        @PathVariable Long id,
+        @Valid @RequestBody UpdateTagRequest request
+    ) {
+        return tagService.updateTag(id, request);
+    }
+    
+    /**
+     * Delete a tag, removing it from every list and post.
+     * 
+     * @param id the tag ID
+     */
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void deleteTag(@PathVariable Long id) {
+        tagService.deleteTag(id);
+    }
+}
@@ -1,20 +1,29 @@
 package com.layerten.controller;
 
-import com.layerten.dto.MediaAssetDTO;
+import com.layerten.media.HotMediaCache;
+import com.layerten.media.MediaRepresentation;
 import com.layerten.service.MediaService;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
 import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import java.io.IOException;
-import java.nio.file.Path;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -24,45 +33,176 @@ import java.util.concurrent.TimeUnit;
 @RestController
 @RequestMapping("/api/media")
 public class MediaController {
-    
+
     private final MediaService mediaService;
-    
-    public MediaController(MediaService mediaService) {
+    private final HotMediaCache hotMediaCache;
+
+    public MediaController(MediaService mediaService, HotMediaCache hotMediaCache) {
         this.mediaService = mediaService;
+        this.hotMediaCache = hotMediaCache;
     }
-    
+
     /**
      * Serve a media file by ID.
-     * Includes caching headers and appropriate content type.
-     * 
+     * The URL is not versioned, so responses are cached for a day and revalidated
+     * by ETag; media DTOs link to the fingerprinted URL instead.
+     *
      * @param id the media asset ID
-     * @return the file as a resource with caching headers
+     * @param acceptHeader optional Accept header
+     * @param rangeHeader optional Range header
+     * @return the file content with caching headers
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Resource> getMedia(@PathVariable Long id) throws IOException {
-        // Get media metadata
-        MediaAssetDTO mediaAsset = mediaService.getMediaById(id);
-        
-        // Get file from disk
-        Path filePath = mediaService.getMediaFile(id);
-        Resource resource = new UrlResource(filePath.toUri());
-        
-        if (!resource.exists() || !resource.isReadable()) {
-            throw new RuntimeException("File not found or not readable: " + mediaAsset.filename());
+    public ResponseEntity<StreamingResponseBody> getMedia(
+        @PathVariable Long id,
+        @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String acceptHeader,
+        @RequestHeader(value = HttpHeaders.RANGE, required = false) String rangeHeader
+    ) throws IOException {
+        // Pick the original or a negotiated variant
+        MediaRepresentation representation = mediaService.selectRepresentation(id, acceptedTypes(acceptHeader));
+        return serve(representation, rangeHeader, CacheControl.maxAge(1, TimeUnit.DAYS).cachePublic());
+    }
+
+    /**
+     * Serve a media file by ID and content fingerprint.
+     * A fingerprinted URL always names the same content, so it is cached for a
+     * year and marked immutable. A stale fingerprint, left behind in an old page
+     * or cache, is redirected to the current URL.
+     *
+     * @param id the media asset ID
+     * @param fingerprint the content fingerprint from the URL
+     * @param extension the file extension from the URL
+     * @param acceptHeader optional Accept header
+     * @param rangeHeader optional Range header
+     * @return the file content, or a redirect to the current fingerprint
+     */
+    @GetMapping("/{id}/{fingerprint}.{extension}")
+    public ResponseEntity<StreamingResponseBody> getFingerprintedMedia(
+        @PathVariable Long id,
+        @PathVariable String fingerprint,
+        @PathVariable String extension,
+        @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String acceptHeader,
+        @RequestHeader(value = HttpHeaders.RANGE, required = false) String rangeHeader
+    ) throws IOException {
+        MediaRepresentation representation = mediaService.selectRepresentation(id, acceptedTypes(acceptHeader));
+        if (!representation.fingerprint().equals(fingerprint)) {
+            // The redirect target changes whenever the content does, so it must not be cached
+            return ResponseEntity.status(HttpStatus.FOUND)
+                .location(UriComponentsBuilder.fromPath("/api/media/{id}/{fingerprint}.{extension}")
+                    .buildAndExpand(id, representation.fingerprint(), extension)
+                    .encode()
+                    .toUri())
+                .cacheControl(CacheControl.noCache())
+                .build();
+        }
+        return serve(representation, rangeHeader, CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable());
+    }
+
+    /**
+     * Write a representation, honouring a single byte range from the Range header.
+     * Clients whose Accept header allows a smaller re-encoded format are served
+     * that variant instead of the original.
+     */
+    private ResponseEntity<StreamingResponseBody> serve(
+        MediaRepresentation representation,
+        String rangeHeader,
+        CacheControl cacheControl
+    ) throws IOException {
+        long fileSize = representation.size();
+
+        HttpRange range = singleRange(rangeHeader);
+        if (range != null && range.getRangeStart(fileSize) >= fileSize) {
+            return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                .header(HttpHeaders.CONTENT_RANGE, "bytes */" + fileSize)
+                .build();
+        }
+
+        // Build response with caching headers; caches must key on Accept since the body depends on it
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(range != null ? HttpStatus.PARTIAL_CONTENT : HttpStatus.OK)
+            .contentType(MediaType.parseMediaType(representation.contentType()))
+            .cacheControl(cacheControl)
+            .eTag(representation.variant()
+                ? representation.fingerprint() + "-" + representation.filename()
+                : representation.fingerprint())
+            .varyBy(HttpHeaders.ACCEPT)
+            .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+            .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + representation.filename() + "\"");
+
+        // Small files are served from the off-heap hot cache
+        ByteBuffer cached = null;
+        if (hotMediaCache.accepts(fileSize)) {
+            cached = hotMediaCache.get(representation.storageKey(), fileSize, () -> mediaService.open(representation));
+        }
+
+        if (range != null) {
+            long start = range.getRangeStart(fileSize);
+            long end = range.getRangeEnd(fileSize);
+            long length = end - start + 1;
+            response
+                .header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + fileSize)
+                .contentLength(length);
+            if (cached != null) {
+                return response.body(stream(cached.slice((int) start, (int) length)));
+            }
+            return response.body(stream(mediaService.openRange(representation, start, length)));
         }
-        
-        // Determine content type
-        String contentType = mediaAsset.contentType();
-        if (contentType == null) {
-            contentType = MediaType.APPLICATION_OCTET_STREAM_VALUE;
+
+        response.contentLength(fileSize);
+        if (cached != null) {
+            return response.body(stream(cached));
+        }
+        return response.body(stream(mediaService.open(representation)));
+    }
+
+    /**
+     * Parse an Accept header, treating a missing or malformed header as accepting
+     * only the original.
+     */
+    private List<MediaType> acceptedTypes(String acceptHeader) {
+        if (acceptHeader == null) {
+            return List.of();
+        }
+        try {
+            return MediaType.parseMediaTypes(acceptHeader);
+        } catch (InvalidMediaTypeException e) {
+            return List.of();
         }
-        
-        // Build response with caching headers
-        return ResponseEntity.ok()
-            .contentType(MediaType.parseMediaType(contentType))
-            .cacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic())
-            .eTag(String.valueOf(id))
-            .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + mediaAsset.filename() + "\"")
-            .body(resource);
+    }
+
+    /**
+     * Parse a Range header holding exactly one range.
+     * Multi-range requests are answered with the full content.
+     */
+    private HttpRange singleRange(String rangeHeader) {
+        if (rangeHeader == null) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Write a buffer straight to the response through a channel, without first
+     * copying the whole buffer onto the heap.
+     */
+    private StreamingResponseBody stream(ByteBuffer content) {
+        return out -> {
+            WritableByteChannel channel = Channels.newChannel(out);
+            while (content.hasRemaining()) {
+                channel.write(content);
+            }
+        };
+    }
+
+    private StreamingResponseBody stream(InputStream content) {
+        return out -> {
+            try (content) {
+                content.transferTo(out);
+            }
+        };
     }
 }
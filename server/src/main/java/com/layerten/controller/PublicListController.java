@@ -1,8 +1,10 @@
 package com.layerten.controller;
 
+import com.layerten.dto.ListFacetsDTO;
 import com.layerten.dto.RankedEntryDTO;
 import com.layerten.dto.RankedListDetailDTO;
 import com.layerten.dto.RankedListSummaryDTO;
+import com.layerten.dto.TagMatch;
 import com.layerten.service.RankedListService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -28,17 +30,37 @@ public class PublicListController {
      * Get paginated ranked lists with optional search and tag filters.
      * 
      * @param search optional search term for title/intro
-     * @param tag optional tag name to filter by
+     * @param tag optional tag slugs to filter by, repeated for several tags
+     * @param match {@code all} for lists carrying every tag, {@code any} for lists carrying one of them
      * @param pageable pagination parameters
      * @return page of ranked list summaries
      */
     @GetMapping
     public Page<RankedListSummaryDTO> getLists(
         @RequestParam(required = false) String search,
-        @RequestParam(required = false) String tag,
+        @RequestParam(required = false) List<String> tag,
+        @RequestParam(defaultValue = "all") String match,
         Pageable pageable
     ) {
-        return rankedListService.searchLists(search, tag, pageable);
+        return rankedListService.searchLists(search, tag, TagMatch.of(match), pageable);
+    }
+    
+    /**
+     * Get paginated ranked lists filtered by tags, with the number of matching
+     * lists carrying each tag, e.g. to show "Movies (42)" beside each tag.
+     * 
+     * @param tag optional tag slugs to filter by, repeated for several tags
+     * @param match {@code all} for lists carrying every tag, {@code any} for lists carrying one of them
+     * @param pageable pagination parameters
+     * @return page of ranked list summaries and the tag counts
+     */
+    @GetMapping("/facets")
+    public ListFacetsDTO getListFacets(
+        @RequestParam(required = false) List<String> tag,
+        @RequestParam(defaultValue = "all") String match,
+        Pageable pageable
+    ) {
+        return rankedListService.browseLists(tag, TagMatch.of(match), pageable);
     }
     
     /**
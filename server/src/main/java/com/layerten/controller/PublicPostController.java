@@ -2,12 +2,15 @@ package com.layerten.controller;
 
 import com.layerten.dto.BlogPostDetailDTO;
 import com.layerten.dto.BlogPostSummaryDTO;
+import com.layerten.dto.TagMatch;
 import com.layerten.entity.PostStatus;
 import com.layerten.service.BlogPostService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 /**
  * Public API controller for blog posts.
  * Provides endpoints for browsing and viewing published blog posts.
@@ -27,18 +30,20 @@ public class PublicPostController {
      * Only returns published posts.
      * 
      * @param search optional search term for title/excerpt
-     * @param tag optional tag name to filter by
+     * @param tag optional tag slugs to filter by, repeated for several tags
+     * @param match {@code all} for posts carrying every tag, {@code any} for posts carrying one of them
      * @param pageable pagination parameters
      * @return page of blog post summaries
      */
     @GetMapping
     public Page<BlogPostSummaryDTO> getPosts(
         @RequestParam(required = false) String search,
-        @RequestParam(required = false) String tag,
+        @RequestParam(required = false) List<String> tag,
+        @RequestParam(defaultValue = "all") String match,
         Pageable pageable
     ) {
         // Public endpoint only returns published posts
-        return blogPostService.searchPosts(search, tag, PostStatus.PUBLISHED, pageable);
+        return blogPostService.searchPosts(search, tag, TagMatch.of(match), PostStatus.PUBLISHED, pageable);
     }
     
     /**
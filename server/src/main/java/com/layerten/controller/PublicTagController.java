@@ -0,0 +1,32 @@
+package com.layerten.controller;
+
+import com.layerten.dto.TagUsageDTO;
+import com.layerten.service.TagService;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Public API controller for tags.
+ * Provides the tag cloud of tags in use.
+ */
+@RestController
+@RequestMapping("/api/tags")
+public class PublicTagController {
+    
+    private final TagService tagService;
+    
+    public PublicTagController(TagService tagService) {
+        this.tagService = tagService;
+    }
+    
+    /**
+     * Get the tags carried by published lists and posts, with how many of each carry them.
+     * 
+     * @return the tags in use, sorted by name
+     */
+    @GetMapping
+    public List<TagUsageDTO> getTags() {
+        return tagService.getTagCloud();
+    }
+}
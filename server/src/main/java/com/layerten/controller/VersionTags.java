@@ -0,0 +1,44 @@
+package com.layerten.controller;
+
+/**
+ * Entity versions as HTTP entity tags, for conditional admin edits.
+ * An item's version is sent as its ETag; naming that tag in If-Match makes
+ * an edit apply only if the item has not changed since.
+ */
+final class VersionTags {
+    
+    private VersionTags() {
+    }
+    
+    /**
+     * The ETag for a version.
+     * 
+     * @param version the entity version
+     * @return the quoted, strong entity tag
+     */
+    static String etag(Long version) {
+        return "\"" + version + "\"";
+    }
+    
+    /**
+     * The version named by an If-Match header.
+     * 
+     * @param ifMatch the header value, or null if absent
+     * @return the version, or null if the header is absent or {@code *}
+     * @throws IllegalArgumentException if the header is not a single tag issued as an ETag
+     */
+    static Long fromIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Long.valueOf(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException e) {
+                // Reported below
+            }
+        }
+        throw new IllegalArgumentException("If-Match must be a single ETag from this API, not " + ifMatch);
+    }
+}
@@ -0,0 +1,19 @@
+package com.layerten.datasource;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a handler method whose transactions may hold their database connection
+ * for minutes, such as an export or import. While it runs, its connections come
+ * from the long-running pool, which has no leak detection; see
+ * {@link LongRunningRoutingDataSource}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface LongRunningConnection {
+}
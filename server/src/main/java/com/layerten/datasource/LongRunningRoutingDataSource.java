@@ -0,0 +1,95 @@
+package com.layerten.datasource;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * DataSource that hands out connections for long-running work from a small
+ * pool of its own, and all others from the target DataSource.
+ *
+ * Exports and imports hold their connection for as long as they run. Taking
+ * those connections from a separate pool keeps them out of the leak detection
+ * of the main pool, which can then report any connection held for more than a
+ * few seconds, and stops a few large exports from using up the connections
+ * requests need.
+ *
+ * Work is long-running between {@link #beginLongRunning()} and
+ * {@link #endLongRunning()} on its thread; handler methods are marked with
+ * {@link LongRunningConnection}. The pool is configured like the primary pool
+ * but without leak detection, and is started when it is first used.
+ */
+public class LongRunningRoutingDataSource extends DelegatingDataSource implements Closeable {
+
+    private static final ThreadLocal<Boolean> LONG_RUNNING = ThreadLocal.withInitial(() -> false);
+
+    private final HikariDataSource primaryPool;
+    private final int maximumPoolSize;
+    private HikariDataSource longRunningPool;
+
+    /**
+     * @param target the DataSource for everything else
+     * @param primaryPool the pool whose settings the long-running pool copies
+     * @param maximumPoolSize the size of the long-running pool
+     */
+    public LongRunningRoutingDataSource(DataSource target, HikariDataSource primaryPool, int maximumPoolSize) {
+        super(target);
+        this.primaryPool = primaryPool;
+        this.maximumPoolSize = maximumPoolSize;
+    }
+
+    /**
+     * Take the current thread's connections from the long-running pool.
+     */
+    public static void beginLongRunning() {
+        LONG_RUNNING.set(true);
+    }
+
+    /**
+     * Take the current thread's connections from the target again.
+     */
+    public static void endLongRunning() {
+        LONG_RUNNING.remove();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return LONG_RUNNING.get() ? longRunningPool().getConnection() : super.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return LONG_RUNNING.get()
+            ? longRunningPool().getConnection(username, password)
+            : super.getConnection(username, password);
+    }
+
+    synchronized HikariDataSource longRunningPool() {
+        if (longRunningPool == null) {
+            HikariConfig config = new HikariConfig();
+            primaryPool.copyStateTo(config);
+            config.setPoolName("long-running");
+            config.setLeakDetectionThreshold(0);
+            config.setMaximumPoolSize(maximumPoolSize);
+            config.setMinimumIdle(0);
+            longRunningPool = new HikariDataSource(config);
+        }
+        return longRunningPool;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (longRunningPool != null) {
+            longRunningPool.close();
+        }
+        if (getTargetDataSource() instanceof Closeable target) {
+            target.close();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.layerten.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Periodic check of how far the read replica lags behind the primary.
+ * The replica is taken out of use while its lag exceeds the tolerance or it
+ * cannot be queried, and put back once it has caught up.
+ */
+public class ReplicaLagMonitor implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    /**
+     * Seconds since the replica last replayed a transaction from the primary.
+     * A replica that has replayed everything it received is not lagging, however
+     * long ago that was, and a server that is not a standby has no lag.
+     */
+    static final String POSTGRES_LAG_QUERY =
+        "SELECT CASE WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+        "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+
+    private final ReplicaRoutingDataSource routingDataSource;
+    private final JdbcTemplate replica;
+    private final String lagQuery;
+    private final Duration maxLag;
+    private volatile double lagSeconds;
+
+    public ReplicaLagMonitor(ReplicaRoutingDataSource routingDataSource, DataSource replica, Duration maxLag) {
+        this(routingDataSource, replica, maxLag, POSTGRES_LAG_QUERY);
+    }
+
+    ReplicaLagMonitor(ReplicaRoutingDataSource routingDataSource, DataSource replica, Duration maxLag, String lagQuery) {
+        this.routingDataSource = routingDataSource;
+        this.replica = new JdbcTemplate(replica);
+        this.maxLag = maxLag;
+        this.lagQuery = lagQuery;
+    }
+
+    /**
+     * Measure the replica's lag and mark it available or unavailable accordingly.
+     */
+    @Scheduled(fixedDelayString = "${layerten.datasource.replica.lag-check-interval:PT5S}")
+    public void check() {
+        Double lag;
+        try {
+            lag = replica.queryForObject(lagQuery, Double.class);
+        } catch (RuntimeException e) {
+            logger.debug("Replica lag check failed", e);
+            routingDataSource.markReplicaUnavailable("lag check failed: " + e.getMessage());
+            return;
+        }
+        lagSeconds = lag != null ? lag : 0;
+        if (lagSeconds * 1000 > maxLag.toMillis()) {
+            routingDataSource.markReplicaUnavailable(String.format("%.1fs behind the primary", lagSeconds));
+        } else {
+            routingDataSource.markReplicaAvailable();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("layerten.datasource.replica.lag", this, monitor -> monitor.lagSeconds)
+            .description("Seconds the read replica was behind the primary at the last check")
+            .baseUnit("seconds")
+            .register(registry);
+    }
+}
@@ -0,0 +1,103 @@
+package com.layerten.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * DataSource that sends read-only transactions to a replica and everything
+ * else to the primary.
+ *
+ * The routing decision is made when a connection is requested, so this must
+ * sit behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}:
+ * the transaction manager asks for a connection before the transaction is
+ * marked read-only, and the proxy defers that until the first statement.
+ *
+ * While the replica is marked unavailable, either because it lags too far
+ * behind (see {@link ReplicaLagMonitor}) or because a connection to it
+ * failed, read-only transactions fall back to the primary.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private volatile boolean replicaAvailable = true;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica) {
+        this.primary = primary;
+        this.replica = replica;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (useReplica()) {
+            try {
+                return replica.getConnection();
+            } catch (SQLException e) {
+                markReplicaUnavailable("connection failed: " + e.getMessage());
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (useReplica()) {
+            try {
+                return replica.getConnection(username, password);
+            } catch (SQLException e) {
+                markReplicaUnavailable("connection failed: " + e.getMessage());
+            }
+        }
+        return primary.getConnection(username, password);
+    }
+
+    private boolean useReplica() {
+        return replicaAvailable
+            && TransactionSynchronizationManager.isActualTransactionActive()
+            && TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    public boolean isReplicaAvailable() {
+        return replicaAvailable;
+    }
+
+    /**
+     * Route read-only transactions to the replica again.
+     */
+    public void markReplicaAvailable() {
+        if (!replicaAvailable) {
+            replicaAvailable = true;
+            logger.info("Read replica available again, routing read-only transactions to it");
+        }
+    }
+
+    /**
+     * Route read-only transactions to the primary until the replica is marked available.
+     *
+     * @param reason why the replica cannot be used, for the log
+     */
+    public void markReplicaUnavailable(String reason) {
+        if (replicaAvailable) {
+            replicaAvailable = false;
+            logger.warn("Read replica unavailable ({}), routing read-only transactions to the primary", reason);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("layerten.datasource.replica.available", this, source -> source.replicaAvailable ? 1 : 0)
+            .description("Whether read-only transactions are routed to the read replica")
+            .register(registry);
+    }
+}
@@ -17,5 +17,6 @@ public record BlogPostDetailDTO(
     MediaAssetDTO coverImage,
     Set<TagDTO> tags,
     PostStatus status,
-    LocalDateTime publishedAt
+    LocalDateTime publishedAt,
+    Long version
 ) {}
@@ -0,0 +1,13 @@
+package com.layerten.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+/**
+ * Request DTO for creating a new tag.
+ */
+public record CreateTagRequest(
+    @NotBlank(message = "Name must not be blank")
+    @Size(max = 100, message = "Name must be at most 100 characters")
+    String name
+) {}
@@ -0,0 +1,16 @@
+package com.layerten.dto;
+
+/**
+ * Export row for a ranked entry. Related rows are referenced by ID.
+ */
+public record EntryExportRow(
+    Long id,
+    Long rankedListId,
+    Integer rank,
+    String title,
+    String blurb,
+    String commentary,
+    String funFact,
+    String externalLink,
+    Long heroImageId
+) {}
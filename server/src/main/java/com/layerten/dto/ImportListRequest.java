@@ -0,0 +1,28 @@
+package com.layerten.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Request DTO for importing a complete ranked list with its entries.
+ */
+public record ImportListRequest(
+    @NotBlank(message = "Title must not be blank")
+    String title,
+    
+    String subtitle,
+    
+    @NotBlank(message = "Intro must not be blank")
+    String intro,
+    
+    String outro,
+    
+    Long coverImageId,
+    
+    Set<Long> tagIds,
+    
+    @Valid
+    List<CreateEntryRequest> entries
+) {}
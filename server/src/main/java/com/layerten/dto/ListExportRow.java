@@ -0,0 +1,22 @@
+package com.layerten.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Export row for a ranked list. Related rows are referenced by ID.
+ */
+public record ListExportRow(
+    Long id,
+    String title,
+    String subtitle,
+    String slug,
+    String intro,
+    String outro,
+    Long coverImageId,
+    List<Long> tagIds, // Sorted
+    int entryCount,
+    LocalDateTime publishedAt,
+    LocalDateTime createdAt,
+    LocalDateTime updatedAt
+) {}
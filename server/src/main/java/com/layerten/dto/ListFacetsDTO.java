@@ -0,0 +1,14 @@
+package com.layerten.dto;
+
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+/**
+ * A page of lists matching a tag filter, with counts for every tag the matching lists carry.
+ */
+public record ListFacetsDTO(
+    Page<RankedListSummaryDTO> lists,
+    long total, // Lists matching the filter, from the facet index
+    List<TagFacetDTO> facets // Most used first
+) {}
@@ -0,0 +1,14 @@
+package com.layerten.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a ranked list import.
+ */
+public record ListImportReport(
+    int lists, // Lists created
+    int entries, // Entries created across all lists
+    long elapsedMillis, // Time from receiving the first list to commit
+    double listsPerSecond,
+    List<String> slugs // Slugs of the created lists, in import order
+) {}
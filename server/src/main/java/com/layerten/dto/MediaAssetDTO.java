@@ -9,5 +9,8 @@ public record MediaAssetDTO(
     String contentType,
     Long fileSize,
     String altText,
-    String url // Computed as /api/media/{id}
+    Integer width, // Pixel width, null if unknown
+    Integer height, // Pixel height, null if unknown
+    String url, // Fingerprinted /api/media/{id}/{fingerprint}.{ext}, safe to cache permanently
+    String placeholder // BlurHash to paint while the image loads, null if not available
 ) {}
@@ -0,0 +1,16 @@
+package com.layerten.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a media garbage collection run.
+ * In a dry run nothing is deleted and the orphan lists name what would have been.
+ */
+public record MediaGcReport(
+    boolean dryRun,
+    int markedAssets, // Assets newly found unreferenced and marked
+    int clearedMarks, // Marked assets that are referenced again
+    List<Long> orphanedAssetIds, // Assets past the grace period, with their files
+    List<String> orphanedObjects, // Stored objects with no media asset row
+    long reclaimedBytes
+) {}
@@ -0,0 +1,12 @@
+package com.layerten.dto;
+
+import java.util.List;
+
+/**
+ * One page of the admin media library.
+ */
+public record MediaPageDTO(
+    List<MediaAssetDTO> content,
+    int size,
+    String nextCursor // Opaque cursor for the following page, null on the last page
+) {}
@@ -0,0 +1,13 @@
+package com.layerten.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filters for the admin media library. Null fields are not applied.
+ */
+public record MediaSearchCriteria(
+    String contentType,
+    LocalDateTime createdAfter, // Inclusive
+    LocalDateTime createdBefore, // Exclusive
+    boolean unusedOnly // Only media not referenced by any list, entry or post
+) {}
@@ -0,0 +1,11 @@
+package com.layerten.dto;
+
+/**
+ * Outcome of one file in a batch upload: either the created asset or the
+ * reason the file was rejected.
+ */
+public record MediaUploadResultDTO(
+    String filename, // Client-side filename of the part
+    MediaAssetDTO media, // Created asset, null if the file failed
+    String error // Why the file failed, null if it succeeded
+) {}
@@ -0,0 +1,22 @@
+package com.layerten.dto;
+
+import com.layerten.entity.PostStatus;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Export row for a blog post. Related rows are referenced by ID.
+ */
+public record PostExportRow(
+    Long id,
+    String title,
+    String slug,
+    String excerpt,
+    String body,
+    Long coverImageId,
+    List<Long> tagIds, // Sorted
+    PostStatus status,
+    LocalDateTime publishedAt,
+    LocalDateTime createdAt,
+    LocalDateTime updatedAt
+) {}
@@ -11,5 +11,6 @@ public record RankedEntryDTO(
     String commentary,
     String funFact,
     String externalLink,
-    MediaAssetDTO heroImage
+    MediaAssetDTO heroImage,
+    Long version
 ) {}
@@ -17,5 +17,6 @@ public record RankedListDetailDTO(
     MediaAssetDTO coverImage,
     Set<TagDTO> tags,
     List<RankedEntryDTO> entries,
-    LocalDateTime publishedAt
+    LocalDateTime publishedAt,
+    Long version // Sent back as the ETag; name it in If-Match to edit only this version
 ) {}
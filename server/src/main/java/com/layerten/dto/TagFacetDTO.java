@@ -0,0 +1,10 @@
+package com.layerten.dto;
+
+/**
+ * A tag with the number of lists under the current filter that carry it.
+ */
+public record TagFacetDTO(
+    String slug,
+    String name,
+    long count
+) {}
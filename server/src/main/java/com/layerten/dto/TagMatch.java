@@ -0,0 +1,25 @@
+package com.layerten.dto;
+
+import java.util.Locale;
+
+/**
+ * How a filter on several tags matches: content carrying all of them, or any.
+ */
+public enum TagMatch {
+    ALL, ANY;
+
+    /**
+     * Look up a match mode by its name in a URL, e.g. {@code any}.
+     *
+     * @param name the mode name, in any case
+     * @return the mode
+     * @throws IllegalArgumentException if there is no such mode
+     */
+    public static TagMatch of(String name) {
+        try {
+            return valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown tag match '" + name + "', expected all or any");
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.layerten.dto;
+
+/**
+ * A tag with the number of published lists and posts that carry it.
+ */
+public record TagUsageDTO(
+    Long id,
+    String name,
+    String slug,
+    long listCount,
+    long postCount
+) {}
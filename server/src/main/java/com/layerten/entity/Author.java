@@ -11,7 +11,8 @@ import java.time.LocalDateTime;
 public class Author {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "author_id_seq")
+    @SequenceGenerator(name = "author_id_seq", sequenceName = "author_id_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false, length = 255)
@@ -1,6 +1,9 @@
 package com.layerten.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
@@ -13,9 +16,13 @@ import java.util.Set;
 public class BlogPost {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "blog_post_id_seq")
+    @SequenceGenerator(name = "blog_post_id_seq", sequenceName = "blog_post_id_seq", allocationSize = 50)
     private Long id;
     
+    @Version
+    private Long version;
+    
     @Column(nullable = false, length = 255)
     private String title;
     
@@ -33,6 +40,8 @@ public class BlogPost {
     private MediaAsset coverImage;
     
     @ManyToMany(fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+    @BatchSize(size = 100)
     @JoinTable(
         name = "blog_post_tags",
         joinColumns = @JoinColumn(name = "blog_post_id"),
@@ -40,6 +49,10 @@ public class BlogPost {
     )
     private Set<Tag> tags = new HashSet<>();
     
+    // Slugs of the tags, kept by addTag/removeTag/setTags so tag filters need no join
+    @Column(name = "tag_slugs", nullable = false)
+    private String[] tagSlugs = new String[0];
+    
     @Enumerated(EnumType.STRING)
     @Column(nullable = false, length = 20)
     private PostStatus status = PostStatus.DRAFT;
@@ -79,10 +92,12 @@ public class BlogPost {
     // Helper methods for managing bidirectional relationships
     public void addTag(Tag tag) {
         tags.add(tag);
+        tagSlugs = Tag.slugs(tags);
     }
     
     public void removeTag(Tag tag) {
         tags.remove(tag);
+        tagSlugs = Tag.slugs(tags);
     }
     
     // Getters and Setters
@@ -94,6 +109,14 @@ public class BlogPost {
         this.id = id;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     public String getTitle() {
         return title;
     }
@@ -140,6 +163,15 @@ public class BlogPost {
     
     public void setTags(Set<Tag> tags) {
         this.tags = tags;
+        this.tagSlugs = Tag.slugs(tags);
+    }
+    
+    public String[] getTagSlugs() {
+        return tagSlugs;
+    }
+    
+    public void setTagSlugs(String[] tagSlugs) {
+        this.tagSlugs = tagSlugs;
     }
     
     public PostStatus getStatus() {
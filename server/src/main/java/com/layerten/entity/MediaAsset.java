@@ -1,17 +1,23 @@
 package com.layerten.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 
 /**
  * Entity representing an uploaded media file (image).
+ * Held in the second-level cache: read on nearly every request, rarely changed.
  */
 @Entity
 @Table(name = "media_asset")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class MediaAsset {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "media_asset_id_seq")
+    @SequenceGenerator(name = "media_asset_id_seq", sequenceName = "media_asset_id_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false, length = 255)
@@ -29,6 +35,24 @@ public class MediaAsset {
     @Column(name = "storage_path", nullable = false, length = 500)
     private String storagePath;
     
+    @Column
+    private Integer width;
+    
+    @Column
+    private Integer height;
+    
+    @Column(name = "content_hash", length = 64)
+    private String contentHash; // Hex SHA-256 of the file, null for assets uploaded before it was recorded
+    
+    @Column(length = 64)
+    private String placeholder; // BlurHash, empty if none can be produced, null until generated
+    
+    @Column(name = "bytes_saved")
+    private Long bytesSaved; // Bytes removed by recompression on upload, null if the upload was stored as sent
+    
+    @Column(name = "orphaned_at")
+    private LocalDateTime orphanedAt; // When the garbage collector first found it unreferenced
+    
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
     
@@ -98,6 +122,54 @@ public class MediaAsset {
         this.storagePath = storagePath;
     }
     
+    public Integer getWidth() {
+        return width;
+    }
+    
+    public void setWidth(Integer width) {
+        this.width = width;
+    }
+    
+    public Integer getHeight() {
+        return height;
+    }
+    
+    public void setHeight(Integer height) {
+        this.height = height;
+    }
+    
+    public String getContentHash() {
+        return contentHash;
+    }
+    
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+    
+    public String getPlaceholder() {
+        return placeholder;
+    }
+    
+    public void setPlaceholder(String placeholder) {
+        this.placeholder = placeholder;
+    }
+    
+    public Long getBytesSaved() {
+        return bytesSaved;
+    }
+    
+    public void setBytesSaved(Long bytesSaved) {
+        this.bytesSaved = bytesSaved;
+    }
+    
+    public LocalDateTime getOrphanedAt() {
+        return orphanedAt;
+    }
+    
+    public void setOrphanedAt(LocalDateTime orphanedAt) {
+        this.orphanedAt = orphanedAt;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
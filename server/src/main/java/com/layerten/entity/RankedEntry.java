@@ -13,9 +13,13 @@ import jakarta.persistence.*;
 public class RankedEntry {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ranked_entry_id_seq")
+    @SequenceGenerator(name = "ranked_entry_id_seq", sequenceName = "ranked_entry_id_seq", allocationSize = 50)
     private Long id;
     
+    @Version
+    private Long version;
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "ranked_list_id", nullable = false)
     private RankedList rankedList;
@@ -64,6 +68,14 @@ public class RankedEntry {
         this.id = id;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     public RankedList getRankedList() {
         return rankedList;
     }
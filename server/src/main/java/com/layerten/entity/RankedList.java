@@ -1,6 +1,9 @@
 package com.layerten.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -15,9 +18,15 @@ import java.util.Set;
 public class RankedList {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ranked_list_id_seq")
+    @SequenceGenerator(name = "ranked_list_id_seq", sequenceName = "ranked_list_id_seq", allocationSize = 50)
     private Long id;
     
+    // Incremented on every update, including entry additions and reorders,
+    // so concurrent edits of the same list conflict instead of overwriting
+    @Version
+    private Long version;
+    
     @Column(nullable = false, length = 255)
     private String title;
     
@@ -38,6 +47,8 @@ public class RankedList {
     private MediaAsset coverImage;
     
     @ManyToMany(fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+    @BatchSize(size = 100)
     @JoinTable(
         name = "ranked_list_tags",
         joinColumns = @JoinColumn(name = "ranked_list_id"),
@@ -48,6 +59,10 @@ public class RankedList {
     @OneToMany(mappedBy = "rankedList", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private List<RankedEntry> entries = new ArrayList<>();
     
+    // Maintained by addEntry/removeEntry so the count never loads the entries
+    @Column(name = "entry_count", nullable = false)
+    private int entryCount;
+    
     @Column(name = "published_at")
     private LocalDateTime publishedAt;
     
@@ -84,10 +99,13 @@ public class RankedList {
     public void addEntry(RankedEntry entry) {
         entries.add(entry);
         entry.setRankedList(this);
+        entryCount++;
     }
     
     public void removeEntry(RankedEntry entry) {
-        entries.remove(entry);
+        if (entries.remove(entry)) {
+            entryCount--;
+        }
         entry.setRankedList(null);
     }
     
@@ -108,6 +126,14 @@ public class RankedList {
         this.id = id;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     public String getTitle() {
         return title;
     }
@@ -172,6 +198,14 @@ public class RankedList {
         this.entries = entries;
     }
     
+    public int getEntryCount() {
+        return entryCount;
+    }
+    
+    public void setEntryCount(int entryCount) {
+        this.entryCount = entryCount;
+    }
+    
     public LocalDateTime getPublishedAt() {
         return publishedAt;
     }
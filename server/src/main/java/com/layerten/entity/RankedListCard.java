@@ -0,0 +1,159 @@
+package com.layerten.entity;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+import java.time.LocalDateTime;
+
+/**
+ * Denormalized read model of a ranked list, holding what the list index shows
+ * for each list. Written only by RankedListService, alongside the list itself.
+ * The ID is the list's, so the card tells Spring Data itself whether it is new
+ * and a new card is inserted without being looked up first.
+ */
+@Entity
+@Table(name = "ranked_list_card")
+public class RankedListCard implements Persistable<Long> {
+
+    @Id
+    @Column(name = "ranked_list_id")
+    private Long id;
+
+    @Column(nullable = false, length = 255)
+    private String title;
+
+    @Column(length = 255)
+    private String subtitle;
+
+    @Column(nullable = false, length = 255)
+    private String slug;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String intro;
+
+    // Referenced rather than copied: media records change under background jobs
+    @Column(name = "cover_image_id")
+    private Long coverImageId;
+
+    // Tag filters match the slugs through a GIN index; the index page shows the tags they name
+    @Column(name = "tag_slugs", nullable = false)
+    private String[] tagSlugs = new String[0];
+
+    @Column(name = "entry_count", nullable = false)
+    private int entryCount;
+
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt;
+
+    @Transient
+    private boolean isNew;
+
+    // Constructors
+    public RankedListCard() {
+    }
+
+    public RankedListCard(Long id) {
+        this.id = id;
+        this.isNew = true;
+    }
+
+    @PostLoad
+    @PostPersist
+    protected void markNotNew() {
+        isNew = false;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    /**
+     * Copy the card fields from a list.
+     *
+     * @param rankedList the list this card describes
+     */
+    public void update(RankedList rankedList) {
+        this.title = rankedList.getTitle();
+        this.subtitle = rankedList.getSubtitle();
+        this.slug = rankedList.getSlug();
+        this.intro = rankedList.getIntro();
+        this.coverImageId = rankedList.getCoverImage() != null ? rankedList.getCoverImage().getId() : null;
+        this.tagSlugs = Tag.slugs(rankedList.getTags());
+        this.entryCount = rankedList.getEntryCount();
+        this.publishedAt = rankedList.getPublishedAt();
+    }
+
+    // Getters and Setters
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getSubtitle() {
+        return subtitle;
+    }
+
+    public void setSubtitle(String subtitle) {
+        this.subtitle = subtitle;
+    }
+
+    public String getSlug() {
+        return slug;
+    }
+
+    public void setSlug(String slug) {
+        this.slug = slug;
+    }
+
+    public String getIntro() {
+        return intro;
+    }
+
+    public void setIntro(String intro) {
+        this.intro = intro;
+    }
+
+    public Long getCoverImageId() {
+        return coverImageId;
+    }
+
+    public void setCoverImageId(Long coverImageId) {
+        this.coverImageId = coverImageId;
+    }
+
+    public String[] getTagSlugs() {
+        return tagSlugs;
+    }
+
+    public void setTagSlugs(String[] tagSlugs) {
+        this.tagSlugs = tagSlugs;
+    }
+
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    public void setEntryCount(int entryCount) {
+        this.entryCount = entryCount;
+    }
+
+    public LocalDateTime getPublishedAt() {
+        return publishedAt;
+    }
+
+    public void setPublishedAt(LocalDateTime publishedAt) {
+        this.publishedAt = publishedAt;
+    }
+}
@@ -11,7 +11,8 @@ import java.time.LocalDateTime;
 public class Suggestion {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "suggestion_id_seq")
+    @SequenceGenerator(name = "suggestion_id_seq", sequenceName = "suggestion_id_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false, length = 255)
@@ -1,16 +1,24 @@
 package com.layerten.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import java.util.Collection;
 
 /**
  * Entity representing a tag for categorizing content.
+ * Held in the second-level cache: read on nearly every request, rarely changed.
  */
 @Entity
 @Table(name = "tag")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Tag {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tag_id_seq")
+    @SequenceGenerator(name = "tag_id_seq", sequenceName = "tag_id_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false, unique = true, length = 100)
@@ -28,6 +36,16 @@ public class Tag {
         this.slug = slug;
     }
     
+    /**
+     * The slugs of some tags, sorted, as stored in the tag slug columns.
+     *
+     * @param tags the tags
+     * @return their slugs
+     */
+    public static String[] slugs(Collection<Tag> tags) {
+        return tags.stream().map(Tag::getSlug).sorted().toArray(String[]::new);
+    }
+    
     // Getters and Setters
     public Long getId() {
         return id;
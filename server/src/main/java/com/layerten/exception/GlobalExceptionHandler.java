@@ -6,6 +6,7 @@ import jakarta.validation.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -124,6 +125,43 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
     }
     
+    /**
+     * Handle concurrent edits of the same item (HTTP 409).
+     * Raised when another edit committed first and retrying did not help
+     * or the edit is not one that is retried. Edits naming a version report
+     * this as a stale version instead.
+     * 
+     * @param ex the optimistic locking failure
+     * @return error response with 409 status
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, Object>> handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", HttpStatus.CONFLICT.value());
+        response.put("message", "This item was changed by another edit at the same time; reload it and try again");
+        
+        logger.warn("Concurrent edit conflict: {}", ex.getMessage());
+        
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+    }
+    
+    /**
+     * Handle conditional edits based on an outdated version (HTTP 412).
+     * 
+     * @param ex the stale version exception
+     * @return error response with 412 status
+     */
+    @ExceptionHandler(StaleVersionException.class)
+    public ResponseEntity<Map<String, Object>> handleStaleVersion(StaleVersionException ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", HttpStatus.PRECONDITION_FAILED.value());
+        response.put("message", ex.getMessage());
+        
+        logger.warn("Stale version: {}", ex.getMessage());
+        
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(response);
+    }
+    
     /**
      * Handle authentication errors (HTTP 401).
      * 
@@ -0,0 +1,33 @@
+package com.layerten.exception;
+
+/**
+ * Thrown when a conditional edit names a version that is no longer current,
+ * because the item was changed after the editor read it.
+ */
+public class StaleVersionException extends RuntimeException {
+    
+    private static final long serialVersionUID = 1L;
+    
+    public StaleVersionException(String message) {
+        super(message);
+    }
+    
+    public StaleVersionException(String message, Throwable cause) {
+        super(message, cause);
+    }
+    
+    /**
+     * Check the version an edit was based on, if it names one.
+     * 
+     * @param description what is being edited, for the message
+     * @param expectedVersion the version the edit was based on, or null for any
+     * @param currentVersion the current version
+     * @throws StaleVersionException if the versions differ
+     */
+    public static void check(String description, Long expectedVersion, Long currentVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(currentVersion)) {
+            throw new StaleVersionException(
+                description + " is at version " + currentVersion + ", not " + expectedVersion);
+        }
+    }
+}
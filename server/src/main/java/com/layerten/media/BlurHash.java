@@ -0,0 +1,188 @@
+package com.layerten.media;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Optional;
+
+/**
+ * BlurHash encoder (https://blurha.sh): a short string describing a blurred
+ * version of an image, which clients decode into a placeholder while the
+ * real image loads.
+ *
+ * The image is described by a few cosine components (4 across by 3 down for a
+ * landscape image), so about 30 characters cover any image.
+ */
+public final class BlurHash {
+
+    private static final String CHARACTERS =
+        "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz#$%*+,-.:;=?@[]^_{|}~";
+
+    /**
+     * Images are subsampled to roughly this many pixels along the longer side
+     * before encoding; the hash only describes low frequencies anyway.
+     */
+    private static final int SAMPLE_SIZE = 64;
+
+    private BlurHash() {
+    }
+
+    /**
+     * Decode an image at reduced resolution and encode its BlurHash.
+     *
+     * @param source the image
+     * @param maxPixels largest source image (width x height) that will be decoded
+     * @return the hash, or empty if the image cannot be decoded or is too large
+     */
+    public static Optional<String> encode(InputStream source, long maxPixels) throws IOException {
+        return encode(source, maxPixels, 1);
+    }
+
+    /**
+     * Decode an image at reduced resolution, turn it upright according to its
+     * EXIF orientation and encode its BlurHash.
+     *
+     * @param source the image
+     * @param maxPixels largest source image (width x height) that will be decoded
+     * @param orientation the source's EXIF orientation, 1 to 8
+     * @return the hash, or empty if the image cannot be decoded or is too large
+     */
+    public static Optional<String> encode(InputStream source, long maxPixels, int orientation) throws IOException {
+        try (ImageInputStream input = new MemoryCacheImageInputStream(source)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return Optional.empty();
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    return Optional.empty();
+                }
+                // Skip rows and columns while decoding rather than scaling afterwards
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, Math.max(width, height) / SAMPLE_SIZE);
+                param.setSourceSubsampling(step, step, 0, 0);
+                BufferedImage image = reader.read(0, param);
+                if (orientation != 1) {
+                    image = ImageTranscoder.orient(image, orientation);
+                }
+                return Optional.of(image.getWidth() >= image.getHeight() ? encode(image, 4, 3) : encode(image, 3, 4));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Encode an image.
+     *
+     * @param image the image
+     * @param componentsX horizontal components, 1 to 9
+     * @param componentsY vertical components, 1 to 9
+     * @return the hash
+     */
+    public static String encode(BufferedImage image, int componentsX, int componentsY) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+
+        // Linear RGB once per pixel, not once per pixel and component
+        double[] linear = new double[pixels.length * 3];
+        for (int p = 0; p < pixels.length; p++) {
+            linear[p * 3] = toLinear(pixels[p] >> 16 & 0xFF);
+            linear[p * 3 + 1] = toLinear(pixels[p] >> 8 & 0xFF);
+            linear[p * 3 + 2] = toLinear(pixels[p] & 0xFF);
+        }
+
+        double[][] factors = new double[componentsX * componentsY][];
+        for (int j = 0; j < componentsY; j++) {
+            for (int i = 0; i < componentsX; i++) {
+                factors[j * componentsX + i] = factor(linear, width, height, i, j);
+            }
+        }
+
+        StringBuilder hash = new StringBuilder();
+        encode83(hash, (componentsX - 1) + (componentsY - 1) * 9, 1);
+
+        double maximumValue = 1;
+        if (factors.length > 1) {
+            double actualMaximum = 0;
+            for (int k = 1; k < factors.length; k++) {
+                for (double value : factors[k]) {
+                    actualMaximum = Math.max(actualMaximum, Math.abs(value));
+                }
+            }
+            int quantisedMaximum = (int) Math.max(0, Math.min(82, Math.floor(actualMaximum * 166 - 0.5)));
+            maximumValue = (quantisedMaximum + 1) / 166.0;
+            encode83(hash, quantisedMaximum, 1);
+        } else {
+            encode83(hash, 0, 1);
+        }
+
+        double[] dc = factors[0];
+        encode83(hash, toSrgb(dc[0]) << 16 | toSrgb(dc[1]) << 8 | toSrgb(dc[2]), 4);
+        for (int k = 1; k < factors.length; k++) {
+            encode83(hash, encodeAc(factors[k], maximumValue), 2);
+        }
+        return hash.toString();
+    }
+
+    private static double[] factor(double[] linear, int width, int height, int i, int j) {
+        double r = 0;
+        double g = 0;
+        double b = 0;
+        double normalisation = i == 0 && j == 0 ? 1 : 2;
+        for (int y = 0; y < height; y++) {
+            double basisY = Math.cos(Math.PI * j * y / height);
+            for (int x = 0; x < width; x++) {
+                double basis = normalisation * Math.cos(Math.PI * i * x / width) * basisY;
+                int p = (y * width + x) * 3;
+                r += basis * linear[p];
+                g += basis * linear[p + 1];
+                b += basis * linear[p + 2];
+            }
+        }
+        double scale = 1.0 / (width * height);
+        return new double[] {r * scale, g * scale, b * scale};
+    }
+
+    private static int encodeAc(double[] value, double maximumValue) {
+        int r = quantiseAc(value[0] / maximumValue);
+        int g = quantiseAc(value[1] / maximumValue);
+        int b = quantiseAc(value[2] / maximumValue);
+        return r * 19 * 19 + g * 19 + b;
+    }
+
+    private static int quantiseAc(double value) {
+        double signedRoot = Math.copySign(Math.sqrt(Math.abs(value)), value);
+        return (int) Math.max(0, Math.min(18, Math.floor(signedRoot * 9 + 9.5)));
+    }
+
+    private static double toLinear(int value) {
+        double v = value / 255.0;
+        return v <= 0.04045 ? v / 12.92 : Math.pow((v + 0.055) / 1.055, 2.4);
+    }
+
+    private static int toSrgb(double value) {
+        double v = Math.max(0, Math.min(1, value));
+        return v <= 0.0031308
+            ? (int) (v * 12.92 * 255 + 0.5)
+            : (int) ((1.055 * Math.pow(v, 1 / 2.4) - 0.055) * 255 + 0.5);
+    }
+
+    private static void encode83(StringBuilder hash, int value, int length) {
+        for (int i = 1; i <= length; i++) {
+            int digit = (int) (value / Math.pow(83, length - i)) % 83;
+            hash.append(CHARACTERS.charAt(digit));
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.layerten.media;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Off-heap LRU cache for the content of small, frequently served media objects.
+ * Content is held in direct buffers so cached bytes do not add to heap usage or
+ * GC pressure. Entries are keyed by storage key; keys are never reused for
+ * different content, so entries need no invalidation and objects deleted from
+ * storage simply age out.
+ */
+public class HotMediaCache implements MeterBinder {
+
+    /**
+     * Opens the content to cache on a miss.
+     */
+    @FunctionalInterface
+    public interface Loader {
+        InputStream open() throws IOException;
+    }
+
+    private final long maxEntrySize;
+    private final long maxTotalSize;
+    private final LinkedHashMap<String, ByteBuffer> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long residentBytes;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param maxEntrySize largest object that will be cached, in bytes
+     * @param maxTotalSize total bytes held across all entries; 0 disables the cache
+     */
+    public HotMediaCache(long maxEntrySize, long maxTotalSize) {
+        this.maxEntrySize = Math.min(maxEntrySize, Integer.MAX_VALUE);
+        this.maxTotalSize = maxTotalSize;
+    }
+
+    /**
+     * Whether an object of the given size is eligible for caching.
+     */
+    public boolean accepts(long size) {
+        return size > 0 && size <= maxEntrySize && size <= maxTotalSize;
+    }
+
+    /**
+     * Get an object's content, loading and caching it on a miss.
+     * Least recently used entries are evicted to stay within the byte budget.
+     *
+     * @param key the storage key
+     * @param size the object size; must be {@linkplain #accepts accepted}
+     * @param loader opens the object content on a miss
+     * @return a read-only view of the content, positioned at its start
+     * @throws IOException if the content cannot be loaded or is not the expected size
+     */
+    public ByteBuffer get(String key, long size, Loader loader) throws IOException {
+        ByteBuffer cached;
+        synchronized (this) {
+            cached = entries.get(key);
+        }
+        if (cached != null) {
+            hits.increment();
+            return cached.asReadOnlyBuffer();
+        }
+        misses.increment();
+
+        ByteBuffer loaded = load(key, (int) size, loader);
+        synchronized (this) {
+            ByteBuffer replaced = entries.put(key, loaded);
+            residentBytes += loaded.capacity() - (replaced != null ? replaced.capacity() : 0);
+            var eldest = entries.entrySet().iterator();
+            while (residentBytes > maxTotalSize && eldest.hasNext()) {
+                Map.Entry<String, ByteBuffer> entry = eldest.next();
+                residentBytes -= entry.getValue().capacity();
+                eldest.remove();
+            }
+        }
+        return loaded.asReadOnlyBuffer();
+    }
+
+    private static ByteBuffer load(String key, int size, Loader loader) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(size);
+        try (InputStream in = loader.open(); ReadableByteChannel channel = Channels.newChannel(in)) {
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // Keep reading until full or end of stream
+            }
+            if (buffer.hasRemaining() || in.read() >= 0) {
+                throw new IOException("Media object " + key + " does not match its recorded size of " + size + " bytes");
+            }
+        }
+        return buffer.flip();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public synchronized long getResidentBytes() {
+        return residentBytes;
+    }
+
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("layerten.media.cache.requests", this, HotMediaCache::getHits)
+            .tag("result", "hit")
+            .description("Media responses served from the hot cache")
+            .register(registry);
+        FunctionCounter.builder("layerten.media.cache.requests", this, HotMediaCache::getMisses)
+            .tag("result", "miss")
+            .description("Cacheable media responses loaded from storage")
+            .register(registry);
+        Gauge.builder("layerten.media.cache.hit.ratio", this, cache -> {
+                long total = cache.getHits() + cache.getMisses();
+                return total == 0 ? 0 : (double) cache.getHits() / total;
+            })
+            .description("Fraction of cacheable media responses served from the hot cache")
+            .register(registry);
+        Gauge.builder("layerten.media.cache.resident", this, HotMediaCache::getResidentBytes)
+            .baseUnit("bytes")
+            .description("Off-heap bytes held by the hot media cache")
+            .register(registry);
+        Gauge.builder("layerten.media.cache.entries", this, HotMediaCache::getEntryCount)
+            .description("Objects held by the hot media cache")
+            .register(registry);
+    }
+}
@@ -0,0 +1,81 @@
+package com.layerten.media;
+
+import java.util.Optional;
+
+/**
+ * Image formats accepted for upload, identified by their leading magic bytes
+ * rather than the client-supplied Content-Type.
+ */
+public enum ImageFormat {
+
+    JPEG("image/jpeg", ".jpg"),
+    PNG("image/png", ".png"),
+    GIF("image/gif", ".gif"),
+    WEBP("image/webp", ".webp");
+
+    /**
+     * Number of leading bytes needed to recognise every supported format.
+     */
+    public static final int SIGNATURE_LENGTH = 12;
+
+    private final String contentType;
+    private final String extension;
+
+    ImageFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Look up a format by its MIME type.
+     *
+     * @param contentType the MIME type, e.g. {@code image/png}
+     * @return the matching format, or empty if the type is not a supported image
+     */
+    public static Optional<ImageFormat> fromContentType(String contentType) {
+        for (ImageFormat format : values()) {
+            if (format.contentType.equalsIgnoreCase(contentType)) {
+                return Optional.of(format);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Detect the image format from the leading bytes of a file.
+     *
+     * @param head buffer holding the start of the file
+     * @param length number of valid bytes in the buffer
+     * @return the detected format, or empty if the bytes do not match a supported image
+     */
+    public static Optional<ImageFormat> detect(byte[] head, int length) {
+        if (length >= 3
+                && (head[0] & 0xFF) == 0xFF && (head[1] & 0xFF) == 0xD8 && (head[2] & 0xFF) == 0xFF) {
+            return Optional.of(JPEG);
+        }
+        if (length >= 8
+                && (head[0] & 0xFF) == 0x89 && head[1] == 'P' && head[2] == 'N' && head[3] == 'G'
+                && head[4] == 0x0D && head[5] == 0x0A && head[6] == 0x1A && head[7] == 0x0A) {
+            return Optional.of(PNG);
+        }
+        if (length >= 6
+                && head[0] == 'G' && head[1] == 'I' && head[2] == 'F' && head[3] == '8'
+                && (head[4] == '7' || head[4] == '9') && head[5] == 'a') {
+            return Optional.of(GIF);
+        }
+        if (length >= 12
+                && head[0] == 'R' && head[1] == 'I' && head[2] == 'F' && head[3] == 'F'
+                && head[8] == 'W' && head[9] == 'E' && head[10] == 'B' && head[11] == 'P') {
+            return Optional.of(WEBP);
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,11 @@
+package com.layerten.media;
+
+/**
+ * Result of probing an image header.
+ * Width and height are null when they could not be found within the probed bytes.
+ */
+public record ImageInfo(
+    ImageFormat format,
+    Integer width,
+    Integer height
+) {}
@@ -0,0 +1,267 @@
+package com.layerten.media;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+/**
+ * Header-only image inspection.
+ * Confirms the real image format from its magic bytes and reads the pixel
+ * dimensions for JPEG, PNG, GIF and WebP without decoding the image.
+ */
+public final class ImageProbe {
+
+    /**
+     * Number of leading bytes inspected. Large enough to get past typical
+     * JPEG EXIF/ICC segments to the frame header.
+     */
+    public static final int PROBE_LENGTH = 64 * 1024;
+
+    private ImageProbe() {
+    }
+
+    /**
+     * Probe the start of an image stream. Reads at most {@link #PROBE_LENGTH} bytes.
+     *
+     * @param in the image stream
+     * @return the probe result, or empty if the stream is not a supported image
+     * @throws IOException if the stream cannot be read
+     */
+    public static Optional<ImageInfo> probe(InputStream in) throws IOException {
+        byte[] head = in.readNBytes(PROBE_LENGTH);
+        return probe(head, head.length);
+    }
+
+    /**
+     * Probe an image from its leading bytes.
+     *
+     * @param head buffer holding the start of the image
+     * @param length number of valid bytes in the buffer
+     * @return the probe result, or empty if the bytes are not a supported image
+     */
+    public static Optional<ImageInfo> probe(byte[] head, int length) {
+        return ImageFormat.detect(head, length).map(format -> {
+            int[] size = switch (format) {
+                case JPEG -> jpegSize(head, length);
+                case PNG -> pngSize(head, length);
+                case GIF -> gifSize(head, length);
+                case WEBP -> webpSize(head, length);
+            };
+            return size == null
+                ? new ImageInfo(format, null, null)
+                : new ImageInfo(format, size[0], size[1]);
+        });
+    }
+
+    /**
+     * Read the EXIF orientation of a JPEG: how the stored pixels must be rotated
+     * or flipped to display upright.
+     *
+     * @param b buffer holding the start of the JPEG
+     * @param length number of valid bytes in the buffer
+     * @return the orientation, 1 to 8; 1 (upright) when the image has no EXIF orientation
+     */
+    public static int jpegOrientation(byte[] b, int length) {
+        int pos = 2;
+        while (pos + 3 < length) {
+            if ((b[pos] & 0xFF) != 0xFF) {
+                return 1;
+            }
+            int marker = b[pos + 1] & 0xFF;
+            if (marker == 0xFF) {
+                pos++;
+                continue;
+            }
+            if (marker == 0x01 || (marker >= 0xD0 && marker <= 0xD7)) {
+                pos += 2;
+                continue;
+            }
+            if (marker == 0xD9 || marker == 0xDA || isStartOfFrame(marker)) {
+                // EXIF must come before the frame header
+                return 1;
+            }
+            int segmentLength = uint16be(b, pos + 2);
+            int segmentEnd = Math.min(pos + 2 + segmentLength, length);
+            if (marker == 0xE1 && startsWith(b, pos + 4, segmentEnd, "Exif\0\0")) {
+                return exifOrientation(b, pos + 10, segmentEnd);
+            }
+            pos += 2 + segmentLength;
+        }
+        return 1;
+    }
+
+    /**
+     * Read the EXIF orientation from the start of a JPEG stream, then push the
+     * bytes read back so the stream can still be decoded from its start.
+     *
+     * @param in the JPEG stream, able to push back {@link #PROBE_LENGTH} bytes
+     * @return the orientation, 1 to 8; 1 (upright) when the image has no EXIF orientation
+     * @throws IOException if the stream cannot be read
+     */
+    public static int jpegOrientation(PushbackInputStream in) throws IOException {
+        byte[] head = in.readNBytes(PROBE_LENGTH);
+        in.unread(head);
+        return jpegOrientation(head, head.length);
+    }
+
+    /**
+     * Whether an EXIF orientation turns the image a quarter turn, so that it
+     * displays with its stored width and height swapped.
+     *
+     * @param orientation the orientation, 1 to 8
+     * @return true for orientations 5 to 8
+     */
+    public static boolean swapsDimensions(int orientation) {
+        return orientation >= 5 && orientation <= 8;
+    }
+
+    /**
+     * Find the orientation tag (0x0112) in IFD0 of an EXIF TIFF block.
+     */
+    private static int exifOrientation(byte[] b, int tiff, int end) {
+        if (tiff + 8 > end) {
+            return 1;
+        }
+        boolean littleEndian = b[tiff] == 'I' && b[tiff + 1] == 'I';
+        if (!littleEndian && !(b[tiff] == 'M' && b[tiff + 1] == 'M')) {
+            return 1;
+        }
+        long ifd = tiff + uint32(b, tiff + 4, littleEndian);
+        if (ifd + 2 > end) {
+            return 1;
+        }
+        int entries = uint16(b, (int) ifd, littleEndian);
+        for (int i = 0; i < entries; i++) {
+            int entry = (int) ifd + 2 + i * 12;
+            if (entry + 12 > end) {
+                return 1;
+            }
+            if (uint16(b, entry, littleEndian) == 0x0112) {
+                int orientation = uint16(b, entry + 8, littleEndian);
+                return orientation >= 1 && orientation <= 8 ? orientation : 1;
+            }
+        }
+        return 1;
+    }
+
+    private static int[] pngSize(byte[] b, int length) {
+        // 8-byte signature, then the IHDR chunk: length(4) "IHDR"(4) width(4) height(4)
+        if (length < 24 || b[12] != 'I' || b[13] != 'H' || b[14] != 'D' || b[15] != 'R') {
+            return null;
+        }
+        return new int[] {int32be(b, 16), int32be(b, 20)};
+    }
+
+    private static int[] gifSize(byte[] b, int length) {
+        // Logical screen descriptor follows the 6-byte header
+        if (length < 10) {
+            return null;
+        }
+        return new int[] {uint16le(b, 6), uint16le(b, 8)};
+    }
+
+    private static int[] webpSize(byte[] b, int length) {
+        if (length < 30) {
+            return null;
+        }
+        String chunk = new String(b, 12, 4, StandardCharsets.US_ASCII);
+        switch (chunk) {
+            case "VP8 ":
+                // Lossy: frame tag (3 bytes) then start code 9D 01 2A, then 14-bit width/height
+                if ((b[23] & 0xFF) != 0x9D || (b[24] & 0xFF) != 0x01 || (b[25] & 0xFF) != 0x2A) {
+                    return null;
+                }
+                return new int[] {uint16le(b, 26) & 0x3FFF, uint16le(b, 28) & 0x3FFF};
+            case "VP8L":
+                // Lossless: signature 0x2F then width-1 and height-1 packed as 14-bit fields
+                if ((b[20] & 0xFF) != 0x2F) {
+                    return null;
+                }
+                int bits = (b[21] & 0xFF) | (b[22] & 0xFF) << 8 | (b[23] & 0xFF) << 16 | (b[24] & 0xFF) << 24;
+                return new int[] {(bits & 0x3FFF) + 1, ((bits >>> 14) & 0x3FFF) + 1};
+            case "VP8X":
+                // Extended: 24-bit canvas width-1 and height-1
+                return new int[] {uint24le(b, 24) + 1, uint24le(b, 27) + 1};
+            default:
+                return null;
+        }
+    }
+
+    private static int[] jpegSize(byte[] b, int length) {
+        int pos = 2;
+        while (pos + 3 < length) {
+            if ((b[pos] & 0xFF) != 0xFF) {
+                return null;
+            }
+            int marker = b[pos + 1] & 0xFF;
+            if (marker == 0xFF) {
+                // Fill byte
+                pos++;
+                continue;
+            }
+            if (marker == 0x01 || (marker >= 0xD0 && marker <= 0xD7)) {
+                // Standalone markers carry no length
+                pos += 2;
+                continue;
+            }
+            if (marker == 0xD9 || marker == 0xDA) {
+                // End of image or start of scan before any frame header
+                return null;
+            }
+            int segmentLength = uint16be(b, pos + 2);
+            if (isStartOfFrame(marker)) {
+                if (pos + 8 >= length) {
+                    return null;
+                }
+                return new int[] {uint16be(b, pos + 7), uint16be(b, pos + 5)};
+            }
+            pos += 2 + segmentLength;
+        }
+        return null;
+    }
+
+    private static boolean isStartOfFrame(int marker) {
+        return marker >= 0xC0 && marker <= 0xCF && marker != 0xC4 && marker != 0xC8 && marker != 0xCC;
+    }
+
+    private static boolean startsWith(byte[] b, int offset, int end, String prefix) {
+        if (offset + prefix.length() > end) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (b[offset + i] != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int uint16(byte[] b, int offset, boolean littleEndian) {
+        return littleEndian ? uint16le(b, offset) : uint16be(b, offset);
+    }
+
+    private static long uint32(byte[] b, int offset, boolean littleEndian) {
+        long value = littleEndian
+            ? (long) uint16le(b, offset + 2) << 16 | uint16le(b, offset)
+            : (long) uint16be(b, offset) << 16 | uint16be(b, offset + 2);
+        return value & 0xFFFFFFFFL;
+    }
+
+    private static int uint16be(byte[] b, int offset) {
+        return (b[offset] & 0xFF) << 8 | (b[offset + 1] & 0xFF);
+    }
+
+    private static int uint16le(byte[] b, int offset) {
+        return (b[offset] & 0xFF) | (b[offset + 1] & 0xFF) << 8;
+    }
+
+    private static int uint24le(byte[] b, int offset) {
+        return (b[offset] & 0xFF) | (b[offset + 1] & 0xFF) << 8 | (b[offset + 2] & 0xFF) << 16;
+    }
+
+    private static int int32be(byte[] b, int offset) {
+        return (b[offset] & 0xFF) << 24 | (b[offset + 1] & 0xFF) << 16 | (b[offset + 2] & 0xFF) << 8 | (b[offset + 3] & 0xFF);
+    }
+}
@@ -0,0 +1,190 @@
+package com.layerten.media;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Optional;
+
+/**
+ * Re-encodes images into another format using the ImageIO readers and writers
+ * available at runtime. The JDK itself only writes JPEG, PNG and GIF; WebP is
+ * available when an ImageIO WebP plugin is on the classpath.
+ */
+public class ImageTranscoder {
+
+    private final float quality;
+    private final long maxPixels;
+
+    /**
+     * @param quality lossy compression quality between 0 and 1
+     * @param maxPixels largest source image (width x height) that will be decoded
+     */
+    public ImageTranscoder(float quality, long maxPixels) {
+        this.quality = quality;
+        this.maxPixels = maxPixels;
+    }
+
+    /**
+     * Whether an ImageIO writer is registered for the format.
+     */
+    public boolean canEncode(ImageFormat target) {
+        return ImageIO.getImageWritersByMIMEType(target.getContentType()).hasNext();
+    }
+
+    /**
+     * Decode an image and encode it in the target format.
+     *
+     * @param source the source image
+     * @param target the format to encode to
+     * @return the encoded image, or empty if the source cannot be decoded, is too large,
+     *         or has transparency the target format cannot represent
+     */
+    public Optional<byte[]> transcode(InputStream source, ImageFormat target) throws IOException {
+        return transcode(source, target, 1);
+    }
+
+    /**
+     * Decode an image, turn it upright according to its EXIF orientation and
+     * encode it in the target format. Metadata is not carried over, so the
+     * result needs no orientation of its own.
+     *
+     * @param source the source image
+     * @param target the format to encode to
+     * @param orientation the source's EXIF orientation, 1 to 8
+     * @return the encoded image, or empty if the source cannot be decoded, is too large,
+     *         or has transparency the target format cannot represent
+     */
+    public Optional<byte[]> transcode(InputStream source, ImageFormat target, int orientation) throws IOException {
+        BufferedImage image = decode(source);
+        if (image == null) {
+            return Optional.empty();
+        }
+        if (target == ImageFormat.JPEG) {
+            // JPEG has no alpha channel; flattening transparent images would change how they look
+            if (!isOpaque(image)) {
+                return Optional.empty();
+            }
+            image = toRgb(image, orientation);
+        } else if (orientation != 1) {
+            image = orient(image, orientation);
+        }
+        return encode(image, target);
+    }
+
+    private BufferedImage decode(InputStream source) throws IOException {
+        try (ImageInputStream input = new MemoryCacheImageInputStream(source)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                // Check the header dimensions before allocating the decoded raster
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > maxPixels) {
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private Optional<byte[]> encode(BufferedImage image, ImageFormat target) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByMIMEType(target.getContentType());
+        if (!writers.hasNext()) {
+            return Optional.empty();
+        }
+        ImageWriter writer = writers.next();
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        try (ImageOutputStream output = new MemoryCacheImageOutputStream(encoded)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (param.canWriteCompressed()) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                if (param.getCompressionType() == null && param.getCompressionTypes() != null) {
+                    param.setCompressionType(param.getCompressionTypes()[0]);
+                }
+                param.setCompressionQuality(quality);
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return Optional.of(encoded.toByteArray());
+    }
+
+    private static boolean isOpaque(BufferedImage image) {
+        if (!image.getColorModel().hasAlpha()) {
+            return true;
+        }
+        int width = image.getWidth();
+        int[] row = new int[width];
+        for (int y = 0; y < image.getHeight(); y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            for (int argb : row) {
+                if ((argb >>> 24) != 0xFF) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static BufferedImage toRgb(BufferedImage image, int orientation) {
+        if (image.getType() == BufferedImage.TYPE_INT_RGB && orientation == 1) {
+            return image;
+        }
+        return draw(image, BufferedImage.TYPE_INT_RGB, orientation);
+    }
+
+    /**
+     * Turn an image upright according to an EXIF orientation, keeping its pixel type.
+     */
+    static BufferedImage orient(BufferedImage image, int orientation) {
+        int type = image.getType() == BufferedImage.TYPE_CUSTOM ? BufferedImage.TYPE_INT_ARGB : image.getType();
+        return draw(image, type, orientation);
+    }
+
+    /**
+     * Draw an image into a new one of the given type, applying an EXIF
+     * orientation. Orientations 5 to 8 swap width and height.
+     */
+    private static BufferedImage draw(BufferedImage image, int type, int orientation) {
+        int w = image.getWidth();
+        int h = image.getHeight();
+        AffineTransform transform = switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, w, 0);   // mirrored
+            case 3 -> new AffineTransform(-1, 0, 0, -1, w, h);  // rotated 180
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, h);   // flipped vertically
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);    // transposed
+            case 6 -> new AffineTransform(0, 1, -1, 0, h, 0);   // rotated 90 clockwise
+            case 7 -> new AffineTransform(0, -1, -1, 0, h, w);  // transversed
+            case 8 -> new AffineTransform(0, -1, 1, 0, 0, w);   // rotated 90 counter-clockwise
+            default -> new AffineTransform();
+        };
+        boolean swap = ImageProbe.swapsDimensions(orientation);
+        BufferedImage result = new BufferedImage(swap ? h : w, swap ? w : h, type);
+        Graphics2D graphics = result.createGraphics();
+        try {
+            graphics.drawImage(image, transform, null);
+        } finally {
+            graphics.dispose();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,145 @@
+package com.layerten.media;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Input stream wrapper that validates an upload while it is being copied.
+ * Enforces the maximum upload size and checks the image magic bytes as soon as
+ * enough of the stream has been read, so invalid uploads fail before they are
+ * fully written. The leading bytes are retained so the image header can be
+ * probed afterwards without reading the file again. A SHA-256 of the content
+ * is computed on the way through.
+ */
+public class InspectingUploadStream extends FilterInputStream {
+
+    private final long maxBytes;
+    private final byte[] head = new byte[ImageProbe.PROBE_LENGTH];
+    private int headLength;
+    private long bytesRead;
+    private ImageFormat format;
+    private final MessageDigest digest;
+
+    public InspectingUploadStream(InputStream in, long maxBytes) {
+        super(in);
+        this.maxBytes = maxBytes;
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b == -1) {
+            onEndOfStream();
+        } else {
+            onBytes(new byte[] {(byte) b}, 0, 1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int n = super.read(buffer, offset, length);
+        if (n == -1) {
+            onEndOfStream();
+        } else {
+            onBytes(buffer, offset, n);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        throw new IOException("Skipping is not supported on upload streams");
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    /**
+     * @return the number of bytes read so far
+     */
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    /**
+     * @return the detected image format, or null if not enough bytes have been read yet
+     */
+    public ImageFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * Hex SHA-256 of the content. Only meaningful once the stream has been fully
+     * read, and may only be called once.
+     *
+     * @return the content hash
+     */
+    public String getContentHash() {
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Probe the retained image header for format and dimensions.
+     * Only meaningful once the stream has been fully read.
+     *
+     * @return the image info for the upload
+     */
+    public ImageInfo getImageInfo() {
+        return ImageProbe.probe(head, headLength)
+            .orElseThrow(() -> new IllegalStateException("Upload has not been identified as an image"));
+    }
+
+    /**
+     * EXIF orientation from the retained header: how the stored pixels must be
+     * turned to display upright. Only meaningful once the stream has been fully read.
+     *
+     * @return the orientation, 1 to 8; 1 for formats other than JPEG
+     */
+    public int getOrientation() {
+        return format == ImageFormat.JPEG ? ImageProbe.jpegOrientation(head, headLength) : 1;
+    }
+
+    private void onBytes(byte[] buffer, int offset, int length) throws IOException {
+        bytesRead += length;
+        if (bytesRead > maxBytes) {
+            throw new UploadRejectedException("File size exceeds maximum allowed size of " + maxBytes + " bytes");
+        }
+        digest.update(buffer, offset, length);
+
+        if (headLength < head.length) {
+            int copy = Math.min(length, head.length - headLength);
+            System.arraycopy(buffer, offset, head, headLength, copy);
+            headLength += copy;
+        }
+        if (format == null && headLength >= ImageFormat.SIGNATURE_LENGTH) {
+            detectFormat();
+        }
+    }
+
+    private void onEndOfStream() throws IOException {
+        if (bytesRead == 0) {
+            throw new UploadRejectedException("File is empty");
+        }
+        if (format == null) {
+            detectFormat();
+        }
+    }
+
+    private void detectFormat() throws IOException {
+        format = ImageFormat.detect(head, headLength)
+            .orElseThrow(() -> new UploadRejectedException(
+                "File must be a valid image format (JPEG, PNG, GIF, WebP)"));
+    }
+}
@@ -0,0 +1,118 @@
+package com.layerten.media;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * {@link MediaStorage} backed by a directory on the local filesystem.
+ * Writes go to a temporary file beside the target and are atomically renamed into place.
+ */
+public class LocalMediaStorage implements MediaStorage {
+
+    private final Path root;
+
+    public LocalMediaStorage(Path root) throws IOException {
+        this.root = root.toAbsolutePath().normalize();
+        Files.createDirectories(this.root);
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    @Override
+    public void put(String key, InputStream content, long contentLength, String contentType) throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        Path part = target.resolveSibling("." + UUID.randomUUID() + ".part");
+        try {
+            Files.copy(content, part);
+            Files.move(part, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(part);
+        }
+    }
+
+    @Override
+    public InputStream get(String key) throws IOException {
+        return Files.newInputStream(resolve(key));
+    }
+
+    @Override
+    public InputStream getRange(String key, long offset, long length) throws IOException {
+        SeekableByteChannel channel = Files.newByteChannel(resolve(key));
+        try {
+            channel.position(offset);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return new BoundedInputStream(Channels.newInputStream(channel), length);
+    }
+
+    @Override
+    public void move(String sourceKey, String targetKey) throws IOException {
+        Path target = resolve(targetKey);
+        Files.createDirectories(target.getParent());
+        Files.move(resolve(sourceKey), target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        return Files.deleteIfExists(resolve(key));
+    }
+
+    @Override
+    public Optional<StoredObject> stat(String key) throws IOException {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(resolve(key), BasicFileAttributes.class);
+            return Optional.of(new StoredObject(key, attributes.size(), attributes.lastModifiedTime().toInstant()));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public Stream<StoredObject> list() throws IOException {
+        return Files.walk(root)
+            .<StoredObject>mapMulti(this::statFile);
+    }
+
+    /**
+     * Emit metadata for a regular file, skipping directories and files removed
+     * since the directory was read.
+     */
+    private void statFile(Path path, Consumer<StoredObject> sink) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            if (attributes.isRegularFile()) {
+                String key = root.relativize(path).toString().replace(path.getFileSystem().getSeparator(), "/");
+                sink.accept(new StoredObject(key, attributes.size(), attributes.lastModifiedTime().toInstant()));
+            }
+        } catch (IOException e) {
+            // Deleted while walking; nothing to report
+        }
+    }
+
+    /**
+     * Resolve a key to a path, refusing keys that would escape the storage root.
+     */
+    Path resolve(String key) {
+        Path path = root.resolve(key).normalize();
+        if (!path.startsWith(root) || path.equals(root)) {
+            throw new IllegalArgumentException("Invalid media storage key: " + key);
+        }
+        return path;
+    }
+}
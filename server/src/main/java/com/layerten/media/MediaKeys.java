@@ -0,0 +1,48 @@
+package com.layerten.media;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Storage key layout for media files.
+ * Files are fanned out over two directory levels named after a hash of the
+ * file name ({@code ab/cd/name.jpg}), so no single directory grows past a few
+ * thousand entries. Assets stored before this layout sit flat under the root.
+ */
+public final class MediaKeys {
+
+    private MediaKeys() {
+    }
+
+    /**
+     * The sharded key for a file name.
+     *
+     * @param name the file name, e.g. {@code 3f2a....jpg}
+     * @return the key, e.g. {@code 9c/41/3f2a....jpg}
+     */
+    public static String sharded(String name) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(name.getBytes(StandardCharsets.UTF_8));
+            HexFormat hex = HexFormat.of();
+            return hex.toHexDigits(hash[0]) + "/" + hex.toHexDigits(hash[1]) + "/" + name;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Whether a key already uses the sharded layout.
+     */
+    public static boolean isSharded(String key) {
+        return key.equals(sharded(name(key)));
+    }
+
+    /**
+     * The file name part of a key.
+     */
+    public static String name(String key) {
+        return key.substring(key.lastIndexOf('/') + 1);
+    }
+}
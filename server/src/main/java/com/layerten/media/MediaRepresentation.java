@@ -0,0 +1,15 @@
+package com.layerten.media;
+
+/**
+ * One stored encoding of a media asset: either the original upload or a
+ * re-encoded variant chosen by content negotiation. The fingerprint is that
+ * of the asset, shared by the original and its variants.
+ */
+public record MediaRepresentation(
+    String storageKey,
+    String filename,
+    String contentType,
+    long size,
+    boolean variant,
+    String fingerprint
+) {}
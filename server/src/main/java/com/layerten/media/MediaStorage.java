@@ -0,0 +1,88 @@
+package com.layerten.media;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Storage backend for media file content.
+ * Objects are addressed by a relative key (for example {@code 3f2a....jpg});
+ * metadata about the object lives in the {@code media_asset} table.
+ * Implementations must make {@link #put} atomic: readers either see the
+ * previous object or the complete new one, never a partial write.
+ */
+public interface MediaStorage {
+
+    /**
+     * Store an object, replacing any existing object under the same key.
+     * The content stream is fully consumed but not closed.
+     *
+     * @param key the object key
+     * @param content the object content
+     * @param contentLength the content length in bytes, or -1 if unknown
+     * @param contentType the MIME type of the content
+     * @throws IOException if the object cannot be written
+     */
+    void put(String key, InputStream content, long contentLength, String contentType) throws IOException;
+
+    /**
+     * Open an object for reading.
+     *
+     * @param key the object key
+     * @return a stream over the whole object; the caller must close it
+     * @throws java.nio.file.NoSuchFileException if the object does not exist
+     * @throws IOException if the object cannot be read
+     */
+    InputStream get(String key) throws IOException;
+
+    /**
+     * Open a byte range of an object for reading.
+     *
+     * @param key the object key
+     * @param offset the first byte to read
+     * @param length the number of bytes to read
+     * @return a stream over the requested range; the caller must close it
+     * @throws java.nio.file.NoSuchFileException if the object does not exist
+     * @throws IOException if the object cannot be read
+     */
+    InputStream getRange(String key, long offset, long length) throws IOException;
+
+    /**
+     * Move an object to a new key, replacing any object already there.
+     *
+     * @param sourceKey the current key
+     * @param targetKey the new key
+     * @throws java.nio.file.NoSuchFileException if the source object does not exist
+     * @throws IOException if the object cannot be moved
+     */
+    void move(String sourceKey, String targetKey) throws IOException;
+
+    /**
+     * Delete an object if it exists.
+     *
+     * @param key the object key
+     * @return true if an object was deleted
+     * @throws IOException if the object cannot be deleted
+     */
+    boolean delete(String key) throws IOException;
+
+    /**
+     * Look up an object's size and modification time.
+     *
+     * @param key the object key
+     * @return the object metadata, or empty if the object does not exist
+     * @throws IOException if the backend cannot be queried
+     */
+    Optional<StoredObject> stat(String key) throws IOException;
+
+    /**
+     * List every stored object, including temporary objects left behind by
+     * interrupted writes. The stream is lazy, so large stores can be processed
+     * in batches without holding the whole listing in memory.
+     *
+     * @return a stream of object metadata; the caller must close it
+     * @throws IOException if the listing cannot be started
+     */
+    Stream<StoredObject> list() throws IOException;
+}
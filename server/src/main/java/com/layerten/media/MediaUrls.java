@@ -0,0 +1,60 @@
+package com.layerten.media;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Public URLs for media files.
+ * URLs carry a fingerprint of the asset's content ({@code /api/media/42/9c41d2e07a1b3f55.jpg}),
+ * so a URL always names the same bytes and can be cached forever; a change to
+ * the content, or to how variants are derived from it, produces a new URL.
+ */
+public final class MediaUrls {
+
+    /**
+     * Version of the variant encoding pipeline. Bump it whenever the bytes a
+     * variant would be encoded to change (quality, encoder, target formats), so
+     * every fingerprinted URL changes with it.
+     */
+    public static final int DERIVATIVE_VERSION = 2;
+
+    private static final int FINGERPRINT_BYTES = 8;
+
+    private MediaUrls() {
+    }
+
+    /**
+     * The fingerprint of an asset's current content.
+     *
+     * @param contentHash hex SHA-256 of the content, or null for assets uploaded before it was recorded
+     * @param storageKey the asset's storage key; its file name is never reused, so it stands in for
+     *                   the content hash of older assets
+     * @return a short hex fingerprint
+     */
+    public static String fingerprint(String contentHash, String storageKey) {
+        String basis = contentHash != null ? contentHash : MediaKeys.name(storageKey);
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                .digest((basis + ":" + DERIVATIVE_VERSION).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, FINGERPRINT_BYTES);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * The fingerprinted URL path of an asset.
+     *
+     * @param id the media asset ID
+     * @param fingerprint the asset's current fingerprint
+     * @param filename the stored file name, which supplies the extension
+     * @return e.g. {@code /api/media/42/9c41d2e07a1b3f55.jpg}
+     */
+    public static String path(Long id, String fingerprint, String filename) {
+        int dot = filename.lastIndexOf('.');
+        String extension = dot > 0 ? filename.substring(dot) : ".bin";
+        return "/api/media/" + id + "/" + fingerprint + extension;
+    }
+}
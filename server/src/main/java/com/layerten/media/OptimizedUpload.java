@@ -0,0 +1,12 @@
+package com.layerten.media;
+
+/**
+ * Result of recompressing an upload: the file that replaced it in storage.
+ */
+public record OptimizedUpload(
+    long size,
+    String contentHash, // Hex SHA-256 of the optimized file
+    Integer width, // Upright pixel width, null if unknown
+    Integer height, // Upright pixel height, null if unknown
+    long bytesSaved
+) {}
@@ -0,0 +1,205 @@
+package com.layerten.media;
+
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * {@link MediaStorage} backed by an S3-compatible object store, so several
+ * application nodes can share the same media.
+ * Objects are stored under an optional key prefix inside a single bucket.
+ */
+public class S3MediaStorage implements MediaStorage {
+
+    /**
+     * Part size used when the content length is not known up front.
+     * S3 requires every part except the last to be at least 5MB.
+     */
+    static final int MULTIPART_PART_SIZE = 5 * 1024 * 1024;
+
+    private final S3Client s3;
+    private final String bucket;
+    private final String prefix;
+
+    public S3MediaStorage(S3Client s3, String bucket, String prefix) {
+        this.s3 = s3;
+        this.bucket = bucket;
+        this.prefix = prefix == null ? "" : prefix;
+    }
+
+    @Override
+    public void put(String key, InputStream content, long contentLength, String contentType) throws IOException {
+        try {
+            if (contentLength >= 0) {
+                s3.putObject(
+                    request -> request.bucket(bucket).key(objectKey(key)).contentType(contentType).contentLength(contentLength),
+                    RequestBody.fromInputStream(content, contentLength));
+            } else {
+                putUnknownLength(objectKey(key), content, contentType);
+            }
+        } catch (SdkException e) {
+            throw rejectionOr(e, new IOException("Could not store media object " + key, e));
+        }
+    }
+
+    @Override
+    public InputStream get(String key) throws IOException {
+        try {
+            return s3.getObject(request -> request.bucket(bucket).key(objectKey(key)));
+        } catch (S3Exception e) {
+            throw translate(key, e);
+        } catch (SdkException e) {
+            throw new IOException("Could not read media object " + key, e);
+        }
+    }
+
+    @Override
+    public InputStream getRange(String key, long offset, long length) throws IOException {
+        String range = "bytes=" + offset + "-" + (offset + length - 1);
+        try {
+            return s3.getObject(request -> request.bucket(bucket).key(objectKey(key)).range(range));
+        } catch (S3Exception e) {
+            throw translate(key, e);
+        } catch (SdkException e) {
+            throw new IOException("Could not read media object " + key, e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * S3 has no rename, so the object is copied server-side and the source deleted.
+     */
+    @Override
+    public void move(String sourceKey, String targetKey) throws IOException {
+        try {
+            s3.copyObject(request -> request
+                .sourceBucket(bucket).sourceKey(objectKey(sourceKey))
+                .destinationBucket(bucket).destinationKey(objectKey(targetKey)));
+            s3.deleteObject(request -> request.bucket(bucket).key(objectKey(sourceKey)));
+        } catch (S3Exception e) {
+            throw translate(sourceKey, e);
+        } catch (SdkException e) {
+            throw new IOException("Could not move media object " + sourceKey, e);
+        }
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        // S3 deletes are idempotent and do not report whether the object existed
+        boolean existed = stat(key).isPresent();
+        try {
+            s3.deleteObject(request -> request.bucket(bucket).key(objectKey(key)));
+        } catch (SdkException e) {
+            throw new IOException("Could not delete media object " + key, e);
+        }
+        return existed;
+    }
+
+    @Override
+    public Optional<StoredObject> stat(String key) throws IOException {
+        try {
+            HeadObjectResponse head = s3.headObject(request -> request.bucket(bucket).key(objectKey(key)));
+            return Optional.of(new StoredObject(key, head.contentLength(), head.lastModified()));
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                return Optional.empty();
+            }
+            throw new IOException("Could not stat media object " + key, e);
+        } catch (SdkException e) {
+            throw new IOException("Could not stat media object " + key, e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * Pages of the listing are requested as the stream is consumed; a failure
+     * part-way through surfaces as an unchecked {@link SdkException}.
+     */
+    @Override
+    public Stream<StoredObject> list() throws IOException {
+        try {
+            return s3.listObjectsV2Paginator(request -> request.bucket(bucket).prefix(prefix))
+                .contents()
+                .stream()
+                .map(object -> new StoredObject(
+                    object.key().substring(prefix.length()), object.size(), object.lastModified()));
+        } catch (SdkException e) {
+            throw new IOException("Could not list media objects", e);
+        }
+    }
+
+    /**
+     * Upload a stream of unknown length. Small objects go up in a single request;
+     * larger ones are sent as a multipart upload so at most one part is held in memory.
+     */
+    private void putUnknownLength(String objectKey, InputStream content, String contentType) throws IOException {
+        byte[] firstPart = content.readNBytes(MULTIPART_PART_SIZE);
+        if (firstPart.length < MULTIPART_PART_SIZE) {
+            s3.putObject(
+                request -> request.bucket(bucket).key(objectKey).contentType(contentType),
+                RequestBody.fromBytes(firstPart));
+            return;
+        }
+
+        String uploadId = s3.createMultipartUpload(
+            request -> request.bucket(bucket).key(objectKey).contentType(contentType)).uploadId();
+        try {
+            List<CompletedPart> parts = new ArrayList<>();
+            byte[] part = firstPart;
+            while (part.length > 0) {
+                int partNumber = parts.size() + 1;
+                byte[] body = part;
+                String eTag = s3.uploadPart(
+                    request -> request.bucket(bucket).key(objectKey).uploadId(uploadId)
+                        .partNumber(partNumber).contentLength((long) body.length),
+                    RequestBody.fromBytes(body)).eTag();
+                parts.add(CompletedPart.builder().partNumber(partNumber).eTag(eTag).build());
+                part = content.readNBytes(MULTIPART_PART_SIZE);
+            }
+            s3.completeMultipartUpload(request -> request.bucket(bucket).key(objectKey).uploadId(uploadId)
+                .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build()));
+        } catch (IOException | RuntimeException e) {
+            s3.abortMultipartUpload(request -> request.bucket(bucket).key(objectKey).uploadId(uploadId));
+            throw e;
+        }
+    }
+
+    private String objectKey(String key) {
+        return prefix + key;
+    }
+
+    /**
+     * The SDK wraps failures of the request body stream; an upload rejected by
+     * its own content is passed on as it is, so callers can tell it apart from
+     * a storage failure.
+     */
+    private static IOException rejectionOr(SdkException e, IOException otherwise) {
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof UploadRejectedException rejected) {
+                return rejected;
+            }
+        }
+        return otherwise;
+    }
+
+    private IOException translate(String key, S3Exception e) {
+        if (e.statusCode() == 404) {
+            NoSuchFileException notFound = new NoSuchFileException(key);
+            notFound.initCause(e);
+            return notFound;
+        }
+        return new IOException("Could not read media object " + key, e);
+    }
+}
@@ -0,0 +1,12 @@
+package com.layerten.media;
+
+import java.time.Instant;
+
+/**
+ * Metadata for an object held in {@link MediaStorage}.
+ */
+public record StoredObject(
+    String key,
+    long size,
+    Instant lastModified
+) {}
@@ -0,0 +1,16 @@
+package com.layerten.media;
+
+import java.io.IOException;
+
+/**
+ * Thrown while an upload is being streamed when its content violates the upload rules
+ * (size limit or unrecognised image signature).
+ */
+public class UploadRejectedException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    public UploadRejectedException(String message) {
+        super(message);
+    }
+}
@@ -2,21 +2,28 @@ package com.layerten.repository;
 
 import com.layerten.entity.BlogPost;
 import com.layerten.entity.PostStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository for BlogPost entity.
- * Provides custom query methods for slug lookup, tag filtering, search, and status filtering.
+ * Provides custom query methods for slug lookup, search, and status filtering;
+ * tag-filtered pages are specifications (see {@link ContentSpecifications}).
  */
 @Repository
-public interface BlogPostRepository extends JpaRepository<BlogPost, Long> {
+public interface BlogPostRepository extends JpaRepository<BlogPost, Long>, JpaSpecificationExecutor<BlogPost> {
     
     /**
      * Find a blog post by its slug.
@@ -26,6 +33,14 @@ public interface BlogPostRepository extends JpaRepository<BlogPost, Long> {
      */
     Optional<BlogPost> findBySlug(String slug);
     
+    /**
+     * Find all blog posts carrying a tag, whatever their status.
+     * 
+     * @param tagId the tag ID
+     * @return the posts carrying the tag
+     */
+    List<BlogPost> findByTagsId(Long tagId);
+    
     /**
      * Find all blog posts with a specific status.
      * 
@@ -52,42 +67,6 @@ public interface BlogPostRepository extends JpaRepository<BlogPost, Long> {
         Pageable pageable
     );
     
-    /**
-     * Find blog posts by tag name with status filter.
-     * 
-     * @param tagName the tag name to filter by
-     * @param status the post status to filter by
-     * @param pageable pagination information
-     * @return a page of blog posts with the specified tag and status
-     */
-    @Query("SELECT DISTINCT bp FROM BlogPost bp JOIN bp.tags t " +
-           "WHERE bp.status = :status AND t.name = :tagName")
-    Page<BlogPost> findByStatusAndTagName(
-        @Param("tagName") String tagName,
-        @Param("status") PostStatus status,
-        Pageable pageable
-    );
-    
-    /**
-     * Search blog posts by tag name and title/excerpt with status filter.
-     * 
-     * @param tagName the tag name to filter by
-     * @param search the search term
-     * @param status the post status to filter by
-     * @param pageable pagination information
-     * @return a page of matching blog posts
-     */
-    @Query("SELECT DISTINCT bp FROM BlogPost bp JOIN bp.tags t " +
-           "WHERE bp.status = :status AND t.name = :tagName " +
-           "AND (LOWER(bp.title) LIKE LOWER(CONCAT('%', :search, '%')) " +
-           "OR LOWER(bp.excerpt) LIKE LOWER(CONCAT('%', :search, '%')))")
-    Page<BlogPost> findByStatusAndTagNameAndTitleOrExcerptContaining(
-        @Param("tagName") String tagName,
-        @Param("search") String search,
-        @Param("status") PostStatus status,
-        Pageable pageable
-    );
-    
     /**
      * Check if a slug already exists.
      * 
@@ -113,35 +92,17 @@ public interface BlogPostRepository extends JpaRepository<BlogPost, Long> {
     );
     
     /**
-     * Find blog posts by tag name without status filter.
-     * Used for admin queries.
-     * 
-     * @param tagName the tag name to filter by
-     * @param pageable pagination information
-     * @return a page of blog posts with the specified tag
-     */
-    @Query("SELECT DISTINCT bp FROM BlogPost bp JOIN bp.tags t WHERE t.name = :tagName")
-    Page<BlogPost> findByTagName(
-        @Param("tagName") String tagName,
-        Pageable pageable
-    );
-    
-    /**
-     * Search blog posts by tag name and title/excerpt without status filter.
-     * Used for admin queries.
+     * Stream blog posts in ID order after the given ID, for export.
+     * Rows are fetched from a database cursor in batches rather than all at once,
+     * so the stream must be consumed within a transaction and closed.
      * 
-     * @param tagName the tag name to filter by
-     * @param search the search term
-     * @param pageable pagination information
-     * @return a page of matching blog posts
+     * @param afterId only return blog posts with an ID greater than this
+     * @return the blog posts, loaded read-only
      */
-    @Query("SELECT DISTINCT bp FROM BlogPost bp JOIN bp.tags t " +
-           "WHERE t.name = :tagName " +
-           "AND (LOWER(bp.title) LIKE LOWER(CONCAT('%', :search, '%')) " +
-           "OR LOWER(bp.excerpt) LIKE LOWER(CONCAT('%', :search, '%')))")
-    Page<BlogPost> findByTagNameAndTitleOrExcerptContaining(
-        @Param("tagName") String tagName,
-        @Param("search") String search,
-        Pageable pageable
-    );
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT bp FROM BlogPost bp WHERE bp.id > :afterId ORDER BY bp.id")
+    Stream<BlogPost> streamByIdAfter(@Param("afterId") Long afterId);
 }
@@ -0,0 +1,52 @@
+package com.layerten.repository;
+
+import com.layerten.dto.TagMatch;
+import com.layerten.entity.BlogPost;
+import com.layerten.entity.PostStatus;
+import jakarta.persistence.criteria.Predicate;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Locale;
+
+/**
+ * Query building blocks for the public list and post pages, used when a page
+ * is filtered by tags.
+ */
+public final class ContentSpecifications {
+
+    private ContentSpecifications() {
+    }
+
+    /**
+     * Content whose {@code tagSlugs} contain all or any of the given slugs.
+     * A single array comparison, answered by the column's GIN index on PostgreSQL.
+     */
+    public static <T> Specification<T> taggedWith(Collection<String> tagSlugs, TagMatch match) {
+        String function = match == TagMatch.ALL ? TagArrayFunctions.CONTAINS_ALL : TagArrayFunctions.CONTAINS_ANY;
+        String[] slugs = tagSlugs.toArray(String[]::new);
+        // Bound rather than inlined, so every combination of tags shares one statement
+        return (root, query, cb) -> cb.isTrue(cb.function(
+            function, Boolean.class, root.get("tagSlugs"), ((HibernateCriteriaBuilder) cb).value(slugs)));
+    }
+
+    public static <T> Specification<T> published() {
+        return (root, query, cb) -> cb.isNotNull(root.get("publishedAt"));
+    }
+
+    public static Specification<BlogPost> hasStatus(PostStatus status) {
+        return (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    /**
+     * Content with the search term in any of the given text attributes (case-insensitive).
+     */
+    public static <T> Specification<T> containsText(String search, String... attributes) {
+        String pattern = "%" + search.toLowerCase(Locale.ROOT) + "%";
+        return (root, query, cb) -> cb.or(Arrays.stream(attributes)
+            .map(attribute -> cb.like(cb.lower(root.get(attribute)), pattern))
+            .toArray(Predicate[]::new));
+    }
+}
@@ -1,15 +1,128 @@
 package com.layerten.repository;
 
 import com.layerten.entity.MediaAsset;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 /**
  * Repository for MediaAsset entity.
- * Provides basic CRUD operations for media assets.
+ * Provides basic CRUD operations for media assets, and specification queries
+ * for the filtered admin media library (see {@link MediaAssetSpecifications}).
  */
 @Repository
-public interface MediaAssetRepository extends JpaRepository<MediaAsset, Long> {
-    // Basic CRUD operations are inherited from JpaRepository
-    // Additional custom query methods can be added here if needed
+public interface MediaAssetRepository extends JpaRepository<MediaAsset, Long>, JpaSpecificationExecutor<MediaAsset> {
+    
+    /**
+     * JPQL condition: the media asset {@code m} is not used as a list cover,
+     * entry hero image or post cover.
+     */
+    String UNREFERENCED =
+        "NOT EXISTS (SELECT 1 FROM RankedList rl WHERE rl.coverImage = m) " +
+        "AND NOT EXISTS (SELECT 1 FROM RankedEntry re WHERE re.heroImage = m) " +
+        "AND NOT EXISTS (SELECT 1 FROM BlogPost bp WHERE bp.coverImage = m)";
+    
+    /**
+     * Find IDs of unreferenced media that have not yet been marked as orphaned,
+     * in ID order after the given ID.
+     * 
+     * @param afterId only return IDs greater than this
+     * @param pageable batch size
+     * @return the next batch of IDs
+     */
+    @Query("SELECT m.id FROM MediaAsset m WHERE m.id > :afterId AND m.orphanedAt IS NULL AND " + UNREFERENCED +
+           " ORDER BY m.id")
+    List<Long> findUnmarkedUnreferencedIds(@Param("afterId") Long afterId, Pageable pageable);
+    
+    /**
+     * Find IDs of media marked as orphaned that is referenced again,
+     * in ID order after the given ID.
+     * 
+     * @param afterId only return IDs greater than this
+     * @param pageable batch size
+     * @return the next batch of IDs
+     */
+    @Query("SELECT m.id FROM MediaAsset m WHERE m.id > :afterId AND m.orphanedAt IS NOT NULL AND NOT (" +
+           UNREFERENCED + ") ORDER BY m.id")
+    List<Long> findMarkedReferencedIds(@Param("afterId") Long afterId, Pageable pageable);
+    
+    /**
+     * Find media marked orphaned before the cutoff and still unreferenced,
+     * in ID order after the given ID.
+     * 
+     * @param cutoff only return media marked before this time
+     * @param afterId only return media with an ID greater than this
+     * @param pageable batch size
+     * @return the next batch of media assets
+     */
+    @Query("SELECT m FROM MediaAsset m WHERE m.id > :afterId AND m.orphanedAt < :cutoff AND " + UNREFERENCED +
+           " ORDER BY m.id")
+    List<MediaAsset> findOrphanedBefore(
+        @Param("cutoff") LocalDateTime cutoff,
+        @Param("afterId") Long afterId,
+        Pageable pageable
+    );
+    
+    /**
+     * Find a media asset and lock its row until the transaction ends. A list,
+     * entry or post that starts referencing the asset meanwhile waits for the
+     * lock in its foreign key check.
+     * 
+     * @param id the media asset ID
+     * @return the media asset, if it exists
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT m FROM MediaAsset m WHERE m.id = :id")
+    Optional<MediaAsset> findByIdForUpdate(@Param("id") Long id);
+    
+    /**
+     * Whether a media asset is not used as a list cover, entry hero image or post cover.
+     * 
+     * @param id the media asset ID
+     * @return true if nothing references the asset
+     */
+    @Query("SELECT CASE WHEN COUNT(m) > 0 THEN true ELSE false END FROM MediaAsset m WHERE m.id = :id AND " +
+           UNREFERENCED)
+    boolean isUnreferenced(@Param("id") Long id);
+    
+    /**
+     * Find media whose storage path is not yet in the sharded {@code ab/cd/name}
+     * layout, in ID order after the given ID.
+     * 
+     * @param afterId only return media with an ID greater than this
+     * @param pageable batch size
+     * @return the next batch of media assets
+     */
+    @Query("SELECT m FROM MediaAsset m WHERE m.id > :afterId AND m.storagePath NOT LIKE '__/__/%' ORDER BY m.id")
+    List<MediaAsset> findNotInShardedLayout(@Param("afterId") Long afterId, Pageable pageable);
+    
+    /**
+     * Find the IDs of media without a placeholder, in ID order after the given ID.
+     * 
+     * @param afterId only return media with an ID greater than this
+     * @param pageable batch size
+     * @return the next batch of media asset IDs
+     */
+    @Query("SELECT m.id FROM MediaAsset m WHERE m.id > :afterId AND m.placeholder IS NULL ORDER BY m.id")
+    List<Long> findIdsWithoutPlaceholder(@Param("afterId") Long afterId, Pageable pageable);
+    
+    /**
+     * Find media by storage key. Rows from before the storage abstraction are
+     * keyed by filename, so both columns are matched.
+     * 
+     * @param storagePaths storage paths to match
+     * @param filenames filenames to match
+     * @return the matching media assets
+     */
+    List<MediaAsset> findByStoragePathInOrFilenameIn(Collection<String> storagePaths, Collection<String> filenames);
 }
@@ -0,0 +1,77 @@
+package com.layerten.repository;
+
+import com.layerten.entity.BlogPost;
+import com.layerten.entity.MediaAsset;
+import com.layerten.entity.RankedEntry;
+import com.layerten.entity.RankedList;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+
+/**
+ * Query building blocks for the admin media library.
+ */
+public final class MediaAssetSpecifications {
+
+    private MediaAssetSpecifications() {
+    }
+
+    public static Specification<MediaAsset> hasContentType(String contentType) {
+        return (root, query, cb) -> cb.equal(root.get("contentType"), contentType);
+    }
+
+    public static Specification<MediaAsset> createdAfter(LocalDateTime after) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("createdAt"), after);
+    }
+
+    public static Specification<MediaAsset> createdBefore(LocalDateTime before) {
+        return (root, query, cb) -> cb.lessThan(root.get("createdAt"), before);
+    }
+
+    /**
+     * Media not referenced as a list cover, entry hero image or post cover.
+     * Each check is an anti-join on an indexed foreign key column.
+     */
+    public static Specification<MediaAsset> unused() {
+        return (root, query, cb) -> {
+            Subquery<Long> listCovers = query.subquery(Long.class);
+            var list = listCovers.from(RankedList.class);
+            listCovers.select(list.get("id")).where(cb.equal(list.get("coverImage"), root));
+
+            Subquery<Long> entryHeroes = query.subquery(Long.class);
+            var entry = entryHeroes.from(RankedEntry.class);
+            entryHeroes.select(entry.get("id")).where(cb.equal(entry.get("heroImage"), root));
+
+            Subquery<Long> postCovers = query.subquery(Long.class);
+            var post = postCovers.from(BlogPost.class);
+            postCovers.select(post.get("id")).where(cb.equal(post.get("coverImage"), root));
+
+            return cb.and(cb.not(cb.exists(listCovers)), cb.not(cb.exists(entryHeroes)), cb.not(cb.exists(postCovers)));
+        };
+    }
+
+    /**
+     * Keyset predicate selecting rows after {@code (value, id)} in the given order,
+     * where {@code id} breaks ties between equal sort values.
+     * Written as {@code sort <= value AND (sort < value OR id < lastId)} (mirrored for
+     * ascending order) so the leading condition bounds an index range scan.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static Specification<MediaAsset> after(String property, Sort.Direction direction, Comparable value, long lastId) {
+        return (root, query, cb) -> {
+            Path<Comparable> sortPath = root.get(property);
+            Path<Long> idPath = root.get("id");
+            if (direction.isDescending()) {
+                return cb.and(
+                    cb.lessThanOrEqualTo(sortPath, value),
+                    cb.or(cb.lessThan(sortPath, value), cb.lessThan(idPath, lastId)));
+            }
+            return cb.and(
+                cb.greaterThanOrEqualTo(sortPath, value),
+                cb.or(cb.greaterThan(sortPath, value), cb.greaterThan(idPath, lastId)));
+        };
+    }
+}
@@ -2,10 +2,16 @@ package com.layerten.repository;
 
 import com.layerten.entity.RankedEntry;
 import com.layerten.entity.RankedList;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Repository for RankedEntry entity.
@@ -30,4 +36,28 @@ public interface RankedEntryRepository extends JpaRepository<RankedEntry, Long>
      * @return a list of entries ordered by rank descending
      */
     List<RankedEntry> findByRankedListIdOrderByRankDesc(Long rankedListId);
+    
+    /**
+     * Check if a ranked list has an entry at a rank.
+     * 
+     * @param rankedListId the ID of the ranked list
+     * @param rank the rank to check
+     * @return true if an entry of the list has the rank
+     */
+    boolean existsByRankedListIdAndRank(Long rankedListId, Integer rank);
+    
+    /**
+     * Stream ranked entries in ID order after the given ID, for export.
+     * Rows are fetched from a database cursor in batches rather than all at once,
+     * so the stream must be consumed within a transaction and closed.
+     * 
+     * @param afterId only return ranked entries with an ID greater than this
+     * @return the ranked entries, loaded read-only
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT re FROM RankedEntry re WHERE re.id > :afterId ORDER BY re.id")
+    Stream<RankedEntry> streamByIdAfter(@Param("afterId") Long afterId);
 }
@@ -0,0 +1,75 @@
+package com.layerten.repository;
+
+import com.layerten.entity.RankedListCard;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository for the RankedListCard read model.
+ * Mirrors the published-list queries of RankedListRepository without joining
+ * the tag, media or entry tables. Tag-filtered pages are specifications
+ * (see {@link ContentSpecifications}).
+ */
+@Repository
+public interface RankedListCardRepository extends JpaRepository<RankedListCard, Long>, JpaSpecificationExecutor<RankedListCard> {
+
+    /**
+     * The ID and tag slugs of a published list.
+     */
+    interface PublishedTagSlugs {
+        Long getId();
+
+        String[] getTagSlugs();
+    }
+
+    /**
+     * Find the cards of all published lists.
+     *
+     * @param pageable pagination information
+     * @return a page of cards
+     */
+    Page<RankedListCard> findByPublishedAtIsNotNull(Pageable pageable);
+
+    /**
+     * Search the cards of published lists by title or intro text (case-insensitive).
+     *
+     * @param search the search term
+     * @param pageable pagination information
+     * @return a page of matching cards
+     */
+    @Query("SELECT c FROM RankedListCard c WHERE c.publishedAt IS NOT NULL " +
+           "AND (LOWER(c.title) LIKE LOWER(CONCAT('%', :search, '%')) " +
+           "OR LOWER(c.intro) LIKE LOWER(CONCAT('%', :search, '%')))")
+    Page<RankedListCard> findPublishedByTitleOrIntroContaining(@Param("search") String search, Pageable pageable);
+
+    /**
+     * Find the tag slugs of every published list, without loading the cards.
+     *
+     * @return the ID and tag slugs of each published list
+     */
+    @Query("SELECT c.id AS id, c.tagSlugs AS tagSlugs FROM RankedListCard c WHERE c.publishedAt IS NOT NULL")
+    List<PublishedTagSlugs> findPublishedTagSlugs();
+
+    /**
+     * Copy the stored entry counts of ranked lists onto their cards.
+     *
+     * @param ids the ranked list IDs
+     * @return the number of rows updated
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE RankedListCard c SET c.entryCount = " +
+           "(SELECT rl.entryCount FROM RankedList rl WHERE rl.id = c.id) " +
+           "WHERE c.id IN :ids")
+    int copyEntryCounts(@Param("ids") Collection<Long> ids);
+}
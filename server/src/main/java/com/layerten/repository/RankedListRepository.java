@@ -1,18 +1,28 @@
 package com.layerten.repository;
 
 import com.layerten.entity.RankedList;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository for RankedList entity.
- * Provides custom query methods for slug lookup, tag filtering, search, and status filtering.
+ * Provides custom query methods for slug lookup, search, and status filtering.
  */
 @Repository
 public interface RankedListRepository extends JpaRepository<RankedList, Long> {
@@ -25,6 +35,25 @@ public interface RankedListRepository extends JpaRepository<RankedList, Long> {
      */
     Optional<RankedList> findBySlug(String slug);
     
+    /**
+     * Find a ranked list to change its entries. The list's version is
+     * incremented at commit even though the list row itself is unchanged, so
+     * entry changes made at the same time conflict instead of colliding on ranks.
+     * 
+     * @param id the list ID
+     * @return an Optional containing the ranked list if found
+     */
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    Optional<RankedList> findForEntryChangeById(Long id);
+    
+    /**
+     * Find all ranked lists carrying a tag, published or not.
+     * 
+     * @param tagId the tag ID
+     * @return the lists carrying the tag
+     */
+    List<RankedList> findByTagsId(Long tagId);
+    
     /**
      * Find all published ranked lists (where publishedAt is not null).
      * 
@@ -46,39 +75,51 @@ public interface RankedListRepository extends JpaRepository<RankedList, Long> {
     Page<RankedList> findPublishedByTitleOrIntroContaining(@Param("search") String search, Pageable pageable);
     
     /**
-     * Find published ranked lists by tag name.
+     * Check if a slug already exists.
      * 
-     * @param tagName the tag name to filter by
-     * @param pageable pagination information
-     * @return a page of published ranked lists with the specified tag
+     * @param slug the slug to check
+     * @return true if the slug exists, false otherwise
      */
-    @Query("SELECT DISTINCT rl FROM RankedList rl JOIN rl.tags t " +
-           "WHERE rl.publishedAt IS NOT NULL AND t.name = :tagName")
-    Page<RankedList> findPublishedByTagName(@Param("tagName") String tagName, Pageable pageable);
+    boolean existsBySlug(String slug);
     
     /**
-     * Search published ranked lists by tag name and title/intro text.
+     * Find IDs of lists whose stored entry count differs from their entries,
+     * in ID order after the given ID.
      * 
-     * @param tagName the tag name to filter by
-     * @param search the search term
-     * @param pageable pagination information
-     * @return a page of matching published ranked lists
+     * @param afterId only return IDs greater than this
+     * @param pageable batch size
+     * @return the next batch of IDs
      */
-    @Query("SELECT DISTINCT rl FROM RankedList rl JOIN rl.tags t " +
-           "WHERE rl.publishedAt IS NOT NULL AND t.name = :tagName " +
-           "AND (LOWER(rl.title) LIKE LOWER(CONCAT('%', :search, '%')) " +
-           "OR LOWER(rl.intro) LIKE LOWER(CONCAT('%', :search, '%')))")
-    Page<RankedList> findPublishedByTagNameAndTitleOrIntroContaining(
-        @Param("tagName") String tagName, 
-        @Param("search") String search, 
-        Pageable pageable
-    );
+    @Query("SELECT rl.id FROM RankedList rl WHERE rl.id > :afterId " +
+           "AND rl.entryCount <> (SELECT COUNT(re) FROM RankedEntry re WHERE re.rankedList = rl) " +
+           "ORDER BY rl.id")
+    List<Long> findIdsWithEntryCountDrift(@Param("afterId") Long afterId, Pageable pageable);
     
     /**
-     * Check if a slug already exists.
+     * Recount the entries of ranked lists.
      * 
-     * @param slug the slug to check
-     * @return true if the slug exists, false otherwise
+     * @param ids the ranked list IDs
+     * @return the number of rows updated
      */
-    boolean existsBySlug(String slug);
+    @Modifying
+    @Transactional
+    @Query("UPDATE RankedList rl SET rl.entryCount = " +
+           "(SELECT CAST(COUNT(re) AS Integer) FROM RankedEntry re WHERE re.rankedList = rl) " +
+           "WHERE rl.id IN :ids")
+    int recountEntries(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * Stream ranked lists in ID order after the given ID, for export.
+     * Rows are fetched from a database cursor in batches rather than all at once,
+     * so the stream must be consumed within a transaction and closed.
+     * 
+     * @param afterId only return ranked lists with an ID greater than this
+     * @return the ranked lists, loaded read-only
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT rl FROM RankedList rl WHERE rl.id > :afterId ORDER BY rl.id")
+    Stream<RankedList> streamByIdAfter(@Param("afterId") Long afterId);
 }
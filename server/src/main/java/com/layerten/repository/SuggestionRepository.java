@@ -2,10 +2,16 @@ package com.layerten.repository;
 
 import com.layerten.entity.Suggestion;
 import com.layerten.entity.SuggestionStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Repository for Suggestion entity.
@@ -28,4 +34,19 @@ public interface SuggestionRepository extends JpaRepository<Suggestion, Long> {
      * @return a list of all suggestions
      */
     List<Suggestion> findAllByOrderByCreatedAtDesc();
+    
+    /**
+     * Stream suggestions in ID order after the given ID, for export.
+     * Rows are fetched from a database cursor in batches rather than all at once,
+     * so the stream must be consumed within a transaction and closed.
+     * 
+     * @param afterId only return suggestions with an ID greater than this
+     * @return the suggestions, loaded read-only
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT s FROM Suggestion s WHERE s.id > :afterId ORDER BY s.id")
+    Stream<Suggestion> streamByIdAfter(@Param("afterId") Long afterId);
 }
@@ -0,0 +1,32 @@
+package com.layerten.repository;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.BasicType;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * HQL functions for the tag slug array columns, rendered as the PostgreSQL
+ * array operators a GIN index can answer. Registered with Hibernate through
+ * {@code META-INF/services}.
+ */
+public class TagArrayFunctions implements FunctionContributor {
+
+    /** {@code contains_all_tags(tagSlugs, slugs)}: the row carries every one of the slugs. */
+    public static final String CONTAINS_ALL = "contains_all_tags";
+
+    /** {@code contains_any_tag(tagSlugs, slugs)}: the row carries at least one of the slugs. */
+    public static final String CONTAINS_ANY = "contains_any_tag";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        BasicType<Boolean> booleanType = functionContributions.getTypeConfiguration()
+            .getBasicTypeRegistry()
+            .resolve(StandardBasicTypes.BOOLEAN);
+        // The slugs are bound as a varchar array; the cast lets them meet the text[] column
+        functionContributions.getFunctionRegistry()
+            .registerPattern(CONTAINS_ALL, "(?1 @> cast(?2 as text[]))", booleanType);
+        functionContributions.getFunctionRegistry()
+            .registerPattern(CONTAINS_ANY, "(?1 && cast(?2 as text[]))", booleanType);
+    }
+}
@@ -1,10 +1,18 @@
 package com.layerten.repository;
 
 import com.layerten.entity.Tag;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository for Tag entity.
@@ -13,6 +21,14 @@ import java.util.Optional;
 @Repository
 public interface TagRepository extends JpaRepository<Tag, Long> {
     
+    /**
+     * A tag carried by a list or post.
+     */
+    interface TagAssignment {
+        Long getContentId();
+        Long getTagId();
+    }
+    
     /**
      * Find a tag by its slug.
      * 
@@ -21,6 +37,14 @@ public interface TagRepository extends JpaRepository<Tag, Long> {
      */
     Optional<Tag> findBySlug(String slug);
     
+    /**
+     * Find the tags with any of the given slugs.
+     * 
+     * @param slugs the slugs to search for
+     * @return the tags found, in no particular order
+     */
+    List<Tag> findBySlugIn(Collection<String> slugs);
+    
     /**
      * Find a tag by its name.
      * 
@@ -44,4 +68,44 @@ public interface TagRepository extends JpaRepository<Tag, Long> {
      * @return true if the name exists, false otherwise
      */
     boolean existsByName(String name);
+    
+    /**
+     * Find all tags in name order.
+     * 
+     * @return every tag, sorted by name
+     */
+    List<Tag> findAllByOrderByNameAsc();
+    
+    /**
+     * Find the tags carried by every published ranked list.
+     * 
+     * @return one row per published list and tag
+     */
+    @Query("SELECT rl.id AS contentId, t.id AS tagId FROM RankedList rl JOIN rl.tags t " +
+           "WHERE rl.publishedAt IS NOT NULL")
+    List<TagAssignment> findPublishedListTags();
+    
+    /**
+     * Find the tags carried by every published blog post.
+     * 
+     * @return one row per published post and tag
+     */
+    @Query("SELECT p.id AS contentId, t.id AS tagId FROM BlogPost p JOIN p.tags t " +
+           "WHERE p.status = com.layerten.entity.PostStatus.PUBLISHED")
+    List<TagAssignment> findPublishedPostTags();
+    
+    /**
+     * Stream tags in ID order after the given ID, for export.
+     * Rows are fetched from a database cursor in batches rather than all at once,
+     * so the stream must be consumed within a transaction and closed.
+     * 
+     * @param afterId only return tags with an ID greater than this
+     * @return the tags, loaded read-only
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM Tag t WHERE t.id > :afterId ORDER BY t.id")
+    Stream<Tag> streamByIdAfter(@Param("afterId") Long afterId);
 }
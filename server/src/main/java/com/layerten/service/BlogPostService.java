@@ -5,17 +5,21 @@ import com.layerten.entity.BlogPost;
 import com.layerten.entity.MediaAsset;
 import com.layerten.entity.PostStatus;
 import com.layerten.entity.Tag;
+import com.layerten.exception.StaleVersionException;
 import com.layerten.repository.BlogPostRepository;
+import com.layerten.repository.ContentSpecifications;
 import com.layerten.repository.MediaAssetRepository;
 import com.layerten.repository.TagRepository;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -31,16 +35,19 @@ public class BlogPostService {
     private final TagRepository tagRepository;
     private final MediaAssetRepository mediaAssetRepository;
     private final SlugService slugService;
+    private final TagUsageCounter tagUsageCounter;
     
     public BlogPostService(
             BlogPostRepository blogPostRepository,
             TagRepository tagRepository,
             MediaAssetRepository mediaAssetRepository,
-            SlugService slugService) {
+            SlugService slugService,
+            TagUsageCounter tagUsageCounter) {
         this.blogPostRepository = blogPostRepository;
         this.tagRepository = tagRepository;
         this.mediaAssetRepository = mediaAssetRepository;
         this.slugService = slugService;
+        this.tagUsageCounter = tagUsageCounter;
     }
     
     /**
@@ -93,6 +100,7 @@ public class BlogPostService {
         
         // Save and return
         BlogPost saved = blogPostRepository.save(blogPost);
+        countTags(saved);
         return toDetailDTO(saved);
     }
     
@@ -101,19 +109,22 @@ public class BlogPostService {
      * 
      * @param id the ID of the post to update
      * @param request the update post request
+     * @param expectedVersion the version the edit is based on, or null to edit whatever version is current
      * @return the updated post as a DTO
+     * @throws StaleVersionException if the post is no longer at the expected version
      */
-    public BlogPostDetailDTO updatePost(Long id, UpdatePostRequest request) {
+    public BlogPostDetailDTO updatePost(Long id, UpdatePostRequest request, Long expectedVersion) {
         BlogPost blogPost = blogPostRepository.findById(id)
             .orElseThrow(() -> new EntityNotFoundException(
                 "Blog post with ID " + id + " not found"));
+        StaleVersionException.check("Blog post " + id, expectedVersion, blogPost.getVersion());
         
         // Update fields if provided
         if (request.title() != null && !request.title().isBlank()) {
-            blogPost.setTitle(request.title());
-            // Regenerate slug if title changed
+            // Regenerate slug if title changed, before any change that the slug query would flush
             String baseSlug = slugService.generateSlug(request.title());
             String uniqueSlug = slugService.ensureUniqueSlugExcluding(baseSlug, BlogPost.class, id);
+            blogPost.setTitle(request.title());
             blogPost.setSlug(uniqueSlug);
         }
         
@@ -156,8 +167,9 @@ public class BlogPostService {
             }
         }
         
-        // Save and return
-        BlogPost updated = blogPostRepository.save(blogPost);
+        // Save and return, flushed so the DTO carries the new version
+        BlogPost updated = blogPostRepository.saveAndFlush(blogPost);
+        countTags(updated);
         return toDetailDTO(updated);
     }
     
@@ -171,6 +183,45 @@ public class BlogPostService {
             throw new EntityNotFoundException("Blog post with ID " + id + " not found");
         }
         blogPostRepository.deleteById(id);
+        tagUsageCounter.removePost(id);
+    }
+    
+    /**
+     * Rewrite the tag slugs of every post carrying a tag, after the tag's slug changed.
+     * 
+     * @param tagId the ID of the renamed tag
+     */
+    public void refreshTaggedPosts(Long tagId) {
+        for (BlogPost blogPost : blogPostRepository.findByTagsId(tagId)) {
+            blogPost.setTagSlugs(Tag.slugs(blogPost.getTags()));
+        }
+    }
+    
+    /**
+     * Take a tag off every post carrying it, before the tag is deleted.
+     * 
+     * @param tag the tag being deleted
+     */
+    public void removeTagFromPosts(Tag tag) {
+        for (BlogPost blogPost : blogPostRepository.findByTagsId(tag.getId())) {
+            blogPost.removeTag(tag);
+            countTags(blogPost);
+        }
+    }
+    
+    /**
+     * Get a blog post by ID, whatever its status, for editing. Read from the
+     * primary, like {@link RankedListService#getListById}.
+     * 
+     * @param id the ID of the post
+     * @return the post as a DTO
+     */
+    public BlogPostDetailDTO getPostById(Long id) {
+        BlogPost blogPost = blogPostRepository.findById(id)
+            .orElseThrow(() -> new EntityNotFoundException(
+                "Blog post with ID " + id + " not found"));
+        
+        return toDetailDTO(blogPost);
     }
     
     /**
@@ -194,24 +245,31 @@ public class BlogPostService {
      * If status is PUBLISHED, returns only published posts (for public use).
      * 
      * @param search optional search term for title/excerpt
-     * @param tag optional tag name to filter by
+     * @param tags optional tag slugs to filter by
+     * @param match whether posts must carry all of the tags or any of them
      * @param status optional status to filter by (null for all posts)
      * @param pageable pagination information
      * @return a page of post summaries
      */
     @Transactional(readOnly = true)
-    public Page<BlogPostSummaryDTO> searchPosts(String search, String tag, PostStatus status, Pageable pageable) {
+    public Page<BlogPostSummaryDTO> searchPosts(
+            String search, List<String> tags, TagMatch match, PostStatus status, Pageable pageable) {
         Page<BlogPost> posts;
+        List<String> tagSlugs = tags != null ? tags.stream().filter(tag -> !tag.isBlank()).toList() : List.of();
         
-        if (status != null) {
+        if (!tagSlugs.isEmpty()) {
+            // Tag filter, with the status and search filters if given
+            Specification<BlogPost> spec = ContentSpecifications.taggedWith(tagSlugs, match);
+            if (status != null) {
+                spec = spec.and(ContentSpecifications.hasStatus(status));
+            }
+            if (search != null && !search.isBlank()) {
+                spec = spec.and(ContentSpecifications.containsText(search, "title", "excerpt"));
+            }
+            posts = blogPostRepository.findAll(spec, pageable);
+        } else if (status != null) {
             // Filter by status (for public queries)
-            if (tag != null && !tag.isBlank() && search != null && !search.isBlank()) {
-                // Both tag and search filters with status
-                posts = blogPostRepository.findByStatusAndTagNameAndTitleOrExcerptContaining(tag, search, status, pageable);
-            } else if (tag != null && !tag.isBlank()) {
-                // Tag filter only with status
-                posts = blogPostRepository.findByStatusAndTagName(tag, status, pageable);
-            } else if (search != null && !search.isBlank()) {
+            if (search != null && !search.isBlank()) {
                 // Search filter only with status
                 posts = blogPostRepository.findByStatusAndTitleOrExcerptContaining(search, status, pageable);
             } else {
@@ -220,13 +278,7 @@ public class BlogPostService {
             }
         } else {
             // No status filter (for admin queries)
-            if (tag != null && !tag.isBlank() && search != null && !search.isBlank()) {
-                // Both tag and search filters without status
-                posts = blogPostRepository.findByTagNameAndTitleOrExcerptContaining(tag, search, pageable);
-            } else if (tag != null && !tag.isBlank()) {
-                // Tag filter only without status
-                posts = blogPostRepository.findByTagName(tag, pageable);
-            } else if (search != null && !search.isBlank()) {
+            if (search != null && !search.isBlank()) {
                 // Search filter only without status
                 posts = blogPostRepository.findByTitleOrExcerptContaining(search, pageable);
             } else {
@@ -257,9 +309,21 @@ public class BlogPostService {
         
         // Save and return
         BlogPost published = blogPostRepository.save(blogPost);
+        countTags(published);
         return toDetailDTO(published);
     }
     
+    /**
+     * Report a post's tags to the usage counts.
+     * Called from every write that changes a post's tags or status.
+     */
+    private void countTags(BlogPost blogPost) {
+        tagUsageCounter.updatePost(
+            blogPost.getId(),
+            blogPost.getStatus() == PostStatus.PUBLISHED,
+            blogPost.getTags().stream().map(Tag::getId).toList());
+    }
+    
     // Helper methods for DTO conversion
     
     private BlogPostSummaryDTO toSummaryDTO(BlogPost blogPost) {
@@ -289,7 +353,8 @@ public class BlogPostService {
                 .map(this::toTagDTO)
                 .collect(Collectors.toSet()),
             blogPost.getStatus(),
-            blogPost.getPublishedAt()
+            blogPost.getPublishedAt(),
+            blogPost.getVersion()
         );
     }
     
@@ -312,7 +377,10 @@ public class BlogPostService {
             mediaAsset.getContentType(),
             mediaAsset.getFileSize(),
             mediaAsset.getAltText(),
-            "/api/media/" + mediaAsset.getId()
+            mediaAsset.getWidth(),
+            mediaAsset.getHeight(),
+            MediaService.url(mediaAsset),
+            MediaService.placeholder(mediaAsset)
         );
     }
 }
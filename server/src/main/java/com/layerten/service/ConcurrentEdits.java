@@ -0,0 +1,78 @@
+package com.layerten.service;
+
+import com.layerten.exception.StaleVersionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Runs admin edits that may race other edits of the same item.
+ *
+ * An edit that names the version it was based on runs once: if another edit
+ * got there first, the editor has to see that change before making theirs.
+ * Losing a race after the version was checked is reported the same way as a
+ * version that was already stale.
+ * An edit that names no version asks for its values to be applied to whatever
+ * is current. The edits run this way set absolute values, so running one again
+ * from the start after losing a race gives the result the editor asked for.
+ * Such an edit is retried a few times before the conflict is reported.
+ *
+ * Must be called outside a transaction, so each attempt runs in its own.
+ */
+@Component
+public class ConcurrentEdits {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConcurrentEdits.class);
+
+    private final int maxAttempts;
+
+    public ConcurrentEdits(@Value("${layerten.edits.max-attempts:3}") int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Run an edit, retrying it on a conflict unless it names a version.
+     *
+     * @param expectedVersion the version the edit is based on, or null for any
+     * @param edit the edit, given the expected version
+     * @return the edit's result
+     * @throws StaleVersionException if the edit names a version and conflicts
+     * @throws OptimisticLockingFailureException if the edit names no version and still conflicts
+     */
+    public <T> T apply(Long expectedVersion, Function<Long, T> edit) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return edit.apply(expectedVersion);
+            } catch (OptimisticLockingFailureException e) {
+                if (expectedVersion != null) {
+                    throw new StaleVersionException(
+                        "Changed by another edit while version " + expectedVersion + " was being edited", e);
+                }
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                logger.debug("Edit lost a race with another edit, retrying (attempt {} of {})", attempt + 1, maxAttempts);
+            }
+        }
+    }
+
+    /**
+     * Run an edit with no result, retrying it on a conflict unless it names a version.
+     *
+     * @param expectedVersion the version the edit is based on, or null for any
+     * @param edit the edit, given the expected version
+     * @throws StaleVersionException if the edit names a version and conflicts
+     * @throws OptimisticLockingFailureException if the edit names no version and still conflicts
+     */
+    public void run(Long expectedVersion, Consumer<Long> edit) {
+        apply(expectedVersion, version -> {
+            edit.accept(version);
+            return null;
+        });
+    }
+}
@@ -0,0 +1,226 @@
+package com.layerten.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.layerten.dto.EntryExportRow;
+import com.layerten.dto.ListExportRow;
+import com.layerten.dto.PostExportRow;
+import com.layerten.dto.SuggestionDTO;
+import com.layerten.dto.TagDTO;
+import com.layerten.entity.BlogPost;
+import com.layerten.entity.MediaAsset;
+import com.layerten.entity.RankedEntry;
+import com.layerten.entity.RankedList;
+import com.layerten.entity.Suggestion;
+import com.layerten.entity.Tag;
+import com.layerten.repository.BlogPostRepository;
+import com.layerten.repository.RankedEntryRepository;
+import com.layerten.repository.RankedListRepository;
+import com.layerten.repository.SuggestionRepository;
+import com.layerten.repository.TagRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Export of content as NDJSON, one row per line, for backups and migrations.
+ *
+ * Each type is exported in ID order from a database cursor, and the
+ * persistence context is cleared after every batch of rows, so memory use does
+ * not grow with the number of rows.
+ * An interrupted export is resumed by exporting again after the last ID received.
+ */
+@Service
+public class ContentExporter {
+
+    // Matches the fetch size of the export queries
+    private static final int BATCH_SIZE = 500;
+
+    /**
+     * The kinds of content that can be exported.
+     */
+    public enum Type {
+        LISTS, ENTRIES, POSTS, TAGS, SUGGESTIONS;
+
+        /**
+         * Look up a type by its name in a URL, e.g. {@code lists}.
+         *
+         * @param name the type name, in any case
+         * @return the type
+         * @throws IllegalArgumentException if there is no such type
+         */
+        public static Type of(String name) {
+            try {
+                return valueOf(name.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(
+                    "Unknown export type '" + name + "', expected one of " + Arrays.toString(values()).toLowerCase(Locale.ROOT));
+            }
+        }
+    }
+
+    private final RankedListRepository rankedListRepository;
+    private final RankedEntryRepository rankedEntryRepository;
+    private final BlogPostRepository blogPostRepository;
+    private final TagRepository tagRepository;
+    private final SuggestionRepository suggestionRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    public ContentExporter(
+            RankedListRepository rankedListRepository,
+            RankedEntryRepository rankedEntryRepository,
+            BlogPostRepository blogPostRepository,
+            TagRepository tagRepository,
+            SuggestionRepository suggestionRepository,
+            EntityManager entityManager,
+            ObjectMapper objectMapper
+    ) {
+        this.rankedListRepository = rankedListRepository;
+        this.rankedEntryRepository = rankedEntryRepository;
+        this.blogPostRepository = blogPostRepository;
+        this.tagRepository = tagRepository;
+        this.suggestionRepository = suggestionRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Write every row of a type with an ID greater than {@code afterId}, in ID order.
+     * The output stream is left open.
+     *
+     * @param type the content to export
+     * @param afterId only export rows with an ID greater than this; 0 for all
+     * @param out where to write the NDJSON
+     * @return the number of rows written
+     * @throws IOException if writing fails
+     */
+    @Transactional(readOnly = true)
+    public long export(Type type, long afterId, OutputStream out) throws IOException {
+        return switch (type) {
+            case LISTS -> write(rankedListRepository.streamByIdAfter(afterId), this::toListRow, out);
+            case ENTRIES -> write(rankedEntryRepository.streamByIdAfter(afterId), this::toEntryRow, out);
+            case POSTS -> write(blogPostRepository.streamByIdAfter(afterId), this::toPostRow, out);
+            case TAGS -> write(tagRepository.streamByIdAfter(afterId), this::toTagRow, out);
+            case SUGGESTIONS -> write(suggestionRepository.streamByIdAfter(afterId), this::toSuggestionRow, out);
+        };
+    }
+
+    /**
+     * Rows are read a batch at a time before any is written, so the lazy tag
+     * collections of the whole batch are in the persistence context and are
+     * fetched together (see the {@code @BatchSize} on them) rather than one
+     * query per row.
+     */
+    private <T> long write(Stream<T> rows, Function<T, Object> toRow, OutputStream out) throws IOException {
+        long count = 0;
+        try (rows) {
+            Iterator<T> iterator = rows.iterator();
+            List<T> batch = new ArrayList<>(BATCH_SIZE);
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() == BATCH_SIZE) {
+                    count += writeBatch(batch, toRow, out);
+                    // Detach the written rows along with the tags and references they loaded
+                    entityManager.clear();
+                }
+            }
+            count += writeBatch(batch, toRow, out);
+        }
+        return count;
+    }
+
+    private <T> int writeBatch(List<T> batch, Function<T, Object> toRow, OutputStream out) throws IOException {
+        for (T entity : batch) {
+            out.write(objectMapper.writeValueAsBytes(toRow.apply(entity)));
+            out.write('\n');
+        }
+        int written = batch.size();
+        batch.clear();
+        return written;
+    }
+
+    private ListExportRow toListRow(RankedList rankedList) {
+        return new ListExportRow(
+            rankedList.getId(),
+            rankedList.getTitle(),
+            rankedList.getSubtitle(),
+            rankedList.getSlug(),
+            rankedList.getIntro(),
+            rankedList.getOutro(),
+            idOf(rankedList.getCoverImage()),
+            tagIds(rankedList.getTags()),
+            rankedList.getEntryCount(),
+            rankedList.getPublishedAt(),
+            rankedList.getCreatedAt(),
+            rankedList.getUpdatedAt()
+        );
+    }
+
+    private EntryExportRow toEntryRow(RankedEntry entry) {
+        return new EntryExportRow(
+            entry.getId(),
+            entry.getRankedList().getId(),
+            entry.getRank(),
+            entry.getTitle(),
+            entry.getBlurb(),
+            entry.getCommentary(),
+            entry.getFunFact(),
+            entry.getExternalLink(),
+            idOf(entry.getHeroImage())
+        );
+    }
+
+    private PostExportRow toPostRow(BlogPost post) {
+        return new PostExportRow(
+            post.getId(),
+            post.getTitle(),
+            post.getSlug(),
+            post.getExcerpt(),
+            post.getBody(),
+            idOf(post.getCoverImage()),
+            tagIds(post.getTags()),
+            post.getStatus(),
+            post.getPublishedAt(),
+            post.getCreatedAt(),
+            post.getUpdatedAt()
+        );
+    }
+
+    private TagDTO toTagRow(Tag tag) {
+        return new TagDTO(tag.getId(), tag.getName(), tag.getSlug());
+    }
+
+    private SuggestionDTO toSuggestionRow(Suggestion suggestion) {
+        return new SuggestionDTO(
+            suggestion.getId(),
+            suggestion.getTitle(),
+            suggestion.getDescription(),
+            suggestion.getCategory(),
+            suggestion.getExampleEntries(),
+            suggestion.getSubmitterName(),
+            suggestion.getSubmitterEmail(),
+            suggestion.getStatus(),
+            suggestion.getCreatedAt()
+        );
+    }
+
+    // Reading the ID of a lazy reference does not load it
+    private static Long idOf(MediaAsset mediaAsset) {
+        return mediaAsset != null ? mediaAsset.getId() : null;
+    }
+
+    private static List<Long> tagIds(Collection<Tag> tags) {
+        return tags.stream().map(Tag::getId).sorted().toList();
+    }
+}
@@ -0,0 +1,230 @@
+package com.layerten.service;
+
+import com.layerten.dto.TagMatch;
+import com.layerten.repository.RankedListCardRepository;
+import com.layerten.repository.RankedListCardRepository.PublishedTagSlugs;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory index of which published lists carry each tag, for facet counts.
+ *
+ * Each list is numbered with a dense ordinal, and the index holds one bitmap
+ * of ordinals per tag slug and one of all published lists, so a bitmap takes
+ * a bit per indexed list however sparse or large the list IDs are. Counting
+ * how many lists under a tag filter also carry each other tag is then a
+ * word-wise AND and bit count per tag, with no query.
+ *
+ * RankedListService reports every list write, applied once its transaction
+ * commits. A periodic rebuild from the cards picks up writes made by other
+ * instances. Facet queries read an immutable snapshot that writes replace,
+ * so they never wait for a write. Lists are given an ordinal the first time
+ * they are written; the ordinals of deleted lists are reclaimed by the next
+ * rebuild, which numbers the published lists afresh.
+ */
+@Component
+public class ListFacetIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ListFacetIndex.class);
+
+    /**
+     * Set bitmaps as words, as from {@link BitSet#toLongArray()}; never modified once built.
+     */
+    private record Snapshot(long[] published, Map<String, long[]> tags) {
+        static final Snapshot EMPTY = new Snapshot(new long[0], Map.of());
+    }
+
+    private record Loaded(Snapshot snapshot, Map<Long, Integer> ordinals) {}
+
+    /**
+     * Lists published under a filter, and how many of them carry each tag.
+     *
+     * @param total the number of published lists matching the filter
+     * @param counts the number of those lists carrying each tag, for tags carried by any
+     */
+    public record Facets(long total, Map<String, Long> counts) {}
+
+    private final RankedListCardRepository rankedListCardRepository;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    // The ordinal of each indexed list; changed only through rebuildReplay
+    private Map<Long, Integer> ordinals = new HashMap<>();
+
+    private final RebuildReplay rebuildReplay = new RebuildReplay();
+
+    public ListFacetIndex(RankedListCardRepository rankedListCardRepository) {
+        this.rankedListCardRepository = rankedListCardRepository;
+    }
+
+    /**
+     * Rebuild the index from the list cards: at startup, then every ten minutes by default.
+     */
+    @Scheduled(initialDelayString = "PT0S", fixedDelayString = "${layerten.lists.facets.rebuild-interval:PT10M}")
+    public void rebuildScheduled() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            logger.error("Rebuilding the list facet index failed", e);
+        }
+    }
+
+    /**
+     * Replace the index with one built from the list cards.
+     */
+    public void rebuild() {
+        rebuildReplay.rebuild(this::load, loaded -> {
+            snapshot = loaded.snapshot();
+            ordinals = loaded.ordinals();
+        });
+        Snapshot current = snapshot;
+        logger.debug("Rebuilt list facet index: {} published lists, {} tags",
+            intersectionCount(current.published(), current.published()), current.tags().size());
+    }
+
+    private Loaded load() {
+        List<PublishedTagSlugs> lists = rankedListCardRepository.findPublishedTagSlugs();
+        Map<Long, Integer> ordinals = new HashMap<>();
+        BitSet published = new BitSet();
+        Map<String, BitSet> tags = new HashMap<>();
+        for (PublishedTagSlugs list : lists) {
+            int ordinal = ordinals.size();
+            ordinals.put(list.getId(), ordinal);
+            published.set(ordinal);
+            for (String slug : list.getTagSlugs()) {
+                tags.computeIfAbsent(slug, key -> new BitSet()).set(ordinal);
+            }
+        }
+        Map<String, long[]> tagWords = new HashMap<>();
+        tags.forEach((slug, bits) -> tagWords.put(slug, bits.toLongArray()));
+        return new Loaded(new Snapshot(published.toLongArray(), tagWords), ordinals);
+    }
+
+    /**
+     * Record a list's state: whether it is published and which tags it carries.
+     * Within a transaction the change is applied after commit.
+     *
+     * @param listId the list ID
+     * @param published whether the list is published
+     * @param tagSlugs the slugs of the list's tags
+     */
+    public void update(Long listId, boolean published, String[] tagSlugs) {
+        Set<String> slugs = published ? Set.of(tagSlugs) : Set.of();
+        AfterCommit.run(() -> apply(listId, published, slugs));
+    }
+
+    /**
+     * Remove a deleted list. Within a transaction the change is applied after commit.
+     *
+     * @param listId the list ID
+     */
+    public void remove(Long listId) {
+        AfterCommit.run(() -> apply(listId, false, Set.of()));
+    }
+
+    /**
+     * Count published lists under a tag filter, and how many of them carry each tag.
+     *
+     * @param tagSlugs the tag slugs filtered by; empty for all published lists
+     * @param match whether lists must carry all of the tags or any of them
+     * @return the count of matching lists and the count per tag
+     */
+    public Facets facets(Collection<String> tagSlugs, TagMatch match) {
+        Snapshot current = snapshot;
+        long[] matching = matching(current, tagSlugs, match);
+
+        Map<String, Long> counts = new HashMap<>();
+        current.tags().forEach((slug, words) -> {
+            long count = intersectionCount(matching, words);
+            if (count > 0) {
+                counts.put(slug, count);
+            }
+        });
+        return new Facets(intersectionCount(matching, matching), counts);
+    }
+
+    private static long[] matching(Snapshot snapshot, Collection<String> tagSlugs, TagMatch match) {
+        if (tagSlugs.isEmpty()) {
+            return snapshot.published();
+        }
+        BitSet matching;
+        if (match == TagMatch.ALL) {
+            matching = BitSet.valueOf(snapshot.published());
+            for (String slug : tagSlugs) {
+                matching.and(BitSet.valueOf(snapshot.tags().getOrDefault(slug, new long[0])));
+            }
+        } else {
+            matching = new BitSet();
+            for (String slug : tagSlugs) {
+                matching.or(BitSet.valueOf(snapshot.tags().getOrDefault(slug, new long[0])));
+            }
+            matching.and(BitSet.valueOf(snapshot.published()));
+        }
+        return matching.toLongArray();
+    }
+
+    private static long intersectionCount(long[] a, long[] b) {
+        long count = 0;
+        for (int i = 0, n = Math.min(a.length, b.length); i < n; i++) {
+            count += Long.bitCount(a[i] & b[i]);
+        }
+        return count;
+    }
+
+    /**
+     * Set a list's bit in the published bitmap and in exactly the given tags'
+     * bitmaps, copying only the bitmaps that change. A list not yet indexed
+     * takes the next ordinal, unless it is being removed.
+     */
+    private void apply(Long listId, boolean published, Set<String> slugs) {
+        rebuildReplay.apply(() -> write(listId, published, slugs));
+    }
+
+    private void write(Long listId, boolean published, Set<String> slugs) {
+        Integer ordinal = ordinals.get(listId);
+        if (ordinal == null) {
+            if (!published) {
+                return;
+            }
+            ordinal = ordinals.size();
+            ordinals.put(listId, ordinal);
+        }
+        int id = ordinal;
+        Snapshot current = snapshot;
+        Map<String, long[]> tags = new HashMap<>(current.tags());
+        for (Map.Entry<String, long[]> tag : current.tags().entrySet()) {
+            if (!slugs.contains(tag.getKey())) {
+                long[] words = withBit(tag.getValue(), id, false);
+                if (words.length == 0) {
+                    tags.remove(tag.getKey());
+                } else {
+                    tags.put(tag.getKey(), words);
+                }
+            }
+        }
+        for (String slug : slugs) {
+            tags.put(slug, withBit(tags.getOrDefault(slug, new long[0]), id, true));
+        }
+        snapshot = new Snapshot(withBit(current.published(), id, published), tags);
+    }
+
+    private static long[] withBit(long[] words, int id, boolean value) {
+        int word = id >>> 6;
+        boolean set = word < words.length && (words[word] & (1L << id)) != 0;
+        if (set == value) {
+            return words;
+        }
+        BitSet bits = BitSet.valueOf(words);
+        bits.set(id, value);
+        return bits.toLongArray();
+    }
+}
@@ -0,0 +1,133 @@
+package com.layerten.service;
+
+import com.layerten.dto.MediaUploadResultDTO;
+import com.layerten.entity.MediaAsset;
+import com.layerten.repository.MediaAssetRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Uploads several media files in one request.
+ *
+ * Files are hashed, probed and written in parallel on a small bounded pool;
+ * when the pool's queue is full the request thread does the work itself, so a
+ * burst of batches slows down rather than piling up. Each file succeeds or
+ * fails on its own, and the records of all files that were stored are then
+ * saved together in one transaction.
+ */
+@Service
+public class MediaBatchUploader {
+
+    private static final Logger logger = LoggerFactory.getLogger(MediaBatchUploader.class);
+
+    private final MediaService mediaService;
+    private final MediaAssetRepository mediaAssetRepository;
+    private final int maxFiles;
+    private final ExecutorService executor;
+
+    public MediaBatchUploader(
+            MediaService mediaService,
+            MediaAssetRepository mediaAssetRepository,
+            @Value("${layerten.media.batch-upload.max-files:50}") int maxFiles,
+            @Value("${layerten.media.batch-upload.concurrency:4}") int concurrency
+    ) {
+        this.mediaService = mediaService;
+        this.mediaAssetRepository = mediaAssetRepository;
+        this.maxFiles = maxFiles;
+        this.executor = new ThreadPoolExecutor(
+            concurrency, concurrency, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(maxFiles),
+            Thread.ofPlatform().name("media-upload-", 0).daemon().factory(),
+            new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Upload a batch of files.
+     *
+     * @param files the uploaded parts
+     * @param keepOriginal whether to keep untouched uploads that are recompressed
+     * @return one result per file, in request order
+     */
+    public List<MediaUploadResultDTO> upload(List<MultipartFile> files, boolean keepOriginal) {
+        if (files.isEmpty()) {
+            throw new IllegalArgumentException("No files to upload");
+        }
+        if (files.size() > maxFiles) {
+            throw new IllegalArgumentException("A batch may hold at most " + maxFiles + " files");
+        }
+
+        List<CompletableFuture<MediaAsset>> writes = files.stream()
+            .map(file -> CompletableFuture.supplyAsync(() -> write(file, keepOriginal), executor))
+            .toList();
+
+        List<MediaAsset> stored = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+        for (int i = 0; i < files.size(); i++) {
+            try {
+                stored.add(writes.get(i).join());
+                errors.add(null);
+            } catch (CompletionException e) {
+                stored.add(null);
+                errors.add(describe(files.get(i), e.getCause()));
+            }
+        }
+
+        List<MediaAsset> toSave = stored.stream().filter(Objects::nonNull).toList();
+        try {
+            mediaAssetRepository.saveAll(toSave);
+        } catch (RuntimeException e) {
+            toSave.forEach(mediaService::discardUpload);
+            throw e;
+        }
+
+        List<MediaUploadResultDTO> results = new ArrayList<>(files.size());
+        for (int i = 0; i < files.size(); i++) {
+            String filename = files.get(i).getOriginalFilename();
+            MediaAsset asset = stored.get(i);
+            results.add(asset != null
+                ? new MediaUploadResultDTO(filename, MediaService.toDTO(asset), null)
+                : new MediaUploadResultDTO(filename, null, errors.get(i)));
+        }
+        return results;
+    }
+
+    private MediaAsset write(MultipartFile file, boolean keepOriginal) {
+        if (file.isEmpty()) {
+            throw new IllegalArgumentException("File is empty");
+        }
+        try (InputStream in = file.getInputStream()) {
+            return mediaService.writeUpload(in, file.getSize(), null, keepOriginal);
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private String describe(MultipartFile file, Throwable failure) {
+        if (failure instanceof IllegalArgumentException) {
+            return failure.getMessage();
+        }
+        logger.warn("Could not store uploaded file {}", file.getOriginalFilename(), failure);
+        return "Could not store file";
+    }
+}
@@ -0,0 +1,247 @@
+package com.layerten.service;
+
+import com.layerten.dto.MediaGcReport;
+import com.layerten.entity.MediaAsset;
+import com.layerten.media.MediaKeys;
+import com.layerten.media.MediaStorage;
+import com.layerten.media.StoredObject;
+import com.layerten.repository.MediaAssetRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Incremental mark-and-sweep collector for unused media.
+ *
+ * Media assets not referenced by any list cover, entry hero image or post cover
+ * are first marked with the time they were found orphaned, and deleted (row,
+ * file and variants) on a later run once the mark is older than the grace period.
+ * Stored objects with no media asset row, such as files left by a failed upload,
+ * are deleted once they are older than the grace period.
+ *
+ * Work is done in batches with a pause between them so a run does not saturate
+ * the database or disk.
+ *
+ * Scheduled runs only report what they would delete unless
+ * {@code layerten.media.gc.dry-run} is set to false.
+ */
+@Service
+public class MediaGarbageCollector {
+
+    private static final Logger logger = LoggerFactory.getLogger(MediaGarbageCollector.class);
+
+    private final MediaAssetRepository mediaAssetRepository;
+    private final MediaService mediaService;
+    private final MediaStorage mediaStorage;
+    private final MediaVariantService mediaVariantService;
+    private final boolean enabled;
+    private final boolean scheduledDryRun;
+    private final Duration gracePeriod;
+    private final int batchSize;
+    private final Duration batchPause;
+
+    public MediaGarbageCollector(
+            MediaAssetRepository mediaAssetRepository,
+            MediaService mediaService,
+            MediaStorage mediaStorage,
+            MediaVariantService mediaVariantService,
+            @Value("${layerten.media.gc.enabled:true}") boolean enabled,
+            @Value("${layerten.media.gc.dry-run:true}") boolean scheduledDryRun,
+            @Value("${layerten.media.gc.grace-period:7d}") Duration gracePeriod,
+            @Value("${layerten.media.gc.batch-size:100}") int batchSize,
+            @Value("${layerten.media.gc.batch-pause:200ms}") Duration batchPause
+    ) {
+        this.mediaAssetRepository = mediaAssetRepository;
+        this.mediaService = mediaService;
+        this.mediaStorage = mediaStorage;
+        this.mediaVariantService = mediaVariantService;
+        this.enabled = enabled;
+        this.scheduledDryRun = scheduledDryRun;
+        this.gracePeriod = gracePeriod;
+        this.batchSize = batchSize;
+        this.batchPause = batchPause;
+    }
+
+    /**
+     * Scheduled run, nightly by default.
+     */
+    @Scheduled(cron = "${layerten.media.gc.cron:0 30 3 * * *}")
+    public void collectScheduled() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            MediaGcReport report = collect(scheduledDryRun);
+            logger.info("Media GC{}: marked {}, unmarked {}, orphaned assets {}, orphaned objects {}, {} bytes",
+                report.dryRun() ? " (dry run)" : "", report.markedAssets(), report.clearedMarks(),
+                report.orphanedAssetIds().size(), report.orphanedObjects().size(), report.reclaimedBytes());
+        } catch (IOException | RuntimeException e) {
+            logger.error("Media GC failed", e);
+        }
+    }
+
+    /**
+     * Run one collection pass. Runs are serialized; a manual run waits for a
+     * scheduled run in progress.
+     *
+     * Orphan marks are recorded even in a dry run, since the grace period is
+     * measured from them; nothing is deleted.
+     *
+     * @param dryRun report what would be deleted without deleting it
+     * @return what was (or would be) collected
+     */
+    public synchronized MediaGcReport collect(boolean dryRun) throws IOException {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime cutoff = now.minus(gracePeriod);
+
+        int cleared = clearMarks();
+        int marked = markOrphans(now);
+
+        List<Long> orphanedAssetIds = new ArrayList<>();
+        List<String> orphanedObjects = new ArrayList<>();
+        long reclaimed = sweepAssets(cutoff, dryRun, orphanedAssetIds);
+        reclaimed += sweepObjects(cutoff.atZone(ZoneId.systemDefault()).toInstant(), dryRun, orphanedObjects);
+
+        return new MediaGcReport(dryRun, marked, cleared, orphanedAssetIds, orphanedObjects, reclaimed);
+    }
+
+    /**
+     * Clear the orphan mark of assets that are referenced again.
+     */
+    private int clearMarks() {
+        Pageable batch = PageRequest.of(0, batchSize);
+        int cleared = 0;
+        long afterId = 0;
+        List<Long> ids;
+        while (!(ids = mediaAssetRepository.findMarkedReferencedIds(afterId, batch)).isEmpty()) {
+            cleared += mediaService.clearOrphanedMarks(ids);
+            afterId = ids.get(ids.size() - 1);
+            pause();
+        }
+        return cleared;
+    }
+
+    /**
+     * Mark: record the current time on unreferenced assets that are not yet marked.
+     */
+    private int markOrphans(LocalDateTime now) {
+        Pageable batch = PageRequest.of(0, batchSize);
+        int marked = 0;
+        long afterId = 0;
+        List<Long> ids;
+        while (!(ids = mediaAssetRepository.findUnmarkedUnreferencedIds(afterId, batch)).isEmpty()) {
+            marked += mediaService.markOrphaned(ids, now);
+            afterId = ids.get(ids.size() - 1);
+            pause();
+        }
+        return marked;
+    }
+
+    /**
+     * Sweep assets whose orphan mark is older than the cutoff. The row is deleted
+     * first, with its conditions re-checked, and the files only once that succeeds;
+     * a file whose delete fails is picked up later as an orphaned object.
+     */
+    private long sweepAssets(LocalDateTime cutoff, boolean dryRun, List<Long> orphanedIds) {
+        Pageable batch = PageRequest.of(0, batchSize);
+        long reclaimed = 0;
+        long afterId = 0;
+        List<MediaAsset> assets;
+        while (!(assets = mediaAssetRepository.findOrphanedBefore(cutoff, afterId, batch)).isEmpty()) {
+            for (MediaAsset asset : assets) {
+                if (dryRun || mediaService.deleteIfOrphanedBefore(asset.getId(), cutoff)) {
+                    if (!dryRun) {
+                        deleteObjects(MediaService.storageKey(asset));
+                    }
+                    orphanedIds.add(asset.getId());
+                    reclaimed += asset.getFileSize();
+                }
+            }
+            afterId = assets.get(assets.size() - 1).getId();
+            pause();
+        }
+        return reclaimed;
+    }
+
+    /**
+     * Sweep stored objects older than the cutoff whose original has no media asset row.
+     */
+    private long sweepObjects(Instant cutoff, boolean dryRun, List<String> orphanedKeys) throws IOException {
+        long reclaimed = 0;
+        try (Stream<StoredObject> objects = mediaStorage.list()) {
+            Iterator<StoredObject> iterator = objects.filter(object -> object.lastModified().isBefore(cutoff)).iterator();
+            List<StoredObject> batch = new ArrayList<>(batchSize);
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() == batchSize || !iterator.hasNext()) {
+                    reclaimed += sweepObjectBatch(batch, dryRun, orphanedKeys);
+                    batch.clear();
+                    pause();
+                }
+            }
+        }
+        return reclaimed;
+    }
+
+    private long sweepObjectBatch(List<StoredObject> batch, boolean dryRun, List<String> orphanedKeys) throws IOException {
+        Set<String> originalKeys = batch.stream()
+            .map(object -> mediaVariantService.originalKey(object.key()))
+            .collect(Collectors.toSet());
+        Set<String> names = originalKeys.stream().map(MediaKeys::name).collect(Collectors.toSet());
+
+        // Match on file name as well as key: mid-migration, a file may already sit
+        // under its sharded key while its row still names the flat one
+        Set<String> liveNames = mediaAssetRepository.findByStoragePathInOrFilenameIn(originalKeys, names).stream()
+            .map(asset -> MediaKeys.name(MediaService.storageKey(asset)))
+            .collect(Collectors.toSet());
+
+        long reclaimed = 0;
+        for (StoredObject object : batch) {
+            if (liveNames.contains(MediaKeys.name(mediaVariantService.originalKey(object.key())))) {
+                continue;
+            }
+            if (dryRun || mediaStorage.delete(object.key())) {
+                orphanedKeys.add(object.key());
+                reclaimed += object.size();
+            }
+        }
+        return reclaimed;
+    }
+
+    private void deleteObjects(String storageKey) {
+        try {
+            mediaStorage.delete(storageKey);
+            mediaVariantService.deleteVariants(storageKey);
+        } catch (IOException e) {
+            logger.warn("Could not delete media object {}; it will be collected as an orphan", storageKey, e);
+        }
+    }
+
+    private void pause() {
+        if (batchPause.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(batchPause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Media GC interrupted", e);
+        }
+    }
+}
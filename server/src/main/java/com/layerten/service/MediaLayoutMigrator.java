@@ -0,0 +1,128 @@
+package com.layerten.service;
+
+import com.layerten.entity.MediaAsset;
+import com.layerten.media.MediaKeys;
+import com.layerten.media.MediaStorage;
+import com.layerten.repository.MediaAssetRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Background migration of media files from the flat layout into the sharded
+ * {@code ab/cd/name} layout.
+ *
+ * Each asset's variants are moved first, then the file itself, and only then
+ * is its storage path rewritten. Media stays servable throughout: until the row
+ * is updated, reads fall back to the sharded key. The migration is resumable;
+ * an interrupted run leaves rows that still match the flat layout, and a later
+ * run picks them up, finishing any move that had already happened.
+ */
+@Service
+public class MediaLayoutMigrator {
+
+    private static final Logger logger = LoggerFactory.getLogger(MediaLayoutMigrator.class);
+
+    private final MediaAssetRepository mediaAssetRepository;
+    private final MediaService mediaService;
+    private final MediaStorage mediaStorage;
+    private final MediaVariantService mediaVariantService;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Duration batchPause;
+
+    public MediaLayoutMigrator(
+            MediaAssetRepository mediaAssetRepository,
+            MediaService mediaService,
+            MediaStorage mediaStorage,
+            MediaVariantService mediaVariantService,
+            @Value("${layerten.media.layout-migration.enabled:true}") boolean enabled,
+            @Value("${layerten.media.layout-migration.batch-size:100}") int batchSize,
+            @Value("${layerten.media.layout-migration.batch-pause:200ms}") Duration batchPause
+    ) {
+        this.mediaAssetRepository = mediaAssetRepository;
+        this.mediaService = mediaService;
+        this.mediaStorage = mediaStorage;
+        this.mediaVariantService = mediaVariantService;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.batchPause = batchPause;
+    }
+
+    /**
+     * Scheduled run, shortly after startup and then hourly. Once every asset
+     * is migrated a run is a single empty query.
+     */
+    @Scheduled(initialDelayString = "PT1M", fixedDelayString = "PT1H")
+    public void migrateScheduled() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            int migrated = migrate();
+            if (migrated > 0) {
+                logger.info("Moved {} media assets into the sharded layout", migrated);
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.error("Media layout migration failed; it will resume on the next run", e);
+        }
+    }
+
+    /**
+     * Migrate every asset still in the flat layout.
+     *
+     * @return the number of assets migrated
+     */
+    public synchronized int migrate() throws IOException {
+        Pageable batch = PageRequest.of(0, batchSize);
+        int migrated = 0;
+        long afterId = 0;
+        List<MediaAsset> assets;
+        while (!(assets = mediaAssetRepository.findNotInShardedLayout(afterId, batch)).isEmpty()) {
+            for (MediaAsset asset : assets) {
+                migrate(asset);
+                migrated++;
+            }
+            afterId = assets.get(assets.size() - 1).getId();
+            pause();
+        }
+        return migrated;
+    }
+
+    private void migrate(MediaAsset asset) throws IOException {
+        String flatKey = MediaService.storageKey(asset);
+        String shardedKey = MediaKeys.sharded(MediaKeys.name(flatKey));
+
+        mediaVariantService.moveVariants(flatKey, shardedKey);
+        try {
+            mediaStorage.move(flatKey, shardedKey);
+        } catch (NoSuchFileException e) {
+            // Either moved by an interrupted earlier run, or missing altogether
+            if (mediaStorage.stat(shardedKey).isEmpty()) {
+                logger.warn("Media file for asset {} is missing; recording sharded key {}", asset.getId(), shardedKey);
+            }
+        }
+        mediaService.setStoragePath(asset.getId(), shardedKey);
+    }
+
+    private void pause() {
+        if (batchPause.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(batchPause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Media layout migration interrupted", e);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.layerten.service;
+
+import com.layerten.media.BlurHash;
+import com.layerten.media.ImageFormat;
+import com.layerten.media.ImageProbe;
+import com.layerten.media.MediaRepresentation;
+import com.layerten.repository.MediaAssetRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOException;
+import java.io.IOException;
+import java.io.PushbackInputStream;
+import java.nio.file.NoSuchFileException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Background generation of BlurHash placeholders for media assets.
+ *
+ * Each asset is hashed once, shortly after upload, and the hash is stored on
+ * its row so media DTOs can carry it inline. Assets that will never get a
+ * placeholder, because they cannot be decoded (for example WebP without an
+ * ImageIO plugin), their file is corrupt or their file is missing, are recorded
+ * with an empty placeholder so they are not retried on every run. Assets whose
+ * file cannot be read right now are left for the next run, a few times at most.
+ */
+@Service
+public class MediaPlaceholderGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(MediaPlaceholderGenerator.class);
+
+    /**
+     * Runs an asset whose file cannot be read is tried in before it is given an empty placeholder.
+     */
+    static final int MAX_ATTEMPTS = 5;
+
+    private final MediaAssetRepository mediaAssetRepository;
+    private final MediaService mediaService;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long maxPixels;
+
+    // Failed attempts of assets left for a later run, by ID; guarded by the generate lock
+    private final Map<Long, Integer> failedAttempts = new HashMap<>();
+
+    public MediaPlaceholderGenerator(
+            MediaAssetRepository mediaAssetRepository,
+            MediaService mediaService,
+            @Value("${layerten.media.placeholders.enabled:true}") boolean enabled,
+            @Value("${layerten.media.placeholders.batch-size:50}") int batchSize,
+            @Value("${layerten.media.variants.max-pixels:40000000}") long maxPixels
+    ) {
+        this.mediaAssetRepository = mediaAssetRepository;
+        this.mediaService = mediaService;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxPixels = maxPixels;
+    }
+
+    /**
+     * Scheduled run, every minute by default. Once every asset has a placeholder
+     * a run is a single empty query.
+     */
+    @Scheduled(initialDelayString = "PT30S", fixedDelayString = "${layerten.media.placeholders.interval:PT1M}")
+    public void generateScheduled() {
+        if (!enabled) {
+            return;
+        }
+        int generated = generate();
+        if (generated > 0) {
+            logger.info("Generated placeholders for {} media assets", generated);
+        }
+    }
+
+    /**
+     * Generate placeholders for every asset that does not have one yet.
+     *
+     * @return the number of placeholders stored
+     */
+    public synchronized int generate() {
+        Pageable batch = PageRequest.of(0, batchSize);
+        int generated = 0;
+        long afterId = 0;
+        List<Long> ids;
+        while (!(ids = mediaAssetRepository.findIdsWithoutPlaceholder(afterId, batch)).isEmpty()) {
+            for (Long id : ids) {
+                if (generate(id)) {
+                    generated++;
+                }
+            }
+            afterId = ids.get(ids.size() - 1);
+        }
+        return generated;
+    }
+
+    private boolean generate(Long id) {
+        String placeholder;
+        try {
+            MediaRepresentation original = mediaService.selectRepresentation(id, List.of());
+            try (PushbackInputStream in = new PushbackInputStream(mediaService.open(original), ImageProbe.PROBE_LENGTH)) {
+                // Hashed as displayed, like the variants and recompressed uploads
+                boolean jpeg = ImageFormat.JPEG.getContentType().equals(original.contentType());
+                placeholder = BlurHash.encode(in, maxPixels, jpeg ? ImageProbe.jpegOrientation(in) : 1).orElse("");
+            }
+        } catch (EntityNotFoundException e) {
+            // Deleted since the batch was read
+            return false;
+        } catch (NoSuchFileException | IIOException e) {
+            logger.warn("No placeholder for media asset {}: {}", id, e.toString());
+            placeholder = "";
+        } catch (IOException | RuntimeException e) {
+            int attempts = failedAttempts.merge(id, 1, Integer::sum);
+            if (attempts < MAX_ATTEMPTS) {
+                logger.debug("Could not generate placeholder for media asset {} (attempt {} of {}): {}",
+                    id, attempts, MAX_ATTEMPTS, e.toString());
+                return false;
+            }
+            logger.warn("Giving up on a placeholder for media asset {} after {} attempts", id, attempts, e);
+            placeholder = "";
+        }
+        failedAttempts.remove(id);
+        return mediaService.setPlaceholder(id, placeholder);
+    }
+}
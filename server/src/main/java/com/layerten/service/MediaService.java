@@ -1,44 +1,86 @@
 package com.layerten.service;
 
 import com.layerten.dto.MediaAssetDTO;
+import com.layerten.dto.MediaPageDTO;
+import com.layerten.dto.MediaSearchCriteria;
 import com.layerten.entity.MediaAsset;
+import com.layerten.media.ImageFormat;
+import com.layerten.media.ImageInfo;
+import com.layerten.media.ImageProbe;
+import com.layerten.media.InspectingUploadStream;
+import com.layerten.media.MediaKeys;
+import com.layerten.media.MediaRepresentation;
+import com.layerten.media.MediaStorage;
+import com.layerten.media.MediaUrls;
+import com.layerten.media.OptimizedUpload;
+import com.layerten.media.UploadRejectedException;
 import com.layerten.repository.MediaAssetRepository;
+import com.layerten.repository.MediaAssetSpecifications;
 import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
 public class MediaService {
 
+    private static final Logger logger = LoggerFactory.getLogger(MediaService.class);
+
+    /**
+     * Properties the media library can be sorted by.
+     */
+    private static final Set<String> SORT_PROPERTIES = Set.of("createdAt", "fileSize", "filename");
+
+    private static final int MAX_PAGE_SIZE = 200;
+
     private final MediaAssetRepository mediaAssetRepository;
-    private final Path mediaRoot;
+    private final MediaStorage mediaStorage;
+    private final MediaVariantService mediaVariantService;
+    private final MediaUploadOptimizer mediaUploadOptimizer;
+    private final long maxFileSize;
 
     public MediaService(
             MediaAssetRepository mediaAssetRepository,
-            @Value("${layerten.media.root:./local-media}") String mediaRootPath
+            MediaStorage mediaStorage,
+            MediaVariantService mediaVariantService,
+            MediaUploadOptimizer mediaUploadOptimizer,
+            @Value("${layerten.media.max-file-size:10MB}") DataSize maxFileSize
     ) {
         this.mediaAssetRepository = mediaAssetRepository;
-        this.mediaRoot = Paths.get(mediaRootPath).toAbsolutePath().normalize();
-        
-        try {
-            Files.createDirectories(this.mediaRoot);
-        } catch (IOException e) {
-            throw new RuntimeException("Could not create media storage directory", e);
-        }
+        this.mediaStorage = mediaStorage;
+        this.mediaVariantService = mediaVariantService;
+        this.mediaUploadOptimizer = mediaUploadOptimizer;
+        this.maxFileSize = maxFileSize.toBytes();
     }
 
-    @Transactional
-    public MediaAssetDTO uploadMedia(MultipartFile file, String altText) throws IOException {
+    /**
+     * Upload a media file from a multipart request.
+     * The servlet container has already spooled the part to a temp file, which is
+     * copied from there to storage, so the upload is written twice; use
+     * {@link #uploadMediaStream} to write it once.
+     * Not transactional, like {@link #uploadMediaStream}.
+     */
+    public MediaAssetDTO uploadMedia(MultipartFile file, String altText, boolean keepOriginal) throws IOException {
         if (file.isEmpty()) {
             throw new IllegalArgumentException("File is empty");
         }
@@ -48,26 +90,126 @@ public class MediaService {
             throw new IllegalArgumentException("File has no name");
         }
 
-        // Generate unique filename
-        String fileExtension = getFileExtension(originalFilename);
-        String uniqueFilename = UUID.randomUUID().toString() + fileExtension;
-        
-        // Save file to disk
-        Path targetPath = mediaRoot.resolve(uniqueFilename);
-        Files.copy(file.getInputStream(), targetPath, StandardCopyOption.REPLACE_EXISTING);
+        try (InputStream in = file.getInputStream()) {
+            return storeUpload(in, file.getSize(), altText, keepOriginal);
+        }
+    }
+
+    /**
+     * Upload a media file from a raw request body stream.
+     * The stream is validated (size and image magic bytes) while it is written,
+     * so the upload is written exactly once and never buffered in memory or in a
+     * multipart temp file.
+     *
+     * Not transactional: reading the body, writing it to storage and recompressing
+     * it can take a while, and no database connection is held until the record is saved.
+     *
+     * @param in the request body
+     * @param contentLength the declared Content-Length, or null if unknown
+     * @param altText optional alt text for the image
+     * @param keepOriginal whether to keep the untouched upload if it is recompressed
+     * @return the created media asset
+     */
+    public MediaAssetDTO uploadMediaStream(
+            InputStream in,
+            Long contentLength,
+            String altText,
+            boolean keepOriginal
+    ) throws IOException {
+        if (contentLength != null && contentLength > maxFileSize) {
+            throw new IllegalArgumentException("File size exceeds maximum allowed size of " + maxFileSize + " bytes");
+        }
+
+        return storeUpload(in, contentLength != null ? contentLength : -1, altText, keepOriginal);
+    }
+
+    /**
+     * Write an upload to media storage, then record it in a short transaction of
+     * its own. If the record cannot be saved the stored files are removed again.
+     */
+    private MediaAssetDTO storeUpload(InputStream in, long contentLength, String altText, boolean keepOriginal)
+            throws IOException {
+        MediaAsset mediaAsset = writeUpload(in, contentLength, altText, keepOriginal);
+        try {
+            MediaAsset saved = mediaAssetRepository.save(mediaAsset);
+            return toDTO(saved);
+        } catch (RuntimeException e) {
+            discardUpload(mediaAsset);
+            throw e;
+        }
+    }
+
+    /**
+     * Write an upload to media storage and build its, not yet saved, record.
+     * The image signature is read first so the storage key can carry the real
+     * file extension; the rest of the stream is validated as it is written.
+     * Large uploads may then be recompressed in place by the upload optimizer.
+     */
+    MediaAsset writeUpload(InputStream in, long contentLength, String altText, boolean keepOriginal)
+            throws IOException {
+        PushbackInputStream pushback = new PushbackInputStream(in, ImageFormat.SIGNATURE_LENGTH);
+        byte[] signature = pushback.readNBytes(ImageFormat.SIGNATURE_LENGTH);
+        if (signature.length == 0) {
+            throw new IllegalArgumentException("File is empty");
+        }
+        ImageFormat format = ImageFormat.detect(signature, signature.length)
+            .orElseThrow(() -> new IllegalArgumentException(
+                "File must be a valid image format (JPEG, PNG, GIF, WebP)"));
+        pushback.unread(signature);
 
-        // Create database record
+        String filename = UUID.randomUUID().toString() + format.getExtension();
+        String storageKey = MediaKeys.sharded(filename);
+        InspectingUploadStream upload = new InspectingUploadStream(pushback, maxFileSize);
+        try {
+            mediaStorage.put(storageKey, upload, contentLength, format.getContentType());
+        } catch (UploadRejectedException e) {
+            throw new IllegalArgumentException(e.getMessage());
+        }
+
+        // Build the database record, using the probed format rather than the client-sent type
+        ImageInfo imageInfo = upload.getImageInfo();
         MediaAsset mediaAsset = new MediaAsset(
-            uniqueFilename,
-            file.getContentType(),
-            file.getSize(),
+            filename,
+            imageInfo.format().getContentType(),
+            upload.getBytesRead(),
             altText,
-            targetPath.toString()
+            storageKey
         );
+        // Record the size the image displays at; a JPEG turned a quarter by its EXIF orientation swaps them
+        boolean swapped = ImageProbe.swapsDimensions(upload.getOrientation());
+        mediaAsset.setWidth(swapped ? imageInfo.height() : imageInfo.width());
+        mediaAsset.setHeight(swapped ? imageInfo.width() : imageInfo.height());
+        mediaAsset.setContentHash(upload.getContentHash());
 
-        MediaAsset saved = mediaAssetRepository.save(mediaAsset);
-        
-        return toDTO(saved);
+        try {
+            Optional<OptimizedUpload> optimized = mediaUploadOptimizer.optimize(
+                storageKey, imageInfo.format(), upload.getBytesRead(), keepOriginal);
+            optimized.ifPresent(result -> {
+                mediaAsset.setFileSize(result.size());
+                mediaAsset.setContentHash(result.contentHash());
+                mediaAsset.setWidth(result.width());
+                mediaAsset.setHeight(result.height());
+                mediaAsset.setBytesSaved(result.bytesSaved());
+            });
+        } catch (IOException | RuntimeException e) {
+            discardUpload(mediaAsset);
+            throw e;
+        }
+        return mediaAsset;
+    }
+
+    /**
+     * Remove the stored files of an upload whose record was never saved.
+     * Failures are logged rather than thrown so they do not mask the original error;
+     * anything left behind is collected as a stray object by the garbage collector.
+     */
+    void discardUpload(MediaAsset mediaAsset) {
+        try {
+            mediaStorage.delete(mediaAsset.getStoragePath());
+            mediaVariantService.deleteVariants(mediaAsset.getStoragePath());
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not remove unsaved upload {}", mediaAsset.getStoragePath(), e);
+        }
     }
 
     @Transactional(readOnly = true)
@@ -80,22 +222,107 @@ public class MediaService {
     @Transactional(readOnly = true)
     public java.util.List<MediaAssetDTO> getAllMedia() {
         return mediaAssetRepository.findAll().stream()
-                .map(this::toDTO)
+                .map(MediaService::toDTO)
                 .toList();
     }
 
+    /**
+     * Get one page of the media library, newest first by default.
+     * Pages are fetched by keyset: the cursor records the sort value and ID of the
+     * last row of the previous page, so each page is a range read rather than an
+     * offset scan and stays stable while new media is uploaded.
+     *
+     * @param criteria filters to apply
+     * @param sortProperty one of createdAt, fileSize or filename
+     * @param direction sort direction
+     * @param cursor the nextCursor of the previous page, or null for the first page
+     * @param size maximum number of items, capped at 200
+     * @return the page and the cursor for the next one
+     */
     @Transactional(readOnly = true)
-    public Path getMediaFile(Long id) {
+    public MediaPageDTO searchMedia(
+            MediaSearchCriteria criteria,
+            String sortProperty,
+            Sort.Direction direction,
+            String cursor,
+            int size
+    ) {
+        if (!SORT_PROPERTIES.contains(sortProperty)) {
+            throw new IllegalArgumentException("Cannot sort media by " + sortProperty);
+        }
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        int limit = Math.min(size, MAX_PAGE_SIZE);
+
+        Specification<MediaAsset> spec = Specification.where(null);
+        if (criteria.contentType() != null) {
+            spec = spec.and(MediaAssetSpecifications.hasContentType(criteria.contentType()));
+        }
+        if (criteria.createdAfter() != null) {
+            spec = spec.and(MediaAssetSpecifications.createdAfter(criteria.createdAfter()));
+        }
+        if (criteria.createdBefore() != null) {
+            spec = spec.and(MediaAssetSpecifications.createdBefore(criteria.createdBefore()));
+        }
+        if (criteria.unusedOnly()) {
+            spec = spec.and(MediaAssetSpecifications.unused());
+        }
+        if (cursor != null) {
+            spec = spec.and(decodeCursor(cursor, sortProperty, direction));
+        }
+
+        // Fetch one extra row to learn whether another page follows
+        Sort sort = Sort.by(direction, sortProperty).and(Sort.by(direction, "id"));
+        List<MediaAsset> rows = mediaAssetRepository.findBy(spec, query -> query.sortBy(sort).limit(limit + 1).all());
+
+        boolean hasNext = rows.size() > limit;
+        List<MediaAsset> page = hasNext ? rows.subList(0, limit) : rows;
+        String nextCursor = hasNext ? encodeCursor(page.get(page.size() - 1), sortProperty) : null;
+        return new MediaPageDTO(page.stream().map(MediaService::toDTO).toList(), limit, nextCursor);
+    }
+
+    /**
+     * Choose which stored representation of a media asset to serve.
+     * Not transactional: producing a variant on first request can take a while and
+     * should not hold a database connection.
+     *
+     * @param id the media asset ID
+     * @param acceptable media types from the request's Accept header, empty if none
+     * @return a smaller variant the client accepts, or the original
+     */
+    public MediaRepresentation selectRepresentation(Long id, List<MediaType> acceptable) throws IOException {
         MediaAsset mediaAsset = mediaAssetRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Media asset not found with id: " + id));
-        
-        Path filePath = mediaRoot.resolve(mediaAsset.getFilename());
-        
-        if (!Files.exists(filePath)) {
-            throw new RuntimeException("File not found on disk: " + mediaAsset.getFilename());
-        }
-        
-        return filePath;
+        String contentType = mediaAsset.getContentType() != null
+            ? mediaAsset.getContentType()
+            : MediaType.APPLICATION_OCTET_STREAM_VALUE;
+        MediaRepresentation original = new MediaRepresentation(
+            locateStorageKey(mediaAsset), mediaAsset.getFilename(), contentType, mediaAsset.getFileSize(), false,
+            fingerprint(mediaAsset));
+        return mediaVariantService.findVariant(original, acceptable).orElse(original);
+    }
+
+    /**
+     * Open the content of a media representation.
+     *
+     * @param representation the representation to read
+     * @return a stream over the whole file; the caller must close it
+     */
+    public InputStream open(MediaRepresentation representation) throws IOException {
+        return mediaStorage.get(representation.storageKey());
+    }
+
+    /**
+     * Open a byte range of a media representation.
+     *
+     * @param representation the representation to read
+     * @param offset the first byte to read
+     * @param length the number of bytes to read
+     * @return a stream over the range; the caller must close it
+     */
+    public InputStream openRange(MediaRepresentation representation, long offset, long length) throws IOException {
+        return mediaStorage.getRange(representation.storageKey(), offset, length);
     }
 
     @Transactional
@@ -103,32 +330,204 @@ public class MediaService {
         MediaAsset mediaAsset = mediaAssetRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Media asset not found with id: " + id));
         
-        // Delete file from disk
-        Path filePath = mediaRoot.resolve(mediaAsset.getFilename());
-        if (Files.exists(filePath)) {
-            Files.delete(filePath);
+        // Delete file and any re-encoded variants from storage, wherever the layout migration left them
+        String storageKey = storageKey(mediaAsset);
+        mediaStorage.delete(storageKey);
+        mediaVariantService.deleteVariants(storageKey);
+        if (!MediaKeys.isSharded(storageKey)) {
+            String shardedKey = MediaKeys.sharded(MediaKeys.name(storageKey));
+            mediaStorage.delete(shardedKey);
+            mediaVariantService.deleteVariants(shardedKey);
         }
         
         // Delete database record
         mediaAssetRepository.delete(mediaAsset);
     }
 
-    private String getFileExtension(String filename) {
-        int lastDotIndex = filename.lastIndexOf('.');
-        if (lastDotIndex > 0) {
-            return filename.substring(lastDotIndex);
+    /**
+     * Store the placeholder of a media asset. The row is updated through its
+     * entity rather than a bulk update, so only this asset's second-level cache
+     * entry is replaced and the rest of the media cache stays warm.
+     *
+     * @param id the media asset ID
+     * @param placeholder the BlurHash, or an empty string if none can be produced
+     * @return false if the asset no longer exists
+     */
+    @Transactional
+    public boolean setPlaceholder(Long id, String placeholder) {
+        Optional<MediaAsset> mediaAsset = mediaAssetRepository.findById(id);
+        mediaAsset.ifPresent(asset -> asset.setPlaceholder(placeholder));
+        return mediaAsset.isPresent();
+    }
+
+    /**
+     * Record when media assets were first found unreferenced, through their
+     * entities for the same reason as {@link #setPlaceholder}. Assets that are
+     * already marked, or no longer exist, are skipped.
+     *
+     * @param ids the media asset IDs
+     * @param orphanedAt the time to record
+     * @return the number of assets marked
+     */
+    @Transactional
+    public int markOrphaned(Collection<Long> ids, LocalDateTime orphanedAt) {
+        int marked = 0;
+        for (MediaAsset mediaAsset : mediaAssetRepository.findAllById(ids)) {
+            if (mediaAsset.getOrphanedAt() == null) {
+                mediaAsset.setOrphanedAt(orphanedAt);
+                marked++;
+            }
+        }
+        return marked;
+    }
+
+    /**
+     * Clear the orphan mark of media assets that are referenced again, through
+     * their entities like {@link #markOrphaned}.
+     *
+     * @param ids the media asset IDs
+     * @return the number of marks cleared
+     */
+    @Transactional
+    public int clearOrphanedMarks(Collection<Long> ids) {
+        int cleared = 0;
+        for (MediaAsset mediaAsset : mediaAssetRepository.findAllById(ids)) {
+            if (mediaAsset.getOrphanedAt() != null) {
+                mediaAsset.setOrphanedAt(null);
+                cleared++;
+            }
+        }
+        return cleared;
+    }
+
+    /**
+     * Delete the record of a media asset if it is still an unreferenced orphan
+     * marked before the cutoff. The row is locked before the conditions are
+     * checked, so a reference added since the asset was found either is seen by
+     * the check or waits for the delete and then fails its foreign key. Deleting
+     * through the entity evicts only this asset from the second-level cache.
+     * The files are left to the caller.
+     *
+     * @param id the media asset ID
+     * @param cutoff the grace period cutoff
+     * @return true if the record was deleted
+     */
+    @Transactional
+    public boolean deleteIfOrphanedBefore(Long id, LocalDateTime cutoff) {
+        Optional<MediaAsset> mediaAsset = mediaAssetRepository.findByIdForUpdate(id)
+            .filter(asset -> asset.getOrphanedAt() != null && asset.getOrphanedAt().isBefore(cutoff))
+            .filter(asset -> mediaAssetRepository.isUnreferenced(id));
+        mediaAsset.ifPresent(mediaAssetRepository::delete);
+        return mediaAsset.isPresent();
+    }
+
+    /**
+     * Point a media asset at a new storage path, through its entity like
+     * {@link #setPlaceholder}.
+     *
+     * @param id the media asset ID
+     * @param storagePath the new storage path
+     * @return false if the asset no longer exists
+     */
+    @Transactional
+    public boolean setStoragePath(Long id, String storagePath) {
+        Optional<MediaAsset> mediaAsset = mediaAssetRepository.findById(id);
+        mediaAsset.ifPresent(asset -> asset.setStoragePath(storagePath));
+        return mediaAsset.isPresent();
+    }
+
+    /**
+     * Storage key for an asset. Assets uploaded before the storage abstraction
+     * recorded an absolute filesystem path; those files live directly under the
+     * media root and are keyed by filename.
+     */
+    static String storageKey(MediaAsset mediaAsset) {
+        String storagePath = mediaAsset.getStoragePath();
+        if (storagePath == null || Path.of(storagePath).isAbsolute()) {
+            return mediaAsset.getFilename();
+        }
+        return storagePath;
+    }
+
+    /**
+     * Fingerprint of an asset's current content, as carried in its URL.
+     */
+    static String fingerprint(MediaAsset mediaAsset) {
+        return MediaUrls.fingerprint(mediaAsset.getContentHash(), storageKey(mediaAsset));
+    }
+
+    /**
+     * Fingerprinted, permanently cacheable URL of an asset.
+     */
+    static String url(MediaAsset mediaAsset) {
+        return MediaUrls.path(mediaAsset.getId(), fingerprint(mediaAsset), mediaAsset.getFilename());
+    }
+
+    /**
+     * Placeholder of an asset as served to clients: null until one has been
+     * generated, and for assets none could be generated for.
+     */
+    static String placeholder(MediaAsset mediaAsset) {
+        String placeholder = mediaAsset.getPlaceholder();
+        return placeholder == null || placeholder.isEmpty() ? null : placeholder;
+    }
+
+    /**
+     * Encode the position after a row as an opaque, URL-safe cursor:
+     * the sort property, the row ID and the row's sort value.
+     */
+    private String encodeCursor(MediaAsset last, String sortProperty) {
+        String value = switch (sortProperty) {
+            case "fileSize" -> String.valueOf(last.getFileSize());
+            case "filename" -> last.getFilename();
+            default -> last.getCreatedAt().toString();
+        };
+        String raw = sortProperty + "\n" + last.getId() + "\n" + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Specification<MediaAsset> decodeCursor(String cursor, String sortProperty, Sort.Direction direction) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\n", 3);
+            if (parts.length != 3 || !parts[0].equals(sortProperty)) {
+                throw new IllegalArgumentException("Cursor does not match the requested sort");
+            }
+            long lastId = Long.parseLong(parts[1]);
+            Comparable<?> value = switch (sortProperty) {
+                case "fileSize" -> Long.valueOf(parts[2]);
+                case "filename" -> parts[2];
+                default -> LocalDateTime.parse(parts[2]);
+            };
+            return MediaAssetSpecifications.after(sortProperty, direction, value, lastId);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    /**
+     * Storage key the asset's file can currently be read from. While the layout
+     * migration is running, a row can still name the flat key after its file has
+     * been moved to the sharded key; fall back to the sharded key in that case.
+     */
+    private String locateStorageKey(MediaAsset mediaAsset) throws IOException {
+        String storageKey = storageKey(mediaAsset);
+        if (MediaKeys.isSharded(storageKey) || mediaStorage.stat(storageKey).isPresent()) {
+            return storageKey;
         }
-        return "";
+        return MediaKeys.sharded(MediaKeys.name(storageKey));
     }
 
-    private MediaAssetDTO toDTO(MediaAsset mediaAsset) {
+    static MediaAssetDTO toDTO(MediaAsset mediaAsset) {
         return new MediaAssetDTO(
             mediaAsset.getId(),
             mediaAsset.getFilename(),
             mediaAsset.getContentType(),
             mediaAsset.getFileSize(),
             mediaAsset.getAltText(),
-            "/api/media/" + mediaAsset.getId()
+            mediaAsset.getWidth(),
+            mediaAsset.getHeight(),
+            url(mediaAsset),
+            placeholder(mediaAsset)
         );
     }
 }
@@ -0,0 +1,100 @@
+package com.layerten.service;
+
+import com.layerten.media.ImageFormat;
+import com.layerten.media.ImageInfo;
+import com.layerten.media.ImageProbe;
+import com.layerten.media.ImageTranscoder;
+import com.layerten.media.MediaStorage;
+import com.layerten.media.OptimizedUpload;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.PushbackInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Optional recompression of large JPEG uploads.
+ *
+ * Phone photos typically arrive with large EXIF blocks and embedded thumbnails
+ * and are encoded at quality 95 or above. Uploads at or over the threshold are
+ * decoded, turned upright according to their EXIF orientation and re-encoded
+ * without metadata at the configured quality. The stored file is replaced only
+ * if the result is smaller; the untouched upload is kept beside it on request.
+ */
+@Service
+public class MediaUploadOptimizer {
+
+    private static final Logger logger = LoggerFactory.getLogger(MediaUploadOptimizer.class);
+
+    private final MediaStorage mediaStorage;
+    private final ImageTranscoder transcoder;
+    private final boolean enabled;
+    private final long threshold;
+
+    public MediaUploadOptimizer(
+            MediaStorage mediaStorage,
+            @Value("${layerten.media.optimize.enabled:false}") boolean enabled,
+            @Value("${layerten.media.optimize.threshold:512KB}") DataSize threshold,
+            @Value("${layerten.media.optimize.quality:0.85}") float quality,
+            @Value("${layerten.media.optimize.max-pixels:40000000}") long maxPixels
+    ) {
+        this.mediaStorage = mediaStorage;
+        this.transcoder = new ImageTranscoder(quality, maxPixels);
+        this.enabled = enabled;
+        this.threshold = threshold.toBytes();
+    }
+
+    /**
+     * Recompress a stored upload in place if it qualifies and the result is smaller.
+     *
+     * @param storageKey key the upload was stored under
+     * @param format the upload's detected format
+     * @param size the upload's size in bytes
+     * @param keepOriginal whether to keep the untouched upload beside the optimized file
+     * @return the optimized file, or empty if the upload was left as it is
+     */
+    public Optional<OptimizedUpload> optimize(String storageKey, ImageFormat format, long size, boolean keepOriginal)
+            throws IOException {
+        if (!enabled || format != ImageFormat.JPEG || size < threshold) {
+            return Optional.empty();
+        }
+
+        // Decoded straight from storage; only the header is held to read the orientation
+        Optional<byte[]> encoded;
+        try (PushbackInputStream in = new PushbackInputStream(mediaStorage.get(storageKey), ImageProbe.PROBE_LENGTH)) {
+            encoded = transcoder.transcode(in, ImageFormat.JPEG, ImageProbe.jpegOrientation(in));
+        }
+        if (encoded.isEmpty() || encoded.get().length >= size) {
+            return Optional.empty();
+        }
+
+        byte[] optimized = encoded.get();
+        if (keepOriginal) {
+            mediaStorage.move(storageKey, MediaVariantService.preservedKey(storageKey));
+        }
+        mediaStorage.put(storageKey, new ByteArrayInputStream(optimized), optimized.length, format.getContentType());
+        logger.debug("Recompressed {} from {} to {} bytes", storageKey, size, optimized.length);
+
+        ImageInfo imageInfo = ImageProbe.probe(optimized, optimized.length)
+            .orElseThrow(() -> new IllegalStateException("Recompressed upload is not an image"));
+        return Optional.of(new OptimizedUpload(
+            optimized.length, sha256(optimized), imageInfo.width(), imageInfo.height(),
+            size - optimized.length));
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
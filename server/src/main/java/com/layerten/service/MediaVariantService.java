@@ -0,0 +1,216 @@
+package com.layerten.service;
+
+import com.layerten.media.ImageFormat;
+import com.layerten.media.ImageProbe;
+import com.layerten.media.ImageTranscoder;
+import com.layerten.media.MediaRepresentation;
+import com.layerten.media.MediaStorage;
+import com.layerten.media.MediaUrls;
+import com.layerten.media.StoredObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.PushbackInputStream;
+import java.nio.file.NoSuchFileException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Serves smaller re-encoded variants of media assets to clients that accept them.
+ *
+ * Each variant is encoded once, on first request, and stored beside the original
+ * under {@code <original key>.variant-v<version>q<quality>.<ext>}, naming the
+ * {@link MediaUrls#DERIVATIVE_VERSION} and quality it was encoded with. A variant
+ * that cannot be produced (for example a transparent PNG as JPEG) is recorded as
+ * an empty object, and a variant that did not come out smaller is kept but never
+ * served, so neither is re-encoded on later requests. Variants encoded under an
+ * earlier version or quality no longer belong to their original, and are swept
+ * as stray objects by the media garbage collector.
+ *
+ * A variant is only served to clients that name its type explicitly: a wildcard
+ * entry such as {@code image/*} says the client can display it, not that it
+ * wants a lossy re-encoding of the file it asked for.
+ *
+ * The untouched upload of an asset whose original was recompressed on upload
+ * is kept beside it too, under {@code <original key>.original.<ext>}, and is
+ * moved and deleted along with the variants.
+ */
+@Service
+public class MediaVariantService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MediaVariantService.class);
+
+    private static final String VARIANT_INFIX = ".variant";
+    private static final String PRESERVED_INFIX = ".original";
+
+    /**
+     * Candidate variant formats for each source format, most preferred first.
+     * JPEG is only a target for PNG, where photographs and screenshots are often
+     * several times larger than the equivalent JPEG.
+     */
+    private static final Map<ImageFormat, List<ImageFormat>> TARGETS = Map.of(
+        ImageFormat.JPEG, List.of(ImageFormat.WEBP),
+        ImageFormat.PNG, List.of(ImageFormat.WEBP, ImageFormat.JPEG)
+    );
+
+    private final MediaStorage mediaStorage;
+    private final ImageTranscoder transcoder;
+    private final boolean enabled;
+    private final Semaphore encodeSlots;
+    private final String variantInfix;
+
+    public MediaVariantService(
+            MediaStorage mediaStorage,
+            @Value("${layerten.media.variants.enabled:true}") boolean enabled,
+            @Value("${layerten.media.variants.quality:0.8}") float quality,
+            @Value("${layerten.media.variants.max-pixels:40000000}") long maxPixels,
+            @Value("${layerten.media.variants.max-concurrent-encodes:2}") int maxConcurrentEncodes
+    ) {
+        this.mediaStorage = mediaStorage;
+        this.transcoder = new ImageTranscoder(quality, maxPixels);
+        this.enabled = enabled;
+        this.encodeSlots = new Semaphore(maxConcurrentEncodes);
+        this.variantInfix = VARIANT_INFIX + "-v" + MediaUrls.DERIVATIVE_VERSION + "q" + Math.round(quality * 100);
+    }
+
+    /**
+     * Find the preferred variant of an original that the client accepts and that
+     * is smaller than the original, encoding it if it has not been produced yet.
+     *
+     * @param original the original representation
+     * @param acceptable media types from the request's Accept header
+     * @return the variant to serve, or empty to serve the original
+     */
+    public Optional<MediaRepresentation> findVariant(MediaRepresentation original, List<MediaType> acceptable)
+            throws IOException {
+        if (!enabled || acceptable.isEmpty()) {
+            return Optional.empty();
+        }
+        Optional<ImageFormat> source = ImageFormat.fromContentType(original.contentType());
+        if (source.isEmpty()) {
+            return Optional.empty();
+        }
+
+        for (ImageFormat target : TARGETS.getOrDefault(source.get(), List.of())) {
+            if (!accepts(acceptable, target) || !transcoder.canEncode(target)) {
+                continue;
+            }
+            String key = variantKey(original.storageKey(), target);
+            Optional<StoredObject> stored = mediaStorage.stat(key);
+            if (stored.isEmpty()) {
+                stored = encode(original.storageKey(), source.get(), key, target);
+            }
+            if (stored.isPresent() && stored.get().size() > 0 && stored.get().size() < original.size()) {
+                return Optional.of(new MediaRepresentation(
+                    key, variantFilename(original.filename(), target), target.getContentType(),
+                    stored.get().size(), true, original.fingerprint()));
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Delete every variant, and any preserved upload, stored for an original.
+     */
+    public void deleteVariants(String originalKey) throws IOException {
+        for (ImageFormat target : ImageFormat.values()) {
+            mediaStorage.delete(variantKey(originalKey, target));
+        }
+        mediaStorage.delete(preservedKey(originalKey));
+    }
+
+    /**
+     * Move every stored variant, and any preserved upload, of an original to sit
+     * beside the original's new key.
+     */
+    public void moveVariants(String originalKey, String newOriginalKey) throws IOException {
+        for (ImageFormat target : ImageFormat.values()) {
+            moveIfPresent(variantKey(originalKey, target), variantKey(newOriginalKey, target));
+        }
+        moveIfPresent(preservedKey(originalKey), preservedKey(newOriginalKey));
+    }
+
+    private void moveIfPresent(String sourceKey, String targetKey) throws IOException {
+        try {
+            mediaStorage.move(sourceKey, targetKey);
+        } catch (NoSuchFileException e) {
+            // Nothing stored under this key
+        }
+    }
+
+    /**
+     * Encode and store a variant. When every encoding slot is busy the request is
+     * served the original and the variant is left for a later request.
+     * The variant carries no metadata, so a JPEG's EXIF orientation is applied to its pixels.
+     */
+    private Optional<StoredObject> encode(String originalKey, ImageFormat source, String key, ImageFormat target)
+            throws IOException {
+        if (!encodeSlots.tryAcquire()) {
+            return Optional.empty();
+        }
+        try {
+            Optional<byte[]> encoded;
+            try (PushbackInputStream in = new PushbackInputStream(mediaStorage.get(originalKey), ImageProbe.PROBE_LENGTH)) {
+                int orientation = source == ImageFormat.JPEG ? ImageProbe.jpegOrientation(in) : 1;
+                encoded = transcoder.transcode(in, target, orientation);
+            }
+            byte[] bytes = encoded.orElse(new byte[0]);
+            mediaStorage.put(key, new ByteArrayInputStream(bytes), bytes.length, target.getContentType());
+            logger.debug("Stored {} variant of {} ({} bytes)", target, originalKey, bytes.length);
+            return Optional.of(new StoredObject(key, bytes.length, Instant.now()));
+        } finally {
+            encodeSlots.release();
+        }
+    }
+
+    private static boolean accepts(List<MediaType> acceptable, ImageFormat target) {
+        MediaType type = MediaType.parseMediaType(target.getContentType());
+        for (MediaType accepted : acceptable) {
+            if (!accepted.isWildcardType() && !accepted.isWildcardSubtype()
+                    && accepted.includes(type) && accepted.getQualityValue() > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    String variantKey(String originalKey, ImageFormat target) {
+        return originalKey + variantInfix + target.getExtension();
+    }
+
+    /**
+     * Key the untouched upload is kept under when an original is recompressed.
+     */
+    static String preservedKey(String originalKey) {
+        int dot = originalKey.lastIndexOf('.');
+        return originalKey + PRESERVED_INFIX + (dot >= 0 ? originalKey.substring(dot) : "");
+    }
+
+    /**
+     * The key of the original a stored key belongs to: the key itself for an
+     * original or an outdated variant, or the original's key for a current
+     * variant or preserved upload.
+     */
+    String originalKey(String key) {
+        for (String suffix : List.of(variantInfix, PRESERVED_INFIX)) {
+            int infix = key.lastIndexOf(suffix + ".");
+            if (infix > 0 && key.indexOf('.', infix + suffix.length() + 1) < 0) {
+                return key.substring(0, infix);
+            }
+        }
+        return key;
+    }
+
+    private static String variantFilename(String filename, ImageFormat target) {
+        int dot = filename.lastIndexOf('.');
+        return (dot > 0 ? filename.substring(0, dot) : filename) + target.getExtension();
+    }
+}
@@ -0,0 +1,81 @@
+package com.layerten.service;
+
+import com.layerten.repository.RankedListCardRepository;
+import com.layerten.repository.RankedListRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Consistency check for the stored entry counts of ranked lists.
+ *
+ * Counts are adjusted as entries are added and removed, so two concurrent
+ * edits of one list, or entries changed outside the application, can leave a
+ * count wrong. Each run compares every list's count with its entries and
+ * recounts the lists that differ, along with their cards.
+ */
+@Service
+public class RankedListEntryCountReconciler {
+
+    private static final Logger logger = LoggerFactory.getLogger(RankedListEntryCountReconciler.class);
+
+    private final RankedListRepository rankedListRepository;
+    private final RankedListCardRepository rankedListCardRepository;
+    private final boolean enabled;
+    private final int batchSize;
+
+    public RankedListEntryCountReconciler(
+            RankedListRepository rankedListRepository,
+            RankedListCardRepository rankedListCardRepository,
+            @Value("${layerten.lists.entry-count-check.enabled:true}") boolean enabled,
+            @Value("${layerten.lists.entry-count-check.batch-size:500}") int batchSize
+    ) {
+        this.rankedListRepository = rankedListRepository;
+        this.rankedListCardRepository = rankedListCardRepository;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Scheduled run, nightly by default.
+     */
+    @Scheduled(cron = "${layerten.lists.entry-count-check.cron:0 0 4 * * *}")
+    public void reconcileScheduled() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            int repaired = reconcile();
+            if (repaired > 0) {
+                logger.warn("Repaired entry counts of {} ranked lists", repaired);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Entry count check failed", e);
+        }
+    }
+
+    /**
+     * Recount the entries of every list whose stored count is wrong.
+     *
+     * @return the number of lists repaired
+     */
+    public synchronized int reconcile() {
+        Pageable batch = PageRequest.of(0, batchSize);
+        int repaired = 0;
+        long afterId = 0;
+        List<Long> ids;
+        while (!(ids = rankedListRepository.findIdsWithEntryCountDrift(afterId, batch)).isEmpty()) {
+            logger.debug("Recounting entries of ranked lists {}", ids);
+            repaired += rankedListRepository.recountEntries(ids);
+            rankedListCardRepository.copyEntryCounts(ids);
+            afterId = ids.get(ids.size() - 1);
+        }
+        return repaired;
+    }
+}
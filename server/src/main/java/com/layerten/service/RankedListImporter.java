@@ -0,0 +1,132 @@
+package com.layerten.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.layerten.dto.ImportListRequest;
+import com.layerten.dto.ListImportReport;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Bulk import of ranked lists, given as a list of requests or as NDJSON with
+ * one list per line.
+ *
+ * Every list is read and validated before any is written, so a bad line
+ * rejects the whole import. The lists are then created together in one
+ * transaction by {@link RankedListService#importLists}.
+ */
+@Service
+public class RankedListImporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RankedListImporter.class);
+
+    private final RankedListService rankedListService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final int maxLists;
+
+    public RankedListImporter(
+            RankedListService rankedListService,
+            ObjectMapper objectMapper,
+            Validator validator,
+            @Value("${layerten.lists.import.max-lists:500}") int maxLists
+    ) {
+        this.rankedListService = rankedListService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.maxLists = maxLists;
+    }
+
+    /**
+     * Import lists from NDJSON, one list per line. Blank lines are skipped.
+     *
+     * @param in the NDJSON body
+     * @return the import report
+     * @throws IllegalArgumentException if a line is not a valid list
+     * @throws IOException if the body cannot be read
+     */
+    public ListImportReport importNdjson(InputStream in) throws IOException {
+        long start = System.nanoTime();
+        List<ImportListRequest> requests = new ArrayList<>();
+        try (MappingIterator<ImportListRequest> lines =
+                 objectMapper.readerFor(ImportListRequest.class).readValues(in)) {
+            while (lines.hasNextValue()) {
+                int line = lines.getCurrentLocation().getLineNr();
+                ImportListRequest request = lines.nextValue();
+                if (requests.size() == maxLists) {
+                    throw tooMany();
+                }
+                validate(request, "Line " + line);
+                requests.add(request);
+            }
+        } catch (JsonProcessingException e) {
+            int line = e.getLocation() != null ? e.getLocation().getLineNr() : requests.size() + 1;
+            throw new IllegalArgumentException("Line " + line + ": " + e.getOriginalMessage(), e);
+        }
+        return importValidated(requests, start);
+    }
+
+    /**
+     * Import lists that have already been read.
+     *
+     * @param requests the lists to import
+     * @return the import report
+     * @throws IllegalArgumentException if a list is not valid
+     */
+    public ListImportReport importLists(List<ImportListRequest> requests) {
+        long start = System.nanoTime();
+        if (requests.size() > maxLists) {
+            throw tooMany();
+        }
+        for (int i = 0; i < requests.size(); i++) {
+            validate(requests.get(i), "List " + (i + 1));
+        }
+        return importValidated(requests, start);
+    }
+
+    private ListImportReport importValidated(List<ImportListRequest> requests, long start) {
+        if (requests.isEmpty()) {
+            throw new IllegalArgumentException("No lists to import");
+        }
+        List<String> slugs = rankedListService.importLists(requests);
+
+        long elapsedNanos = Math.max(System.nanoTime() - start, 1);
+        int entries = requests.stream()
+            .mapToInt(request -> request.entries() != null ? request.entries().size() : 0)
+            .sum();
+        double listsPerSecond = slugs.size() * 1_000_000_000.0 / elapsedNanos;
+        logger.info("Imported {} ranked lists with {} entries in {} ms ({} lists/s)",
+            slugs.size(), entries, elapsedNanos / 1_000_000, String.format("%.1f", listsPerSecond));
+        return new ListImportReport(slugs.size(), entries, elapsedNanos / 1_000_000, listsPerSecond, slugs);
+    }
+
+    private void validate(ImportListRequest request, String where) {
+        if (request == null) {
+            throw new IllegalArgumentException(where + ": expected a list");
+        }
+        Set<ConstraintViolation<ImportListRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            ConstraintViolation<ImportListRequest> first = violations.stream()
+                .min(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+                .orElseThrow();
+            throw new IllegalArgumentException(
+                where + ", " + first.getPropertyPath() + ": " + first.getMessage());
+        }
+    }
+
+    private IllegalArgumentException tooMany() {
+        return new IllegalArgumentException("An import may hold at most " + maxLists + " lists");
+    }
+}
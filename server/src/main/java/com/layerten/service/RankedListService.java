@@ -4,22 +4,37 @@ import com.layerten.dto.*;
 import com.layerten.entity.MediaAsset;
 import com.layerten.entity.RankedEntry;
 import com.layerten.entity.RankedList;
+import com.layerten.entity.RankedListCard;
 import com.layerten.entity.Tag;
+import com.layerten.exception.StaleVersionException;
+import com.layerten.repository.ContentSpecifications;
 import com.layerten.repository.MediaAssetRepository;
 import com.layerten.repository.RankedEntryRepository;
+import com.layerten.repository.RankedListCardRepository;
 import com.layerten.repository.RankedListRepository;
 import com.layerten.repository.TagRepository;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service for managing ranked lists.
@@ -30,22 +45,31 @@ import java.util.stream.Collectors;
 public class RankedListService {
     
     private final RankedListRepository rankedListRepository;
+    private final RankedListCardRepository rankedListCardRepository;
     private final RankedEntryRepository rankedEntryRepository;
     private final TagRepository tagRepository;
     private final MediaAssetRepository mediaAssetRepository;
     private final SlugService slugService;
+    private final ListFacetIndex listFacetIndex;
+    private final TagUsageCounter tagUsageCounter;
     
     public RankedListService(
             RankedListRepository rankedListRepository,
+            RankedListCardRepository rankedListCardRepository,
             RankedEntryRepository rankedEntryRepository,
             TagRepository tagRepository,
             MediaAssetRepository mediaAssetRepository,
-            SlugService slugService) {
+            SlugService slugService,
+            ListFacetIndex listFacetIndex,
+            TagUsageCounter tagUsageCounter) {
         this.rankedListRepository = rankedListRepository;
+        this.rankedListCardRepository = rankedListCardRepository;
         this.rankedEntryRepository = rankedEntryRepository;
         this.tagRepository = tagRepository;
         this.mediaAssetRepository = mediaAssetRepository;
         this.slugService = slugService;
+        this.listFacetIndex = listFacetIndex;
+        this.tagUsageCounter = tagUsageCounter;
     }
     
     /**
@@ -93,27 +117,109 @@ public class RankedListService {
         
         // Save and return
         RankedList saved = rankedListRepository.save(rankedList);
+        refreshCard(saved);
         return toDetailDTO(saved);
     }
     
+    /**
+     * Import complete ranked lists with their entries.
+     * Every tag and image reference and every list's ranks are checked before
+     * anything is written; the lists, entries and cards are then inserted in
+     * JDBC batches within this one transaction.
+     * 
+     * @param requests the lists to import
+     * @return the slugs of the created lists, in request order
+     */
+    public List<String> importLists(List<ImportListRequest> requests) {
+        // Resolve every reference in one lookup per kind
+        Map<Long, Tag> tags = findAll(tagRepository, Tag::getId, requests.stream()
+            .flatMap(request -> request.tagIds() != null ? request.tagIds().stream() : Stream.empty()), "Tag");
+        Map<Long, MediaAsset> images = findAll(mediaAssetRepository, MediaAsset::getId, requests.stream()
+            .flatMap(request -> Stream.concat(
+                Stream.ofNullable(request.coverImageId()),
+                entries(request).stream().map(CreateEntryRequest::heroImageId).filter(Objects::nonNull))),
+            "Media asset");
+        for (ImportListRequest request : requests) {
+            Set<Integer> ranks = new HashSet<>();
+            for (CreateEntryRequest entry : entries(request)) {
+                if (!ranks.add(entry.rank())) {
+                    throw new IllegalArgumentException(
+                        "List '" + request.title() + "' has more than one entry at rank " + entry.rank());
+                }
+            }
+        }
+        
+        LocalDateTime publishedAt = LocalDateTime.now();
+        List<String> slugs = slugService.ensureUniqueSlugs(
+            requests.stream().map(request -> slugService.generateSlug(request.title())).toList(), RankedList.class);
+        List<RankedList> lists = new ArrayList<>(requests.size());
+        for (ImportListRequest request : requests) {
+            RankedList rankedList = new RankedList(
+                request.title(),
+                request.subtitle(),
+                slugs.get(lists.size()),
+                request.intro(),
+                request.outro()
+            );
+            rankedList.setPublishedAt(publishedAt);
+            if (request.coverImageId() != null) {
+                rankedList.setCoverImage(images.get(request.coverImageId()));
+            }
+            if (request.tagIds() != null) {
+                request.tagIds().forEach(tagId -> rankedList.addTag(tags.get(tagId)));
+            }
+            for (CreateEntryRequest entryRequest : entries(request)) {
+                RankedEntry entry = new RankedEntry(
+                    entryRequest.rank(),
+                    entryRequest.title(),
+                    entryRequest.blurb(),
+                    entryRequest.commentary(),
+                    entryRequest.funFact(),
+                    entryRequest.externalLink()
+                );
+                if (entryRequest.heroImageId() != null) {
+                    entry.setHeroImage(images.get(entryRequest.heroImageId()));
+                }
+                rankedList.addEntry(entry);
+            }
+            lists.add(rankedList);
+        }
+        
+        // Entries are saved by cascade
+        rankedListRepository.saveAll(lists);
+        List<RankedListCard> cards = lists.stream()
+            .map(rankedList -> {
+                RankedListCard card = new RankedListCard(rankedList.getId());
+                card.update(rankedList);
+                return card;
+            })
+            .toList();
+        rankedListCardRepository.saveAll(cards);
+        lists.forEach(this::index);
+        return lists.stream().map(RankedList::getSlug).toList();
+    }
+    
     /**
      * Update an existing ranked list.
      * 
      * @param id the ID of the list to update
      * @param request the update list request
+     * @param expectedVersion the version the edit is based on, or null to edit whatever version is current
      * @return the updated list as a DTO
+     * @throws StaleVersionException if the list is no longer at the expected version
      */
-    public RankedListDetailDTO updateList(Long id, UpdateListRequest request) {
+    public RankedListDetailDTO updateList(Long id, UpdateListRequest request, Long expectedVersion) {
         RankedList rankedList = rankedListRepository.findById(id)
             .orElseThrow(() -> new EntityNotFoundException(
                 "Ranked list with ID " + id + " not found"));
+        StaleVersionException.check("Ranked list " + id, expectedVersion, rankedList.getVersion());
         
         // Update fields if provided
         if (request.title() != null && !request.title().isBlank()) {
-            rankedList.setTitle(request.title());
-            // Regenerate slug if title changed
+            // Regenerate slug if title changed, before any change that the slug query would flush
             String baseSlug = slugService.generateSlug(request.title());
             String uniqueSlug = slugService.ensureUniqueSlugExcluding(baseSlug, RankedList.class, id);
+            rankedList.setTitle(request.title());
             rankedList.setSlug(uniqueSlug);
         }
         
@@ -149,8 +255,9 @@ public class RankedListService {
             rankedList.setTags(tags);
         }
         
-        // Save and return
-        RankedList updated = rankedListRepository.save(rankedList);
+        // Save and return, flushed so the DTO carries the new version
+        RankedList updated = rankedListRepository.saveAndFlush(rankedList);
+        refreshCard(updated);
         return toDetailDTO(updated);
     }
     
@@ -164,7 +271,31 @@ public class RankedListService {
         if (!rankedListRepository.existsById(id)) {
             throw new EntityNotFoundException("Ranked list with ID " + id + " not found");
         }
+        rankedListCardRepository.deleteById(id);
         rankedListRepository.deleteById(id);
+        listFacetIndex.remove(id);
+        tagUsageCounter.removeList(id);
+    }
+    
+    /**
+     * Rewrite the cards of every list carrying a tag, after the tag's slug changed.
+     * 
+     * @param tagId the ID of the renamed tag
+     */
+    public void refreshTaggedLists(Long tagId) {
+        rankedListRepository.findByTagsId(tagId).forEach(this::refreshCard);
+    }
+    
+    /**
+     * Take a tag off every list carrying it, before the tag is deleted.
+     * 
+     * @param tag the tag being deleted
+     */
+    public void removeTagFromLists(Tag tag) {
+        for (RankedList rankedList : rankedListRepository.findByTagsId(tag.getId())) {
+            rankedList.removeTag(tag);
+            refreshCard(rankedList);
+        }
     }
     
     /**
@@ -183,12 +314,14 @@ public class RankedListService {
     }
     
     /**
-     * Get a ranked list by ID with all entries.
+     * Get a ranked list by ID with all entries, for editing.
+     * Not read-only, so it is read from the primary: the version returned
+     * becomes the If-Match of the next edit, and a lagging replica would hand
+     * out one that fails as stale.
      * 
      * @param id the ID of the list
      * @return the list with entries as a DTO
      */
-    @Transactional(readOnly = true)
     public RankedListDetailDTO getListById(Long id) {
         RankedList rankedList = rankedListRepository.findById(id)
             .orElseThrow(() -> new EntityNotFoundException(
@@ -200,54 +333,92 @@ public class RankedListService {
     /**
      * Search ranked lists with pagination, search, and tag filters.
      * Only returns published lists.
+     * Reads the list cards, so a page costs one card query plus one lookup each
+     * for the covers and tags on the page, however many lists it holds.
      * 
      * @param search optional search term for title/intro
-     * @param tag optional tag name to filter by
+     * @param tags optional tag slugs to filter by
+     * @param match whether lists must carry all of the tags or any of them
      * @param pageable pagination information
      * @return a page of list summaries
      */
     @Transactional(readOnly = true)
-    public Page<RankedListSummaryDTO> searchLists(String search, String tag, Pageable pageable) {
-        Page<RankedList> lists;
-        
-        if (tag != null && !tag.isBlank() && search != null && !search.isBlank()) {
-            // Both tag and search filters
-            lists = rankedListRepository.findPublishedByTagNameAndTitleOrIntroContaining(tag, search, pageable);
-        } else if (tag != null && !tag.isBlank()) {
-            // Tag filter only
-            lists = rankedListRepository.findPublishedByTagName(tag, pageable);
+    public Page<RankedListSummaryDTO> searchLists(String search, List<String> tags, TagMatch match, Pageable pageable) {
+        Page<RankedListCard> cards;
+        List<String> tagSlugs = tagSlugs(tags);
+        
+        if (!tagSlugs.isEmpty()) {
+            // Tag filter, with the search filter if given
+            Specification<RankedListCard> spec = Specification.<RankedListCard>where(ContentSpecifications.published())
+                .and(ContentSpecifications.taggedWith(tagSlugs, match));
+            if (search != null && !search.isBlank()) {
+                spec = spec.and(ContentSpecifications.containsText(search, "title", "intro"));
+            }
+            cards = rankedListCardRepository.findAll(spec, pageable);
         } else if (search != null && !search.isBlank()) {
             // Search filter only
-            lists = rankedListRepository.findPublishedByTitleOrIntroContaining(search, pageable);
+            cards = rankedListCardRepository.findPublishedByTitleOrIntroContaining(search, pageable);
         } else {
             // No filters, return all published lists
-            lists = rankedListRepository.findByPublishedAtIsNotNull(pageable);
+            cards = rankedListCardRepository.findByPublishedAtIsNotNull(pageable);
         }
         
-        return lists.map(this::toSummaryDTO);
+        return toSummaryDTOs(cards);
+    }
+    
+    /**
+     * Browse published lists by tags, with the number of matching lists that
+     * carry each tag. The page is read from the cards like searchLists; the
+     * counts come from the in-memory facet index, without a query.
+     * 
+     * @param tags optional tag slugs to filter by
+     * @param match whether lists must carry all of the tags or any of them
+     * @param pageable pagination information
+     * @return the page of lists and the tag counts
+     */
+    @Transactional(readOnly = true)
+    public ListFacetsDTO browseLists(List<String> tags, TagMatch match, Pageable pageable) {
+        List<String> tagSlugs = tagSlugs(tags);
+        Page<RankedListSummaryDTO> lists = searchLists(null, tagSlugs, match, pageable);
+        ListFacetIndex.Facets facets = listFacetIndex.facets(tagSlugs, match);
+        
+        // Tags deleted since the index was built have no name to show and are left out
+        List<TagFacetDTO> tagFacets = tagRepository.findBySlugIn(facets.counts().keySet()).stream()
+            .map(tag -> new TagFacetDTO(tag.getSlug(), tag.getName(), facets.counts().get(tag.getSlug())))
+            .sorted(Comparator.comparingLong(TagFacetDTO::count).reversed().thenComparing(TagFacetDTO::name))
+            .toList();
+        return new ListFacetsDTO(lists, facets.total(), tagFacets);
     }
     
     /**
      * Reorder entries in a ranked list atomically.
-     * All rank updates are performed in a single transaction.
+     * All rank updates are performed in a single transaction. Ranks are
+     * checked for uniqueness at commit, so entries may swap ranks, but no
+     * two entries may end up sharing one.
      * 
      * @param listId the ID of the list
      * @param updates the list of entry rank updates
+     * @param expectedVersion the list version the reorder is based on, or null for whatever version is current
+     * @throws StaleVersionException if the list is no longer at the expected version
      */
-    public void reorderEntries(Long listId, List<EntryRankUpdate> updates) {
-        // Verify the list exists
-        if (!rankedListRepository.existsById(listId)) {
-            throw new EntityNotFoundException("Ranked list with ID " + listId + " not found");
-        }
+    public void reorderEntries(Long listId, List<EntryRankUpdate> updates, Long expectedVersion) {
+        // Counts as a change to the list, so a concurrent reorder or new entry conflicts with this one
+        RankedList rankedList = rankedListRepository.findForEntryChangeById(listId)
+            .orElseThrow(() -> new EntityNotFoundException(
+                "Ranked list with ID " + listId + " not found"));
+        StaleVersionException.check("Ranked list " + listId, expectedVersion, rankedList.getVersion());
+        
+        Map<Long, RankedEntry> entries = rankedEntryRepository.findByRankedListIdOrderByRankDesc(listId).stream()
+            .collect(Collectors.toMap(RankedEntry::getId, Function.identity()));
         
         // Update all entry ranks atomically
         for (EntryRankUpdate update : updates) {
-            RankedEntry entry = rankedEntryRepository.findById(update.entryId())
-                .orElseThrow(() -> new EntityNotFoundException(
-                    "Ranked entry with ID " + update.entryId() + " not found"));
-            
-            // Verify the entry belongs to the specified list
-            if (!entry.getRankedList().getId().equals(listId)) {
+            RankedEntry entry = entries.get(update.entryId());
+            if (entry == null) {
+                // Verify the entry exists but belongs to another list
+                rankedEntryRepository.findById(update.entryId())
+                    .orElseThrow(() -> new EntityNotFoundException(
+                        "Ranked entry with ID " + update.entryId() + " not found"));
                 throw new IllegalArgumentException(
                     "Entry with ID " + update.entryId() + " does not belong to list with ID " + listId);
             }
@@ -255,6 +426,14 @@ public class RankedListService {
             entry.setRank(update.newRank());
             rankedEntryRepository.save(entry);
         }
+        
+        Set<Integer> ranks = new HashSet<>();
+        for (RankedEntry entry : entries.values()) {
+            if (!ranks.add(entry.getRank())) {
+                throw new IllegalArgumentException(
+                    "Reorder leaves more than one entry at rank " + entry.getRank() + " in list " + listId);
+            }
+        }
     }
     
     /**
@@ -268,6 +447,10 @@ public class RankedListService {
         RankedList rankedList = rankedListRepository.findById(listId)
             .orElseThrow(() -> new EntityNotFoundException(
                 "Ranked list with ID " + listId + " not found"));
+        if (rankedEntryRepository.existsByRankedListIdAndRank(listId, request.rank())) {
+            throw new IllegalArgumentException(
+                "List with ID " + listId + " already has an entry at rank " + request.rank());
+        }
         
         // Create the entry
         RankedEntry entry = new RankedEntry(
@@ -287,11 +470,12 @@ public class RankedListService {
             entry.setHeroImage(heroImage);
         }
         
-        // Associate with the list
-        entry.setRankedList(rankedList);
+        // Associate with the list, counting the entry
+        rankedList.addEntry(entry);
         
         // Save and return
         RankedEntry saved = rankedEntryRepository.save(entry);
+        refreshCard(rankedList);
         return toEntryDTO(saved);
     }
     
@@ -301,9 +485,11 @@ public class RankedListService {
      * @param listId the ID of the list
      * @param entryId the ID of the entry
      * @param request the update entry request
+     * @param expectedVersion the entry version the edit is based on, or null for whatever version is current
      * @return the updated entry as a DTO
+     * @throws StaleVersionException if the entry is no longer at the expected version
      */
-    public RankedEntryDTO updateEntry(Long listId, Long entryId, CreateEntryRequest request) {
+    public RankedEntryDTO updateEntry(Long listId, Long entryId, CreateEntryRequest request, Long expectedVersion) {
         RankedEntry entry = rankedEntryRepository.findById(entryId)
             .orElseThrow(() -> new EntityNotFoundException(
                 "Entry with ID " + entryId + " not found"));
@@ -313,6 +499,16 @@ public class RankedListService {
             throw new IllegalArgumentException(
                 "Entry " + entryId + " does not belong to list " + listId);
         }
+        StaleVersionException.check("Entry " + entryId, expectedVersion, entry.getVersion());
+        
+        // A rank change moves the entry among its list's entries, so it counts as a change to the list
+        if (!request.rank().equals(entry.getRank())) {
+            if (rankedEntryRepository.existsByRankedListIdAndRank(listId, request.rank())) {
+                throw new IllegalArgumentException(
+                    "List with ID " + listId + " already has an entry at rank " + request.rank());
+            }
+            rankedListRepository.findForEntryChangeById(listId);
+        }
         
         // Update fields
         entry.setRank(request.rank());
@@ -332,26 +528,89 @@ public class RankedListService {
             entry.setHeroImage(null);
         }
         
-        // Save and return
-        RankedEntry saved = rankedEntryRepository.save(entry);
+        // Save and return, flushed so the DTO carries the new version
+        RankedEntry saved = rankedEntryRepository.saveAndFlush(entry);
         return toEntryDTO(saved);
     }
     
+    /**
+     * Bring a list's card in line with the list.
+     * Called from every write that changes what the card shows.
+     */
+    private void refreshCard(RankedList rankedList) {
+        RankedListCard card = rankedListCardRepository.findById(rankedList.getId())
+            .orElseGet(() -> new RankedListCard(rankedList.getId()));
+        card.update(rankedList);
+        rankedListCardRepository.save(card);
+        index(rankedList);
+    }
+    
+    private void index(RankedList rankedList) {
+        boolean published = rankedList.getPublishedAt() != null;
+        listFacetIndex.update(rankedList.getId(), published, Tag.slugs(rankedList.getTags()));
+        List<Long> tagIds = rankedList.getTags().stream().map(Tag::getId).toList();
+        tagUsageCounter.updateList(rankedList.getId(), published, tagIds);
+    }
+    
+    private static List<String> tagSlugs(List<String> tags) {
+        return tags != null ? tags.stream().filter(tag -> !tag.isBlank()).toList() : List.of();
+    }
+    
+    private static List<CreateEntryRequest> entries(ImportListRequest request) {
+        return request.entries() != null ? request.entries() : List.of();
+    }
+    
+    /**
+     * Load entities by ID, failing with every missing ID if any are missing.
+     */
+    private static <T> Map<Long, T> findAll(
+            JpaRepository<T, Long> repository, Function<T, Long> id, Stream<Long> ids, String kind) {
+        Set<Long> wanted = ids.collect(Collectors.toSet());
+        if (wanted.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, T> found = new HashMap<>();
+        for (T entity : repository.findAllById(wanted)) {
+            found.put(id.apply(entity), entity);
+        }
+        if (found.size() < wanted.size()) {
+            Set<Long> missing = new TreeSet<>(wanted);
+            missing.removeAll(found.keySet());
+            throw new EntityNotFoundException(kind + " IDs not found: " + missing);
+        }
+        return found;
+    }
+    
     // Helper methods for DTO conversion
     
-    private RankedListSummaryDTO toSummaryDTO(RankedList rankedList) {
-        return new RankedListSummaryDTO(
-            rankedList.getId(),
-            rankedList.getTitle(),
-            rankedList.getSubtitle(),
-            rankedList.getSlug(),
-            toMediaAssetDTO(rankedList.getCoverImage()),
-            rankedList.getTags().stream()
+    private Page<RankedListSummaryDTO> toSummaryDTOs(Page<RankedListCard> cards) {
+        // Covers and tags of the whole page in one lookup each
+        Map<Long, MediaAsset> covers = mediaAssetRepository.findAllById(cards.stream()
+                .map(RankedListCard::getCoverImageId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()))
+            .stream()
+            .collect(Collectors.toMap(MediaAsset::getId, Function.identity()));
+        Map<String, Tag> tags = tagRepository.findBySlugIn(cards.stream()
+                .flatMap(card -> Arrays.stream(card.getTagSlugs()))
+                .collect(Collectors.toSet()))
+            .stream()
+            .collect(Collectors.toMap(Tag::getSlug, Function.identity()));
+        
+        return cards.map(card -> new RankedListSummaryDTO(
+            card.getId(),
+            card.getTitle(),
+            card.getSubtitle(),
+            card.getSlug(),
+            card.getCoverImageId() != null ? toMediaAssetDTO(covers.get(card.getCoverImageId())) : null,
+            Arrays.stream(card.getTagSlugs())
+                .map(tags::get)
+                .filter(Objects::nonNull)
                 .map(this::toTagDTO)
                 .collect(Collectors.toSet()),
-            rankedList.getEntries().size(),
-            rankedList.getPublishedAt()
-        );
+            card.getEntryCount(),
+            card.getPublishedAt()
+        ));
     }
     
     private RankedListDetailDTO toDetailDTO(RankedList rankedList) {
@@ -372,7 +631,8 @@ public class RankedListService {
             entries.stream()
                 .map(this::toEntryDTO)
                 .collect(Collectors.toList()),
-            rankedList.getPublishedAt()
+            rankedList.getPublishedAt(),
+            rankedList.getVersion()
         );
     }
     
@@ -385,7 +645,8 @@ public class RankedListService {
             entry.getCommentary(),
             entry.getFunFact(),
             entry.getExternalLink(),
-            toMediaAssetDTO(entry.getHeroImage())
+            toMediaAssetDTO(entry.getHeroImage()),
+            entry.getVersion()
         );
     }
     
@@ -408,7 +669,10 @@ public class RankedListService {
             mediaAsset.getContentType(),
             mediaAsset.getFileSize(),
             mediaAsset.getAltText(),
-            "/api/media/" + mediaAsset.getId()
+            mediaAsset.getWidth(),
+            mediaAsset.getHeight(),
+            MediaService.url(mediaAsset),
+            MediaService.placeholder(mediaAsset)
         );
     }
 }
@@ -0,0 +1,67 @@
+package com.layerten.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Rebuilds in-memory state from the database without losing writes applied
+ * to it meanwhile. The database is read without holding the lock; writes
+ * applied during the read are recorded and replayed onto the rebuilt state
+ * once it is installed.
+ *
+ * The owner makes every change to its state through {@link #apply} or
+ * {@link #rebuild}, which hold the same lock.
+ */
+final class RebuildReplay {
+
+    private final Object lock = new Object();
+
+    // Writes applied while a rebuild is loading; null when none is
+    private List<Runnable> pending;
+
+    /**
+     * Load new state, then install it and replay the writes applied during the load.
+     *
+     * @param load reads the state from the database; called without the lock
+     * @param install replaces the owner's state; called with the lock held
+     * @param <T> the loaded state
+     */
+    <T> void rebuild(Supplier<T> load, Consumer<T> install) {
+        synchronized (lock) {
+            pending = new ArrayList<>();
+        }
+        T loaded;
+        try {
+            loaded = load.get();
+        } catch (RuntimeException e) {
+            synchronized (lock) {
+                pending = null;
+            }
+            throw e;
+        }
+
+        synchronized (lock) {
+            install.accept(loaded);
+            // Writes committed during the load may or may not be in what was read; applying them again is harmless
+            List<Runnable> replay = pending;
+            pending = null;
+            replay.forEach(Runnable::run);
+        }
+    }
+
+    /**
+     * Apply a write, and record it to replay if a rebuild is loading.
+     *
+     * @param write changes the owner's state; called with the lock held
+     */
+    void apply(Runnable write) {
+        synchronized (lock) {
+            write.run();
+            if (pending != null) {
+                pending.add(write);
+            }
+        }
+    }
+}
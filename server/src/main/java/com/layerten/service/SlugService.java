@@ -6,10 +6,23 @@ import com.layerten.entity.Tag;
 import com.layerten.repository.BlogPostRepository;
 import com.layerten.repository.RankedListRepository;
 import com.layerten.repository.TagRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
 import org.springframework.stereotype.Service;
 
 import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.regex.Pattern;
 
 /**
@@ -23,17 +36,23 @@ public class SlugService {
     private static final Pattern WHITESPACE = Pattern.compile("[\\s]");
     private static final Pattern MULTIPLE_HYPHENS = Pattern.compile("-+");
     
+    // Paths under /api/lists that a list slug would otherwise be shadowed by
+    private static final Set<String> RESERVED_LIST_SLUGS = Set.of("facets");
+    
     private final RankedListRepository rankedListRepository;
     private final BlogPostRepository blogPostRepository;
     private final TagRepository tagRepository;
+    private final EntityManager entityManager;
     
     public SlugService(
             RankedListRepository rankedListRepository,
             BlogPostRepository blogPostRepository,
-            TagRepository tagRepository) {
+            TagRepository tagRepository,
+            EntityManager entityManager) {
         this.rankedListRepository = rankedListRepository;
         this.blogPostRepository = blogPostRepository;
         this.tagRepository = tagRepository;
+        this.entityManager = entityManager;
     }
     
     /**
@@ -101,6 +120,60 @@ public class SlugService {
         return slug;
     }
     
+    /**
+     * Make many slugs unique at once, also among each other, for example for the
+     * lists of an import. Every slug already taken with one of the base slugs or
+     * a numbered suffix of it is read in one query, and the suffixes are then
+     * assigned in memory.
+     * 
+     * @param baseSlugs the base slugs, which may repeat
+     * @param entityClass the entity class to check uniqueness for
+     * @return a unique slug for each base slug, in the same order
+     */
+    public List<String> ensureUniqueSlugs(List<String> baseSlugs, Class<?> entityClass) {
+        Set<String> taken = findTakenSlugs(new HashSet<>(baseSlugs), entityClass);
+        if (entityClass == RankedList.class) {
+            taken.addAll(RESERVED_LIST_SLUGS);
+        }
+        
+        // Suffixes carry on from the last slug with the same base
+        Map<String, Integer> nextSuffix = new HashMap<>();
+        List<String> slugs = new ArrayList<>(baseSlugs.size());
+        for (String baseSlug : baseSlugs) {
+            int counter = nextSuffix.getOrDefault(baseSlug, 1);
+            String slug = counter == 1 ? baseSlug : baseSlug + "-" + counter;
+            while (!taken.add(slug)) {
+                counter++;
+                slug = baseSlug + "-" + counter;
+            }
+            nextSuffix.put(baseSlug, counter + 1);
+            slugs.add(slug);
+        }
+        return slugs;
+    }
+    
+    /**
+     * Find the slugs of an entity type that equal one of the base slugs or
+     * start with one followed by a hyphen.
+     */
+    private Set<String> findTakenSlugs(Collection<String> baseSlugs, Class<?> entityClass) {
+        if (baseSlugs.isEmpty()) {
+            return new HashSet<>();
+        }
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<String> query = cb.createQuery(String.class);
+        Root<?> root = query.from(entityClass);
+        Path<String> slug = root.get("slug");
+        List<Predicate> matches = new ArrayList<>(baseSlugs.size() + 1);
+        matches.add(slug.in(baseSlugs));
+        for (String baseSlug : baseSlugs) {
+            // Slugs keep underscores, which LIKE would read as a wildcard
+            matches.add(cb.like(slug, baseSlug.replace("_", "\\_") + "-%", '\\'));
+        }
+        query.select(slug).where(cb.or(matches.toArray(Predicate[]::new)));
+        return new HashSet<>(entityManager.createQuery(query).getResultList());
+    }
+    
     /**
      * Check if a slug already exists for a given entity type.
      * 
@@ -111,6 +184,9 @@ public class SlugService {
      */
     private boolean slugExists(String slug, Class<?> entityClass, Long excludeId) {
         if (entityClass == RankedList.class) {
+            if (RESERVED_LIST_SLUGS.contains(slug)) {
+                return true;
+            }
             if (excludeId != null) {
                 return rankedListRepository.findBySlug(slug)
                     .map(list -> !list.getId().equals(excludeId))
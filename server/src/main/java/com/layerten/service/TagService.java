@@ -0,0 +1,164 @@
+package com.layerten.service;
+
+import com.layerten.dto.CreateTagRequest;
+import com.layerten.dto.TagUsageDTO;
+import com.layerten.dto.UpdateTagRequest;
+import com.layerten.entity.Tag;
+import com.layerten.repository.TagRepository;
+import com.layerten.service.TagUsageCounter.TagUsage;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service for managing tags.
+ * Provides the admin tag list and CRUD, and the public tag cloud with the
+ * number of published lists and posts carrying each tag.
+ */
+@Service
+@Transactional
+public class TagService {
+
+    /**
+     * The tag cloud as built from one snapshot of the usage counts.
+     */
+    private record CachedCloud(Map<Long, TagUsage> usage, List<TagUsageDTO> tags) {}
+
+    private final TagRepository tagRepository;
+    private final RankedListService rankedListService;
+    private final BlogPostService blogPostService;
+    private final SlugService slugService;
+    private final TagUsageCounter tagUsageCounter;
+
+    // Rebuilt when the usage counts change or a tag is renamed or deleted
+    private volatile CachedCloud cachedCloud;
+
+    public TagService(
+            TagRepository tagRepository,
+            RankedListService rankedListService,
+            BlogPostService blogPostService,
+            SlugService slugService,
+            TagUsageCounter tagUsageCounter) {
+        this.tagRepository = tagRepository;
+        this.rankedListService = rankedListService;
+        this.blogPostService = blogPostService;
+        this.slugService = slugService;
+        this.tagUsageCounter = tagUsageCounter;
+    }
+
+    /**
+     * Get every tag with its usage, for admin use.
+     *
+     * @return all tags, sorted by name, including unused ones
+     */
+    @Transactional(readOnly = true)
+    public List<TagUsageDTO> getAllTags() {
+        Map<Long, TagUsage> usage = tagUsageCounter.usage();
+        return tagRepository.findAllByOrderByNameAsc().stream()
+            .map(tag -> toUsageDTO(tag, usage.getOrDefault(tag.getId(), TagUsage.NONE)))
+            .toList();
+    }
+
+    /**
+     * Get the tags carried by any published list or post, with their usage.
+     * Counts come from the in-memory usage counter; the cloud is only rebuilt
+     * when they change.
+     *
+     * @return the tags in use, sorted by name
+     */
+    @Transactional(readOnly = true)
+    public List<TagUsageDTO> getTagCloud() {
+        Map<Long, TagUsage> usage = tagUsageCounter.usage();
+        CachedCloud cloud = cachedCloud;
+        if (cloud == null || cloud.usage() != usage) {
+            List<TagUsageDTO> tags = tagRepository.findAllById(usage.keySet()).stream()
+                .map(tag -> toUsageDTO(tag, usage.get(tag.getId())))
+                .sorted(Comparator.comparing(TagUsageDTO::name))
+                .toList();
+            cloud = new CachedCloud(usage, tags);
+            cachedCloud = cloud;
+        }
+        return cloud.tags();
+    }
+
+    /**
+     * Create a new tag, with a slug generated from its name.
+     *
+     * @param request the create tag request
+     * @return the created tag
+     * @throws IllegalArgumentException if a tag with the name already exists
+     */
+    public TagUsageDTO createTag(CreateTagRequest request) {
+        String name = request.name().trim();
+        if (tagRepository.existsByName(name)) {
+            throw new IllegalArgumentException("Tag '" + name + "' already exists");
+        }
+        String slug = slugService.ensureUniqueSlug(slugService.generateSlug(name), Tag.class);
+
+        Tag saved = tagRepository.save(new Tag(name, slug));
+        return toUsageDTO(saved, TagUsage.NONE);
+    }
+
+    /**
+     * Rename a tag. Its slug is regenerated from the new name, and the
+     * lists and posts carrying it are brought in line with the new slug.
+     *
+     * @param id the ID of the tag to rename
+     * @param request the update tag request
+     * @return the renamed tag
+     * @throws IllegalArgumentException if another tag already has the name
+     */
+    public TagUsageDTO updateTag(Long id, UpdateTagRequest request) {
+        Tag tag = tagRepository.findById(id)
+            .orElseThrow(() -> new EntityNotFoundException("Tag with ID " + id + " not found"));
+
+        String name = request.name().trim();
+        tagRepository.findByName(name)
+            .filter(existing -> !existing.getId().equals(id))
+            .ifPresent(existing -> {
+                throw new IllegalArgumentException("Tag '" + name + "' already exists");
+            });
+        tag.setName(name);
+
+        // Lists and posts filter on the tag's slug, so a new slug is copied to them
+        String slug = slugService.ensureUniqueSlugExcluding(slugService.generateSlug(name), Tag.class, id);
+        if (!slug.equals(tag.getSlug())) {
+            tag.setSlug(slug);
+            rankedListService.refreshTaggedLists(id);
+            blogPostService.refreshTaggedPosts(id);
+        }
+
+        Tag updated = tagRepository.save(tag);
+        AfterCommit.run(() -> cachedCloud = null);
+        return toUsageDTO(updated, tagUsageCounter.usage().getOrDefault(id, TagUsage.NONE));
+    }
+
+    /**
+     * Delete a tag, taking it off every list and post carrying it.
+     *
+     * @param id the ID of the tag to delete
+     */
+    public void deleteTag(Long id) {
+        Tag tag = tagRepository.findById(id)
+            .orElseThrow(() -> new EntityNotFoundException("Tag with ID " + id + " not found"));
+
+        rankedListService.removeTagFromLists(tag);
+        blogPostService.removeTagFromPosts(tag);
+        tagRepository.delete(tag);
+        AfterCommit.run(() -> cachedCloud = null);
+    }
+
+    private TagUsageDTO toUsageDTO(Tag tag, TagUsage usage) {
+        return new TagUsageDTO(
+            tag.getId(),
+            tag.getName(),
+            tag.getSlug(),
+            usage.lists(),
+            usage.posts()
+        );
+    }
+}
@@ -0,0 +1,193 @@
+package com.layerten.service;
+
+import com.layerten.repository.TagRepository;
+import com.layerten.repository.TagRepository.TagAssignment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory count of the published lists and posts carrying each tag.
+ *
+ * Remembers the tags of every published list and post, so that a write
+ * reporting a list's or post's current tags adjusts only the counts of the
+ * tags it gained or lost. Reporting the same state twice changes nothing.
+ *
+ * RankedListService and BlogPostService report every write, applied once its
+ * transaction commits. A periodic rebuild picks up writes made by other
+ * instances. Counts are read from an immutable snapshot that writes replace.
+ */
+@Component
+public class TagUsageCounter {
+
+    private static final Logger logger = LoggerFactory.getLogger(TagUsageCounter.class);
+
+    /**
+     * How many published lists and posts carry a tag.
+     *
+     * @param lists the number of published lists
+     * @param posts the number of published posts
+     */
+    public record TagUsage(long lists, long posts) {
+        static final TagUsage NONE = new TagUsage(0, 0);
+
+        public long total() {
+            return lists + posts;
+        }
+    }
+
+    /**
+     * Tag IDs of each published list and post, as read by a rebuild.
+     */
+    private record Published(Map<Long, Set<Long>> listTags, Map<Long, Set<Long>> postTags) {}
+
+    private final TagRepository tagRepository;
+
+    // Tag IDs of each published list and post, by list or post ID
+    private Map<Long, Set<Long>> listTags = new HashMap<>();
+    private Map<Long, Set<Long>> postTags = new HashMap<>();
+    private Map<Long, TagUsage> usage = new HashMap<>();
+
+    private volatile Map<Long, TagUsage> snapshot = Map.of();
+
+    private final RebuildReplay rebuildReplay = new RebuildReplay();
+
+    public TagUsageCounter(TagRepository tagRepository) {
+        this.tagRepository = tagRepository;
+    }
+
+    /**
+     * Rebuild the counts from the database: at startup, then every ten minutes by default.
+     */
+    @Scheduled(initialDelayString = "PT0S", fixedDelayString = "${layerten.tags.usage.rebuild-interval:PT10M}")
+    public void rebuildScheduled() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            logger.error("Rebuilding the tag usage counts failed", e);
+        }
+    }
+
+    /**
+     * Replace the counts with ones built from the published lists and posts.
+     */
+    public void rebuild() {
+        rebuildReplay.rebuild(
+            () -> new Published(
+                byContent(tagRepository.findPublishedListTags()), byContent(tagRepository.findPublishedPostTags())),
+            published -> {
+                listTags = published.listTags();
+                postTags = published.postTags();
+                usage = new HashMap<>();
+                listTags.values().forEach(tagIds -> tagIds.forEach(tagId -> adjust(tagId, 1, 0)));
+                postTags.values().forEach(tagIds -> tagIds.forEach(tagId -> adjust(tagId, 0, 1)));
+                snapshot = Map.copyOf(usage);
+                logger.debug("Rebuilt tag usage counts: {} lists, {} posts, {} tags in use",
+                    listTags.size(), postTags.size(), usage.size());
+            });
+    }
+
+    /**
+     * Record a list's state. Within a transaction the change is applied after commit.
+     *
+     * @param listId the list ID
+     * @param published whether the list is published
+     * @param tagIds the IDs of the list's tags
+     */
+    public void updateList(Long listId, boolean published, Collection<Long> tagIds) {
+        Set<Long> counted = published ? Set.copyOf(tagIds) : Set.of();
+        AfterCommit.run(() -> apply(true, listId, counted));
+    }
+
+    /**
+     * Remove a deleted list. Within a transaction the change is applied after commit.
+     *
+     * @param listId the list ID
+     */
+    public void removeList(Long listId) {
+        AfterCommit.run(() -> apply(true, listId, Set.of()));
+    }
+
+    /**
+     * Record a post's state. Within a transaction the change is applied after commit.
+     *
+     * @param postId the post ID
+     * @param published whether the post is published
+     * @param tagIds the IDs of the post's tags
+     */
+    public void updatePost(Long postId, boolean published, Collection<Long> tagIds) {
+        Set<Long> counted = published ? Set.copyOf(tagIds) : Set.of();
+        AfterCommit.run(() -> apply(false, postId, counted));
+    }
+
+    /**
+     * Remove a deleted post. Within a transaction the change is applied after commit.
+     *
+     * @param postId the post ID
+     */
+    public void removePost(Long postId) {
+        AfterCommit.run(() -> apply(false, postId, Set.of()));
+    }
+
+    /**
+     * The usage of every tag carried by a published list or post.
+     *
+     * @return the usage by tag ID; tags in no published list or post are absent
+     */
+    public Map<Long, TagUsage> usage() {
+        return snapshot;
+    }
+
+    private static Map<Long, Set<Long>> byContent(List<TagAssignment> assignments) {
+        Map<Long, Set<Long>> tags = new HashMap<>();
+        for (TagAssignment assignment : assignments) {
+            tags.computeIfAbsent(assignment.getContentId(), key -> new HashSet<>()).add(assignment.getTagId());
+        }
+        return tags;
+    }
+
+    /**
+     * Set a list's or post's counted tags, adjusting the counts of the tags it gained or lost.
+     */
+    private void apply(boolean list, Long contentId, Set<Long> tagIds) {
+        rebuildReplay.apply(() -> write(list, contentId, tagIds));
+    }
+
+    private void write(boolean list, Long contentId, Set<Long> tagIds) {
+        Map<Long, Set<Long>> contentTags = list ? listTags : postTags;
+        Set<Long> before = tagIds.isEmpty() ? contentTags.remove(contentId) : contentTags.put(contentId, tagIds);
+        if (before == null) {
+            before = Set.of();
+        }
+        if (before.equals(tagIds)) {
+            return;
+        }
+        for (Long tagId : before) {
+            if (!tagIds.contains(tagId)) {
+                adjust(tagId, list ? -1 : 0, list ? 0 : -1);
+            }
+        }
+        for (Long tagId : tagIds) {
+            if (!before.contains(tagId)) {
+                adjust(tagId, list ? 1 : 0, list ? 0 : 1);
+            }
+        }
+        snapshot = Map.copyOf(usage);
+    }
+
+    private void adjust(Long tagId, long lists, long posts) {
+        usage.compute(tagId, (id, current) -> {
+            TagUsage base = current != null ? current : TagUsage.NONE;
+            TagUsage adjusted = new TagUsage(base.lists() + lists, base.posts() + posts);
+            return adjusted.total() == 0 ? null : adjusted;
+        });
+    }
+}
@@ -1,37 +1,31 @@
 package com.layerten.validation;
 
+import com.layerten.media.ImageFormat;
 import jakarta.validation.ConstraintValidator;
 import jakarta.validation.ConstraintValidatorContext;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.util.Arrays;
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
 
 /**
  * Validator for image file types.
- * Validates that uploaded files are valid image formats.
+ * Validates that uploaded files are valid image formats by inspecting their
+ * leading magic bytes; the client-sent Content-Type is not trusted.
  */
 public class ImageFileValidator implements ConstraintValidator<ValidImageFile, MultipartFile> {
     
-    private static final List<String> ALLOWED_CONTENT_TYPES = Arrays.asList(
-        "image/jpeg",
-        "image/jpg",
-        "image/png",
-        "image/gif",
-        "image/webp"
-    );
-    
     @Override
     public boolean isValid(MultipartFile file, ConstraintValidatorContext context) {
         if (file == null || file.isEmpty()) {
             return true; // Use @NotNull or @NotEmpty for required validation
         }
         
-        String contentType = file.getContentType();
-        if (contentType == null) {
+        try (InputStream in = file.getInputStream()) {
+            byte[] head = in.readNBytes(ImageFormat.SIGNATURE_LENGTH);
+            return ImageFormat.detect(head, head.length).isPresent();
+        } catch (IOException e) {
             return false;
         }
-        
-        return ALLOWED_CONTENT_TYPES.contains(contentType.toLowerCase());
     }
 }
@@ -0,0 +1,12 @@
+-- Entity ids are now drawn by Hibernate from these BIGSERIAL sequences, 50 at a
+-- time (pooled allocation), so inserts can be batched: with IDENTITY every
+-- insert had to run on its own to return the generated id.
+-- Each nextval reserves the 50 ids up to and including the returned value, so
+-- the increment must match the entities' allocationSize.
+ALTER SEQUENCE author_id_seq INCREMENT BY 50;
+ALTER SEQUENCE tag_id_seq INCREMENT BY 50;
+ALTER SEQUENCE media_asset_id_seq INCREMENT BY 50;
+ALTER SEQUENCE ranked_list_id_seq INCREMENT BY 50;
+ALTER SEQUENCE ranked_entry_id_seq INCREMENT BY 50;
+ALTER SEQUENCE blog_post_id_seq INCREMENT BY 50;
+ALTER SEQUENCE suggestion_id_seq INCREMENT BY 50;
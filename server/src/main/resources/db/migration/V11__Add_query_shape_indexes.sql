@@ -0,0 +1,29 @@
+-- Indexes for the filters and orderings the application actually queries with.
+
+-- Public list index: published cards, newest first.
+CREATE INDEX idx_ranked_list_card_published ON ranked_list_card(published_at DESC, ranked_list_id DESC)
+    WHERE published_at IS NOT NULL;
+DROP INDEX idx_ranked_list_card_published_at;
+
+-- Public post index: published posts, newest first.
+CREATE INDEX idx_blog_post_published ON blog_post(published_at DESC, id DESC)
+    WHERE status = 'PUBLISHED';
+-- Admin post lists by any status in publication order; also serves status-only filters.
+CREATE INDEX idx_blog_post_status_published_at ON blog_post(status, published_at DESC, id);
+DROP INDEX idx_blog_post_status;
+
+-- Tag filters join from the tag side; the primary keys only lead with the list or post.
+-- Tag deletes also use these to find the rows to cascade to.
+CREATE INDEX idx_ranked_list_tags_tag_id ON ranked_list_tags(tag_id, ranked_list_id);
+CREATE INDEX idx_blog_post_tags_tag_id ON blog_post_tags(tag_id, blog_post_id);
+
+-- Admin suggestion review: newest first, optionally by status.
+CREATE INDEX idx_suggestion_created_at ON suggestion(created_at DESC);
+CREATE INDEX idx_suggestion_status_created_at ON suggestion(status, created_at DESC);
+DROP INDEX idx_suggestion_status;
+
+-- Duplicates of the indexes behind unique constraints, which only add write cost.
+DROP INDEX idx_ranked_list_slug;
+DROP INDEX idx_blog_post_slug;
+DROP INDEX idx_tag_slug;
+DROP INDEX idx_ranked_entry_list_rank;
@@ -0,0 +1,24 @@
+-- Tag slugs copied onto the rows the public pages filter, so a tag filter
+-- (any number of tags, all or any of them) is one GIN index lookup with no
+-- join through the tag tables and no DISTINCT.
+
+ALTER TABLE blog_post ADD COLUMN tag_slugs TEXT[] NOT NULL DEFAULT '{}';
+
+UPDATE blog_post bp SET tag_slugs = ARRAY(
+    SELECT t.slug FROM blog_post_tags bpt JOIN tag t ON t.id = bpt.tag_id
+    WHERE bpt.blog_post_id = bp.id
+    ORDER BY t.slug
+);
+
+CREATE INDEX idx_blog_post_tag_slugs ON blog_post USING GIN (tag_slugs);
+
+-- Lists are filtered on their cards
+ALTER TABLE ranked_list_card ADD COLUMN tag_slugs TEXT[] NOT NULL DEFAULT '{}';
+
+UPDATE ranked_list_card c SET tag_slugs = ARRAY(
+    SELECT t.slug FROM ranked_list_tags rlt JOIN tag t ON t.id = rlt.tag_id
+    WHERE rlt.ranked_list_id = c.ranked_list_id
+    ORDER BY t.slug
+);
+
+CREATE INDEX idx_ranked_list_card_tag_slugs ON ranked_list_card USING GIN (tag_slugs);
@@ -0,0 +1,12 @@
+-- Version columns for optimistic locking of admin edits. An update names the
+-- version it read and fails if another edit has changed the row since.
+
+ALTER TABLE ranked_list ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE ranked_entry ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE blog_post ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+-- Checked at commit rather than per statement, so a reorder that swaps ranks
+-- is not rejected halfway through its updates
+ALTER TABLE ranked_entry DROP CONSTRAINT ranked_entry_ranked_list_id_rank_key;
+ALTER TABLE ranked_entry ADD CONSTRAINT ranked_entry_ranked_list_id_rank_key
+    UNIQUE (ranked_list_id, rank) DEFERRABLE INITIALLY DEFERRED;
@@ -0,0 +1,5 @@
+-- Keyset pages of the media library sorted by size or by name read a contiguous
+-- range of these, as pages in upload order do of idx_media_asset_created_at_id.
+-- The sort value and ID always share a direction, so each index serves both.
+CREATE INDEX idx_media_asset_file_size_id ON media_asset(file_size, id);
+CREATE INDEX idx_media_asset_filename_id ON media_asset(filename, id);
@@ -0,0 +1,3 @@
+-- Cards name their tags by slug since V12: the tag filter matches tag_slugs
+-- and the list index looks its tags up from them, so the '|3|7|' id copy is unused.
+ALTER TABLE ranked_list_card DROP COLUMN tag_ids;
@@ -0,0 +1,4 @@
+-- Pixel dimensions of media assets, probed from the image header at upload time.
+-- Nullable: assets uploaded before this migration have no recorded dimensions.
+ALTER TABLE media_asset ADD COLUMN width INTEGER;
+ALTER TABLE media_asset ADD COLUMN height INTEGER;
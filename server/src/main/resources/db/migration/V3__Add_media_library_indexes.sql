@@ -0,0 +1,11 @@
+-- Indexes for the paged admin media library.
+-- Keyset pages in upload order read a contiguous range of this index.
+CREATE INDEX idx_media_asset_created_at_id ON media_asset(created_at DESC, id DESC);
+-- Content type filter combined with upload order.
+CREATE INDEX idx_media_asset_content_type_created_at ON media_asset(content_type, created_at DESC, id DESC);
+
+-- Foreign keys referencing media_asset, used by the unused-media anti-join
+-- (and by media deletes, which must check these references).
+CREATE INDEX idx_ranked_list_cover_image_id ON ranked_list(cover_image_id);
+CREATE INDEX idx_ranked_entry_hero_image_id ON ranked_entry(hero_image_id);
+CREATE INDEX idx_blog_post_cover_image_id ON blog_post(cover_image_id);
@@ -0,0 +1,6 @@
+-- Mark used by the media garbage collector: when an asset was first found
+-- unreferenced. Assets are deleted once the mark is older than the grace period.
+ALTER TABLE media_asset ADD COLUMN orphaned_at TIMESTAMP;
+
+-- Only a handful of rows are ever marked; keep the index to those.
+CREATE INDEX idx_media_asset_orphaned_at ON media_asset(orphaned_at) WHERE orphaned_at IS NOT NULL;
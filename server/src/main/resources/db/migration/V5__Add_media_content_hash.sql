@@ -0,0 +1,3 @@
+-- SHA-256 of each media file's content, used to fingerprint media URLs.
+-- Existing assets keep NULL and are fingerprinted by their storage file name.
+ALTER TABLE media_asset ADD COLUMN content_hash VARCHAR(64);
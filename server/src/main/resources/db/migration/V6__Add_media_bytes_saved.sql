@@ -0,0 +1,3 @@
+-- Bytes removed when an upload was recompressed on the way in; NULL when the
+-- upload was stored exactly as sent.
+ALTER TABLE media_asset ADD COLUMN bytes_saved BIGINT;
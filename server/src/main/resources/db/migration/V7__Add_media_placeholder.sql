@@ -0,0 +1,6 @@
+-- BlurHash placeholder painted while the image loads; filled in by a background
+-- job, NULL until then and empty when none can be produced.
+ALTER TABLE media_asset ADD COLUMN placeholder VARCHAR(64);
+
+-- The job only ever looks for the few rows still waiting.
+CREATE INDEX idx_media_asset_placeholder_pending ON media_asset(id) WHERE placeholder IS NULL;
@@ -0,0 +1,27 @@
+-- Read model for the public list index: one row per list holding everything a
+-- list card shows, so a page of cards is read from this table alone instead of
+-- loading the cover, tags and entries of every list on the page.
+-- Kept in step by RankedListService on every list and entry write.
+CREATE TABLE ranked_list_card (
+    ranked_list_id BIGINT PRIMARY KEY REFERENCES ranked_list(id) ON DELETE CASCADE,
+    title VARCHAR(255) NOT NULL,
+    subtitle VARCHAR(255),
+    slug VARCHAR(255) NOT NULL,
+    intro TEXT NOT NULL,
+    cover_image_id BIGINT,
+    -- Tag ids as '|3|7|' ('' for none), so a tag filter is a LIKE on one column
+    tag_ids TEXT NOT NULL DEFAULT '',
+    entry_count INTEGER NOT NULL DEFAULT 0,
+    published_at TIMESTAMP
+);
+
+CREATE INDEX idx_ranked_list_card_published_at ON ranked_list_card(published_at);
+
+-- Cards for the lists that already exist.
+INSERT INTO ranked_list_card (ranked_list_id, title, subtitle, slug, intro, cover_image_id, tag_ids, entry_count, published_at)
+SELECT rl.id, rl.title, rl.subtitle, rl.slug, rl.intro, rl.cover_image_id,
+       COALESCE((SELECT '|' || STRING_AGG(CAST(rlt.tag_id AS VARCHAR), '|' ORDER BY rlt.tag_id) || '|'
+                 FROM ranked_list_tags rlt WHERE rlt.ranked_list_id = rl.id), ''),
+       (SELECT COUNT(*) FROM ranked_entry re WHERE re.ranked_list_id = rl.id),
+       rl.published_at
+FROM ranked_list rl;
@@ -0,0 +1,7 @@
+-- Number of entries in each list, kept by the application as entries are added
+-- and removed so listing a list never has to load or count its entries.
+-- RankedListEntryCountReconciler repairs any drift.
+ALTER TABLE ranked_list ADD COLUMN entry_count INTEGER NOT NULL DEFAULT 0;
+
+UPDATE ranked_list rl
+SET entry_count = (SELECT COUNT(*) FROM ranked_entry re WHERE re.ranked_list_id = rl.id);
@@ -0,0 +1,40 @@
+package com.layerten.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ConnectionPoolConfig.
+ */
+class ConnectionPoolConfigTest {
+
+    private final BeanPostProcessor sizer = ConnectionPoolConfig.connectionPoolSizer(2);
+
+    @Test
+    void connectionPoolSizer_shouldSizeUnsetPoolFromCores() {
+        // Arrange
+        HikariDataSource dataSource = new HikariDataSource();
+
+        // Act
+        sizer.postProcessBeforeInitialization(dataSource, "dataSource");
+
+        // Assert
+        assertEquals(Runtime.getRuntime().availableProcessors() * 2 + 1, dataSource.getMaximumPoolSize());
+    }
+
+    @Test
+    void connectionPoolSizer_shouldKeepExplicitPoolSize() {
+        // Arrange
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setMaximumPoolSize(7);
+
+        // Act
+        sizer.postProcessBeforeInitialization(dataSource, "dataSource");
+
+        // Assert
+        assertEquals(7, dataSource.getMaximumPoolSize());
+    }
+}
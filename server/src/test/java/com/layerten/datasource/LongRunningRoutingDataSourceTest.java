@@ -0,0 +1,74 @@
+package com.layerten.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LongRunningRoutingDataSource, over an in-memory database.
+ */
+class LongRunningRoutingDataSourceTest {
+
+    private HikariDataSource primary;
+    private LongRunningRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() {
+        primary = new HikariDataSource();
+        primary.setJdbcUrl("jdbc:h2:mem:long-running;DB_CLOSE_DELAY=-1");
+        primary.setPoolName("primary");
+        primary.setLeakDetectionThreshold(2000);
+        primary.setMaximumPoolSize(3);
+        routing = new LongRunningRoutingDataSource(primary, primary, 1);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        LongRunningRoutingDataSource.endLongRunning();
+        routing.close();
+    }
+
+    @Test
+    void getConnection_shouldUseTargetOutsideLongRunningWork() throws Exception {
+        try (Connection connection = routing.getConnection()) {
+            assertTrue(connection.isValid(1));
+            assertEquals(1, primary.getHikariPoolMXBean().getActiveConnections());
+        }
+    }
+
+    @Test
+    void getConnection_shouldUseOwnPoolWithoutLeakDetectionForLongRunningWork() throws Exception {
+        // Arrange
+        LongRunningRoutingDataSource.beginLongRunning();
+
+        // Act & Assert
+        try (Connection connection = routing.getConnection()) {
+            assertTrue(connection.isValid(1));
+        }
+        // The primary pool starts with its first connection, so it never started
+        assertNull(primary.getHikariPoolMXBean());
+        HikariDataSource longRunning = routing.longRunningPool();
+        assertEquals("long-running", longRunning.getPoolName());
+        assertEquals(0, longRunning.getLeakDetectionThreshold());
+        assertEquals(1, longRunning.getMaximumPoolSize());
+        assertEquals(primary.getJdbcUrl(), longRunning.getJdbcUrl());
+    }
+
+    @Test
+    void endLongRunning_shouldUseTargetAgain() throws Exception {
+        // Arrange
+        LongRunningRoutingDataSource.beginLongRunning();
+        LongRunningRoutingDataSource.endLongRunning();
+
+        // Act & Assert
+        try (Connection connection = routing.getConnection()) {
+            assertTrue(connection.isValid(1));
+            assertEquals(1, primary.getHikariPoolMXBean().getActiveConnections());
+        }
+    }
+}
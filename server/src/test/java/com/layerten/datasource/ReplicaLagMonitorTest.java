@@ -0,0 +1,61 @@
+package com.layerten.datasource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ReplicaLagMonitor.
+ */
+class ReplicaLagMonitorTest {
+
+    private DataSource replica;
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() {
+        replica = ReplicaRoutingDataSourceTest.database("lagging-replica");
+        routing = new ReplicaRoutingDataSource(ReplicaRoutingDataSourceTest.database("lag-primary"), replica);
+    }
+
+    @Test
+    void check_shouldTakeReplicaOutOfUseWhileLagExceedsTolerance() {
+        // Arrange
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(routing, replica, Duration.ofSeconds(10), "SELECT 30");
+
+        // Act
+        monitor.check();
+
+        // Assert
+        assertFalse(routing.isReplicaAvailable());
+    }
+
+    @Test
+    void check_shouldPutReplicaBackOnceCaughtUp() {
+        // Arrange
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(routing, replica, Duration.ofSeconds(10), "SELECT 2.5");
+        routing.markReplicaUnavailable("test");
+
+        // Act
+        monitor.check();
+
+        // Assert
+        assertTrue(routing.isReplicaAvailable());
+    }
+
+    @Test
+    void check_shouldTakeReplicaOutOfUseWhenLagCannotBeMeasured() {
+        // Arrange - the Postgres lag query does not run on H2
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(routing, replica, Duration.ofSeconds(10));
+
+        // Act
+        monitor.check();
+
+        // Assert
+        assertFalse(routing.isReplicaAvailable());
+    }
+}
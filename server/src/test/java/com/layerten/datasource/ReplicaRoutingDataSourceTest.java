@@ -0,0 +1,118 @@
+package com.layerten.datasource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ReplicaRoutingDataSource, routing between two in-memory databases.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private DataSource primary;
+    private DataSource replica;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+    }
+
+    @Test
+    void readOnlyTransaction_shouldUseReplicaAndOthersPrimary() {
+        // Arrange
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replica);
+        Client client = new Client(routing);
+
+        // Act & Assert
+        assertEquals("replica", client.readOnly());
+        assertEquals("primary", client.readWrite());
+        assertEquals("primary", client.withoutTransaction());
+    }
+
+    @Test
+    void readOnlyTransaction_shouldUsePrimaryWhileReplicaUnavailable() {
+        // Arrange
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replica);
+        Client client = new Client(routing);
+
+        // Act
+        routing.markReplicaUnavailable("test");
+        String whileUnavailable = client.readOnly();
+        routing.markReplicaAvailable();
+
+        // Assert
+        assertEquals("primary", whileUnavailable);
+        assertEquals("replica", client.readOnly());
+    }
+
+    @Test
+    void readOnlyTransaction_shouldFallBackToPrimaryWhenReplicaConnectionFails() throws SQLException {
+        // Arrange
+        DataSource unreachable = mock(DataSource.class);
+        when(unreachable.getConnection()).thenThrow(new SQLException("Connection refused"));
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, unreachable);
+        Client client = new Client(routing);
+
+        // Act
+        String result = client.readOnly();
+
+        // Assert
+        assertEquals("primary", result);
+        assertFalse(routing.isReplicaAvailable());
+    }
+
+    /**
+     * Creates a named in-memory database that reports its own name.
+     */
+    static DataSource database(String name) {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE IF NOT EXISTS whoami (name VARCHAR(20))");
+        jdbc.update("DELETE FROM whoami");
+        jdbc.update("INSERT INTO whoami VALUES (?)", name);
+        return dataSource;
+    }
+
+    /**
+     * Queries through the routing DataSource the way the application does:
+     * behind a lazy connection proxy, within Spring-managed transactions.
+     */
+    private static class Client {
+
+        private final JdbcTemplate jdbc;
+        private final TransactionTemplate readOnly;
+        private final TransactionTemplate readWrite;
+
+        Client(ReplicaRoutingDataSource routing) {
+            DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+            DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+            this.jdbc = new JdbcTemplate(dataSource);
+            this.readOnly = new TransactionTemplate(transactionManager);
+            this.readOnly.setReadOnly(true);
+            this.readWrite = new TransactionTemplate(transactionManager);
+        }
+
+        String readOnly() {
+            return readOnly.execute(status -> withoutTransaction());
+        }
+
+        String readWrite() {
+            return readWrite.execute(status -> withoutTransaction());
+        }
+
+        String withoutTransaction() {
+            return jdbc.queryForObject("SELECT name FROM whoami", String.class);
+        }
+    }
+}
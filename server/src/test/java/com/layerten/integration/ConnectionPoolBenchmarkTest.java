@@ -0,0 +1,138 @@
+package com.layerten.integration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Before/after benchmark of the db-tuning profile against a real PostgreSQL.
+ * Runs the same insert batches and concurrent query burst through an untuned
+ * pool and through a pool configured from application-db-tuning.yml, and
+ * prints the timings.
+ *
+ * Like the other integration tests it is not part of the test task. Run it
+ * with LAYERTEN_TEST_DB_URL, LAYERTEN_TEST_DB_USER and
+ * LAYERTEN_TEST_DB_PASSWORD pointing at a scratch database; it creates
+ * and drops a bench_item table there.
+ */
+@EnabledIfEnvironmentVariable(named = "LAYERTEN_TEST_DB_URL", matches = ".+")
+class ConnectionPoolBenchmarkTest {
+
+    private static final int ROWS = 20_000;
+    private static final int BATCH_SIZE = 50;
+    private static final int CLIENTS = 64;
+    private static final int QUERIES_PER_CLIENT = 200;
+
+    // Query shapes like those of the list and post repositories
+    private static final String[] QUERIES = {
+        "SELECT id, title, slug FROM bench_item WHERE category = ? ORDER BY id DESC LIMIT 20",
+        "SELECT count(*) FROM bench_item WHERE category = ? AND title LIKE 'Item 1%'",
+        "SELECT id, title FROM bench_item WHERE id > ? ORDER BY id LIMIT 10",
+        "SELECT slug FROM bench_item WHERE slug = 'item-' || ?"
+    };
+
+    private HikariDataSource untuned;
+    private HikariDataSource tuned;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        untuned = new HikariDataSource();
+        configureConnection(untuned);
+        untuned.setPoolName("untuned");
+
+        tuned = new HikariDataSource();
+        configureConnection(tuned);
+        List<PropertySource<?>> profile = new YamlPropertySourceLoader()
+            .load("db-tuning", new ClassPathResource("application-db-tuning.yml"));
+        new Binder(ConfigurationPropertySources.from(profile))
+            .bind("spring.datasource.hikari", Bindable.ofInstance(tuned));
+        tuned.setMaximumPoolSize(Runtime.getRuntime().availableProcessors() * 2 + 1);
+        tuned.setPoolName("tuned");
+
+        new JdbcTemplate(untuned).execute(
+            "CREATE TABLE IF NOT EXISTS bench_item (id BIGINT PRIMARY KEY, category INT, title TEXT, slug TEXT)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        new JdbcTemplate(untuned).execute("DROP TABLE IF EXISTS bench_item");
+        untuned.close();
+        tuned.close();
+    }
+
+    @Test
+    void tunedPool_shouldBeReportedAgainstUntunedPool() throws Exception {
+        long untunedInsert = insertRows(untuned);
+        long tunedInsert = insertRows(tuned);
+        long untunedBurst = burst(untuned);
+        long tunedBurst = burst(tuned);
+
+        System.out.printf("%-28s %10s %10s%n", "", "untuned", "tuned");
+        System.out.printf("%-28s %8d ms %8d ms%n", ROWS + " batched inserts", untunedInsert, tunedInsert);
+        System.out.printf("%-28s %8d ms %8d ms%n", CLIENTS + " x " + QUERIES_PER_CLIENT + " query burst", untunedBurst, tunedBurst);
+        System.out.printf("%-28s %11d %11d%n", "pool size", untuned.getMaximumPoolSize(), tuned.getMaximumPoolSize());
+        assertEquals(ROWS, new JdbcTemplate(tuned).queryForObject("SELECT count(*) FROM bench_item", Integer.class));
+    }
+
+    private long insertRows(HikariDataSource dataSource) {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("TRUNCATE bench_item");
+        List<Object[]> rows = new ArrayList<>(ROWS);
+        for (int id = 1; id <= ROWS; id++) {
+            rows.add(new Object[] {id, id % 20, "Item " + id, "item-" + id});
+        }
+        long start = System.nanoTime();
+        for (int from = 0; from < ROWS; from += BATCH_SIZE) {
+            jdbc.batchUpdate("INSERT INTO bench_item (id, category, title, slug) VALUES (?, ?, ?, ?)",
+                rows.subList(from, Math.min(from + BATCH_SIZE, ROWS)));
+        }
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private long burst(HikariDataSource dataSource) throws Exception {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        try {
+            long start = System.nanoTime();
+            List<Future<?>> results = new ArrayList<>();
+            for (int client = 0; client < CLIENTS; client++) {
+                int seed = client;
+                results.add(clients.submit(() -> {
+                    for (int i = 0; i < QUERIES_PER_CLIENT; i++) {
+                        jdbc.queryForList(QUERIES[(seed + i) % QUERIES.length], (seed * 31 + i) % 20);
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+            return (System.nanoTime() - start) / 1_000_000;
+        } finally {
+            clients.shutdown();
+        }
+    }
+
+    private static void configureConnection(HikariDataSource dataSource) {
+        dataSource.setJdbcUrl(System.getenv("LAYERTEN_TEST_DB_URL"));
+        dataSource.setUsername(System.getenv("LAYERTEN_TEST_DB_USER"));
+        dataSource.setPassword(System.getenv("LAYERTEN_TEST_DB_PASSWORD"));
+    }
+}
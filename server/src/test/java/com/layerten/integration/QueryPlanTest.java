@@ -0,0 +1,125 @@
+package com.layerten.integration;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks with EXPLAIN that PostgreSQL answers the hot query shapes from indexes.
+ *
+ * Needs a scratch PostgreSQL database given by LAYERTEN_TEST_DB_URL,
+ * LAYERTEN_TEST_DB_USER and LAYERTEN_TEST_DB_PASSWORD. The database is
+ * cleaned, migrated and filled with enough rows that a sequential scan would
+ * lose, then analyzed.
+ */
+@EnabledIfEnvironmentVariable(named = "LAYERTEN_TEST_DB_URL", matches = ".+")
+class QueryPlanTest {
+
+    private static JdbcTemplate jdbc;
+
+    @BeforeAll
+    static void migrateAndSeed() {
+        DataSource dataSource = new DriverManagerDataSource(
+            System.getenv("LAYERTEN_TEST_DB_URL"),
+            System.getenv("LAYERTEN_TEST_DB_USER"),
+            System.getenv("LAYERTEN_TEST_DB_PASSWORD"));
+        Flyway flyway = Flyway.configure().dataSource(dataSource).cleanDisabled(false).load();
+        flyway.clean();
+        flyway.migrate();
+
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("INSERT INTO tag (name, slug) SELECT 'Tag ' || g, 'tag-' || g FROM generate_series(1, 50) g");
+        jdbc.execute("INSERT INTO blog_post (title, slug, excerpt, body, status, published_at) " +
+            "SELECT 'Post ' || g, 'post-' || g, 'Excerpt', 'Body', " +
+            "CASE WHEN g % 5 = 0 THEN 'DRAFT' ELSE 'PUBLISHED' END, " +
+            "CASE WHEN g % 5 = 0 THEN NULL ELSE now() - g * interval '1 hour' END " +
+            "FROM generate_series(1, 20000) g");
+        jdbc.execute("INSERT INTO blog_post_tags (blog_post_id, tag_id) " +
+            "SELECT bp.id, t.id FROM blog_post bp JOIN tag t ON t.name = 'Tag ' || (bp.id % 50 + 1)");
+        jdbc.execute("INSERT INTO ranked_list (title, slug, intro, published_at) " +
+            "SELECT 'List ' || g, 'list-' || g, 'Intro', " +
+            "CASE WHEN g % 10 = 0 THEN NULL ELSE now() - g * interval '1 hour' END " +
+            "FROM generate_series(1, 20000) g");
+        jdbc.execute("INSERT INTO ranked_list_tags (ranked_list_id, tag_id) " +
+            "SELECT rl.id, t.id FROM ranked_list rl JOIN tag t ON t.name = 'Tag ' || (rl.id % 50 + 1)");
+        jdbc.execute("INSERT INTO ranked_list_card (ranked_list_id, title, slug, intro, published_at) " +
+            "SELECT id, title, slug, intro, published_at FROM ranked_list");
+        jdbc.execute("UPDATE blog_post bp SET tag_slugs = ARRAY(SELECT t.slug FROM blog_post_tags bpt " +
+            "JOIN tag t ON t.id = bpt.tag_id WHERE bpt.blog_post_id = bp.id)");
+        jdbc.execute("UPDATE ranked_list_card c SET tag_slugs = ARRAY(SELECT t.slug FROM ranked_list_tags rlt " +
+            "JOIN tag t ON t.id = rlt.tag_id WHERE rlt.ranked_list_id = c.ranked_list_id)");
+        jdbc.execute("INSERT INTO suggestion (title, description, status, created_at) " +
+            "SELECT 'Suggestion ' || g, 'Description', CASE WHEN g % 4 = 0 THEN 'REVIEWED' ELSE 'NEW' END, " +
+            "now() - g * interval '1 minute' FROM generate_series(1, 20000) g");
+        jdbc.execute("ANALYZE");
+    }
+
+    @Test
+    void publishedPosts_shouldReadPublishedPostIndex() {
+        assertIndexUsed("idx_blog_post_published",
+            "SELECT id, title FROM blog_post WHERE status = 'PUBLISHED' ORDER BY published_at DESC LIMIT 20");
+    }
+
+    @Test
+    void postsByStatus_shouldReadStatusIndex() {
+        assertIndexUsed("idx_blog_post_status_published_at",
+            "SELECT id, title FROM blog_post WHERE status = 'DRAFT' ORDER BY published_at DESC LIMIT 20");
+    }
+
+    @Test
+    void publishedCards_shouldReadPublishedCardIndex() {
+        assertIndexUsed("idx_ranked_list_card_published",
+            "SELECT * FROM ranked_list_card WHERE published_at IS NOT NULL ORDER BY published_at DESC LIMIT 20");
+    }
+
+    @Test
+    void postsByTag_shouldReadJoinTableFromTagSide() {
+        assertIndexUsed("idx_blog_post_tags_tag_id",
+            "SELECT DISTINCT bp.id FROM blog_post bp " +
+            "JOIN blog_post_tags bpt ON bpt.blog_post_id = bp.id JOIN tag t ON t.id = bpt.tag_id " +
+            "WHERE bp.status = 'PUBLISHED' AND t.name = 'Tag 7'");
+    }
+
+    @Test
+    void listsByTag_shouldReadJoinTableFromTagSide() {
+        assertIndexUsed("idx_ranked_list_tags_tag_id",
+            "SELECT DISTINCT rl.id FROM ranked_list rl " +
+            "JOIN ranked_list_tags rlt ON rlt.ranked_list_id = rl.id JOIN tag t ON t.id = rlt.tag_id " +
+            "WHERE rl.published_at IS NOT NULL AND t.name = 'Tag 7'");
+    }
+
+    @Test
+    void postsByTagSlugs_shouldReadGinIndex() {
+        assertIndexUsed("idx_blog_post_tag_slugs",
+            "SELECT id FROM blog_post WHERE tag_slugs @> CAST(ARRAY['tag-7'] AS text[]) AND status = 'PUBLISHED'");
+        assertIndexUsed("idx_blog_post_tag_slugs",
+            "SELECT id FROM blog_post WHERE tag_slugs && CAST(ARRAY['tag-7', 'tag-9'] AS text[])");
+    }
+
+    @Test
+    void cardsByTagSlugs_shouldReadGinIndex() {
+        assertIndexUsed("idx_ranked_list_card_tag_slugs",
+            "SELECT ranked_list_id FROM ranked_list_card " +
+            "WHERE published_at IS NOT NULL AND tag_slugs @> CAST(ARRAY['tag-7'] AS text[])");
+    }
+
+    @Test
+    void suggestions_shouldReadCreatedAtIndex() {
+        assertIndexUsed("idx_suggestion_created_at",
+            "SELECT id, title FROM suggestion ORDER BY created_at DESC LIMIT 50");
+        assertIndexUsed("idx_suggestion_status_created_at",
+            "SELECT id, title FROM suggestion WHERE status = 'NEW' ORDER BY created_at DESC LIMIT 50");
+    }
+
+    private static void assertIndexUsed(String index, String sql) {
+        String plan = String.join("\n", jdbc.queryForList("EXPLAIN " + sql, String.class));
+        assertTrue(plan.contains(index), "expected a scan of " + index + " in\n" + plan);
+    }
+}
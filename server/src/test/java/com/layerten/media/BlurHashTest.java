@@ -0,0 +1,107 @@
+package com.layerten.media;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BlurHash.
+ */
+class BlurHashTest {
+
+    private static final String CHARACTERS =
+        "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz#$%*+,-.:;=?@[]^_{|}~";
+
+    @Test
+    void encode_shouldDescribeSolidColourByItsAverage() {
+        BufferedImage image = solid(40, 30, 0xFF0000);
+
+        String hash = BlurHash.encode(image, 4, 3);
+
+        // size flag, maximum AC, 4-digit DC, then 11 two-digit AC components
+        assertEquals(1 + 1 + 4 + 11 * 2, hash.length());
+        assertEquals((4 - 1) + (3 - 1) * 9, decode83(hash.substring(0, 1)));
+        assertEquals(0xFF0000, decode83(hash.substring(2, 6)));
+        // Green and blue are zero everywhere, so every AC component is at their midpoint
+        for (int k = 0; k < 11; k++) {
+            int ac = decode83(hash.substring(6 + k * 2, 8 + k * 2));
+            assertEquals(9, ac / 19 % 19);
+            assertEquals(9, ac % 19);
+        }
+    }
+
+    @Test
+    void encode_shouldUseMoreVerticalComponentsForPortraitImages() throws IOException {
+        byte[] png = png(solid(30, 60, 0x336699));
+
+        String hash = BlurHash.encode(new ByteArrayInputStream(png), 1_000_000).orElseThrow();
+
+        assertEquals((3 - 1) + (4 - 1) * 9, decode83(hash.substring(0, 1)));
+        assertEquals(0x336699, decode83(hash.substring(2, 6)));
+    }
+
+    @Test
+    void encode_shouldDescribeImageAsDisplayedAfterOrientation() throws IOException {
+        byte[] png = png(solid(60, 30, 0x336699));
+
+        // Orientation 6 turns the landscape pixels a quarter, so it displays as portrait
+        String hash = BlurHash.encode(new ByteArrayInputStream(png), 1_000_000, 6).orElseThrow();
+
+        assertEquals((3 - 1) + (4 - 1) * 9, decode83(hash.substring(0, 1)));
+        assertEquals(0x336699, decode83(hash.substring(2, 6)));
+    }
+
+    @Test
+    void encode_shouldCaptureAHorizontalGradient() {
+        BufferedImage image = new BufferedImage(64, 16, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < 64; x++) {
+            for (int y = 0; y < 16; y++) {
+                image.setRGB(x, y, x < 32 ? 0x000000 : 0xFFFFFF);
+            }
+        }
+
+        String hash = BlurHash.encode(image, 4, 3);
+
+        // The first horizontal AC component carries the dark-to-light split
+        int firstAc = decode83(hash.substring(6, 8));
+        assertTrue(firstAc / (19 * 19) < 9, "red channel of the first AC component should be negative");
+    }
+
+    @Test
+    void encode_shouldRefuseUndecodableAndOversizedImages() throws IOException {
+        byte[] png = png(solid(40, 30, 0xFFFFFF));
+
+        assertTrue(BlurHash.encode(new ByteArrayInputStream("not an image".getBytes()), 1_000_000).isEmpty());
+        assertTrue(BlurHash.encode(new ByteArrayInputStream(png), 100).isEmpty());
+    }
+
+    private static BufferedImage solid(int width, int height, int rgb) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, rgb);
+            }
+        }
+        return image;
+    }
+
+    private static byte[] png(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    private static int decode83(String digits) {
+        int value = 0;
+        for (char c : digits.toCharArray()) {
+            value = value * 83 + CHARACTERS.indexOf(c);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,109 @@
+package com.layerten.media;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for HotMediaCache.
+ */
+class HotMediaCacheTest {
+
+    @Test
+    void get_shouldLoadOnceThenServeFromCache() throws IOException {
+        HotMediaCache cache = new HotMediaCache(16, 64);
+        AtomicInteger loads = new AtomicInteger();
+        HotMediaCache.Loader loader = () -> {
+            loads.incrementAndGet();
+            return new ByteArrayInputStream(new byte[] {1, 2, 3});
+        };
+
+        ByteBuffer first = cache.get("a.png", 3, loader);
+        ByteBuffer second = cache.get("a.png", 3, loader);
+
+        assertEquals(1, loads.get());
+        assertTrue(first.isDirect());
+        assertTrue(second.isReadOnly());
+        assertEquals(3, second.remaining());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(3, cache.getResidentBytes());
+    }
+
+    @Test
+    void get_shouldReturnIndependentViewsOfTheSameEntry() throws IOException {
+        HotMediaCache cache = new HotMediaCache(16, 64);
+        cache.get("a.png", 3, () -> new ByteArrayInputStream(new byte[] {1, 2, 3}));
+
+        ByteBuffer drained = cache.get("a.png", 3, () -> null);
+        drained.get(new byte[3]);
+        ByteBuffer fresh = cache.get("a.png", 3, () -> null);
+
+        assertEquals(3, fresh.remaining());
+        assertEquals(1, fresh.get(0));
+    }
+
+    @Test
+    void get_shouldEvictLeastRecentlyUsedToStayWithinBudget() throws IOException {
+        HotMediaCache cache = new HotMediaCache(10, 20);
+        cache.get("a", 10, () -> new ByteArrayInputStream(new byte[10]));
+        cache.get("b", 10, () -> new ByteArrayInputStream(new byte[10]));
+        cache.get("a", 10, () -> null); // a is now most recently used
+
+        cache.get("c", 10, () -> new ByteArrayInputStream(new byte[10]));
+
+        assertEquals(20, cache.getResidentBytes());
+        assertEquals(2, cache.getEntryCount());
+        AtomicInteger reloads = new AtomicInteger();
+        cache.get("a", 10, () -> {
+            reloads.incrementAndGet();
+            return new ByteArrayInputStream(new byte[10]);
+        });
+        assertEquals(0, reloads.get());
+        cache.get("b", 10, () -> {
+            reloads.incrementAndGet();
+            return new ByteArrayInputStream(new byte[10]);
+        });
+        assertEquals(1, reloads.get());
+    }
+
+    @Test
+    void accepts_shouldRejectEmptyOversizedAndDisabledCache() {
+        HotMediaCache cache = new HotMediaCache(10, 100);
+
+        assertTrue(cache.accepts(10));
+        assertFalse(cache.accepts(0));
+        assertFalse(cache.accepts(11));
+        assertFalse(new HotMediaCache(10, 0).accepts(5));
+    }
+
+    @Test
+    void get_shouldRejectContentThatDoesNotMatchRecordedSize() {
+        HotMediaCache cache = new HotMediaCache(16, 64);
+
+        assertThrows(IOException.class, () -> cache.get("short", 4, () -> new ByteArrayInputStream(new byte[3])));
+        assertThrows(IOException.class, () -> cache.get("long", 2, () -> new ByteArrayInputStream(new byte[3])));
+        assertEquals(0, cache.getEntryCount());
+    }
+
+    @Test
+    void bindTo_shouldExposeHitRatioAndResidentBytes() throws IOException {
+        HotMediaCache cache = new HotMediaCache(16, 64);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+
+        cache.get("a", 4, () -> new ByteArrayInputStream(new byte[4]));
+        cache.get("a", 4, () -> null);
+        cache.get("a", 4, () -> null);
+
+        assertEquals(4, registry.get("layerten.media.cache.resident").gauge().value());
+        assertEquals(2.0 / 3, registry.get("layerten.media.cache.hit.ratio").gauge().value(), 1e-9);
+        assertEquals(2, registry.get("layerten.media.cache.requests").tag("result", "hit").functionCounter().count());
+    }
+}
@@ -0,0 +1,191 @@
+package com.layerten.media;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PushbackInputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ImageProbe.
+ */
+class ImageProbeTest {
+
+    @Test
+    void probe_shouldReadPngDimensions() throws IOException {
+        ImageInfo info = probe(encode("png", 320, 200));
+
+        assertEquals(ImageFormat.PNG, info.format());
+        assertEquals(320, info.width());
+        assertEquals(200, info.height());
+    }
+
+    @Test
+    void probe_shouldReadGifDimensions() throws IOException {
+        ImageInfo info = probe(encode("gif", 17, 9));
+
+        assertEquals(ImageFormat.GIF, info.format());
+        assertEquals(17, info.width());
+        assertEquals(9, info.height());
+    }
+
+    @Test
+    void probe_shouldReadJpegDimensionsPastApplicationSegments() throws IOException {
+        byte[] jpeg = encode("jpg", 640, 480);
+
+        // Insert a large APP1 segment between SOI and the rest of the file
+        byte[] app1 = new byte[4 + 20_000];
+        app1[0] = (byte) 0xFF;
+        app1[1] = (byte) 0xE1;
+        app1[2] = (byte) ((app1.length - 2) >> 8);
+        app1[3] = (byte) (app1.length - 2);
+        byte[] withApp1 = new byte[jpeg.length + app1.length];
+        System.arraycopy(jpeg, 0, withApp1, 0, 2);
+        System.arraycopy(app1, 0, withApp1, 2, app1.length);
+        System.arraycopy(jpeg, 2, withApp1, 2 + app1.length, jpeg.length - 2);
+
+        ImageInfo info = probe(withApp1);
+
+        assertEquals(ImageFormat.JPEG, info.format());
+        assertEquals(640, info.width());
+        assertEquals(480, info.height());
+    }
+
+    @Test
+    void probe_shouldReadExtendedWebpDimensions() throws IOException {
+        byte[] webp = webpHeader("VP8X");
+        // Canvas width-1 = 999, height-1 = 1499 (24-bit little endian)
+        writeUint24le(webp, 24, 999);
+        writeUint24le(webp, 27, 1499);
+
+        ImageInfo info = probe(webp);
+
+        assertEquals(ImageFormat.WEBP, info.format());
+        assertEquals(1000, info.width());
+        assertEquals(1500, info.height());
+    }
+
+    @Test
+    void probe_shouldReadLosslessWebpDimensions() throws IOException {
+        byte[] webp = webpHeader("VP8L");
+        webp[20] = 0x2F;
+        int bits = (64 - 1) | (48 - 1) << 14;
+        webp[21] = (byte) bits;
+        webp[22] = (byte) (bits >> 8);
+        webp[23] = (byte) (bits >> 16);
+        webp[24] = (byte) (bits >> 24);
+
+        ImageInfo info = probe(webp);
+
+        assertEquals(64, info.width());
+        assertEquals(48, info.height());
+    }
+
+    @Test
+    void probe_shouldIgnoreDeclaredTypeAndRejectNonImages() throws IOException {
+        Optional<ImageInfo> info = ImageProbe.probe(
+            new ByteArrayInputStream("<html>not an image</html>".getBytes(StandardCharsets.US_ASCII)));
+
+        assertTrue(info.isEmpty());
+    }
+
+    @Test
+    void jpegOrientation_shouldReadExifOrientationInEitherByteOrder() throws IOException {
+        byte[] jpeg = encode("jpg", 40, 30);
+
+        byte[] littleEndian = withExifOrientation(jpeg, 6, true);
+        byte[] bigEndian = withExifOrientation(jpeg, 8, false);
+
+        assertEquals(6, ImageProbe.jpegOrientation(littleEndian, littleEndian.length));
+        assertEquals(8, ImageProbe.jpegOrientation(bigEndian, bigEndian.length));
+    }
+
+    @Test
+    void jpegOrientation_shouldDefaultToUprightWithoutExif() throws IOException {
+        byte[] jpeg = encode("jpg", 40, 30);
+
+        assertEquals(1, ImageProbe.jpegOrientation(jpeg, jpeg.length));
+        assertEquals(1, ImageProbe.jpegOrientation(jpeg, 4));
+    }
+
+    @Test
+    void jpegOrientation_shouldLeaveStreamUnread() throws IOException {
+        byte[] jpeg = withExifOrientation(encode("jpg", 40, 30), 6, true);
+        PushbackInputStream in = new PushbackInputStream(new ByteArrayInputStream(jpeg), ImageProbe.PROBE_LENGTH);
+
+        assertEquals(6, ImageProbe.jpegOrientation(in));
+        assertArrayEquals(jpeg, in.readAllBytes());
+    }
+
+    @Test
+    void probe_shouldReportUnknownDimensionsForTruncatedHeader() {
+        byte[] png = {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 0, 0, 0, 0x0D};
+
+        ImageInfo info = ImageProbe.probe(png, png.length).orElseThrow();
+
+        assertEquals(ImageFormat.PNG, info.format());
+        assertNull(info.width());
+        assertNull(info.height());
+    }
+
+    private static ImageInfo probe(byte[] data) throws IOException {
+        return ImageProbe.probe(new ByteArrayInputStream(data)).orElseThrow();
+    }
+
+    private static byte[] encode(String format, int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertTrue(ImageIO.write(image, format, out));
+        return out.toByteArray();
+    }
+
+    /**
+     * Insert an APP1 EXIF segment whose IFD0 holds only an orientation tag.
+     */
+    private static byte[] withExifOrientation(byte[] jpeg, int orientation, boolean littleEndian) {
+        ByteBuffer tiff = ByteBuffer.allocate(26)
+            .order(littleEndian ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+        tiff.put(littleEndian ? (byte) 'I' : (byte) 'M').put(littleEndian ? (byte) 'I' : (byte) 'M');
+        tiff.putShort((short) 42).putInt(8);
+        tiff.putShort((short) 1);
+        tiff.putShort((short) 0x0112).putShort((short) 3).putInt(1).putShort((short) orientation).putShort((short) 0);
+        tiff.putInt(0);
+
+        byte[] segment = new byte[4 + 6 + tiff.capacity()];
+        segment[0] = (byte) 0xFF;
+        segment[1] = (byte) 0xE1;
+        segment[2] = (byte) ((segment.length - 2) >> 8);
+        segment[3] = (byte) (segment.length - 2);
+        System.arraycopy("Exif\0\0".getBytes(StandardCharsets.US_ASCII), 0, segment, 4, 6);
+        System.arraycopy(tiff.array(), 0, segment, 10, tiff.capacity());
+
+        byte[] result = new byte[jpeg.length + segment.length];
+        System.arraycopy(jpeg, 0, result, 0, 2);
+        System.arraycopy(segment, 0, result, 2, segment.length);
+        System.arraycopy(jpeg, 2, result, 2 + segment.length, jpeg.length - 2);
+        return result;
+    }
+
+    private static byte[] webpHeader(String chunk) {
+        byte[] webp = new byte[64];
+        System.arraycopy("RIFF".getBytes(StandardCharsets.US_ASCII), 0, webp, 0, 4);
+        System.arraycopy("WEBP".getBytes(StandardCharsets.US_ASCII), 0, webp, 8, 4);
+        System.arraycopy(chunk.getBytes(StandardCharsets.US_ASCII), 0, webp, 12, 4);
+        return webp;
+    }
+
+    private static void writeUint24le(byte[] b, int offset, int value) {
+        b[offset] = (byte) value;
+        b[offset + 1] = (byte) (value >> 8);
+        b[offset + 2] = (byte) (value >> 16);
+    }
+}
@@ -0,0 +1,106 @@
+package com.layerten.media;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ImageTranscoder.
+ */
+class ImageTranscoderTest {
+
+    private final ImageTranscoder transcoder = new ImageTranscoder(0.8f, 1_000_000);
+
+    @Test
+    void transcode_shouldReencodeOpaquePngAsSmallerJpeg() throws IOException {
+        byte[] png = photoLikePng(BufferedImage.TYPE_INT_RGB, 0xFF);
+
+        Optional<byte[]> jpeg = transcoder.transcode(new ByteArrayInputStream(png), ImageFormat.JPEG);
+
+        assertTrue(jpeg.isPresent());
+        assertEquals(Optional.of(ImageFormat.JPEG), ImageFormat.detect(jpeg.get(), jpeg.get().length));
+        assertTrue(jpeg.get().length < png.length);
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(jpeg.get()));
+        assertEquals(128, decoded.getWidth());
+        assertEquals(96, decoded.getHeight());
+    }
+
+    @Test
+    void transcode_shouldAcceptPngWithAlphaChannelThatIsFullyOpaque() throws IOException {
+        byte[] png = photoLikePng(BufferedImage.TYPE_INT_ARGB, 0xFF);
+
+        assertTrue(transcoder.transcode(new ByteArrayInputStream(png), ImageFormat.JPEG).isPresent());
+    }
+
+    @Test
+    void transcode_shouldRefuseTransparentPngAsJpeg() throws IOException {
+        byte[] png = photoLikePng(BufferedImage.TYPE_INT_ARGB, 0x80);
+
+        assertTrue(transcoder.transcode(new ByteArrayInputStream(png), ImageFormat.JPEG).isEmpty());
+    }
+
+    @Test
+    void transcode_shouldRefuseImagesAboveThePixelLimit() throws IOException {
+        ImageTranscoder small = new ImageTranscoder(0.8f, 100);
+        byte[] png = photoLikePng(BufferedImage.TYPE_INT_RGB, 0xFF);
+
+        assertTrue(small.transcode(new ByteArrayInputStream(png), ImageFormat.JPEG).isEmpty());
+    }
+
+    @Test
+    void transcode_shouldReturnEmptyForUndecodableInput() throws IOException {
+        byte[] garbage = "not an image".getBytes();
+
+        assertTrue(transcoder.transcode(new ByteArrayInputStream(garbage), ImageFormat.JPEG).isEmpty());
+    }
+
+    @Test
+    void transcode_shouldTurnImageUprightForExifOrientation() throws IOException {
+        // Red in the top-left corner of a blue landscape image
+        BufferedImage image = new BufferedImage(128, 96, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < 96; y++) {
+            for (int x = 0; x < 128; x++) {
+                image.setRGB(x, y, x < 32 && y < 32 ? 0xFF0000 : 0x0000FF);
+            }
+        }
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", png);
+
+        // Orientation 6: the stored pixels must be rotated 90 degrees clockwise
+        byte[] jpeg = transcoder.transcode(new ByteArrayInputStream(png.toByteArray()), ImageFormat.JPEG, 6).orElseThrow();
+
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(jpeg));
+        assertEquals(96, decoded.getWidth());
+        assertEquals(128, decoded.getHeight());
+        assertTrue((decoded.getRGB(80, 16) >> 16 & 0xFF) > 200, "red corner should now be top-right");
+        assertTrue((decoded.getRGB(16, 16) & 0xFF) > 200, "top-left should now be blue");
+    }
+
+    /**
+     * A noisy gradient, which PNG compresses poorly and JPEG compresses well,
+     * as with photographs.
+     */
+    private static byte[] photoLikePng(int type, int alpha) throws IOException {
+        BufferedImage image = new BufferedImage(128, 96, type);
+        Random random = new Random(42);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                int r = Math.min(255, x * 2 + random.nextInt(24));
+                int g = Math.min(255, y * 2 + random.nextInt(24));
+                int b = Math.min(255, (x + y) + random.nextInt(24));
+                image.setRGB(x, y, alpha << 24 | r << 16 | g << 8 | b);
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,262 @@
+package com.layerten.media;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Minimal in-process stand-in for the S3 REST API, used to test {@link S3MediaStorage}
+ * without network access. Supports path-style object PUT/GET (with Range)/HEAD/DELETE
+ * and multipart uploads for a single bucket. Request signatures are not verified.
+ */
+class InProcessS3Server implements AutoCloseable {
+
+    private final HttpServer server;
+    private final String bucket;
+    private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+    private final Map<String, Map<Integer, byte[]>> uploads = new ConcurrentHashMap<>();
+
+    InProcessS3Server(String bucket) throws IOException {
+        this.bucket = bucket;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.server.createContext("/", this::handle);
+        this.server.start();
+    }
+
+    URI endpoint() {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort());
+    }
+
+    Map<String, byte[]> objects() {
+        return objects;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            String bucketPrefix = "/" + bucket + "/";
+            if (path.equals("/" + bucket) || path.equals(bucketPrefix)) {
+                list(exchange, parseQuery(exchange.getRequestURI().getRawQuery()));
+                return;
+            }
+            if (!path.startsWith(bucketPrefix)) {
+                sendError(exchange, 404, "NoSuchBucket");
+                return;
+            }
+            String key = path.substring(bucketPrefix.length());
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+
+            switch (exchange.getRequestMethod()) {
+                case "PUT" -> {
+                    String copySource = exchange.getRequestHeaders().getFirst("x-amz-copy-source");
+                    if (copySource != null) {
+                        copy(exchange, key, copySource);
+                        return;
+                    }
+                    byte[] body = readBody(exchange);
+                    if (query.containsKey("uploadId")) {
+                        uploads.get(query.get("uploadId")).put(Integer.parseInt(query.get("partNumber")), body);
+                    } else {
+                        objects.put(key, body);
+                    }
+                    exchange.getResponseHeaders().set("ETag", etag(body));
+                    exchange.sendResponseHeaders(200, -1);
+                }
+                case "POST" -> {
+                    readBody(exchange);
+                    if (query.containsKey("uploads")) {
+                        String uploadId = UUID.randomUUID().toString();
+                        uploads.put(uploadId, new TreeMap<>());
+                        sendXml(exchange, "<InitiateMultipartUploadResult><Bucket>" + bucket + "</Bucket><Key>" + key
+                            + "</Key><UploadId>" + uploadId + "</UploadId></InitiateMultipartUploadResult>");
+                    } else {
+                        ByteArrayOutputStream assembled = new ByteArrayOutputStream();
+                        for (byte[] part : uploads.remove(query.get("uploadId")).values()) {
+                            assembled.write(part);
+                        }
+                        objects.put(key, assembled.toByteArray());
+                        sendXml(exchange, "<CompleteMultipartUploadResult><Bucket>" + bucket + "</Bucket><Key>" + key
+                            + "</Key><ETag>\"multipart\"</ETag></CompleteMultipartUploadResult>");
+                    }
+                }
+                case "GET", "HEAD" -> {
+                    byte[] object = objects.get(key);
+                    boolean head = exchange.getRequestMethod().equals("HEAD");
+                    if (object == null) {
+                        if (head) {
+                            exchange.sendResponseHeaders(404, -1);
+                        } else {
+                            sendError(exchange, 404, "NoSuchKey");
+                        }
+                        return;
+                    }
+                    exchange.getResponseHeaders().set("Last-Modified",
+                        DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC)));
+                    exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+                    if (head) {
+                        exchange.getResponseHeaders().set("ETag", etag(object));
+                        exchange.getResponseHeaders().set("Content-Length", String.valueOf(object.length));
+                        exchange.sendResponseHeaders(200, -1);
+                        return;
+                    }
+                    String range = exchange.getRequestHeaders().getFirst("Range");
+                    if (range != null) {
+                        String[] bounds = range.substring("bytes=".length()).split("-");
+                        int start = Integer.parseInt(bounds[0]);
+                        int end = Math.min(Integer.parseInt(bounds[1]), object.length - 1);
+                        byte[] slice = Arrays.copyOfRange(object, start, end + 1);
+                        exchange.getResponseHeaders().set("Content-Range",
+                            "bytes " + start + "-" + end + "/" + object.length);
+                        sendBody(exchange, 206, slice);
+                    } else {
+                        exchange.getResponseHeaders().set("ETag", etag(object));
+                        sendBody(exchange, 200, object);
+                    }
+                }
+                case "DELETE" -> {
+                    if (query.containsKey("uploadId")) {
+                        uploads.remove(query.get("uploadId"));
+                    } else {
+                        objects.remove(key);
+                    }
+                    exchange.sendResponseHeaders(204, -1);
+                }
+                default -> exchange.sendResponseHeaders(405, -1);
+            }
+        }
+    }
+
+    /**
+     * Server-side CopyObject within the bucket.
+     */
+    private void copy(HttpExchange exchange, String key, String copySource) throws IOException {
+        readBody(exchange);
+        String source = URLDecoder.decode(copySource, StandardCharsets.UTF_8);
+        source = source.substring(source.indexOf(bucket + "/") + bucket.length() + 1);
+        byte[] object = objects.get(source);
+        if (object == null) {
+            sendError(exchange, 404, "NoSuchKey");
+            return;
+        }
+        objects.put(key, object);
+        sendXml(exchange, "<CopyObjectResult><ETag>" + etag(object) + "</ETag><LastModified>"
+            + DateTimeFormatter.ISO_INSTANT.format(Instant.now()) + "</LastModified></CopyObjectResult>");
+    }
+
+    /**
+     * ListObjectsV2 over the whole bucket in a single page.
+     */
+    private void list(HttpExchange exchange, Map<String, String> query) throws IOException {
+        String prefix = URLDecoder.decode(query.getOrDefault("prefix", ""), StandardCharsets.UTF_8);
+        String lastModified = DateTimeFormatter.ISO_INSTANT.format(Instant.now());
+        StringBuilder xml = new StringBuilder("<ListBucketResult><Name>").append(bucket)
+            .append("</Name><Prefix>").append(prefix).append("</Prefix><IsTruncated>false</IsTruncated>");
+        new TreeMap<>(objects).forEach((key, content) -> {
+            if (key.startsWith(prefix)) {
+                xml.append("<Contents><Key>").append(key).append("</Key><LastModified>").append(lastModified)
+                    .append("</LastModified><Size>").append(content.length).append("</Size></Contents>");
+            }
+        });
+        sendXml(exchange, xml.append("</ListBucketResult>").toString());
+    }
+
+    /**
+     * Read a request body, decoding the aws-chunked framing the SDK uses for
+     * signed streaming uploads over plain HTTP.
+     */
+    private static byte[] readBody(HttpExchange exchange) throws IOException {
+        byte[] raw = exchange.getRequestBody().readAllBytes();
+        String sha = exchange.getRequestHeaders().getFirst("x-amz-content-sha256");
+        if (sha == null || !sha.startsWith("STREAMING-")) {
+            return raw;
+        }
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+        int pos = 0;
+        while (pos < raw.length) {
+            int lineEnd = indexOfCrlf(raw, pos);
+            String header = new String(raw, pos, lineEnd - pos, StandardCharsets.US_ASCII);
+            int size = Integer.parseInt(header.split(";")[0], 16);
+            if (size == 0) {
+                break;
+            }
+            decoded.write(raw, lineEnd + 2, size);
+            pos = lineEnd + 2 + size + 2;
+        }
+        return decoded.toByteArray();
+    }
+
+    private static int indexOfCrlf(byte[] data, int from) {
+        for (int i = from; i < data.length - 1; i++) {
+            if (data[i] == '\r' && data[i + 1] == '\n') {
+                return i;
+            }
+        }
+        return data.length;
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new TreeMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq < 0) {
+                query.put(pair, "");
+            } else {
+                query.put(pair.substring(0, eq), pair.substring(eq + 1));
+            }
+        }
+        return query;
+    }
+
+    private static void sendXml(HttpExchange exchange, String xml) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/xml");
+        sendBody(exchange, 200, xml.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String code) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/xml");
+        sendBody(exchange, status, ("<Error><Code>" + code + "</Code><Message>" + code + "</Message></Error>")
+            .getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void sendBody(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static String etag(byte[] data) {
+        try {
+            return "\"" + HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(data)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
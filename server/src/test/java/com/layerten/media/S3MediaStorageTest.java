@@ -0,0 +1,139 @@
+package com.layerten.media;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.NoSuchFileException;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for S3MediaStorage against an in-process S3 stand-in.
+ */
+class S3MediaStorageTest {
+
+    private InProcessS3Server server;
+    private S3Client s3;
+    private S3MediaStorage storage;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new InProcessS3Server("media");
+        s3 = S3Client.builder()
+            .endpointOverride(server.endpoint())
+            .region(Region.US_EAST_1)
+            .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("test", "test")))
+            .httpClientBuilder(UrlConnectionHttpClient.builder())
+            .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build())
+            .build();
+        storage = new S3MediaStorage(s3, "media", "uploads/");
+    }
+
+    @AfterEach
+    void tearDown() {
+        s3.close();
+        server.close();
+    }
+
+    @Test
+    void put_shouldStoreObjectUnderPrefixAndReadItBack() throws IOException {
+        byte[] content = "hello media".getBytes();
+
+        storage.put("a.png", new ByteArrayInputStream(content), content.length, "image/png");
+
+        assertArrayEquals(content, server.objects().get("uploads/a.png"));
+        try (InputStream in = storage.get("a.png")) {
+            assertArrayEquals(content, in.readAllBytes());
+        }
+    }
+
+    @Test
+    void getRange_shouldReturnRequestedBytesOnly() throws IOException {
+        byte[] content = "0123456789".getBytes();
+        storage.put("range.jpg", new ByteArrayInputStream(content), content.length, "image/jpeg");
+
+        try (InputStream in = storage.getRange("range.jpg", 2, 4)) {
+            assertEquals("2345", new String(in.readAllBytes()));
+        }
+    }
+
+    @Test
+    void stat_shouldReportSizeOrEmptyWhenMissing() throws IOException {
+        byte[] content = new byte[123];
+        storage.put("stat.gif", new ByteArrayInputStream(content), content.length, "image/gif");
+
+        assertEquals(123, storage.stat("stat.gif").orElseThrow().size());
+        assertTrue(storage.stat("missing.gif").isEmpty());
+    }
+
+    @Test
+    void get_shouldThrowNoSuchFileForMissingObject() {
+        assertThrows(NoSuchFileException.class, () -> storage.get("missing.png"));
+    }
+
+    @Test
+    void delete_shouldRemoveObjectAndReportWhetherItExisted() throws IOException {
+        storage.put("gone.png", new ByteArrayInputStream(new byte[] {1}), 1, "image/png");
+
+        assertTrue(storage.delete("gone.png"));
+        assertFalse(storage.delete("gone.png"));
+        assertTrue(server.objects().isEmpty());
+    }
+
+    @Test
+    void move_shouldCopyObjectToNewKeyAndRemoveSource() throws IOException {
+        storage.put("flat.png", new ByteArrayInputStream(new byte[] {9, 8}), 2, "image/png");
+
+        storage.move("flat.png", "ab/cd/flat.png");
+
+        assertArrayEquals(new byte[] {9, 8}, server.objects().get("uploads/ab/cd/flat.png"));
+        assertFalse(server.objects().containsKey("uploads/flat.png"));
+        assertThrows(NoSuchFileException.class, () -> storage.move("flat.png", "ab/cd/flat.png"));
+    }
+
+    @Test
+    void list_shouldReturnKeysWithinPrefixOnly() throws IOException {
+        storage.put("a.png", new ByteArrayInputStream(new byte[] {1, 2}), 2, "image/png");
+        storage.put("b/c.jpg", new ByteArrayInputStream(new byte[] {3}), 1, "image/jpeg");
+        server.objects().put("elsewhere/d.png", new byte[] {4});
+
+        try (Stream<StoredObject> objects = storage.list()) {
+            assertEquals(
+                List.of("a.png:2", "b/c.jpg:1"),
+                objects.map(object -> object.key() + ":" + object.size()).sorted().toList());
+        }
+    }
+
+    @Test
+    void put_shouldPassOnRejectionRaisedByContentStream() {
+        byte[] oversized = new byte[64];
+        oversized[0] = (byte) 0x89;
+
+        assertThrows(UploadRejectedException.class, () -> storage.put(
+            "rejected.png", new InspectingUploadStream(new ByteArrayInputStream(oversized), 16), 64, "image/png"));
+        assertFalse(server.objects().containsKey("uploads/rejected.png"));
+    }
+
+    @Test
+    void put_shouldUseMultipartUploadForLargeStreamOfUnknownLength() throws IOException {
+        byte[] content = new byte[S3MediaStorage.MULTIPART_PART_SIZE + 1024];
+        new Random(42).nextBytes(content);
+
+        storage.put("big.jpg", new ByteArrayInputStream(content), -1, "image/jpeg");
+
+        assertArrayEquals(content, server.objects().get("uploads/big.jpg"));
+    }
+}
@@ -0,0 +1,62 @@
+package com.layerten.repository;
+
+import com.layerten.entity.RankedEntry;
+import com.layerten.entity.RankedList;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that pooled sequence ids let Hibernate batch inserts.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.flyway.enabled=false"
+})
+class InsertBatchingTest {
+
+    @Autowired
+    private RankedListRepository rankedListRepository;
+
+    @Autowired
+    private RankedEntryRepository rankedEntryRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void save_shouldInsertListWithHundredEntriesInAHandfulOfStatements() {
+        // Arrange
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        RankedList list = new RankedList("Top 100", null, "top-100", "Intro", null);
+        for (int rank = 1; rank <= 100; rank++) {
+            list.addEntry(new RankedEntry(rank, "Entry " + rank, null, null, null, null));
+        }
+        statistics.clear();
+
+        // Act
+        Long id = new TransactionTemplate(transactionManager).execute(status -> rankedListRepository.save(list).getId());
+
+        // Assert - sequence calls plus one insert for the list and two batches of entries
+        assertEquals(101, statistics.getEntityInsertCount());
+        assertTrue(statistics.getPrepareStatementCount() <= 8,
+            "prepared " + statistics.getPrepareStatementCount() + " statements");
+        assertEquals(100, rankedEntryRepository.findByRankedListIdOrderByRankDesc(id).size());
+    }
+}
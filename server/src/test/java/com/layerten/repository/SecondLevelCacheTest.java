@@ -0,0 +1,181 @@
+package com.layerten.repository;
+
+import com.layerten.entity.MediaAsset;
+import com.layerten.entity.RankedList;
+import com.layerten.entity.Tag;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the second-level cache of Tag, MediaAsset and the tag collections.
+ * Each step runs in its own transaction, so reads only share the second-level cache.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.flyway.enabled=false"
+})
+class SecondLevelCacheTest {
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private MediaAssetRepository mediaAssetRepository;
+
+    @Autowired
+    private RankedListRepository rankedListRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate tx;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        tx = new TransactionTemplate(transactionManager);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        rankedListRepository.deleteAll();
+        tagRepository.deleteAll();
+        mediaAssetRepository.deleteAll();
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+    }
+
+    @Test
+    void findById_shouldReadTagFromCacheWithoutLoadingIt() {
+        // Arrange - the first read loads the tag and caches it
+        Long id = tagRepository.save(new Tag("Movies", "movies")).getId();
+        tagRepository.findById(id).orElseThrow();
+        statistics.clear();
+
+        // Act
+        Tag first = tagRepository.findById(id).orElseThrow();
+        Tag second = tagRepository.findById(id).orElseThrow();
+
+        // Assert
+        assertEquals("Movies", first.getName());
+        assertEquals("Movies", second.getName());
+        assertEquals(2, statistics.getDomainDataRegionStatistics(Tag.class.getName()).getHitCount());
+        assertEquals(0, statistics.getEntityStatistics(Tag.class.getName()).getLoadCount());
+    }
+
+    @Test
+    void save_shouldReplaceCachedTagOnUpdate() {
+        // Arrange
+        Long id = tagRepository.save(new Tag("Movies", "movies")).getId();
+        tagRepository.findById(id).orElseThrow();
+
+        // Act
+        tx.executeWithoutResult(status -> tagRepository.findById(id).orElseThrow().setName("Films"));
+
+        // Assert
+        assertEquals("Films", tagRepository.findById(id).orElseThrow().getName());
+    }
+
+    @Test
+    void delete_shouldInvalidateCachedTag() {
+        // Arrange
+        Long id = tagRepository.save(new Tag("Movies", "movies")).getId();
+        tagRepository.findById(id).orElseThrow();
+
+        // Act
+        tagRepository.deleteById(id);
+        statistics.clear();
+
+        // Assert - the read goes to the database rather than the cache
+        assertTrue(tagRepository.findById(id).isEmpty());
+        assertEquals(0, statistics.getDomainDataRegionStatistics(Tag.class.getName()).getHitCount());
+    }
+
+    @Test
+    void entityUpdate_shouldReplaceOnlyThatCachedMediaAsset() {
+        // Arrange - both assets are cached
+        Long id = mediaAssetRepository.save(new MediaAsset("a.jpg", "image/jpeg", 10L, null, "a.jpg")).getId();
+        Long otherId = mediaAssetRepository.save(new MediaAsset("b.jpg", "image/jpeg", 10L, null, "b.jpg")).getId();
+        mediaAssetRepository.findById(id).orElseThrow();
+        mediaAssetRepository.findById(otherId).orElseThrow();
+
+        // Act - the way MediaService stores a placeholder
+        tx.executeWithoutResult(status ->
+            mediaAssetRepository.findById(id).orElseThrow().setPlaceholder("LKO2?U%2Tw=w]~RBVZRi};RPxuwH"));
+        statistics.clear();
+
+        // Assert - the other asset is still served from the cache, unlike after a bulk update
+        assertEquals("LKO2?U%2Tw=w]~RBVZRi};RPxuwH", mediaAssetRepository.findById(id).orElseThrow().getPlaceholder());
+        assertNull(mediaAssetRepository.findById(otherId).orElseThrow().getPlaceholder());
+        assertEquals(2, statistics.getDomainDataRegionStatistics(MediaAsset.class.getName()).getHitCount());
+        assertEquals(0, statistics.getEntityStatistics(MediaAsset.class.getName()).getLoadCount());
+    }
+
+    @Test
+    void entityDelete_shouldEvictOnlyThatCachedMediaAsset() {
+        // Arrange - both assets are cached
+        Long id = mediaAssetRepository.save(new MediaAsset("a.jpg", "image/jpeg", 10L, null, "a.jpg")).getId();
+        Long otherId = mediaAssetRepository.save(new MediaAsset("b.jpg", "image/jpeg", 10L, null, "b.jpg")).getId();
+        mediaAssetRepository.findById(id).orElseThrow();
+        mediaAssetRepository.findById(otherId).orElseThrow();
+
+        // Act - the way MediaService deletes an orphan
+        tx.executeWithoutResult(status -> {
+            MediaAsset asset = mediaAssetRepository.findByIdForUpdate(id).orElseThrow();
+            assertTrue(mediaAssetRepository.isUnreferenced(id));
+            mediaAssetRepository.delete(asset);
+        });
+        statistics.clear();
+
+        // Assert
+        assertTrue(mediaAssetRepository.findById(id).isEmpty());
+        assertNotNull(mediaAssetRepository.findById(otherId).orElseThrow());
+        assertEquals(1, statistics.getDomainDataRegionStatistics(MediaAsset.class.getName()).getHitCount());
+    }
+
+    @Test
+    void tags_shouldBeReadFromCollectionCacheAndInvalidatedWhenChanged() {
+        // Arrange
+        Tag movies = tagRepository.save(new Tag("Movies", "movies"));
+        Tag books = tagRepository.save(new Tag("Books", "books"));
+        RankedList list = new RankedList("Top Films", null, "top-films", "Intro", null);
+        list.addTag(movies);
+        Long id = rankedListRepository.save(list).getId();
+        String role = RankedList.class.getName() + ".tags";
+        tx.executeWithoutResult(status -> rankedListRepository.findById(id).orElseThrow().getTags().size());
+        statistics.clear();
+
+        // Act
+        Set<String> cached = tx.execute(status -> names(rankedListRepository.findById(id).orElseThrow()));
+        long hits = statistics.getCollectionStatistics(role).getCacheHitCount();
+        tx.executeWithoutResult(status -> rankedListRepository.findById(id).orElseThrow().addTag(books));
+        Set<String> updated = tx.execute(status -> names(rankedListRepository.findById(id).orElseThrow()));
+
+        // Assert
+        assertEquals(Set.of("Movies"), cached);
+        assertEquals(1, hits);
+        assertEquals(Set.of("Movies", "Books"), updated);
+    }
+
+    private static Set<String> names(RankedList list) {
+        return list.getTags().stream().map(Tag::getName).collect(Collectors.toSet());
+    }
+}
@@ -5,6 +5,7 @@ import com.layerten.entity.BlogPost;
 import com.layerten.entity.MediaAsset;
 import com.layerten.entity.PostStatus;
 import com.layerten.entity.Tag;
+import com.layerten.exception.StaleVersionException;
 import com.layerten.repository.BlogPostRepository;
 import com.layerten.repository.MediaAssetRepository;
 import com.layerten.repository.TagRepository;
@@ -12,6 +13,7 @@ import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -19,6 +21,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -45,6 +48,9 @@ class BlogPostServiceTest {
     @Mock
     private SlugService slugService;
     
+    @Mock
+    private TagUsageCounter tagUsageCounter;
+    
     @InjectMocks
     private BlogPostService blogPostService;
     
@@ -92,7 +98,10 @@ class BlogPostServiceTest {
         assertNotNull(result);
         assertEquals("Test Post", result.title());
         assertEquals("test-post", result.slug());
-        verify(blogPostRepository).save(any(BlogPost.class));
+        ArgumentCaptor<BlogPost> saved = ArgumentCaptor.forClass(BlogPost.class);
+        verify(blogPostRepository).save(saved.capture());
+        assertArrayEquals(new String[] {"technology"}, saved.getValue().getTagSlugs());
+        verify(tagUsageCounter).updatePost(1L, true, List.of(1L));
     }
     
     @Test
@@ -204,14 +213,14 @@ class BlogPostServiceTest {
         when(blogPostRepository.findById(1L)).thenReturn(Optional.of(testPost));
         when(slugService.generateSlug("Updated Title")).thenReturn("updated-title");
         when(slugService.ensureUniqueSlugExcluding("updated-title", BlogPost.class, 1L)).thenReturn("updated-title");
-        when(blogPostRepository.save(any(BlogPost.class))).thenReturn(testPost);
+        when(blogPostRepository.saveAndFlush(any(BlogPost.class))).thenReturn(testPost);
         
         // Act
-        BlogPostDetailDTO result = blogPostService.updatePost(1L, request);
+        BlogPostDetailDTO result = blogPostService.updatePost(1L, request, null);
         
         // Assert
         assertNotNull(result);
-        verify(blogPostRepository).save(any(BlogPost.class));
+        verify(blogPostRepository).saveAndFlush(any(BlogPost.class));
     }
     
     @Test
@@ -230,18 +239,32 @@ class BlogPostServiceTest {
         );
         
         when(blogPostRepository.findById(1L)).thenReturn(Optional.of(draftPost));
-        when(blogPostRepository.save(any(BlogPost.class))).thenReturn(draftPost);
+        when(blogPostRepository.saveAndFlush(any(BlogPost.class))).thenReturn(draftPost);
         
         // Act
-        BlogPostDetailDTO result = blogPostService.updatePost(1L, request);
+        BlogPostDetailDTO result = blogPostService.updatePost(1L, request, null);
         
         // Assert
         assertNotNull(result);
-        verify(blogPostRepository).save(argThat(post -> 
+        verify(blogPostRepository).saveAndFlush(argThat(post -> 
             post.getStatus() == PostStatus.PUBLISHED && post.getPublishedAt() != null
         ));
     }
     
+    @Test
+    void updatePost_shouldRejectEditBasedOnStaleVersion() {
+        // Arrange
+        testPost.setVersion(4L);
+        UpdatePostRequest request = new UpdatePostRequest("Updated Title", null, null, null, null, null);
+        
+        when(blogPostRepository.findById(1L)).thenReturn(Optional.of(testPost));
+        
+        // Act & Assert
+        assertThrows(StaleVersionException.class, () -> blogPostService.updatePost(1L, request, 3L));
+        assertEquals("Test Post", testPost.getTitle());
+        verify(blogPostRepository, never()).saveAndFlush(any());
+    }
+    
     @Test
     void updatePost_shouldThrowExceptionWhenPostNotFound() {
         // Arrange
@@ -257,7 +280,7 @@ class BlogPostServiceTest {
         when(blogPostRepository.findById(999L)).thenReturn(Optional.empty());
         
         // Act & Assert
-        assertThrows(EntityNotFoundException.class, () -> blogPostService.updatePost(999L, request));
+        assertThrows(EntityNotFoundException.class, () -> blogPostService.updatePost(999L, request, null));
     }
     
     @Test
@@ -270,6 +293,7 @@ class BlogPostServiceTest {
         
         // Assert
         verify(blogPostRepository).deleteById(1L);
+        verify(tagUsageCounter).removePost(1L);
     }
     
     @Test
@@ -281,6 +305,47 @@ class BlogPostServiceTest {
         assertThrows(EntityNotFoundException.class, () -> blogPostService.deletePost(999L));
     }
     
+    @Test
+    void refreshTaggedPosts_shouldRewriteTagSlugsAfterRename() {
+        // Arrange
+        testTag.setSlug("tech");
+        when(blogPostRepository.findByTagsId(1L)).thenReturn(List.of(testPost));
+        
+        // Act
+        blogPostService.refreshTaggedPosts(1L);
+        
+        // Assert
+        assertArrayEquals(new String[] {"tech"}, testPost.getTagSlugs());
+    }
+    
+    @Test
+    void removeTagFromPosts_shouldUntagPostsAndUncountThem() {
+        // Arrange
+        when(blogPostRepository.findByTagsId(1L)).thenReturn(List.of(testPost));
+        
+        // Act
+        blogPostService.removeTagFromPosts(testTag);
+        
+        // Assert
+        assertTrue(testPost.getTags().isEmpty());
+        assertArrayEquals(new String[0], testPost.getTagSlugs());
+        verify(tagUsageCounter).updatePost(1L, true, List.of());
+    }
+    
+    @Test
+    void getPostById_shouldReturnPostWithItsVersion() {
+        // Arrange
+        testPost.setVersion(4L);
+        when(blogPostRepository.findById(1L)).thenReturn(Optional.of(testPost));
+        
+        // Act
+        BlogPostDetailDTO result = blogPostService.getPostById(1L);
+        
+        // Assert
+        assertEquals("test-post", result.slug());
+        assertEquals(4L, result.version());
+    }
+    
     @Test
     void getPostBySlug_shouldReturnPost() {
         // Arrange
@@ -313,7 +378,7 @@ class BlogPostServiceTest {
         when(blogPostRepository.findByStatus(PostStatus.PUBLISHED, pageable)).thenReturn(page);
         
         // Act
-        Page<BlogPostSummaryDTO> result = blogPostService.searchPosts(null, null, PostStatus.PUBLISHED, pageable);
+        Page<BlogPostSummaryDTO> result = blogPostService.searchPosts(null, null, TagMatch.ALL, PostStatus.PUBLISHED, pageable);
         
         // Assert
         assertNotNull(result);
@@ -330,7 +395,7 @@ class BlogPostServiceTest {
         when(blogPostRepository.findAll(pageable)).thenReturn(page);
         
         // Act
-        Page<BlogPostSummaryDTO> result = blogPostService.searchPosts(null, null, null, pageable);
+        Page<BlogPostSummaryDTO> result = blogPostService.searchPosts(null, null, TagMatch.ALL, null, pageable);
         
         // Assert
         assertNotNull(result);
@@ -348,7 +413,7 @@ class BlogPostServiceTest {
             .thenReturn(page);
         
         // Act
-        Page<BlogPostSummaryDTO> result = blogPostService.searchPosts("test", null, null, pageable);
+        Page<BlogPostSummaryDTO> result = blogPostService.searchPosts("test", null, TagMatch.ALL, null, pageable);
         
         // Assert
         assertNotNull(result);
@@ -357,39 +422,39 @@ class BlogPostServiceTest {
     }
     
     @Test
+    @SuppressWarnings("unchecked")
     void searchPosts_shouldFilterByTagWithoutStatus() {
         // Arrange
         Pageable pageable = PageRequest.of(0, 10);
         Page<BlogPost> page = new PageImpl<>(Collections.singletonList(testPost));
         
-        when(blogPostRepository.findByTagName("Technology", pageable))
-            .thenReturn(page);
+        when(blogPostRepository.findAll(any(Specification.class), eq(pageable))).thenReturn(page);
         
         // Act
-        Page<BlogPostSummaryDTO> result = blogPostService.searchPosts(null, "Technology", null, pageable);
+        Page<BlogPostSummaryDTO> result = blogPostService.searchPosts(null, List.of("technology"), TagMatch.ALL, null, pageable);
         
         // Assert
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
-        verify(blogPostRepository).findByTagName("Technology", pageable);
+        verify(blogPostRepository).findAll(any(Specification.class), eq(pageable));
     }
     
     @Test
+    @SuppressWarnings("unchecked")
     void searchPosts_shouldFilterByBothSearchAndTagWithoutStatus() {
         // Arrange
         Pageable pageable = PageRequest.of(0, 10);
         Page<BlogPost> page = new PageImpl<>(Collections.singletonList(testPost));
         
-        when(blogPostRepository.findByTagNameAndTitleOrExcerptContaining("Technology", "test", pageable))
-            .thenReturn(page);
+        when(blogPostRepository.findAll(any(Specification.class), eq(pageable))).thenReturn(page);
         
         // Act
-        Page<BlogPostSummaryDTO> result = blogPostService.searchPosts("test", "Technology", null, pageable);
+        Page<BlogPostSummaryDTO> result = blogPostService.searchPosts("test", List.of("technology"), TagMatch.ALL, null, pageable);
         
         // Assert
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
-        verify(blogPostRepository).findByTagNameAndTitleOrExcerptContaining("Technology", "test", pageable);
+        verify(blogPostRepository).findAll(any(Specification.class), eq(pageable));
     }
     
     @Test
@@ -402,7 +467,7 @@ class BlogPostServiceTest {
             .thenReturn(page);
         
         // Act
-        Page<BlogPostSummaryDTO> result = blogPostService.searchPosts("test", null, PostStatus.PUBLISHED, pageable);
+        Page<BlogPostSummaryDTO> result = blogPostService.searchPosts("test", null, TagMatch.ALL, PostStatus.PUBLISHED, pageable);
         
         // Assert
         assertNotNull(result);
@@ -411,39 +476,41 @@ class BlogPostServiceTest {
     }
     
     @Test
+    @SuppressWarnings("unchecked")
     void searchPosts_shouldFilterByTag() {
         // Arrange
         Pageable pageable = PageRequest.of(0, 10);
         Page<BlogPost> page = new PageImpl<>(Collections.singletonList(testPost));
         
-        when(blogPostRepository.findByStatusAndTagName("Technology", PostStatus.PUBLISHED, pageable))
-            .thenReturn(page);
+        when(blogPostRepository.findAll(any(Specification.class), eq(pageable))).thenReturn(page);
         
         // Act
-        Page<BlogPostSummaryDTO> result = blogPostService.searchPosts(null, "Technology", PostStatus.PUBLISHED, pageable);
+        Page<BlogPostSummaryDTO> result = blogPostService.searchPosts(null, List.of("technology", "java"), TagMatch.ANY, PostStatus.PUBLISHED, pageable);
         
         // Assert
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
-        verify(blogPostRepository).findByStatusAndTagName("Technology", PostStatus.PUBLISHED, pageable);
+        verify(blogPostRepository).findAll(any(Specification.class), eq(pageable));
+        verify(blogPostRepository, never()).findByStatus(any(), any());
     }
     
     @Test
+    @SuppressWarnings("unchecked")
     void searchPosts_shouldFilterByBothSearchAndTag() {
         // Arrange
         Pageable pageable = PageRequest.of(0, 10);
         Page<BlogPost> page = new PageImpl<>(Collections.singletonList(testPost));
         
-        when(blogPostRepository.findByStatusAndTagNameAndTitleOrExcerptContaining("Technology", "test", PostStatus.PUBLISHED, pageable))
-            .thenReturn(page);
+        when(blogPostRepository.findAll(any(Specification.class), eq(pageable))).thenReturn(page);
         
         // Act
-        Page<BlogPostSummaryDTO> result = blogPostService.searchPosts("test", "Technology", PostStatus.PUBLISHED, pageable);
+        Page<BlogPostSummaryDTO> result = blogPostService.searchPosts("test", List.of("technology"), TagMatch.ALL, PostStatus.PUBLISHED, pageable);
         
         // Assert
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
-        verify(blogPostRepository).findByStatusAndTagNameAndTitleOrExcerptContaining("Technology", "test", PostStatus.PUBLISHED, pageable);
+        verify(blogPostRepository).findAll(any(Specification.class), eq(pageable));
+        verify(blogPostRepository, never()).findByStatusAndTitleOrExcerptContaining(any(), any(), any());
     }
     
     @Test
@@ -463,6 +530,7 @@ class BlogPostServiceTest {
         verify(blogPostRepository).save(argThat(post -> 
             post.getStatus() == PostStatus.PUBLISHED && post.getPublishedAt() != null
         ));
+        verify(tagUsageCounter).updatePost(1L, true, List.of());
     }
     
     @Test
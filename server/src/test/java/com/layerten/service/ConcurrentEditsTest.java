@@ -0,0 +1,64 @@
+package com.layerten.service;
+
+import com.layerten.exception.StaleVersionException;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ConcurrentEdits.
+ */
+class ConcurrentEditsTest {
+
+    private final ConcurrentEdits concurrentEdits = new ConcurrentEdits(3);
+
+    @Test
+    void apply_shouldRetryUnconditionalEditThatLostARace() {
+        // Arrange
+        AtomicInteger attempts = new AtomicInteger();
+
+        // Act
+        String result = concurrentEdits.apply(null, version -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException("RankedList", 1L);
+            }
+            return "saved";
+        });
+
+        // Assert
+        assertEquals("saved", result);
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    void apply_shouldReportConflictOnceAttemptsRunOut() {
+        // Arrange
+        AtomicInteger attempts = new AtomicInteger();
+
+        // Act & Assert
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> concurrentEdits.apply(null, version -> {
+            attempts.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException("RankedList", 1L);
+        }));
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    void run_shouldReportEditBasedOnAVersionAsStaleWithoutRetrying() {
+        // Arrange
+        List<Long> versions = new ArrayList<>();
+
+        // Act & Assert - the version matched, but another edit committed before this one flushed
+        StaleVersionException stale = assertThrows(StaleVersionException.class, () -> concurrentEdits.run(4L, version -> {
+            versions.add(version);
+            throw new ObjectOptimisticLockingFailureException("RankedList", 1L);
+        }));
+        assertInstanceOf(ObjectOptimisticLockingFailureException.class, stale.getCause());
+        assertEquals(List.of(4L), versions);
+    }
+}
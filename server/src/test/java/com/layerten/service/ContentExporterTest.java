@@ -0,0 +1,131 @@
+package com.layerten.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.layerten.entity.MediaAsset;
+import com.layerten.entity.RankedEntry;
+import com.layerten.entity.RankedList;
+import com.layerten.entity.Tag;
+import com.layerten.repository.BlogPostRepository;
+import com.layerten.repository.RankedEntryRepository;
+import com.layerten.repository.RankedListRepository;
+import com.layerten.repository.SuggestionRepository;
+import com.layerten.repository.TagRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ContentExporter.
+ */
+@ExtendWith(MockitoExtension.class)
+class ContentExporterTest {
+
+    @Mock
+    private RankedListRepository rankedListRepository;
+
+    @Mock
+    private RankedEntryRepository rankedEntryRepository;
+
+    @Mock
+    private BlogPostRepository blogPostRepository;
+
+    @Mock
+    private TagRepository tagRepository;
+
+    @Mock
+    private SuggestionRepository suggestionRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private ContentExporter exporter;
+
+    @BeforeEach
+    void setUp() {
+        exporter = new ContentExporter(rankedListRepository, rankedEntryRepository, blogPostRepository,
+            tagRepository, suggestionRepository, entityManager, objectMapper);
+    }
+
+    @Test
+    void export_shouldWriteListsAsLinesReferencingRelatedRowsById() throws IOException {
+        // Arrange
+        RankedList list = new RankedList("Top Films", null, "top-films", "Intro", null);
+        list.setId(3L);
+        MediaAsset cover = new MediaAsset("a.jpg", "image/jpeg", 10L, null, "a.jpg");
+        cover.setId(5L);
+        list.setCoverImage(cover);
+        list.addTag(tag(9L));
+        list.addTag(tag(2L));
+        when(rankedListRepository.streamByIdAfter(2L)).thenReturn(Stream.of(list));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        long count = exporter.export(ContentExporter.Type.LISTS, 2L, out);
+
+        // Assert
+        String ndjson = out.toString(StandardCharsets.UTF_8);
+        assertEquals(1, count);
+        assertTrue(ndjson.endsWith("}\n"));
+        JsonNode row = objectMapper.readTree(ndjson);
+        assertEquals(3, row.get("id").asLong());
+        assertEquals("top-films", row.get("slug").asText());
+        assertEquals(5, row.get("coverImageId").asLong());
+        assertEquals("[2,9]", row.get("tagIds").toString());
+    }
+
+    @Test
+    void export_shouldClearPersistenceContextEveryBatchAndCloseStream() throws IOException {
+        // Arrange
+        RankedList list = new RankedList("Top Films", null, "top-films", "Intro", null);
+        list.setId(1L);
+        AtomicBoolean closed = new AtomicBoolean();
+        Stream<RankedEntry> entries = IntStream.rangeClosed(1, 1200)
+            .mapToObj(id -> {
+                RankedEntry entry = new RankedEntry(1, "Entry", null, null, null, null);
+                entry.setId((long) id);
+                entry.setRankedList(list);
+                return entry;
+            })
+            .onClose(() -> closed.set(true));
+        when(rankedEntryRepository.streamByIdAfter(0L)).thenReturn(entries);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        long count = exporter.export(ContentExporter.Type.ENTRIES, 0L, out);
+
+        // Assert
+        assertEquals(1200, count);
+        assertEquals(1200, out.toString(StandardCharsets.UTF_8).lines().count());
+        verify(entityManager, times(2)).clear();
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void typeOf_shouldRejectUnknownType() {
+        // Act & Assert
+        assertEquals(ContentExporter.Type.POSTS, ContentExporter.Type.of("posts"));
+        assertThrows(IllegalArgumentException.class, () -> ContentExporter.Type.of("media"));
+    }
+
+    private static Tag tag(Long id) {
+        Tag tag = new Tag("Tag " + id, "tag-" + id);
+        tag.setId(id);
+        return tag;
+    }
+}
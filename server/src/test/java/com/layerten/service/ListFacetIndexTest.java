@@ -0,0 +1,126 @@
+package com.layerten.service;
+
+import com.layerten.dto.TagMatch;
+import com.layerten.repository.RankedListCardRepository;
+import com.layerten.repository.RankedListCardRepository.PublishedTagSlugs;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ListFacetIndex.
+ */
+@ExtendWith(MockitoExtension.class)
+class ListFacetIndexTest {
+
+    @Mock
+    private RankedListCardRepository rankedListCardRepository;
+
+    private ListFacetIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ListFacetIndex(rankedListCardRepository);
+        when(rankedListCardRepository.findPublishedTagSlugs()).thenReturn(List.of(
+            list(1L, "horror", "movies"),
+            list(2L, "movies"),
+            list(130L, "books")));
+        index.rebuild();
+    }
+
+    @Test
+    void facets_shouldCountTagsUnderFilter() {
+        // Act
+        ListFacetIndex.Facets all = index.facets(List.of(), TagMatch.ALL);
+        ListFacetIndex.Facets both = index.facets(List.of("movies", "horror"), TagMatch.ALL);
+        ListFacetIndex.Facets either = index.facets(List.of("horror", "books"), TagMatch.ANY);
+        ListFacetIndex.Facets unknown = index.facets(List.of("movies", "opera"), TagMatch.ALL);
+
+        // Assert
+        assertEquals(new ListFacetIndex.Facets(3, Map.of("movies", 2L, "horror", 1L, "books", 1L)), all);
+        assertEquals(new ListFacetIndex.Facets(1, Map.of("movies", 1L, "horror", 1L)), both);
+        assertEquals(new ListFacetIndex.Facets(2, Map.of("movies", 1L, "horror", 1L, "books", 1L)), either);
+        assertEquals(new ListFacetIndex.Facets(0, Map.of()), unknown);
+    }
+
+    @Test
+    void update_shouldMoveListBetweenTagsAndDropUnpublished() {
+        // Act
+        index.update(2L, true, new String[] {"books"});
+        index.update(130L, false, new String[] {"books"});
+        index.remove(1L);
+
+        // Assert
+        assertEquals(new ListFacetIndex.Facets(1, Map.of("books", 1L)), index.facets(List.of(), TagMatch.ALL));
+    }
+
+    @Test
+    void update_shouldIndexListsWhateverTheirIds() {
+        // Act
+        index.update(5_000_000_000L, true, new String[] {"movies"});
+        index.update(5_000_000_050L, true, new String[] {"books"});
+        index.remove(5_000_000_000L);
+        index.remove(9_000_000_000L);
+
+        // Assert
+        assertEquals(new ListFacetIndex.Facets(4, Map.of("movies", 2L, "horror", 1L, "books", 2L)),
+            index.facets(List.of(), TagMatch.ALL));
+    }
+
+    @Test
+    void update_shouldApplyOnlyAfterCommit() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act
+            index.update(500L, true, new String[] {"movies"});
+            long beforeCommit = index.facets(List.of("movies"), TagMatch.ALL).total();
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+            // Assert
+            assertEquals(2, beforeCommit);
+            assertEquals(3, index.facets(List.of("movies"), TagMatch.ALL).total());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void rebuild_shouldKeepWritesMadeWhileLoading() {
+        // Arrange: a list is published after the load has read the cards
+        when(rankedListCardRepository.findPublishedTagSlugs()).thenAnswer(invocation -> {
+            index.update(7L, true, new String[] {"books"});
+            return List.of(list(1L, "horror"));
+        });
+
+        // Act
+        index.rebuild();
+
+        // Assert
+        assertEquals(new ListFacetIndex.Facets(2, Map.of("horror", 1L, "books", 1L)), index.facets(List.of(), TagMatch.ALL));
+    }
+
+    private static PublishedTagSlugs list(Long id, String... tagSlugs) {
+        return new PublishedTagSlugs() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String[] getTagSlugs() {
+                return tagSlugs;
+            }
+        };
+    }
+}
@@ -0,0 +1,114 @@
+package com.layerten.service;
+
+import com.layerten.dto.MediaUploadResultDTO;
+import com.layerten.entity.MediaAsset;
+import com.layerten.media.LocalMediaStorage;
+import com.layerten.repository.MediaAssetRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for MediaBatchUploader.
+ */
+@ExtendWith(MockitoExtension.class)
+class MediaBatchUploaderTest {
+
+    // PNG signature followed by an IHDR chunk for a 3x2 image
+    private static final byte[] PNG = {
+        (byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 0, 0, 0, 0x0D,
+        'I', 'H', 'D', 'R', 0, 0, 0, 3, 0, 0, 0, 2
+    };
+
+    @Mock
+    private MediaAssetRepository mediaAssetRepository;
+
+    @TempDir
+    Path mediaRoot;
+
+    private MediaBatchUploader uploader;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        LocalMediaStorage storage = new LocalMediaStorage(mediaRoot);
+        MediaService mediaService = new MediaService(
+            mediaAssetRepository, storage, new MediaVariantService(storage, true, 0.8f, 1_000_000, 1),
+            new MediaUploadOptimizer(storage, false, DataSize.ofKilobytes(512), 0.85f, 1_000_000), DataSize.ofKilobytes(1));
+        uploader = new MediaBatchUploader(mediaService, mediaAssetRepository, 3, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        uploader.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void upload_shouldSaveValidFilesTogetherAndReportInvalidOnes() throws IOException {
+        // Arrange
+        List<MultipartFile> files = List.of(
+            new MockMultipartFile("files", "a.png", "image/png", PNG),
+            new MockMultipartFile("files", "notes.png", "image/png", "plain text".getBytes()),
+            new MockMultipartFile("files", "b.png", "image/png", PNG));
+        ArgumentCaptor<List<MediaAsset>> saved = ArgumentCaptor.forClass(List.class);
+
+        // Act
+        List<MediaUploadResultDTO> results = uploader.upload(files, false);
+
+        // Assert
+        assertEquals(List.of("a.png", "notes.png", "b.png"), results.stream().map(MediaUploadResultDTO::filename).toList());
+        assertNotNull(results.get(0).media());
+        assertNull(results.get(1).media());
+        assertTrue(results.get(1).error().contains("valid image format"));
+        assertNotNull(results.get(2).media());
+        verify(mediaAssetRepository, times(1)).saveAll(saved.capture());
+        assertEquals(2, saved.getValue().size());
+        assertEquals(2, listMediaRoot().size());
+    }
+
+    @Test
+    void upload_shouldRemoveStoredFilesWhenRecordsCannotBeSaved() throws IOException {
+        // Arrange
+        when(mediaAssetRepository.saveAll(anyList())).thenThrow(new IllegalStateException("database down"));
+        List<MultipartFile> files = List.of(
+            new MockMultipartFile("files", "a.png", "image/png", PNG),
+            new MockMultipartFile("files", "b.png", "image/png", PNG));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> uploader.upload(files, false));
+        assertTrue(listMediaRoot().isEmpty());
+    }
+
+    @Test
+    void upload_shouldRejectEmptyAndOversizedBatches() {
+        MultipartFile file = new MockMultipartFile("files", "a.png", "image/png", PNG);
+
+        assertThrows(IllegalArgumentException.class, () -> uploader.upload(List.of(), false));
+        assertThrows(IllegalArgumentException.class, () -> uploader.upload(List.of(file, file, file, file), false));
+        verifyNoInteractions(mediaAssetRepository);
+    }
+
+    private List<Path> listMediaRoot() throws IOException {
+        try (Stream<Path> files = Files.walk(mediaRoot)) {
+            return files.filter(Files::isRegularFile).toList();
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.layerten.service;
+
+import com.layerten.dto.MediaGcReport;
+import com.layerten.entity.MediaAsset;
+import com.layerten.media.ImageFormat;
+import com.layerten.media.LocalMediaStorage;
+import com.layerten.repository.MediaAssetRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for MediaGarbageCollector.
+ */
+@ExtendWith(MockitoExtension.class)
+class MediaGarbageCollectorTest {
+
+    @Mock
+    private MediaAssetRepository mediaAssetRepository;
+
+    @Mock
+    private MediaService mediaService;
+
+    @TempDir
+    Path mediaRoot;
+
+    private MediaVariantService variants;
+
+    private MediaGarbageCollector collector;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        LocalMediaStorage storage = new LocalMediaStorage(mediaRoot);
+        variants = new MediaVariantService(storage, true, 0.8f, 1_000_000, 1);
+        collector = new MediaGarbageCollector(
+            mediaAssetRepository, mediaService, storage, variants, true, false, Duration.ofHours(1), 2, Duration.ZERO);
+    }
+
+    @Test
+    void collect_shouldMarkUnreferencedAssetsInBatches() throws IOException {
+        // Arrange
+        when(mediaAssetRepository.findUnmarkedUnreferencedIds(eq(0L), any())).thenReturn(List.of(1L, 2L));
+        when(mediaAssetRepository.findUnmarkedUnreferencedIds(eq(2L), any())).thenReturn(List.of(3L));
+        when(mediaAssetRepository.findUnmarkedUnreferencedIds(eq(3L), any())).thenReturn(List.of());
+        when(mediaService.markOrphaned(anyCollection(), any())).thenAnswer(invocation ->
+            invocation.<List<Long>>getArgument(0).size());
+        when(mediaAssetRepository.findOrphanedBefore(any(), anyLong(), any())).thenReturn(List.of());
+
+        // Act
+        MediaGcReport report = collector.collect(false);
+
+        // Assert
+        assertEquals(3, report.markedAssets());
+        assertTrue(report.orphanedAssetIds().isEmpty());
+    }
+
+    @Test
+    void collect_shouldClearMarksOfAssetsReferencedAgainInBatches() throws IOException {
+        // Arrange
+        when(mediaAssetRepository.findMarkedReferencedIds(eq(0L), any())).thenReturn(List.of(4L, 5L));
+        when(mediaAssetRepository.findMarkedReferencedIds(eq(5L), any())).thenReturn(List.of(6L));
+        when(mediaAssetRepository.findMarkedReferencedIds(eq(6L), any())).thenReturn(List.of());
+        when(mediaService.clearOrphanedMarks(anyCollection())).thenAnswer(invocation ->
+            invocation.<List<Long>>getArgument(0).size());
+        when(mediaAssetRepository.findUnmarkedUnreferencedIds(anyLong(), any())).thenReturn(List.of());
+        when(mediaAssetRepository.findOrphanedBefore(any(), anyLong(), any())).thenReturn(List.of());
+
+        // Act
+        MediaGcReport report = collector.collect(false);
+
+        // Assert
+        assertEquals(3, report.clearedMarks());
+        verify(mediaService).clearOrphanedMarks(List.of(4L, 5L));
+        verify(mediaService).clearOrphanedMarks(List.of(6L));
+    }
+
+    @Test
+    void collect_shouldDeleteAssetsMarkedBeforeGracePeriodWithTheirFiles() throws IOException {
+        // Arrange
+        MediaAsset orphan = asset(7L, "orphan.png");
+        writeOld("orphan.png", 10);
+        writeOld(variants.variantKey("orphan.png", ImageFormat.JPEG), 4);
+        when(mediaAssetRepository.findUnmarkedUnreferencedIds(anyLong(), any())).thenReturn(List.of());
+        when(mediaAssetRepository.findOrphanedBefore(any(), eq(0L), any())).thenReturn(List.of(orphan));
+        when(mediaAssetRepository.findOrphanedBefore(any(), eq(7L), any())).thenReturn(List.of());
+        when(mediaService.deleteIfOrphanedBefore(eq(7L), any())).thenReturn(true);
+
+        // Act
+        MediaGcReport report = collector.collect(false);
+
+        // Assert
+        assertEquals(List.of(7L), report.orphanedAssetIds());
+        assertEquals(10, report.reclaimedBytes());
+        assertFalse(Files.exists(mediaRoot.resolve("orphan.png")));
+        assertFalse(Files.exists(mediaRoot.resolve(variants.variantKey("orphan.png", ImageFormat.JPEG))));
+    }
+
+    @Test
+    void collect_shouldKeepAssetReferencedSinceItWasFound() throws IOException {
+        // Arrange - the guarded delete finds the asset referenced again
+        MediaAsset asset = asset(7L, "kept.png");
+        writeOld("kept.png", 10);
+        when(mediaAssetRepository.findUnmarkedUnreferencedIds(anyLong(), any())).thenReturn(List.of());
+        when(mediaAssetRepository.findOrphanedBefore(any(), eq(0L), any())).thenReturn(List.of(asset));
+        when(mediaAssetRepository.findOrphanedBefore(any(), eq(7L), any())).thenReturn(List.of());
+        when(mediaService.deleteIfOrphanedBefore(eq(7L), any())).thenReturn(false);
+        when(mediaAssetRepository.findByStoragePathInOrFilenameIn(anyCollection(), anyCollection()))
+            .thenReturn(List.of(asset));
+
+        // Act
+        MediaGcReport report = collector.collect(false);
+
+        // Assert
+        assertTrue(report.orphanedAssetIds().isEmpty());
+        assertTrue(Files.exists(mediaRoot.resolve("kept.png")));
+    }
+
+    @Test
+    void collect_shouldDeleteOldObjectsWithoutRowsButKeepLiveAndRecentOnes() throws IOException {
+        // Arrange
+        writeOld("stray.png", 5);
+        writeOld(".upload.part", 3);
+        writeOld("live.png", 8);
+        writeOld(variants.variantKey("live.png", ImageFormat.JPEG), 6);
+        writeOld("live.png.variant.jpg", 4);
+        Files.write(mediaRoot.resolve("fresh.png"), new byte[2]);
+        when(mediaAssetRepository.findUnmarkedUnreferencedIds(anyLong(), any())).thenReturn(List.of());
+        when(mediaAssetRepository.findOrphanedBefore(any(), anyLong(), any())).thenReturn(List.of());
+        when(mediaAssetRepository.findByStoragePathInOrFilenameIn(anyCollection(), anyCollection()))
+            .thenReturn(List.of(asset(1L, "live.png")));
+
+        // Act
+        MediaGcReport report = collector.collect(false);
+
+        // Assert
+        // The variant encoded before variant keys were versioned is stale and swept with the strays
+        assertEquals(List.of(".upload.part", "live.png.variant.jpg", "stray.png"),
+            report.orphanedObjects().stream().sorted().toList());
+        assertEquals(12, report.reclaimedBytes());
+        assertTrue(Files.exists(mediaRoot.resolve("live.png")));
+        assertTrue(Files.exists(mediaRoot.resolve(variants.variantKey("live.png", ImageFormat.JPEG))));
+        assertTrue(Files.exists(mediaRoot.resolve("fresh.png")));
+        assertFalse(Files.exists(mediaRoot.resolve("stray.png")));
+    }
+
+    @Test
+    void collect_dryRunShouldReportWithoutDeleting() throws IOException {
+        // Arrange
+        MediaAsset orphan = asset(7L, "orphan.png");
+        writeOld("orphan.png", 10);
+        writeOld("stray.png", 5);
+        when(mediaAssetRepository.findUnmarkedUnreferencedIds(anyLong(), any())).thenReturn(List.of());
+        when(mediaAssetRepository.findOrphanedBefore(any(), eq(0L), any())).thenReturn(List.of(orphan));
+        when(mediaAssetRepository.findOrphanedBefore(any(), eq(7L), any())).thenReturn(List.of());
+        when(mediaAssetRepository.findByStoragePathInOrFilenameIn(anyCollection(), anyCollection()))
+            .thenReturn(List.of(orphan));
+
+        // Act
+        MediaGcReport report = collector.collect(true);
+
+        // Assert
+        assertTrue(report.dryRun());
+        assertEquals(List.of(7L), report.orphanedAssetIds());
+        assertEquals(List.of("stray.png"), report.orphanedObjects());
+        assertEquals(15, report.reclaimedBytes());
+        assertTrue(Files.exists(mediaRoot.resolve("orphan.png")));
+        assertTrue(Files.exists(mediaRoot.resolve("stray.png")));
+        verify(mediaService, never()).deleteIfOrphanedBefore(anyLong(), any());
+    }
+
+    private void writeOld(String key, int size) throws IOException {
+        Path file = mediaRoot.resolve(key);
+        Files.write(file, new byte[size]);
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(Duration.ofDays(2))));
+    }
+
+    private static MediaAsset asset(Long id, String key) {
+        MediaAsset asset = new MediaAsset(key, "image/png", 10L, null, key);
+        asset.setId(id);
+        return asset;
+    }
+}
@@ -0,0 +1,122 @@
+package com.layerten.service;
+
+import com.layerten.entity.MediaAsset;
+import com.layerten.media.ImageFormat;
+import com.layerten.media.LocalMediaStorage;
+import com.layerten.media.MediaKeys;
+import com.layerten.repository.MediaAssetRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for MediaLayoutMigrator.
+ */
+@ExtendWith(MockitoExtension.class)
+class MediaLayoutMigratorTest {
+
+    @Mock
+    private MediaAssetRepository mediaAssetRepository;
+
+    @Mock
+    private MediaService mediaService;
+
+    @TempDir
+    Path mediaRoot;
+
+    private MediaVariantService variants;
+
+    private MediaLayoutMigrator migrator;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        LocalMediaStorage storage = new LocalMediaStorage(mediaRoot);
+        variants = new MediaVariantService(storage, true, 0.8f, 1_000_000, 1);
+        migrator = new MediaLayoutMigrator(mediaAssetRepository, mediaService, storage, variants, true, 2, Duration.ZERO);
+    }
+
+    @Test
+    void migrate_shouldMoveFileAndVariantsThenRewriteStoragePath() throws IOException {
+        // Arrange
+        Files.write(mediaRoot.resolve("a.png"), new byte[] {1});
+        Files.write(mediaRoot.resolve(variants.variantKey("a.png", ImageFormat.JPEG)), new byte[] {2});
+        MediaAsset asset = asset(1L, "a.png", "a.png");
+        when(mediaAssetRepository.findNotInShardedLayout(eq(0L), any())).thenReturn(List.of(asset));
+        when(mediaAssetRepository.findNotInShardedLayout(eq(1L), any())).thenReturn(List.of());
+
+        // Act
+        int migrated = migrator.migrate();
+
+        // Assert
+        String shardedKey = MediaKeys.sharded("a.png");
+        assertEquals(1, migrated);
+        assertArrayEquals(new byte[] {1}, Files.readAllBytes(mediaRoot.resolve(shardedKey)));
+        assertArrayEquals(new byte[] {2}, Files.readAllBytes(mediaRoot.resolve(variants.variantKey(shardedKey, ImageFormat.JPEG))));
+        assertFalse(Files.exists(mediaRoot.resolve("a.png")));
+        verify(mediaService).setStoragePath(1L, shardedKey);
+    }
+
+    @Test
+    void migrate_shouldKeyLegacyAbsolutePathRowsByFilename() throws IOException {
+        // Arrange
+        Files.write(mediaRoot.resolve("old.jpg"), new byte[] {3});
+        MediaAsset asset = asset(4L, "old.jpg", "/app/media/old.jpg");
+        when(mediaAssetRepository.findNotInShardedLayout(eq(0L), any())).thenReturn(List.of(asset));
+        when(mediaAssetRepository.findNotInShardedLayout(eq(4L), any())).thenReturn(List.of());
+
+        // Act
+        migrator.migrate();
+
+        // Assert
+        assertTrue(Files.exists(mediaRoot.resolve(MediaKeys.sharded("old.jpg"))));
+        verify(mediaService).setStoragePath(4L, MediaKeys.sharded("old.jpg"));
+    }
+
+    @Test
+    void migrate_shouldFinishAssetWhoseFileWasMovedByInterruptedRun() throws IOException {
+        // Arrange - file already at the sharded key, row still flat
+        Path sharded = mediaRoot.resolve(MediaKeys.sharded("b.png"));
+        Files.createDirectories(sharded.getParent());
+        Files.write(sharded, new byte[] {5});
+        MediaAsset asset = asset(2L, "b.png", "b.png");
+        when(mediaAssetRepository.findNotInShardedLayout(eq(0L), any())).thenReturn(List.of(asset));
+        when(mediaAssetRepository.findNotInShardedLayout(eq(2L), any())).thenReturn(List.of());
+
+        // Act
+        migrator.migrate();
+
+        // Assert
+        assertArrayEquals(new byte[] {5}, Files.readAllBytes(sharded));
+        verify(mediaService).setStoragePath(2L, MediaKeys.sharded("b.png"));
+    }
+
+    @Test
+    void mediaKeys_shouldFanOutOverTwoHexLevels() {
+        String key = MediaKeys.sharded("3f2a.jpg");
+
+        assertTrue(key.matches("[0-9a-f]{2}/[0-9a-f]{2}/3f2a\\.jpg"));
+        assertEquals(key, MediaKeys.sharded("3f2a.jpg"));
+        assertTrue(MediaKeys.isSharded(key));
+        assertFalse(MediaKeys.isSharded("3f2a.jpg"));
+        assertEquals("3f2a.jpg", MediaKeys.name(key));
+    }
+
+    private static MediaAsset asset(Long id, String filename, String storagePath) {
+        MediaAsset asset = new MediaAsset(filename, "image/png", 1L, null, storagePath);
+        asset.setId(id);
+        return asset;
+    }
+}
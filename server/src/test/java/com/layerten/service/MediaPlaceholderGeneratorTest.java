@@ -0,0 +1,126 @@
+package com.layerten.service;
+
+import com.layerten.media.MediaRepresentation;
+import com.layerten.repository.MediaAssetRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for MediaPlaceholderGenerator.
+ */
+@ExtendWith(MockitoExtension.class)
+class MediaPlaceholderGeneratorTest {
+
+    @Mock
+    private MediaAssetRepository mediaAssetRepository;
+
+    @Mock
+    private MediaService mediaService;
+
+    private MediaPlaceholderGenerator generator;
+
+    @BeforeEach
+    void setUp() {
+        generator = new MediaPlaceholderGenerator(mediaAssetRepository, mediaService, true, 2, 1_000_000);
+    }
+
+    @Test
+    void generate_shouldStoreHashesAndMarkUndecodableAssets() throws IOException {
+        // Arrange
+        when(mediaAssetRepository.findIdsWithoutPlaceholder(eq(0L), any())).thenReturn(List.of(1L, 2L));
+        when(mediaAssetRepository.findIdsWithoutPlaceholder(eq(2L), any())).thenReturn(List.of());
+        stub(1L, png());
+        stub(2L, "not an image".getBytes());
+        when(mediaService.setPlaceholder(anyLong(), anyString())).thenReturn(true);
+
+        // Act
+        int generated = generator.generate();
+
+        // Assert
+        assertEquals(2, generated);
+        verify(mediaService).setPlaceholder(eq(1L), argThat(hash -> hash.length() == 28));
+        verify(mediaService).setPlaceholder(2L, "");
+    }
+
+    @Test
+    void generate_shouldMarkAssetsWhoseFileIsMissing() throws IOException {
+        // Arrange
+        when(mediaAssetRepository.findIdsWithoutPlaceholder(eq(0L), any())).thenReturn(List.of(1L));
+        when(mediaAssetRepository.findIdsWithoutPlaceholder(eq(1L), any())).thenReturn(List.of());
+        MediaRepresentation original = new MediaRepresentation("a.png", "a.png", "image/png", 10, false, "f1");
+        when(mediaService.selectRepresentation(1L, List.of())).thenReturn(original);
+        when(mediaService.open(original)).thenThrow(new NoSuchFileException("a.png"));
+        when(mediaService.setPlaceholder(1L, "")).thenReturn(true);
+
+        // Act
+        int generated = generator.generate();
+
+        // Assert
+        assertEquals(1, generated);
+        verify(mediaService).setPlaceholder(1L, "");
+    }
+
+    @Test
+    void generate_shouldRetryUnreadableAssetsAFewTimesBeforeGivingUp() throws IOException {
+        // Arrange
+        when(mediaAssetRepository.findIdsWithoutPlaceholder(eq(0L), any())).thenReturn(List.of(1L));
+        when(mediaAssetRepository.findIdsWithoutPlaceholder(eq(1L), any())).thenReturn(List.of());
+        MediaRepresentation original = new MediaRepresentation("a.png", "a.png", "image/png", 10, false, "f1");
+        when(mediaService.selectRepresentation(1L, List.of())).thenReturn(original);
+        when(mediaService.open(original)).thenThrow(new IOException("Connection reset"));
+
+        // Act - each run leaves the asset for the next one until the attempts run out
+        for (int run = 1; run < MediaPlaceholderGenerator.MAX_ATTEMPTS; run++) {
+            assertEquals(0, generator.generate());
+        }
+        verify(mediaService, never()).setPlaceholder(anyLong(), anyString());
+        when(mediaService.setPlaceholder(1L, "")).thenReturn(true);
+        int generated = generator.generate();
+
+        // Assert
+        assertEquals(1, generated);
+        verify(mediaService).setPlaceholder(1L, "");
+    }
+
+    @Test
+    void generateScheduled_shouldDoNothingWhenDisabled() {
+        // Arrange
+        MediaPlaceholderGenerator disabled = new MediaPlaceholderGenerator(
+            mediaAssetRepository, mediaService, false, 2, 1_000_000);
+
+        // Act
+        disabled.generateScheduled();
+
+        // Assert
+        verifyNoInteractions(mediaAssetRepository, mediaService);
+    }
+
+    private void stub(Long id, byte[] content) throws IOException {
+        MediaRepresentation original = new MediaRepresentation(
+            id + ".png", id + ".png", "image/png", content.length, false, "f" + id);
+        when(mediaService.selectRepresentation(id, List.of())).thenReturn(original);
+        when(mediaService.open(original)).thenReturn(new ByteArrayInputStream(content));
+    }
+
+    private static byte[] png() throws IOException {
+        BufferedImage image = new BufferedImage(40, 30, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,301 @@
+package com.layerten.service;
+
+import com.layerten.dto.MediaAssetDTO;
+import com.layerten.dto.MediaPageDTO;
+import com.layerten.dto.MediaSearchCriteria;
+import com.layerten.entity.MediaAsset;
+import com.layerten.media.LocalMediaStorage;
+import com.layerten.media.MediaKeys;
+import com.layerten.media.MediaRepresentation;
+import com.layerten.media.MediaUrls;
+import com.layerten.repository.MediaAssetRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for MediaService.
+ */
+@ExtendWith(MockitoExtension.class)
+class MediaServiceTest {
+
+    // PNG signature followed by an IHDR chunk for a 3x2 image
+    private static final byte[] PNG_SIGNATURE = {
+        (byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 0, 0, 0, 0x0D,
+        'I', 'H', 'D', 'R', 0, 0, 0, 3, 0, 0, 0, 2
+    };
+
+    // JPEG header for a 3x2 image whose EXIF orientation (6) turns it a quarter clockwise
+    private static final byte[] ROTATED_JPEG_HEADER = {
+        (byte) 0xFF, (byte) 0xD8,
+        (byte) 0xFF, (byte) 0xE1, 0, 0x22, 'E', 'x', 'i', 'f', 0, 0,
+        'M', 'M', 0, 42, 0, 0, 0, 8, 0, 1, 0x01, 0x12, 0, 3, 0, 0, 0, 1, 0, 6, 0, 0, 0, 0, 0, 0,
+        (byte) 0xFF, (byte) 0xC0, 0, 0x0B, 8, 0, 2, 0, 3, 1, 1, 0x11, 0,
+        (byte) 0xFF, (byte) 0xD9
+    };
+
+    @Mock
+    private MediaAssetRepository mediaAssetRepository;
+
+    @TempDir
+    Path mediaRoot;
+
+    private MediaService mediaService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        LocalMediaStorage storage = new LocalMediaStorage(mediaRoot);
+        mediaService = new MediaService(
+            mediaAssetRepository, storage, new MediaVariantService(storage, true, 0.8f, 1_000_000, 1),
+            new MediaUploadOptimizer(storage, false, DataSize.ofKilobytes(512), 0.85f, 1_000_000), DataSize.ofBytes(64));
+    }
+
+    @Test
+    void uploadMediaStream_shouldWriteFileOnceUnderDetectedExtension() throws IOException {
+        // Arrange
+        when(mediaAssetRepository.save(any(MediaAsset.class))).thenAnswer(invocation -> {
+            MediaAsset asset = invocation.getArgument(0);
+            asset.setId(1L);
+            return asset;
+        });
+
+        // Act
+        MediaAssetDTO result = mediaService.uploadMediaStream(
+            new ByteArrayInputStream(PNG_SIGNATURE), (long) PNG_SIGNATURE.length, "Alt", false);
+
+        // Assert
+        assertEquals("image/png", result.contentType());
+        assertEquals(PNG_SIGNATURE.length, result.fileSize());
+        assertTrue(result.filename().endsWith(".png"));
+        assertEquals(3, result.width());
+        assertEquals(2, result.height());
+        assertEquals(List.of(mediaRoot.resolve(MediaKeys.sharded(result.filename()))), listMediaRoot());
+    }
+
+    @Test
+    void uploadMediaStream_shouldRecordDisplayedSizeOfRotatedJpeg() throws IOException {
+        // Arrange
+        when(mediaAssetRepository.save(any(MediaAsset.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        MediaAssetDTO result = mediaService.uploadMediaStream(
+            new ByteArrayInputStream(ROTATED_JPEG_HEADER), null, null, false);
+
+        // Assert
+        assertEquals("image/jpeg", result.contentType());
+        assertEquals(2, result.width());
+        assertEquals(3, result.height());
+    }
+
+    @Test
+    void uploadMediaStream_shouldRecordContentHashAndReturnFingerprintedUrl() throws IOException {
+        // Arrange
+        ArgumentCaptor<MediaAsset> saved = ArgumentCaptor.forClass(MediaAsset.class);
+        when(mediaAssetRepository.save(saved.capture())).thenAnswer(invocation -> {
+            MediaAsset asset = invocation.getArgument(0);
+            asset.setId(7L);
+            return asset;
+        });
+
+        // Act
+        MediaAssetDTO result = mediaService.uploadMediaStream(
+            new ByteArrayInputStream(PNG_SIGNATURE), null, null, false);
+
+        // Assert
+        String contentHash = saved.getValue().getContentHash();
+        assertEquals(64, contentHash.length());
+        assertEquals("/api/media/7/" + MediaUrls.fingerprint(contentHash, null) + ".png", result.url());
+    }
+
+    @Test
+    void uploadMediaStream_shouldRemoveStoredFileWhenRecordCannotBeSaved() throws IOException {
+        // Arrange
+        when(mediaAssetRepository.save(any(MediaAsset.class))).thenThrow(new IllegalStateException("database down"));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () ->
+            mediaService.uploadMediaStream(new ByteArrayInputStream(PNG_SIGNATURE), null, null, false));
+        assertTrue(listMediaRoot().isEmpty());
+    }
+
+    @Test
+    void uploadMediaStream_shouldRejectNonImageContentAndLeaveNoPartialFile() throws IOException {
+        // Arrange
+        byte[] text = "definitely not an image".getBytes();
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () ->
+            mediaService.uploadMediaStream(new ByteArrayInputStream(text), null, null, false));
+        assertTrue(listMediaRoot().isEmpty());
+        verify(mediaAssetRepository, never()).save(any());
+    }
+
+    @Test
+    void uploadMediaStream_shouldRejectStreamExceedingMaxSize() throws IOException {
+        // Arrange - no Content-Length, so the limit is enforced while streaming
+        byte[] oversized = new byte[128];
+        System.arraycopy(PNG_SIGNATURE, 0, oversized, 0, PNG_SIGNATURE.length);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () ->
+            mediaService.uploadMediaStream(new ByteArrayInputStream(oversized), null, null, false));
+        assertTrue(listMediaRoot().isEmpty());
+    }
+
+    @Test
+    void uploadMediaStream_shouldRejectDeclaredLengthBeforeReading() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () ->
+            mediaService.uploadMediaStream(new ByteArrayInputStream(PNG_SIGNATURE), 1024L, null, false));
+        verify(mediaAssetRepository, never()).save(any());
+    }
+
+    @Test
+    void selectRepresentation_shouldFallBackToShardedKeyWhileRowStillNamesFlatKey() throws IOException {
+        // Arrange - the layout migration has moved the file but not yet updated the row
+        MediaAsset asset = new MediaAsset("moved.png", "image/png", 4L, null, "moved.png");
+        asset.setId(9L);
+        when(mediaAssetRepository.findById(9L)).thenReturn(Optional.of(asset));
+        Path sharded = mediaRoot.resolve(MediaKeys.sharded("moved.png"));
+        Files.createDirectories(sharded.getParent());
+        Files.write(sharded, new byte[] {1, 2, 3, 4});
+
+        // Act
+        MediaRepresentation representation = mediaService.selectRepresentation(9L, List.of());
+
+        // Assert
+        assertEquals(MediaKeys.sharded("moved.png"), representation.storageKey());
+        try (InputStream in = mediaService.open(representation)) {
+            assertArrayEquals(new byte[] {1, 2, 3, 4}, in.readAllBytes());
+        }
+    }
+
+    @Test
+    void markOrphaned_shouldMarkLoadedAssetsNotAlreadyMarked() {
+        // Arrange
+        LocalDateTime earlier = LocalDateTime.of(2024, 5, 1, 12, 0);
+        LocalDateTime now = LocalDateTime.of(2024, 5, 8, 12, 0);
+        MediaAsset unmarked = asset(1L, earlier);
+        MediaAsset marked = asset(2L, earlier);
+        marked.setOrphanedAt(earlier);
+        when(mediaAssetRepository.findAllById(List.of(1L, 2L, 3L))).thenReturn(List.of(unmarked, marked));
+
+        // Act
+        int count = mediaService.markOrphaned(List.of(1L, 2L, 3L), now);
+
+        // Assert
+        assertEquals(1, count);
+        assertEquals(now, unmarked.getOrphanedAt());
+        assertEquals(earlier, marked.getOrphanedAt());
+    }
+
+    @Test
+    void deleteIfOrphanedBefore_shouldDeleteOnlyUnreferencedAssetsMarkedBeforeCutoff() {
+        // Arrange
+        LocalDateTime cutoff = LocalDateTime.of(2024, 5, 8, 12, 0);
+        MediaAsset old = asset(1L, cutoff);
+        old.setOrphanedAt(cutoff.minusDays(1));
+        MediaAsset recent = asset(2L, cutoff);
+        recent.setOrphanedAt(cutoff.plusMinutes(1));
+        MediaAsset referenced = asset(3L, cutoff);
+        referenced.setOrphanedAt(cutoff.minusDays(1));
+        when(mediaAssetRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(old));
+        when(mediaAssetRepository.findByIdForUpdate(2L)).thenReturn(Optional.of(recent));
+        when(mediaAssetRepository.findByIdForUpdate(3L)).thenReturn(Optional.of(referenced));
+        when(mediaAssetRepository.isUnreferenced(1L)).thenReturn(true);
+        when(mediaAssetRepository.isUnreferenced(3L)).thenReturn(false);
+
+        // Act & Assert
+        assertTrue(mediaService.deleteIfOrphanedBefore(1L, cutoff));
+        assertFalse(mediaService.deleteIfOrphanedBefore(2L, cutoff));
+        assertFalse(mediaService.deleteIfOrphanedBefore(3L, cutoff));
+        verify(mediaAssetRepository).delete(old);
+        verify(mediaAssetRepository, never()).delete(recent);
+        verify(mediaAssetRepository, never()).delete(referenced);
+    }
+
+    @Test
+    void searchMedia_shouldReturnCursorWhenMoreRowsFollow() {
+        // Arrange - the service asks for one row more than the page size
+        when(mediaAssetRepository.findBy(ArgumentMatchers.<Specification<MediaAsset>>any(), any())).thenReturn(List.of(
+            asset(3L, LocalDateTime.of(2024, 5, 3, 12, 0)),
+            asset(2L, LocalDateTime.of(2024, 5, 2, 12, 0)),
+            asset(1L, LocalDateTime.of(2024, 5, 1, 12, 0))
+        ));
+
+        // Act
+        MediaPageDTO page = mediaService.searchMedia(
+            new MediaSearchCriteria(null, null, null, false), "createdAt", Sort.Direction.DESC, null, 2);
+
+        // Assert
+        assertEquals(List.of(3L, 2L), page.content().stream().map(MediaAssetDTO::id).toList());
+        assertNotNull(page.nextCursor());
+
+        // The cursor is accepted for the next page with the same sort
+        mediaService.searchMedia(
+            new MediaSearchCriteria(null, null, null, false), "createdAt", Sort.Direction.DESC, page.nextCursor(), 2);
+        verify(mediaAssetRepository, times(2)).findBy(ArgumentMatchers.<Specification<MediaAsset>>any(), any());
+    }
+
+    @Test
+    void searchMedia_shouldOmitCursorOnLastPage() {
+        // Arrange
+        when(mediaAssetRepository.findBy(ArgumentMatchers.<Specification<MediaAsset>>any(), any())).thenReturn(List.of(
+            asset(1L, LocalDateTime.of(2024, 5, 1, 12, 0))
+        ));
+
+        // Act
+        MediaPageDTO page = mediaService.searchMedia(
+            new MediaSearchCriteria("image/png", null, null, true), "createdAt", Sort.Direction.DESC, null, 2);
+
+        // Assert
+        assertEquals(1, page.content().size());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void searchMedia_shouldRejectUnknownSortAndMalformedCursor() {
+        MediaSearchCriteria criteria = new MediaSearchCriteria(null, null, null, false);
+
+        assertThrows(IllegalArgumentException.class, () ->
+            mediaService.searchMedia(criteria, "storagePath", Sort.Direction.DESC, null, 20));
+        assertThrows(IllegalArgumentException.class, () ->
+            mediaService.searchMedia(criteria, "createdAt", Sort.Direction.DESC, "not-a-cursor", 20));
+        verify(mediaAssetRepository, never()).findBy(ArgumentMatchers.<Specification<MediaAsset>>any(), any());
+    }
+
+    private static MediaAsset asset(Long id, LocalDateTime createdAt) {
+        MediaAsset asset = new MediaAsset(id + ".png", "image/png", 100L, null, id + ".png");
+        asset.setId(id);
+        asset.setCreatedAt(createdAt);
+        return asset;
+    }
+
+    private List<Path> listMediaRoot() throws IOException {
+        try (Stream<Path> files = Files.walk(mediaRoot)) {
+            return files.filter(Files::isRegularFile).toList();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.layerten.service;
+
+import com.layerten.media.ImageFormat;
+import com.layerten.media.LocalMediaStorage;
+import com.layerten.media.OptimizedUpload;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for MediaUploadOptimizer.
+ */
+class MediaUploadOptimizerTest {
+
+    @TempDir
+    Path mediaRoot;
+
+    private LocalMediaStorage storage;
+    private MediaUploadOptimizer optimizer;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        storage = new LocalMediaStorage(mediaRoot);
+        optimizer = new MediaUploadOptimizer(storage, true, DataSize.ofKilobytes(16), 0.75f, 1_000_000);
+    }
+
+    @Test
+    void optimize_shouldRecompressUprightWithoutMetadataAndRecordSavings() throws IOException {
+        // Arrange - a rotated phone photo with a bulky EXIF block
+        byte[] upload = phonePhoto();
+        store("a.jpg", upload);
+
+        // Act
+        Optional<OptimizedUpload> result = optimizer.optimize("a.jpg", ImageFormat.JPEG, upload.length, false);
+
+        // Assert
+        assertTrue(result.isPresent());
+        byte[] stored = Files.readAllBytes(mediaRoot.resolve("a.jpg"));
+        assertEquals(stored.length, result.get().size());
+        assertEquals(upload.length - stored.length, result.get().bytesSaved());
+        assertEquals(96, result.get().width());
+        assertEquals(128, result.get().height());
+        assertFalse(new String(stored, StandardCharsets.ISO_8859_1).contains("Exif"));
+        assertFalse(Files.exists(mediaRoot.resolve(MediaVariantService.preservedKey("a.jpg"))));
+    }
+
+    @Test
+    void optimize_shouldKeepUntouchedUploadWhenRequested() throws IOException {
+        // Arrange
+        byte[] upload = phonePhoto();
+        store("a.jpg", upload);
+
+        // Act
+        optimizer.optimize("a.jpg", ImageFormat.JPEG, upload.length, true);
+
+        // Assert
+        assertArrayEquals(upload, Files.readAllBytes(mediaRoot.resolve(MediaVariantService.preservedKey("a.jpg"))));
+        assertTrue(Files.size(mediaRoot.resolve("a.jpg")) < upload.length);
+    }
+
+    @Test
+    void optimize_shouldLeaveSmallNonJpegOrDisabledUploadsAlone() throws IOException {
+        // Arrange
+        byte[] upload = phonePhoto();
+        store("a.jpg", upload);
+        MediaUploadOptimizer disabled = new MediaUploadOptimizer(storage, false, DataSize.ofKilobytes(16), 0.75f, 1_000_000);
+
+        // Act & Assert
+        assertTrue(optimizer.optimize("a.jpg", ImageFormat.JPEG, 1024, false).isEmpty());
+        assertTrue(optimizer.optimize("a.jpg", ImageFormat.PNG, upload.length, false).isEmpty());
+        assertTrue(disabled.optimize("a.jpg", ImageFormat.JPEG, upload.length, false).isEmpty());
+        assertArrayEquals(upload, Files.readAllBytes(mediaRoot.resolve("a.jpg")));
+    }
+
+    private void store(String key, byte[] content) throws IOException {
+        storage.put(key, new ByteArrayInputStream(content), content.length, "image/jpeg");
+    }
+
+    /**
+     * A noisy 128x96 JPEG saved at maximum quality, with an EXIF block that
+     * carries orientation 6 and padding standing in for an embedded thumbnail.
+     */
+    private static byte[] phonePhoto() throws IOException {
+        BufferedImage image = new BufferedImage(128, 96, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(42);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                int shade = Math.min(255, x + y + random.nextInt(32));
+                image.setRGB(x, y, shade << 16 | (255 - shade) << 8 | shade / 2);
+            }
+        }
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        try (MemoryCacheImageOutputStream output = new MemoryCacheImageOutputStream(encoded)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(1.0f);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        byte[] jpeg = encoded.toByteArray();
+
+        ByteBuffer tiff = ByteBuffer.allocate(26 + 20_000).order(ByteOrder.LITTLE_ENDIAN);
+        tiff.put((byte) 'I').put((byte) 'I').putShort((short) 42).putInt(8);
+        tiff.putShort((short) 1);
+        tiff.putShort((short) 0x0112).putShort((short) 3).putInt(1).putShort((short) 6).putShort((short) 0);
+        tiff.putInt(0);
+
+        byte[] segment = new byte[4 + 6 + tiff.capacity()];
+        segment[0] = (byte) 0xFF;
+        segment[1] = (byte) 0xE1;
+        segment[2] = (byte) ((segment.length - 2) >> 8);
+        segment[3] = (byte) (segment.length - 2);
+        System.arraycopy("Exif\0\0".getBytes(StandardCharsets.US_ASCII), 0, segment, 4, 6);
+        System.arraycopy(tiff.array(), 0, segment, 10, tiff.capacity());
+
+        byte[] photo = new byte[jpeg.length + segment.length];
+        System.arraycopy(jpeg, 0, photo, 0, 2);
+        System.arraycopy(segment, 0, photo, 2, segment.length);
+        System.arraycopy(jpeg, 2, photo, 2 + segment.length, jpeg.length - 2);
+        return photo;
+    }
+}
@@ -0,0 +1,160 @@
+package com.layerten.service;
+
+import com.layerten.media.ImageFormat;
+import com.layerten.media.LocalMediaStorage;
+import com.layerten.media.MediaRepresentation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.MediaType;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for MediaVariantService.
+ */
+class MediaVariantServiceTest {
+
+    private static final List<MediaType> BROWSER_ACCEPT =
+        MediaType.parseMediaTypes("image/avif,image/webp,image/*,*/*;q=0.8");
+
+    private static final List<MediaType> JPEG_ACCEPT = MediaType.parseMediaTypes("image/jpeg,image/*;q=0.8");
+
+    @TempDir
+    Path mediaRoot;
+
+    private LocalMediaStorage storage;
+    private MediaVariantService variantService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        storage = new LocalMediaStorage(mediaRoot);
+        variantService = new MediaVariantService(storage, true, 0.8f, 1_000_000, 1);
+    }
+
+    @Test
+    void findVariant_shouldServeSmallerJpegForOpaquePngAndStoreItOnce() throws IOException {
+        // Arrange
+        MediaRepresentation original = store("a.png", png(0xFF));
+
+        // Act
+        Optional<MediaRepresentation> variant = variantService.findVariant(original, JPEG_ACCEPT);
+
+        // Assert
+        assertTrue(variant.isPresent());
+        assertEquals("image/jpeg", variant.get().contentType());
+        assertEquals("a.jpg", variant.get().filename());
+        assertTrue(variant.get().variant());
+        assertTrue(variant.get().size() < original.size());
+        Path stored = mediaRoot.resolve(variantService.variantKey("a.png", ImageFormat.JPEG));
+        assertEquals(variant.get().size(), Files.size(stored));
+
+        // A second request reuses the stored variant rather than encoding again
+        Files.write(stored, new byte[] {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF});
+        assertEquals(3, variantService.findVariant(original, JPEG_ACCEPT).get().size());
+    }
+
+    @Test
+    void findVariant_shouldServeOriginalWhenClientDoesNotAcceptTarget() throws IOException {
+        MediaRepresentation original = store("a.png", png(0xFF));
+
+        assertTrue(variantService.findVariant(original, List.of()).isEmpty());
+        assertTrue(variantService.findVariant(original, MediaType.parseMediaTypes("image/png")).isEmpty());
+        assertTrue(variantService.findVariant(original, MediaType.parseMediaTypes("image/png,image/jpeg;q=0")).isEmpty());
+    }
+
+    @Test
+    void findVariant_shouldNotSubstituteLossyVariantForWildcardAccept() throws IOException {
+        // Arrange - what a browser sends for an <img>; JPEG is only covered by image/*
+        MediaRepresentation original = store("a.png", png(0xFF));
+
+        // Act
+        Optional<MediaRepresentation> variant = variantService.findVariant(original, BROWSER_ACCEPT);
+
+        // Assert
+        assertTrue(variant.isEmpty());
+        assertFalse(Files.exists(mediaRoot.resolve(variantService.variantKey("a.png", ImageFormat.JPEG))));
+    }
+
+    @Test
+    void findVariant_shouldRememberWhenNoVariantCanBeProduced() throws IOException {
+        // Arrange
+        MediaRepresentation original = store("a.png", png(0x80));
+
+        // Act
+        Optional<MediaRepresentation> variant = variantService.findVariant(original, JPEG_ACCEPT);
+
+        // Assert - an empty marker is stored so the transparent image is not decoded again
+        assertTrue(variant.isEmpty());
+        assertEquals(0, Files.size(mediaRoot.resolve(variantService.variantKey("a.png", ImageFormat.JPEG))));
+    }
+
+    @Test
+    void findVariant_shouldNotServeVariantLargerThanOriginal() throws IOException {
+        MediaRepresentation original = store("a.png", png(0xFF));
+        Files.write(mediaRoot.resolve(variantService.variantKey("a.png", ImageFormat.JPEG)), new byte[(int) original.size()]);
+
+        assertTrue(variantService.findVariant(original, JPEG_ACCEPT).isEmpty());
+    }
+
+    @Test
+    void deleteVariants_shouldRemoveStoredVariants() throws IOException {
+        MediaRepresentation original = store("a.png", png(0xFF));
+        variantService.findVariant(original, JPEG_ACCEPT);
+
+        variantService.deleteVariants("a.png");
+
+        assertFalse(Files.exists(mediaRoot.resolve(variantService.variantKey("a.png", ImageFormat.JPEG))));
+        assertTrue(Files.exists(mediaRoot.resolve("a.png")));
+    }
+
+    @Test
+    void originalKey_shouldMapVariantsAndPreservedUploadsToTheirOriginal() {
+        String key = "9c/41/a.jpg";
+
+        assertEquals(key, variantService.originalKey(variantService.variantKey(key, ImageFormat.WEBP)));
+        assertEquals(key, variantService.originalKey(MediaVariantService.preservedKey(key)));
+        assertEquals(key, variantService.originalKey(key));
+    }
+
+    @Test
+    void originalKey_shouldNotClaimVariantsEncodedUnderOtherSettings() {
+        String key = "9c/41/a.jpg";
+        MediaVariantService otherQuality = new MediaVariantService(storage, true, 0.6f, 1_000_000, 1);
+
+        assertNotEquals(variantService.variantKey(key, ImageFormat.WEBP), otherQuality.variantKey(key, ImageFormat.WEBP));
+        assertEquals(key + ".variant.webp", variantService.originalKey(key + ".variant.webp"));
+        String stale = otherQuality.variantKey(key, ImageFormat.WEBP);
+        assertEquals(stale, variantService.originalKey(stale));
+    }
+
+    private MediaRepresentation store(String key, byte[] content) throws IOException {
+        storage.put(key, new ByteArrayInputStream(content), content.length, "image/png");
+        return new MediaRepresentation(key, key, "image/png", content.length, false, "f1");
+    }
+
+    private static byte[] png(int alpha) throws IOException {
+        BufferedImage image = new BufferedImage(96, 64, BufferedImage.TYPE_INT_ARGB);
+        Random random = new Random(7);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                int shade = Math.min(255, x + y + random.nextInt(32));
+                image.setRGB(x, y, alpha << 24 | shade << 16 | (255 - shade) << 8 | shade / 2);
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
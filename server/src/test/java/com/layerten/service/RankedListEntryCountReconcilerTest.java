@@ -0,0 +1,82 @@
+package com.layerten.service;
+
+import com.layerten.repository.RankedListCardRepository;
+import com.layerten.repository.RankedListRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for RankedListEntryCountReconciler.
+ */
+@ExtendWith(MockitoExtension.class)
+class RankedListEntryCountReconcilerTest {
+
+    @Mock
+    private RankedListRepository rankedListRepository;
+
+    @Mock
+    private RankedListCardRepository rankedListCardRepository;
+
+    private RankedListEntryCountReconciler reconciler;
+
+    @BeforeEach
+    void setUp() {
+        reconciler = new RankedListEntryCountReconciler(rankedListRepository, rankedListCardRepository, true, 2);
+    }
+
+    @Test
+    void reconcile_shouldRecountDriftedListsAndTheirCardsInBatches() {
+        // Arrange
+        when(rankedListRepository.findIdsWithEntryCountDrift(eq(0L), any())).thenReturn(List.of(3L, 5L));
+        when(rankedListRepository.findIdsWithEntryCountDrift(eq(5L), any())).thenReturn(List.of(8L));
+        when(rankedListRepository.findIdsWithEntryCountDrift(eq(8L), any())).thenReturn(List.of());
+        when(rankedListRepository.recountEntries(anyCollection()))
+            .thenAnswer(invocation -> invocation.<List<Long>>getArgument(0).size());
+
+        // Act
+        int repaired = reconciler.reconcile();
+
+        // Assert
+        assertEquals(3, repaired);
+        verify(rankedListRepository).recountEntries(List.of(3L, 5L));
+        verify(rankedListRepository).recountEntries(List.of(8L));
+        verify(rankedListCardRepository).copyEntryCounts(List.of(3L, 5L));
+        verify(rankedListCardRepository).copyEntryCounts(List.of(8L));
+    }
+
+    @Test
+    void reconcile_shouldWriteNothingWhenCountsAreCorrect() {
+        // Arrange
+        when(rankedListRepository.findIdsWithEntryCountDrift(eq(0L), any())).thenReturn(List.of());
+
+        // Act
+        int repaired = reconciler.reconcile();
+
+        // Assert
+        assertEquals(0, repaired);
+        verify(rankedListRepository, never()).recountEntries(anyCollection());
+        verifyNoInteractions(rankedListCardRepository);
+    }
+
+    @Test
+    void reconcileScheduled_shouldDoNothingWhenDisabled() {
+        // Arrange
+        RankedListEntryCountReconciler disabled = new RankedListEntryCountReconciler(
+            rankedListRepository, rankedListCardRepository, false, 2);
+
+        // Act
+        disabled.reconcileScheduled();
+
+        // Assert
+        verifyNoInteractions(rankedListRepository, rankedListCardRepository);
+    }
+}
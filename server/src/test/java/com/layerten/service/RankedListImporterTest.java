@@ -0,0 +1,113 @@
+package com.layerten.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.layerten.dto.ImportListRequest;
+import com.layerten.dto.ListImportReport;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for RankedListImporter.
+ */
+@ExtendWith(MockitoExtension.class)
+class RankedListImporterTest {
+
+    @Mock
+    private RankedListService rankedListService;
+
+    private ValidatorFactory validatorFactory;
+    private RankedListImporter importer;
+
+    @BeforeEach
+    void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        importer = new RankedListImporter(rankedListService, new ObjectMapper(), validatorFactory.getValidator(), 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importNdjson_shouldImportEveryLineAndReportThroughput() throws IOException {
+        // Arrange
+        InputStream body = ndjson(
+            "{\"title\":\"Top Films\",\"intro\":\"Intro\",\"tagIds\":[1],"
+                + "\"entries\":[{\"rank\":1,\"title\":\"First\"},{\"rank\":2,\"title\":\"Second\"}]}",
+            "",
+            "{\"title\":\"Top Books\",\"intro\":\"Intro\"}");
+        when(rankedListService.importLists(anyList())).thenReturn(List.of("top-films", "top-books"));
+
+        // Act
+        ListImportReport report = importer.importNdjson(body);
+
+        // Assert
+        ArgumentCaptor<List<ImportListRequest>> requests = ArgumentCaptor.forClass(List.class);
+        verify(rankedListService).importLists(requests.capture());
+        assertEquals(List.of("Top Films", "Top Books"),
+            requests.getValue().stream().map(ImportListRequest::title).toList());
+        assertEquals(2, report.lists());
+        assertEquals(2, report.entries());
+        assertEquals(List.of("top-films", "top-books"), report.slugs());
+        assertTrue(report.listsPerSecond() > 0);
+    }
+
+    @Test
+    void importNdjson_shouldRejectInvalidLineWithoutImportingAny() {
+        // Arrange
+        InputStream body = ndjson(
+            "{\"title\":\"Top Films\",\"intro\":\"Intro\"}",
+            "{\"title\":\"Top Books\",\"intro\":\"Intro\",\"entries\":[{\"rank\":0,\"title\":\"First\"}]}");
+
+        // Act & Assert
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> importer.importNdjson(body));
+        assertEquals("Line 2, entries[0].rank: Rank must be a positive integer", e.getMessage());
+        verify(rankedListService, never()).importLists(any());
+    }
+
+    @Test
+    void importNdjson_shouldRejectMalformedLine() {
+        // Arrange
+        InputStream body = ndjson("{\"title\":\"Top Films\",\"intro\":\"Intro\"}", "{\"title\":");
+
+        // Act & Assert
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> importer.importNdjson(body));
+        assertTrue(e.getMessage().startsWith("Line 2: "), e.getMessage());
+        verify(rankedListService, never()).importLists(any());
+    }
+
+    @Test
+    void importLists_shouldRejectMoreListsThanAllowed() {
+        // Arrange
+        ImportListRequest request = new ImportListRequest("Top Films", null, "Intro", null, null, null, null);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+            () -> importer.importLists(List.of(request, request, request)));
+        verify(rankedListService, never()).importLists(any());
+    }
+
+    private static InputStream ndjson(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+}
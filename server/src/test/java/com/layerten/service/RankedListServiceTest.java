@@ -4,15 +4,19 @@ import com.layerten.dto.*;
 import com.layerten.entity.MediaAsset;
 import com.layerten.entity.RankedEntry;
 import com.layerten.entity.RankedList;
+import com.layerten.entity.RankedListCard;
 import com.layerten.entity.Tag;
+import com.layerten.exception.StaleVersionException;
 import com.layerten.repository.MediaAssetRepository;
 import com.layerten.repository.RankedEntryRepository;
+import com.layerten.repository.RankedListCardRepository;
 import com.layerten.repository.RankedListRepository;
 import com.layerten.repository.TagRepository;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -20,6 +24,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -37,6 +42,9 @@ class RankedListServiceTest {
     @Mock
     private RankedListRepository rankedListRepository;
     
+    @Mock
+    private RankedListCardRepository rankedListCardRepository;
+    
     @Mock
     private RankedEntryRepository rankedEntryRepository;
     
@@ -49,10 +57,17 @@ class RankedListServiceTest {
     @Mock
     private SlugService slugService;
     
+    @Mock
+    private ListFacetIndex listFacetIndex;
+    
+    @Mock
+    private TagUsageCounter tagUsageCounter;
+    
     @InjectMocks
     private RankedListService rankedListService;
     
     private RankedList testList;
+    private RankedListCard testCard;
     private Tag testTag;
     private MediaAsset testMedia;
     
@@ -69,6 +84,11 @@ class RankedListServiceTest {
         testList.setPublishedAt(LocalDateTime.now());
         testList.setCoverImage(testMedia);
         testList.addTag(testTag);
+        
+        testList.setEntryCount(10);
+        
+        testCard = new RankedListCard(1L);
+        testCard.update(testList);
     }
     
     @Test
@@ -98,6 +118,15 @@ class RankedListServiceTest {
         assertEquals("Top 10 Movies", result.title());
         assertEquals("top-10-movies", result.slug());
         verify(rankedListRepository).save(any(RankedList.class));
+        
+        ArgumentCaptor<RankedListCard> card = ArgumentCaptor.forClass(RankedListCard.class);
+        verify(rankedListCardRepository).save(card.capture());
+        assertEquals(1L, card.getValue().getId());
+        assertEquals("top-10-movies", card.getValue().getSlug());
+        assertEquals(1L, card.getValue().getCoverImageId());
+        assertArrayEquals(new String[] {"technology"}, card.getValue().getTagSlugs());
+        verify(listFacetIndex).update(1L, true, new String[] {"technology"});
+        verify(tagUsageCounter).updateList(1L, true, List.of(1L));
     }
     
     @Test
@@ -155,15 +184,15 @@ class RankedListServiceTest {
         when(rankedListRepository.findById(1L)).thenReturn(Optional.of(testList));
         when(slugService.generateSlug("Updated Title")).thenReturn("updated-title");
         when(slugService.ensureUniqueSlugExcluding("updated-title", RankedList.class, 1L)).thenReturn("updated-title");
-        when(rankedListRepository.save(any(RankedList.class))).thenReturn(testList);
+        when(rankedListRepository.saveAndFlush(any(RankedList.class))).thenReturn(testList);
         when(rankedEntryRepository.findByRankedListOrderByRankDesc(any(RankedList.class))).thenReturn(Collections.emptyList());
         
         // Act
-        RankedListDetailDTO result = rankedListService.updateList(1L, request);
+        RankedListDetailDTO result = rankedListService.updateList(1L, request, null);
         
         // Assert
         assertNotNull(result);
-        verify(rankedListRepository).save(any(RankedList.class));
+        verify(rankedListRepository).saveAndFlush(any(RankedList.class));
     }
     
     @Test
@@ -181,7 +210,21 @@ class RankedListServiceTest {
         when(rankedListRepository.findById(999L)).thenReturn(Optional.empty());
         
         // Act & Assert
-        assertThrows(EntityNotFoundException.class, () -> rankedListService.updateList(999L, request));
+        assertThrows(EntityNotFoundException.class, () -> rankedListService.updateList(999L, request, null));
+    }
+    
+    @Test
+    void updateList_shouldRejectEditBasedOnStaleVersion() {
+        // Arrange
+        testList.setVersion(7L);
+        UpdateListRequest request = new UpdateListRequest("Updated Title", null, null, null, null, null);
+        
+        when(rankedListRepository.findById(1L)).thenReturn(Optional.of(testList));
+        
+        // Act & Assert
+        assertThrows(StaleVersionException.class, () -> rankedListService.updateList(1L, request, 6L));
+        assertEquals("Top 10 Movies", testList.getTitle());
+        verify(rankedListRepository, never()).saveAndFlush(any());
     }
     
     @Test
@@ -193,7 +236,10 @@ class RankedListServiceTest {
         rankedListService.deleteList(1L);
         
         // Assert
+        verify(rankedListCardRepository).deleteById(1L);
         verify(rankedListRepository).deleteById(1L);
+        verify(listFacetIndex).remove(1L);
+        verify(tagUsageCounter).removeList(1L);
     }
     
     @Test
@@ -240,69 +286,296 @@ class RankedListServiceTest {
     void searchLists_shouldReturnAllPublishedListsWhenNoFilters() {
         // Arrange
         Pageable pageable = PageRequest.of(0, 10);
-        Page<RankedList> page = new PageImpl<>(Collections.singletonList(testList));
+        Page<RankedListCard> page = new PageImpl<>(Collections.singletonList(testCard));
         
-        when(rankedListRepository.findByPublishedAtIsNotNull(pageable)).thenReturn(page);
+        when(rankedListCardRepository.findByPublishedAtIsNotNull(pageable)).thenReturn(page);
+        when(mediaAssetRepository.findAllById(Set.of(1L))).thenReturn(List.of(testMedia));
+        when(tagRepository.findBySlugIn(Set.of("technology"))).thenReturn(List.of(testTag));
         
         // Act
-        Page<RankedListSummaryDTO> result = rankedListService.searchLists(null, null, pageable);
+        Page<RankedListSummaryDTO> result = rankedListService.searchLists(null, null, TagMatch.ALL, pageable);
         
         // Assert
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
-        verify(rankedListRepository).findByPublishedAtIsNotNull(pageable);
+        RankedListSummaryDTO summary = result.getContent().get(0);
+        assertEquals("top-10-movies", summary.slug());
+        assertEquals(1L, summary.coverImage().id());
+        assertEquals(Set.of(new TagDTO(1L, "Technology", "technology")), summary.tags());
+        assertEquals(10, summary.entryCount());
+        verify(rankedListCardRepository).findByPublishedAtIsNotNull(pageable);
+        verifyNoInteractions(rankedListRepository, rankedEntryRepository);
     }
     
     @Test
     void searchLists_shouldFilterBySearchTerm() {
         // Arrange
         Pageable pageable = PageRequest.of(0, 10);
-        Page<RankedList> page = new PageImpl<>(Collections.singletonList(testList));
+        Page<RankedListCard> page = new PageImpl<>(Collections.singletonList(testCard));
         
-        when(rankedListRepository.findPublishedByTitleOrIntroContaining("movies", pageable)).thenReturn(page);
+        when(rankedListCardRepository.findPublishedByTitleOrIntroContaining("movies", pageable)).thenReturn(page);
         
         // Act
-        Page<RankedListSummaryDTO> result = rankedListService.searchLists("movies", null, pageable);
+        Page<RankedListSummaryDTO> result = rankedListService.searchLists("movies", null, TagMatch.ALL, pageable);
         
         // Assert
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
-        verify(rankedListRepository).findPublishedByTitleOrIntroContaining("movies", pageable);
+        verify(rankedListCardRepository).findPublishedByTitleOrIntroContaining("movies", pageable);
     }
     
     @Test
-    void searchLists_shouldFilterByTag() {
+    @SuppressWarnings("unchecked")
+    void searchLists_shouldFilterByTagSlugs() {
         // Arrange
         Pageable pageable = PageRequest.of(0, 10);
-        Page<RankedList> page = new PageImpl<>(Collections.singletonList(testList));
+        Page<RankedListCard> page = new PageImpl<>(Collections.singletonList(testCard));
         
-        when(rankedListRepository.findPublishedByTagName("Technology", pageable)).thenReturn(page);
+        when(rankedListCardRepository.findAll(any(Specification.class), eq(pageable))).thenReturn(page);
         
         // Act
-        Page<RankedListSummaryDTO> result = rankedListService.searchLists(null, "Technology", pageable);
+        Page<RankedListSummaryDTO> result = rankedListService.searchLists(
+            null, List.of("technology", "movies"), TagMatch.ANY, pageable);
         
         // Assert
-        assertNotNull(result);
         assertEquals(1, result.getTotalElements());
-        verify(rankedListRepository).findPublishedByTagName("Technology", pageable);
+        verify(rankedListCardRepository).findAll(any(Specification.class), eq(pageable));
+        verifyNoMoreInteractions(rankedListCardRepository);
     }
     
     @Test
+    @SuppressWarnings("unchecked")
     void searchLists_shouldFilterByBothSearchAndTag() {
         // Arrange
         Pageable pageable = PageRequest.of(0, 10);
-        Page<RankedList> page = new PageImpl<>(Collections.singletonList(testList));
+        Page<RankedListCard> page = new PageImpl<>(Collections.singletonList(testCard));
         
-        when(rankedListRepository.findPublishedByTagNameAndTitleOrIntroContaining("Technology", "movies", pageable))
-            .thenReturn(page);
+        when(rankedListCardRepository.findAll(any(Specification.class), eq(pageable))).thenReturn(page);
         
         // Act
-        Page<RankedListSummaryDTO> result = rankedListService.searchLists("movies", "Technology", pageable);
+        Page<RankedListSummaryDTO> result = rankedListService.searchLists(
+            "movies", List.of("technology"), TagMatch.ALL, pageable);
         
         // Assert
-        assertNotNull(result);
         assertEquals(1, result.getTotalElements());
-        verify(rankedListRepository).findPublishedByTagNameAndTitleOrIntroContaining("Technology", "movies", pageable);
+        verify(rankedListCardRepository).findAll(any(Specification.class), eq(pageable));
+        verify(rankedListCardRepository, never()).findPublishedByTitleOrIntroContaining(any(), any());
+    }
+    
+    @Test
+    void searchLists_shouldIgnoreBlankTags() {
+        // Arrange
+        Pageable pageable = PageRequest.of(0, 10);
+        when(rankedListCardRepository.findByPublishedAtIsNotNull(pageable)).thenReturn(Page.empty(pageable));
+        
+        // Act
+        Page<RankedListSummaryDTO> result = rankedListService.searchLists(null, List.of(" "), TagMatch.ALL, pageable);
+        
+        // Assert
+        assertTrue(result.isEmpty());
+        verify(rankedListCardRepository).findByPublishedAtIsNotNull(pageable);
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void browseLists_shouldCombinePageWithTagCountsMostUsedFirst() {
+        // Arrange
+        Pageable pageable = PageRequest.of(0, 10);
+        Tag movies = new Tag("Movies", "movies");
+        movies.setId(2L);
+        when(rankedListCardRepository.findAll(any(Specification.class), eq(pageable)))
+            .thenReturn(new PageImpl<>(Collections.singletonList(testCard)));
+        when(listFacetIndex.facets(List.of("technology"), TagMatch.ALL))
+            .thenReturn(new ListFacetIndex.Facets(3, Map.of("technology", 3L, "movies", 1L, "deleted", 2L)));
+        when(tagRepository.findBySlugIn(Set.of("technology", "movies", "deleted"))).thenReturn(List.of(movies, testTag));
+        when(tagRepository.findBySlugIn(Set.of("technology"))).thenReturn(List.of(testTag));
+        
+        // Act
+        ListFacetsDTO result = rankedListService.browseLists(List.of("technology", ""), TagMatch.ALL, pageable);
+        
+        // Assert
+        assertEquals(1, result.lists().getTotalElements());
+        assertEquals(3, result.total());
+        assertEquals(List.of(
+            new TagFacetDTO("technology", "Technology", 3),
+            new TagFacetDTO("movies", "Movies", 1)), result.facets());
+    }
+    
+    @Test
+    void addEntry_shouldCountEntryOnListAndCard() {
+        // Arrange
+        CreateEntryRequest request = new CreateEntryRequest(10, "Entry 10", "Blurb", null, null, null, null);
+        
+        when(rankedListRepository.findById(1L)).thenReturn(Optional.of(testList));
+        when(rankedEntryRepository.save(any(RankedEntry.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(rankedListCardRepository.findById(1L)).thenReturn(Optional.of(testCard));
+        
+        // Act
+        rankedListService.addEntry(1L, request);
+        
+        // Assert
+        assertEquals(11, testList.getEntryCount());
+        verify(rankedListCardRepository).save(testCard);
+        assertEquals(11, testCard.getEntryCount());
+    }
+    
+    @Test
+    void addEntry_shouldRejectTakenRank() {
+        // Arrange
+        CreateEntryRequest request = new CreateEntryRequest(3, "Entry 3", "Blurb", null, null, null, null);
+        
+        when(rankedListRepository.findById(1L)).thenReturn(Optional.of(testList));
+        when(rankedEntryRepository.existsByRankedListIdAndRank(1L, 3)).thenReturn(true);
+        
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> rankedListService.addEntry(1L, request));
+        assertEquals(10, testList.getEntryCount());
+        verify(rankedEntryRepository, never()).save(any());
+    }
+    
+    @Test
+    void updateEntry_shouldCountRankChangeAsListChange() {
+        // Arrange
+        RankedEntry entry = new RankedEntry(10, "Entry 10", "Blurb", null, null, null);
+        entry.setId(1L);
+        entry.setRankedList(testList);
+        CreateEntryRequest request = new CreateEntryRequest(11, "Entry 11", "Blurb", null, null, null, null);
+        
+        when(rankedEntryRepository.findById(1L)).thenReturn(Optional.of(entry));
+        when(rankedEntryRepository.saveAndFlush(entry)).thenReturn(entry);
+        
+        // Act
+        RankedEntryDTO result = rankedListService.updateEntry(1L, 1L, request, null);
+        
+        // Assert
+        assertEquals(11, result.rank());
+        verify(rankedListRepository).findForEntryChangeById(1L);
+    }
+    
+    @Test
+    void updateEntry_shouldRejectEditBasedOnStaleVersion() {
+        // Arrange
+        RankedEntry entry = new RankedEntry(10, "Entry 10", "Blurb", null, null, null);
+        entry.setId(1L);
+        entry.setRankedList(testList);
+        entry.setVersion(2L);
+        CreateEntryRequest request = new CreateEntryRequest(10, "Renamed", "Blurb", null, null, null, null);
+        
+        when(rankedEntryRepository.findById(1L)).thenReturn(Optional.of(entry));
+        
+        // Act & Assert
+        assertThrows(StaleVersionException.class, () -> rankedListService.updateEntry(1L, 1L, request, 1L));
+        assertEquals("Entry 10", entry.getTitle());
+    }
+    
+    @Test
+    void refreshTaggedLists_shouldRewriteCardSlugsAfterRename() {
+        // Arrange
+        testTag.setSlug("tech");
+        when(rankedListRepository.findByTagsId(1L)).thenReturn(List.of(testList));
+        when(rankedListCardRepository.findById(1L)).thenReturn(Optional.of(testCard));
+        
+        // Act
+        rankedListService.refreshTaggedLists(1L);
+        
+        // Assert
+        assertArrayEquals(new String[] {"tech"}, testCard.getTagSlugs());
+        verify(rankedListCardRepository).save(testCard);
+        verify(listFacetIndex).update(1L, true, new String[] {"tech"});
+    }
+    
+    @Test
+    void removeTagFromLists_shouldUntagListsAndUncountThem() {
+        // Arrange
+        when(rankedListRepository.findByTagsId(1L)).thenReturn(List.of(testList));
+        when(rankedListCardRepository.findById(1L)).thenReturn(Optional.of(testCard));
+        
+        // Act
+        rankedListService.removeTagFromLists(testTag);
+        
+        // Assert
+        assertTrue(testList.getTags().isEmpty());
+        assertArrayEquals(new String[0], testCard.getTagSlugs());
+        verify(listFacetIndex).update(1L, true, new String[0]);
+        verify(tagUsageCounter).updateList(1L, true, List.of());
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void importLists_shouldCreateListsEntriesAndCardsWithUniqueSlugs() {
+        // Arrange
+        List<ImportListRequest> requests = List.of(
+            new ImportListRequest("Top Films", null, "Intro", null, 1L, Set.of(1L), List.of(
+                new CreateEntryRequest(1, "First", null, null, null, null, 1L),
+                new CreateEntryRequest(2, "Second", null, null, null, null, null))),
+            new ImportListRequest("Top Films", null, "Intro", null, null, null, null)
+        );
+        
+        when(tagRepository.findAllById(Set.of(1L))).thenReturn(List.of(testTag));
+        when(mediaAssetRepository.findAllById(Set.of(1L))).thenReturn(List.of(testMedia));
+        when(slugService.generateSlug("Top Films")).thenReturn("top-films");
+        when(slugService.ensureUniqueSlugs(List.of("top-films", "top-films"), RankedList.class))
+            .thenReturn(List.of("top-films", "top-films-2"));
+        when(rankedListRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<RankedList> lists = invocation.getArgument(0);
+            for (int i = 0; i < lists.size(); i++) {
+                lists.get(i).setId(10L + i);
+            }
+            return lists;
+        });
+        
+        // Act
+        List<String> slugs = rankedListService.importLists(requests);
+        
+        // Assert
+        assertEquals(List.of("top-films", "top-films-2"), slugs);
+        ArgumentCaptor<List<RankedList>> lists = ArgumentCaptor.forClass(List.class);
+        verify(rankedListRepository).saveAll(lists.capture());
+        RankedList imported = lists.getValue().get(0);
+        assertEquals(2, imported.getEntryCount());
+        assertSame(testMedia, imported.getCoverImage());
+        assertNotNull(imported.getPublishedAt());
+        
+        ArgumentCaptor<List<RankedListCard>> cards = ArgumentCaptor.forClass(List.class);
+        verify(rankedListCardRepository).saveAll(cards.capture());
+        assertEquals(List.of(10L, 11L), cards.getValue().stream().map(RankedListCard::getId).toList());
+        assertArrayEquals(new String[] {"technology"}, cards.getValue().get(0).getTagSlugs());
+        assertTrue(cards.getValue().get(0).isNew());
+        verify(tagRepository, never()).findById(any());
+        verify(listFacetIndex).update(10L, true, new String[] {"technology"});
+        verify(listFacetIndex).update(11L, true, new String[0]);
+        verify(tagUsageCounter).updateList(10L, true, List.of(1L));
+        verify(tagUsageCounter).updateList(11L, true, List.of());
+    }
+    
+    @Test
+    void importLists_shouldReportEveryMissingReferenceBeforeSaving() {
+        // Arrange
+        List<ImportListRequest> requests = List.of(
+            new ImportListRequest("Top Films", null, "Intro", null, null, Set.of(1L, 7L, 9L), null)
+        );
+        
+        when(tagRepository.findAllById(Set.of(1L, 7L, 9L))).thenReturn(List.of(testTag));
+        
+        // Act & Assert
+        EntityNotFoundException e = assertThrows(EntityNotFoundException.class,
+            () -> rankedListService.importLists(requests));
+        assertEquals("Tag IDs not found: [7, 9]", e.getMessage());
+        verify(rankedListRepository, never()).saveAll(any());
+    }
+    
+    @Test
+    void importLists_shouldRejectDuplicateRanksWithinAList() {
+        // Arrange
+        List<ImportListRequest> requests = List.of(
+            new ImportListRequest("Top Films", null, "Intro", null, null, null, List.of(
+                new CreateEntryRequest(1, "First", null, null, null, null, null),
+                new CreateEntryRequest(1, "Also first", null, null, null, null, null)))
+        );
+        
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> rankedListService.importLists(requests));
+        verify(rankedListRepository, never()).saveAll(any());
     }
     
     @Test
@@ -321,13 +594,12 @@ class RankedListServiceTest {
             new EntryRankUpdate(2L, 6)
         );
         
-        when(rankedListRepository.existsById(1L)).thenReturn(true);
-        when(rankedEntryRepository.findById(1L)).thenReturn(Optional.of(entry1));
-        when(rankedEntryRepository.findById(2L)).thenReturn(Optional.of(entry2));
+        when(rankedListRepository.findForEntryChangeById(1L)).thenReturn(Optional.of(testList));
+        when(rankedEntryRepository.findByRankedListIdOrderByRankDesc(1L)).thenReturn(List.of(entry1, entry2));
         when(rankedEntryRepository.save(any(RankedEntry.class))).thenAnswer(i -> i.getArgument(0));
         
         // Act
-        rankedListService.reorderEntries(1L, updates);
+        rankedListService.reorderEntries(1L, updates, null);
         
         // Assert
         verify(rankedEntryRepository, times(2)).save(any(RankedEntry.class));
@@ -335,15 +607,52 @@ class RankedListServiceTest {
         assertEquals(6, entry2.getRank());
     }
     
+    @Test
+    void reorderEntries_shouldAllowSwapsButRejectSharedRanks() {
+        // Arrange
+        RankedEntry entry1 = new RankedEntry(10, "Entry 10", "Blurb", "Commentary", null, null);
+        entry1.setId(1L);
+        entry1.setRankedList(testList);
+        
+        RankedEntry entry2 = new RankedEntry(9, "Entry 9", "Blurb", "Commentary", null, null);
+        entry2.setId(2L);
+        entry2.setRankedList(testList);
+        
+        when(rankedListRepository.findForEntryChangeById(1L)).thenReturn(Optional.of(testList));
+        when(rankedEntryRepository.findByRankedListIdOrderByRankDesc(1L)).thenReturn(List.of(entry1, entry2));
+        
+        // Act
+        rankedListService.reorderEntries(1L, List.of(new EntryRankUpdate(1L, 9), new EntryRankUpdate(2L, 10)), null);
+        
+        // Assert
+        assertEquals(9, entry1.getRank());
+        assertEquals(10, entry2.getRank());
+        assertThrows(IllegalArgumentException.class,
+            () -> rankedListService.reorderEntries(1L, List.of(new EntryRankUpdate(1L, 10)), null));
+    }
+    
+    @Test
+    void reorderEntries_shouldRejectReorderBasedOnStaleVersion() {
+        // Arrange
+        testList.setVersion(3L);
+        
+        when(rankedListRepository.findForEntryChangeById(1L)).thenReturn(Optional.of(testList));
+        
+        // Act & Assert
+        assertThrows(StaleVersionException.class,
+            () -> rankedListService.reorderEntries(1L, List.of(new EntryRankUpdate(1L, 5)), 2L));
+        verify(rankedEntryRepository, never()).save(any());
+    }
+    
     @Test
     void reorderEntries_shouldThrowExceptionWhenListNotFound() {
         // Arrange
         List<EntryRankUpdate> updates = Collections.singletonList(new EntryRankUpdate(1L, 5));
         
-        when(rankedListRepository.existsById(999L)).thenReturn(false);
+        when(rankedListRepository.findForEntryChangeById(999L)).thenReturn(Optional.empty());
         
         // Act & Assert
-        assertThrows(EntityNotFoundException.class, () -> rankedListService.reorderEntries(999L, updates));
+        assertThrows(EntityNotFoundException.class, () -> rankedListService.reorderEntries(999L, updates, null));
     }
     
     @Test
@@ -351,11 +660,11 @@ class RankedListServiceTest {
         // Arrange
         List<EntryRankUpdate> updates = Collections.singletonList(new EntryRankUpdate(999L, 5));
         
-        when(rankedListRepository.existsById(1L)).thenReturn(true);
+        when(rankedListRepository.findForEntryChangeById(1L)).thenReturn(Optional.of(testList));
         when(rankedEntryRepository.findById(999L)).thenReturn(Optional.empty());
         
         // Act & Assert
-        assertThrows(EntityNotFoundException.class, () -> rankedListService.reorderEntries(1L, updates));
+        assertThrows(EntityNotFoundException.class, () -> rankedListService.reorderEntries(1L, updates, null));
     }
     
     @Test
@@ -370,10 +679,10 @@ class RankedListServiceTest {
         
         List<EntryRankUpdate> updates = Collections.singletonList(new EntryRankUpdate(1L, 5));
         
-        when(rankedListRepository.existsById(1L)).thenReturn(true);
+        when(rankedListRepository.findForEntryChangeById(1L)).thenReturn(Optional.of(testList));
         when(rankedEntryRepository.findById(1L)).thenReturn(Optional.of(entry));
         
         // Act & Assert
-        assertThrows(IllegalArgumentException.class, () -> rankedListService.reorderEntries(1L, updates));
+        assertThrows(IllegalArgumentException.class, () -> rankedListService.reorderEntries(1L, updates, null));
     }
 }
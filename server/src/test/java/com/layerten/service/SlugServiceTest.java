@@ -4,13 +4,21 @@ import com.layerten.entity.RankedList;
 import com.layerten.repository.BlogPostRepository;
 import com.layerten.repository.RankedListRepository;
 import com.layerten.repository.TagRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaQuery;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 /**
@@ -28,6 +36,12 @@ class SlugServiceTest {
     @Mock
     private TagRepository tagRepository;
     
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private EntityManager entityManager;
+    
+    @Mock
+    private TypedQuery<String> takenSlugs;
+    
     @InjectMocks
     private SlugService slugService;
     
@@ -132,4 +146,33 @@ class SlugServiceTest {
         // Assert
         assertEquals("top-10-movies-3", slug);
     }
+    
+    @Test
+    void ensureUniqueSlug_shouldSkipReservedListSlugs() {
+        // Arrange
+        when(rankedListRepository.existsBySlug("facets-2")).thenReturn(false);
+        
+        // Act
+        String slug = slugService.ensureUniqueSlug("facets", RankedList.class);
+        
+        // Assert
+        assertEquals("facets-2", slug);
+        verify(rankedListRepository, never()).existsBySlug("facets");
+    }
+    
+    @Test
+    void ensureUniqueSlugs_shouldAssignSuffixesFromOneLookup() {
+        // Arrange - the one query returns every taken slug with any of the bases
+        when(entityManager.createQuery(ArgumentMatchers.<CriteriaQuery<String>>any())).thenReturn(takenSlugs);
+        when(takenSlugs.getResultList()).thenReturn(List.of("top-films", "top-films-2", "top-films-4", "facets-2"));
+        
+        // Act
+        List<String> slugs = slugService.ensureUniqueSlugs(
+            List.of("top-films", "top-books", "top-films", "facets", "top-films"), RankedList.class);
+        
+        // Assert
+        assertEquals(List.of("top-films-3", "top-books", "top-films-5", "facets-3", "top-films-6"), slugs);
+        verify(takenSlugs, times(1)).getResultList();
+        verifyNoInteractions(rankedListRepository);
+    }
 }
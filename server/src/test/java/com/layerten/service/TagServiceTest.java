@@ -0,0 +1,199 @@
+package com.layerten.service;
+
+import com.layerten.dto.CreateTagRequest;
+import com.layerten.dto.TagUsageDTO;
+import com.layerten.dto.UpdateTagRequest;
+import com.layerten.entity.Tag;
+import com.layerten.repository.TagRepository;
+import com.layerten.service.TagUsageCounter.TagUsage;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for TagService.
+ */
+@ExtendWith(MockitoExtension.class)
+class TagServiceTest {
+    
+    @Mock
+    private TagRepository tagRepository;
+    
+    @Mock
+    private RankedListService rankedListService;
+    
+    @Mock
+    private BlogPostService blogPostService;
+    
+    @Mock
+    private SlugService slugService;
+    
+    @Mock
+    private TagUsageCounter tagUsageCounter;
+    
+    @InjectMocks
+    private TagService tagService;
+    
+    private Tag movies;
+    private Tag books;
+    
+    @BeforeEach
+    void setUp() {
+        movies = new Tag("Movies", "movies");
+        movies.setId(1L);
+        books = new Tag("Books", "books");
+        books.setId(2L);
+    }
+    
+    @Test
+    void getTagCloud_shouldListTagsInUseByNameUntilCountsChange() {
+        // Arrange
+        Map<Long, TagUsage> usage = Map.of(1L, new TagUsage(3, 1), 2L, new TagUsage(0, 2));
+        Map<Long, TagUsage> changed = Map.of(1L, new TagUsage(4, 1));
+        when(tagUsageCounter.usage()).thenReturn(usage).thenReturn(usage).thenReturn(changed);
+        when(tagRepository.findAllById(usage.keySet())).thenReturn(List.of(movies, books));
+        when(tagRepository.findAllById(changed.keySet())).thenReturn(List.of(movies));
+        
+        // Act
+        List<TagUsageDTO> first = tagService.getTagCloud();
+        List<TagUsageDTO> cached = tagService.getTagCloud();
+        List<TagUsageDTO> recounted = tagService.getTagCloud();
+        
+        // Assert
+        assertEquals(List.of(
+            new TagUsageDTO(2L, "Books", "books", 0, 2),
+            new TagUsageDTO(1L, "Movies", "movies", 3, 1)), first);
+        assertSame(first, cached);
+        assertEquals(List.of(new TagUsageDTO(1L, "Movies", "movies", 4, 1)), recounted);
+        verify(tagRepository).findAllById(usage.keySet());
+    }
+    
+    @Test
+    void getAllTags_shouldIncludeUnusedTags() {
+        // Arrange
+        when(tagUsageCounter.usage()).thenReturn(Map.of(1L, new TagUsage(3, 1)));
+        when(tagRepository.findAllByOrderByNameAsc()).thenReturn(List.of(books, movies));
+        
+        // Act
+        List<TagUsageDTO> result = tagService.getAllTags();
+        
+        // Assert
+        assertEquals(List.of(
+            new TagUsageDTO(2L, "Books", "books", 0, 0),
+            new TagUsageDTO(1L, "Movies", "movies", 3, 1)), result);
+    }
+    
+    @Test
+    void createTag_shouldCreateTagWithGeneratedSlug() {
+        // Arrange
+        when(tagRepository.existsByName("Sci-Fi")).thenReturn(false);
+        when(slugService.generateSlug("Sci-Fi")).thenReturn("sci-fi");
+        when(slugService.ensureUniqueSlug("sci-fi", Tag.class)).thenReturn("sci-fi");
+        when(tagRepository.save(any(Tag.class))).thenAnswer(invocation -> {
+            Tag tag = invocation.getArgument(0);
+            tag.setId(3L);
+            return tag;
+        });
+        
+        // Act
+        TagUsageDTO result = tagService.createTag(new CreateTagRequest(" Sci-Fi "));
+        
+        // Assert
+        assertEquals(new TagUsageDTO(3L, "Sci-Fi", "sci-fi", 0, 0), result);
+    }
+    
+    @Test
+    void createTag_shouldRejectDuplicateName() {
+        // Arrange
+        when(tagRepository.existsByName("Movies")).thenReturn(true);
+        
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> tagService.createTag(new CreateTagRequest("Movies")));
+        verify(tagRepository, never()).save(any());
+    }
+    
+    @Test
+    void updateTag_shouldCopyNewSlugToListsAndPosts() {
+        // Arrange
+        when(tagRepository.findById(1L)).thenReturn(Optional.of(movies));
+        when(tagRepository.findByName("Films")).thenReturn(Optional.empty());
+        when(slugService.generateSlug("Films")).thenReturn("films");
+        when(slugService.ensureUniqueSlugExcluding("films", Tag.class, 1L)).thenReturn("films");
+        when(tagRepository.save(movies)).thenReturn(movies);
+        when(tagUsageCounter.usage()).thenReturn(Map.of(1L, new TagUsage(3, 1)));
+        
+        // Act
+        TagUsageDTO result = tagService.updateTag(1L, new UpdateTagRequest("Films"));
+        
+        // Assert
+        assertEquals(new TagUsageDTO(1L, "Films", "films", 3, 1), result);
+        verify(rankedListService).refreshTaggedLists(1L);
+        verify(blogPostService).refreshTaggedPosts(1L);
+    }
+    
+    @Test
+    void updateTag_shouldLeaveContentAloneWhenSlugUnchanged() {
+        // Arrange
+        when(tagRepository.findById(1L)).thenReturn(Optional.of(movies));
+        when(tagRepository.findByName("MOVIES")).thenReturn(Optional.empty());
+        when(slugService.generateSlug("MOVIES")).thenReturn("movies");
+        when(slugService.ensureUniqueSlugExcluding("movies", Tag.class, 1L)).thenReturn("movies");
+        when(tagRepository.save(movies)).thenReturn(movies);
+        when(tagUsageCounter.usage()).thenReturn(Map.of());
+        
+        // Act
+        TagUsageDTO result = tagService.updateTag(1L, new UpdateTagRequest("MOVIES"));
+        
+        // Assert
+        assertEquals("MOVIES", result.name());
+        verifyNoInteractions(rankedListService, blogPostService);
+    }
+    
+    @Test
+    void updateTag_shouldRejectNameOfAnotherTag() {
+        // Arrange
+        when(tagRepository.findById(1L)).thenReturn(Optional.of(movies));
+        when(tagRepository.findByName("Books")).thenReturn(Optional.of(books));
+        
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> tagService.updateTag(1L, new UpdateTagRequest("Books")));
+        assertEquals("Movies", movies.getName());
+    }
+    
+    @Test
+    void deleteTag_shouldUntagListsAndPostsBeforeDeleting() {
+        // Arrange
+        when(tagRepository.findById(1L)).thenReturn(Optional.of(movies));
+        
+        // Act
+        tagService.deleteTag(1L);
+        
+        // Assert
+        InOrder order = inOrder(rankedListService, blogPostService, tagRepository);
+        order.verify(rankedListService).removeTagFromLists(movies);
+        order.verify(blogPostService).removeTagFromPosts(movies);
+        order.verify(tagRepository).delete(movies);
+    }
+    
+    @Test
+    void deleteTag_shouldThrowExceptionWhenTagNotFound() {
+        // Arrange
+        when(tagRepository.findById(999L)).thenReturn(Optional.empty());
+        
+        // Act & Assert
+        assertThrows(EntityNotFoundException.class, () -> tagService.deleteTag(999L));
+    }
+}
@@ -0,0 +1,105 @@
+package com.layerten.service;
+
+import com.layerten.repository.TagRepository;
+import com.layerten.repository.TagRepository.TagAssignment;
+import com.layerten.service.TagUsageCounter.TagUsage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for TagUsageCounter.
+ */
+@ExtendWith(MockitoExtension.class)
+class TagUsageCounterTest {
+
+    @Mock
+    private TagRepository tagRepository;
+
+    private TagUsageCounter counter;
+
+    @BeforeEach
+    void setUp() {
+        counter = new TagUsageCounter(tagRepository);
+        when(tagRepository.findPublishedListTags()).thenReturn(List.of(
+            assignment(1L, 10L), assignment(1L, 20L), assignment(2L, 10L)));
+        when(tagRepository.findPublishedPostTags()).thenReturn(List.of(assignment(1L, 20L)));
+        counter.rebuild();
+    }
+
+    @Test
+    void rebuild_shouldCountPublishedListsAndPostsPerTag() {
+        // Assert
+        assertEquals(Map.of(10L, new TagUsage(2, 0), 20L, new TagUsage(1, 1)), counter.usage());
+    }
+
+    @Test
+    void update_shouldAdjustOnlyGainedAndLostTags() {
+        // Act
+        counter.updateList(1L, true, List.of(10L, 30L));
+        counter.updateList(1L, true, List.of(10L, 30L));
+        counter.updateList(2L, false, List.of(10L));
+        counter.updatePost(5L, true, List.of(30L));
+        counter.removePost(1L);
+
+        // Assert
+        assertEquals(Map.of(10L, new TagUsage(1, 0), 30L, new TagUsage(1, 1)), counter.usage());
+    }
+
+    @Test
+    void update_shouldApplyOnlyAfterCommit() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act
+            counter.removeList(2L);
+            TagUsage beforeCommit = counter.usage().get(10L);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+            // Assert
+            assertEquals(new TagUsage(2, 0), beforeCommit);
+            assertEquals(new TagUsage(1, 0), counter.usage().get(10L));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void rebuild_shouldKeepWritesMadeWhileLoading() {
+        // Arrange: a post is published after the load has read the posts
+        when(tagRepository.findPublishedPostTags()).thenAnswer(invocation -> {
+            counter.updatePost(7L, true, List.of(10L));
+            return List.of(assignment(1L, 20L));
+        });
+
+        // Act
+        counter.rebuild();
+
+        // Assert
+        assertEquals(Map.of(10L, new TagUsage(2, 1), 20L, new TagUsage(1, 1)), counter.usage());
+    }
+
+    private static TagAssignment assignment(Long contentId, Long tagId) {
+        return new TagAssignment() {
+            @Override
+            public Long getContentId() {
+                return contentId;
+            }
+
+            @Override
+            public Long getTagId() {
+                return tagId;
+            }
+        };
+    }
+}